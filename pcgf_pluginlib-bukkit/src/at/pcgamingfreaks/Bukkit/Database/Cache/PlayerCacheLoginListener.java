@@ -0,0 +1,85 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit.Database.Cache;
+
+import at.pcgamingfreaks.Database.Cache.PlayerCache;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the players into a {@link PlayerCache} while they are logging in, so that the data is available when they join without blocking the main thread.
+ */
+public class PlayerCacheLoginListener implements Listener
+{
+	private final PlayerCache<?> cache;
+	private final long timeoutMillis;
+	private final String kickMessage;
+
+	/**
+	 * @param plugin The plugin owning the cache.
+	 * @param cache The cache the players should be loaded into.
+	 * @param timeoutMillis The max time in milliseconds the login of a player waits for the player to be loaded.
+	 * @param kickMessage The message shown to players whose data could not be loaded. Null to let them join anyway.
+	 */
+	public PlayerCacheLoginListener(final @NotNull Plugin plugin, final @NotNull PlayerCache<?> cache, final long timeoutMillis, final @Nullable String kickMessage)
+	{
+		this.cache = cache;
+		this.timeoutMillis = timeoutMillis;
+		this.kickMessage = kickMessage;
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+	}
+
+	@EventHandler(priority = EventPriority.HIGHEST) // Not MONITOR, the listener might disallow the login
+	public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event)
+	{
+		if(event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+		try
+		{
+			cache.loadBlocking(event.getUniqueId(), timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			disallow(event);
+		}
+		catch(Exception e)
+		{ // The cache already logs failed loads
+			disallow(event);
+		}
+	}
+
+	private void disallow(final @NotNull AsyncPlayerPreLoginEvent event)
+	{
+		if(kickMessage != null) event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, kickMessage);
+	}
+
+	public void close()
+	{
+		HandlerList.unregisterAll(this);
+	}
+}
\ No newline at end of file
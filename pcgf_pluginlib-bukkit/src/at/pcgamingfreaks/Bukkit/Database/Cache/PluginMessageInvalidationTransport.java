@@ -0,0 +1,120 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit.Database.Cache;
+
+import at.pcgamingfreaks.Bukkit.Util.PluginChannelUtils;
+import at.pcgamingfreaks.Database.Cache.Invalidation.CacheInvalidationBus;
+import at.pcgamingfreaks.Database.Cache.Invalidation.IInvalidationTransport;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.Iterator;
+
+/**
+ * Exchanges the cache invalidation messages with the other servers of the network using the "Forward" sub-channel of the BungeeCord plugin channel.
+ * Plugin messages can only be sent through a player, events published while no player is online will be sent once a player joins.
+ * BungeeCord queues the messages for servers without online players.
+ */
+public class PluginMessageInvalidationTransport implements IInvalidationTransport, PluginMessageListener
+{
+	private static final String BUNGEE_CHANNEL = "BungeeCord", BUNGEE_CHANNEL_NEW = "bungeecord:main";
+
+	private final Plugin plugin;
+	private final String subChannel;
+	private CacheInvalidationBus bus;
+	private BukkitTask flushTask;
+
+	/**
+	 * @param plugin The plugin owning the cache.
+	 */
+	public PluginMessageInvalidationTransport(final @NotNull Plugin plugin)
+	{
+		this(plugin, CacheInvalidationBus.DEFAULT_CHANNEL + "_" + plugin.getName());
+	}
+
+	/**
+	 * @param plugin The plugin owning the cache.
+	 * @param subChannel The sub-channel used for the messages. Must be the same on all servers.
+	 */
+	public PluginMessageInvalidationTransport(final @NotNull Plugin plugin, final @NotNull String subChannel)
+	{
+		this.plugin = plugin;
+		this.subChannel = subChannel;
+	}
+
+	@Override
+	public void start(final @NotNull CacheInvalidationBus bus)
+	{
+		this.bus = bus;
+		PluginChannelUtils.registerOutgoingChannelUnchecked(plugin, BUNGEE_CHANNEL);
+		plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, BUNGEE_CHANNEL, this);
+		flushTask = Bukkit.getScheduler().runTaskTimer(plugin, bus::flush, 1, 1);
+	}
+
+	@Override
+	public boolean send(final @NotNull byte[] message)
+	{
+		Iterator<? extends Player> players = Bukkit.getOnlinePlayers().iterator();
+		if(!players.hasNext()) return false;
+		try(ByteArrayOutputStream stream = new ByteArrayOutputStream(message.length + 64); DataOutputStream out = new DataOutputStream(stream))
+		{
+			out.writeUTF("Forward");
+			out.writeUTF("ALL");
+			out.writeUTF(subChannel);
+			out.writeShort(message.length);
+			out.write(message);
+			out.flush();
+			PluginChannelUtils.sendPluginMessageUnchecked(plugin, players.next(), BUNGEE_CHANNEL, stream.toByteArray());
+			return true;
+		}
+		catch(IOException ignored) {}
+		return false;
+	}
+
+	@Override
+	public void onPluginMessageReceived(final @NotNull String channel, final @NotNull Player player, final @NotNull byte[] message)
+	{
+		if(bus == null || !(BUNGEE_CHANNEL.equals(channel) || BUNGEE_CHANNEL_NEW.equals(channel))) return;
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(message)))
+		{
+			if(!subChannel.equals(in.readUTF())) return;
+			byte[] data = new byte[in.readUnsignedShort()];
+			in.readFully(data);
+			bus.receive(data);
+		}
+		catch(IOException e)
+		{
+			plugin.getLogger().warning("Failed to read cache invalidation message! " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		if(flushTask != null) flushTask.cancel();
+		plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, BUNGEE_CHANNEL, this);
+		// The outgoing channel stays registered, the plugin might use it for other things too
+		bus = null;
+	}
+}
\ No newline at end of file
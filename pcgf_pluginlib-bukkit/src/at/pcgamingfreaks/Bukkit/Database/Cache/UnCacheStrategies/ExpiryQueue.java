@@ -0,0 +1,70 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit.Database.Cache.UnCacheStrategies;
+
+import at.pcgamingfreaks.Database.Cache.BaseExpiryQueueUnCacheStrategy;
+import at.pcgamingfreaks.Database.Cache.IPlayerCache;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+public class ExpiryQueue extends BaseExpiryQueueUnCacheStrategy implements Listener
+{
+	private final BukkitTask task;
+
+	/**
+	 * @param plugin The plugin owning the cache.
+	 * @param cache The cache to uncache the players from. If the cache is thread safe the players are uncached asynchronously.
+	 * @param delayMillis The time in milliseconds after which an offline player gets uncached.
+	 */
+	public ExpiryQueue(final @NotNull Plugin plugin, final @NotNull IPlayerCache cache, final long delayMillis)
+	{
+		super(cache, delayMillis);
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+		long period = TICK_MILLIS / 50;
+		if(cache.isThreadSafe()) task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::tick, period, period);
+		else task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, period, period);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void playerJoinEvent(PlayerJoinEvent event)
+	{
+		cancelUnCache(event.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void playerLeaveEvent(PlayerQuitEvent event)
+	{
+		scheduleUnCache(event.getPlayer().getUniqueId());
+	}
+
+	@Override
+	public void close()
+	{
+		HandlerList.unregisterAll(this);
+		task.cancel();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,152 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit.ItemStackSerializer;
+
+import at.pcgamingfreaks.Compression.CompressedEnvelope;
+import at.pcgamingfreaks.Compression.CompressionCodec;
+import at.pcgamingfreaks.Compression.CompressionDictionary;
+import at.pcgamingfreaks.Compression.LZ4Codec;
+
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Wraps the output of another serializer into a {@link CompressedEnvelope}, allowing to choose the codec and dictionary used to store the items.
+ * Data written by the wrapped serializer without the envelope can still be deserialized.
+ */
+public class CompressedItemStackSerializer implements ItemStackSerializer
+{
+	private final ItemStackSerializer serializer;
+	private final CompressedEnvelope envelope;
+	private Logger logger = null;
+
+	/**
+	 * Creates a serializer using the LZ4 codec with the item NBT dictionary.
+	 *
+	 * @param serializer The serializer that should be wrapped.
+	 */
+	public CompressedItemStackSerializer(final @NotNull ItemStackSerializer serializer)
+	{
+		this(serializer, new LZ4Codec(), CompressionDictionary.ITEM_NBT);
+	}
+
+	/**
+	 * @param serializer The serializer that should be wrapped.
+	 * @param codec The codec used to compress the serialized items.
+	 * @param dictionary The dictionary used to compress the serialized items. Null to compress without dictionary.
+	 */
+	public CompressedItemStackSerializer(final @NotNull ItemStackSerializer serializer, final @NotNull CompressionCodec codec, final @Nullable CompressionDictionary dictionary)
+	{
+		this(serializer, new CompressedEnvelope(codec, dictionary));
+	}
+
+	/**
+	 * @param serializer The serializer that should be wrapped.
+	 * @param envelope The envelope used to compress the serialized items. Register the dictionaries used in the past on it, so that old data stays readable.
+	 */
+	public CompressedItemStackSerializer(final @NotNull ItemStackSerializer serializer, final @NotNull CompressedEnvelope envelope)
+	{
+		this.serializer = serializer;
+		this.envelope = envelope;
+	}
+
+	/**
+	 * Deserialize a serialized byte array to an ItemStack array.
+	 *
+	 * @param data The data that should get deserialized.
+	 * @return The deserialized ItemStack array. null if deserialization failed.
+	 */
+	@Override
+	public ItemStack[] deserialize(byte[] data)
+	{
+		if(data == null) return null;
+		try
+		{
+			return serializer.deserialize(envelope.decode(data));
+		}
+		catch(IOException e)
+		{
+			if(logger != null) logger.warning("Failed to decompress serialized items! " + e.getMessage());
+			else e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Serializes a ItemStack array to a byte array.
+	 *
+	 * @param itemStacks The ItemStacks that should be serialized.
+	 * @return Serialized ItemsStacks as byte array. null if serialization failed.
+	 */
+	@Override
+	public byte[] serialize(ItemStack[] itemStacks)
+	{
+		byte[] data = serializer.serialize(itemStacks);
+		return (data != null) ? envelope.encode(data) : null;
+	}
+
+	@Override
+	public @NotNull List<ItemStack[]> deserializeAll(final @NotNull Collection<byte[]> data)
+	{
+		List<byte[]> decoded = new ArrayList<>(data.size());
+		for(byte[] inventoryData : data)
+		{
+			try
+			{
+				decoded.add((inventoryData != null) ? envelope.decode(inventoryData) : null);
+			}
+			catch(IOException e)
+			{
+				if(logger != null) logger.warning("Failed to decompress serialized items! " + e.getMessage());
+				decoded.add(null);
+			}
+		}
+		return serializer.deserializeAll(decoded);
+	}
+
+	@Override
+	public @NotNull List<byte[]> serializeAll(final @NotNull Collection<ItemStack[]> inventories)
+	{
+		List<byte[]> data = serializer.serializeAll(inventories), encoded = new ArrayList<>(data.size()); // Don't modify the list of the wrapped serializer, it might be immutable
+		for(byte[] inventoryData : data)
+		{
+			encoded.add((inventoryData != null) ? envelope.encode(inventoryData) : null);
+		}
+		return encoded;
+	}
+
+	@Override
+	public boolean checkIsMCVersionCompatible()
+	{
+		return serializer.checkIsMCVersionCompatible();
+	}
+
+	@Override
+	public void setLogger(final @Nullable Logger logger)
+	{
+		this.logger = logger;
+		serializer.setLogger(logger);
+	}
+}
\ No newline at end of file
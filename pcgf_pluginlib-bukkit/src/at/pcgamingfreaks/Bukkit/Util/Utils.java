@@ -26,6 +26,7 @@
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -142,16 +143,70 @@ public static int getPing(final @NotNull Player player)
 	}
 
 	/**
-	 * Sends a nms packet to the client
+	 * Sends a nms packet to the client.
+	 * If batched packet sending is enabled the packet will only be flushed with the next batch.
 	 *
 	 * @param player The player that should receive the packet
 	 * @param packet The packet that should be sent to the client
 	 */
 	public static void sendPacket(final @NotNull Player player, final @NotNull Object packet)
 	{
-		INSTANCE.sendPacket(player, packet);
+		PacketBatcher.sendPacket(player, packet);
 	}
 
+	//region Batched packet sending
+	/**
+	 * Enables batched packet sending. Packets will be written to the players connections without flushing them.
+	 * All connections that received packets get flushed once in the next tick (or when {@link PacketBatcher#DEFAULT_FLUSH_THRESHOLD} packets are pending for a connection).
+	 * The given plugin must call {@link #disableBatchedPacketSending()} when it gets disabled.
+	 *
+	 * @param plugin The plugin that should be used to schedule the flush task.
+	 * @return True if batching has been enabled. False if it was already enabled or is not supported on this server.
+	 */
+	public static boolean enableBatchedPacketSending(final @NotNull Plugin plugin)
+	{
+		return enableBatchedPacketSending(plugin, PacketBatcher.DEFAULT_FLUSH_THRESHOLD);
+	}
+
+	/**
+	 * Enables batched packet sending. Packets will be written to the players connections without flushing them.
+	 * All connections that received packets get flushed once in the next tick (or when the flush threshold is reached for a connection).
+	 * The given plugin must call {@link #disableBatchedPacketSending()} when it gets disabled.
+	 *
+	 * @param plugin The plugin that should be used to schedule the flush task.
+	 * @param flushThreshold The amount of pending packets after which a connection gets flushed immediately.
+	 * @return True if batching has been enabled. False if it was already enabled or is not supported on this server.
+	 */
+	public static boolean enableBatchedPacketSending(final @NotNull Plugin plugin, final int flushThreshold)
+	{
+		return PacketBatcher.enable(plugin, flushThreshold);
+	}
+
+	/**
+	 * Disables batched packet sending and flushes all pending packets.
+	 */
+	public static void disableBatchedPacketSending()
+	{
+		PacketBatcher.disable();
+	}
+
+	/**
+	 * @return True if batched packet sending is enabled.
+	 */
+	public static boolean isBatchedPacketSendingEnabled()
+	{
+		return PacketBatcher.isEnabled();
+	}
+
+	/**
+	 * Flushes all packets that are pending because of batched packet sending.
+	 */
+	public static void flushPackets()
+	{
+		PacketBatcher.flushPending();
+	}
+	//endregion
+
 	//region Location stuff
 	/**
 	 * Calculates the distance between two players
@@ -18,6 +18,7 @@
 package at.pcgamingfreaks.Bukkit.ItemStackSerializer;
 
 import at.pcgamingfreaks.Bukkit.MCVersion;
+import at.pcgamingfreaks.Compression.CompressedEnvelope;
 import at.pcgamingfreaks.TestClasses.TestBukkitServer;
 import at.pcgamingfreaks.TestClasses.TestObjects;
 import at.pcgamingfreaks.TestClasses.TestUtils;
@@ -36,6 +37,9 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -99,4 +103,34 @@ public void testCheckIsMCVersionCompatible() throws NoSuchFieldException, Illega
 		assertTrue("The serializer should be compatible with all MC versions", new BukkitItemStackSerializer().checkIsMCVersionCompatible());
 		TestUtils.setUnaccessible(field, null, true);
 	}
+
+	@Test
+	public void testBulkRoundTrip()
+	{
+		List<ItemStack[]> inventories = Arrays.asList(new ItemStack[3], new ItemStack[0], null);
+		for(ItemStackSerializer serializer : new ItemStackSerializer[] { new BukkitItemStackSerializer(), new CompressedItemStackSerializer(new BukkitItemStackSerializer()) })
+		{
+			List<byte[]> data = serializer.serializeAll(inventories);
+			assertEquals("Every inventory should be serialized", inventories.size(), data.size());
+			assertArrayEquals("The bulk serialization should match the single serialization", serializer.serialize(inventories.get(0)), data.get(0));
+			assertNull("Null inventories should stay null", data.get(2));
+			List<ItemStack[]> deserialized = serializer.deserializeAll(data);
+			assertEquals("Every inventory should be deserialized", inventories.size(), deserialized.size());
+			assertArrayEquals(inventories.get(0), deserialized.get(0));
+			assertArrayEquals(inventories.get(1), deserialized.get(1));
+			assertNull("Null data should stay null", deserialized.get(2));
+		}
+	}
+
+	@Test
+	public void testCompressedBulkSerializeDoesNotModifyWrappedResult()
+	{
+		ItemStackSerializer wrapped = mock(ItemStackSerializer.class);
+		List<byte[]> wrappedData = Collections.unmodifiableList(Arrays.asList(new byte[256], null));
+		doReturn(wrappedData).when(wrapped).serializeAll(any());
+		List<byte[]> data = new CompressedItemStackSerializer(wrapped).serializeAll(Arrays.asList(new ItemStack[0], null));
+		assertTrue("The data should be compressed", CompressedEnvelope.isEnvelope(data.get(0)));
+		assertNull("Failed inventories should stay null", data.get(1));
+		assertNotSame("The wrapped result should not be modified", wrappedData, data);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit;
+
+import at.pcgamingfreaks.Bukkit.ItemStackSerializer.ItemStackSerializer;
+import at.pcgamingfreaks.Bukkit.Util.IUtils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PlatformResolverTest
+{
+	public interface ITestPlatformClass extends IPlatformDependent {}
+	public interface ImplementationTestClass extends IPlatformDependent {}
+	public static class TestPlatformClassImpl implements ITestPlatformClass {}
+	public static class ImplementationTestClassImpl implements ImplementationTestClass {}
+
+	@Test
+	public void testGetBaseClassName()
+	{
+		assertEquals("The I prefix of interfaces should be removed", "at.pcgamingfreaks.Bukkit.Util.Utils", PlatformResolver.getBaseClassName(IUtils.class));
+		assertEquals("Interfaces that only start with an I should keep their name", "at.pcgamingfreaks.Bukkit.ItemStackSerializer.ItemStackSerializer", PlatformResolver.getBaseClassName(ItemStackSerializer.class));
+		assertEquals("Classes should keep their name", "at.pcgamingfreaks.Bukkit.PlatformResolver", PlatformResolver.getBaseClassName(PlatformResolver.class));
+	}
+
+	@Test
+	public void testRegisterImplementation() throws ClassNotFoundException
+	{
+		PlatformResolver.registerImplementation(ITestPlatformClass.class, TestPlatformClassImpl.class);
+		PlatformResolver.registerImplementation(ImplementationTestClass.class, ImplementationTestClassImpl.class);
+		assertEquals("The registered implementation should be found", TestPlatformClassImpl.class, PlatformResolver.findImplementation(ITestPlatformClass.class, "at.pcgamingfreaks.Bukkit.TestPlatformClass"));
+		assertEquals("The registered implementation should be found", ImplementationTestClassImpl.class, PlatformResolver.findImplementation(ImplementationTestClass.class, "at.pcgamingfreaks.Bukkit.ImplementationTestClass"));
+		assertEquals("The registered implementation should also be found when resolving with a custom base name", ImplementationTestClassImpl.class, PlatformResolver.findImplementation(ImplementationTestClass.class, "at.pcgamingfreaks.Bukkit.NBTImplementationTestClass"));
+	}
+
+	@Test
+	public void testSelectRegisteredImplementation()
+	{
+		String versionClass = "at.pcgamingfreaks.Bukkit.Utils_1_16_R3", reflectionClass = "at.pcgamingfreaks.Bukkit.Utils_Reflection";
+		Set<String> registered = new HashSet<>(Arrays.asList(versionClass, reflectionClass, "at.pcgamingfreaks.Bukkit.Utils_1_8_R3"));
+		assertEquals("The version specific implementation should be preferred", versionClass, PlatformResolver.selectRegisteredImplementation(registered, versionClass, reflectionClass));
+		assertEquals("The reflection implementation should be used if there is no registered version specific implementation", reflectionClass, PlatformResolver.selectRegisteredImplementation(registered, "at.pcgamingfreaks.Bukkit.Utils_1_17_R1", reflectionClass));
+		assertNull("Nothing should be selected without registrations", PlatformResolver.selectRegisteredImplementation(Collections.emptySet(), versionClass, reflectionClass));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRegisterInterfaceAsImplementation()
+	{
+		PlatformResolver.registerImplementation(ITestPlatformClass.class, ITestPlatformClass.class);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit.Util;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import io.netty.channel.Channel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PacketBatcherTest
+{
+	private final List<Runnable> scheduledTasks = new ArrayList<>();
+	private final Map<Player, Channel> channels = new HashMap<>();
+	private Plugin plugin;
+
+	@Before
+	public void prepareTestObjects()
+	{
+		scheduledTasks.clear();
+		channels.clear();
+		BukkitScheduler scheduler = mock(BukkitScheduler.class);
+		when(scheduler.runTask(any(Plugin.class), any(Runnable.class))).thenAnswer(invocationOnMock -> {
+			scheduledTasks.add((Runnable) invocationOnMock.getArguments()[1]);
+			return null;
+		});
+		Server server = mock(Server.class);
+		when(server.getScheduler()).thenReturn(scheduler);
+		plugin = mock(Plugin.class);
+		when(plugin.getServer()).thenReturn(server);
+	}
+
+	private Player mockPlayer()
+	{
+		Player player = mock(Player.class);
+		Channel channel = mock(Channel.class);
+		when(channel.isActive()).thenReturn(true);
+		channels.put(player, channel);
+		return player;
+	}
+
+	private void runTick()
+	{
+		List<Runnable> tasks = new ArrayList<>(scheduledTasks);
+		scheduledTasks.clear();
+		tasks.forEach(Runnable::run);
+	}
+
+	@Test
+	public void testFlushOnTick()
+	{
+		PacketBatcher batcher = new PacketBatcher(plugin, 64, channels::get);
+		Player player1 = mockPlayer(), player2 = mockPlayer();
+		assertTrue("The packet should be batched", batcher.write(player1, "Packet1"));
+		assertTrue("The packet should be batched", batcher.write(player2, "Packet2"));
+		assertTrue("The packet should be batched", batcher.write(player1, "Packet3"));
+		assertEquals("Only one flush task should be scheduled for all the packets of a tick", 1, scheduledTasks.size());
+		verify(channels.get(player1), never()).flush();
+		verify(channels.get(player2), never()).flush();
+		runTick();
+		verify(channels.get(player1), times(1)).flush();
+		verify(channels.get(player2), times(1)).flush();
+		assertTrue("The packet should be batched", batcher.write(player1, "Packet4"));
+		assertEquals("A new flush task should be scheduled for the next tick", 1, scheduledTasks.size());
+		runTick();
+		verify(channels.get(player1), times(2)).flush();
+		verify(channels.get(player2), times(1)).flush();
+	}
+
+	@Test
+	public void testFlushOnSize()
+	{
+		PacketBatcher batcher = new PacketBatcher(plugin, 3, channels::get);
+		Player player1 = mockPlayer(), player2 = mockPlayer();
+		batcher.write(player1, "Packet1");
+		batcher.write(player1, "Packet2");
+		batcher.write(player2, "Packet3");
+		verify(channels.get(player1), never()).flush();
+		batcher.write(player1, "Packet4");
+		verify(channels.get(player1), times(1)).flush();
+		verify(channels.get(player2), never()).flush();
+		runTick();
+		verify(channels.get(player1), times(1)).flush();
+		verify(channels.get(player2), times(1)).flush();
+	}
+
+	@Test
+	public void testPerPlayerOrdering()
+	{
+		PacketBatcher batcher = new PacketBatcher(plugin, 2, channels::get);
+		Player player1 = mockPlayer(), player2 = mockPlayer();
+		Channel channel1 = channels.get(player1), channel2 = channels.get(player2);
+		batcher.write(player1, "A1");
+		batcher.write(player2, "B1");
+		batcher.write(player1, "A2");
+		batcher.write(player2, "B2");
+		batcher.write(player1, "A3");
+		runTick();
+		InOrder order1 = inOrder(channel1);
+		order1.verify(channel1).write("A1");
+		order1.verify(channel1).write("A2");
+		order1.verify(channel1).flush();
+		order1.verify(channel1).write("A3");
+		order1.verify(channel1).flush();
+		InOrder order2 = inOrder(channel2);
+		order2.verify(channel2).write("B1");
+		order2.verify(channel2).write("B2");
+		order2.verify(channel2).flush();
+		verify(channel2, never()).write("A1");
+		verify(channel1, never()).write("B1");
+	}
+
+	@Test
+	public void testNoChannel()
+	{
+		PacketBatcher batcher = new PacketBatcher(plugin, 64, channels::get);
+		Player player = mockPlayer();
+		when(channels.get(player).isActive()).thenReturn(false);
+		assertFalse("Packets for inactive channels should not be batched", batcher.write(player, "Packet"));
+		assertFalse("Packets for players without channel should not be batched", batcher.write(mock(Player.class), "Packet"));
+		assertTrue("No flush should be scheduled", scheduledTasks.isEmpty());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bungee.Database.Cache;
+
+import at.pcgamingfreaks.Database.Cache.PlayerCache;
+
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.event.LoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.api.scheduler.ScheduledTask;
+import net.md_5.bungee.event.EventHandler;
+import net.md_5.bungee.event.EventPriority;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the players into a {@link PlayerCache} while they are logging in, so that the data is available when they join without blocking an event thread.
+ */
+public class PlayerCacheLoginListener implements Listener
+{
+	private final Plugin plugin;
+	private final PlayerCache<?> cache;
+	private final long timeoutMillis;
+	private final String kickMessage;
+
+	/**
+	 * @param plugin The plugin owning the cache.
+	 * @param cache The cache the players should be loaded into.
+	 * @param timeoutMillis The max time in milliseconds the login of a player waits for the player to be loaded.
+	 * @param kickMessage The message shown to players whose data could not be loaded. Null to let them join anyway.
+	 */
+	public PlayerCacheLoginListener(final @NotNull Plugin plugin, final @NotNull PlayerCache<?> cache, final long timeoutMillis, final @Nullable String kickMessage)
+	{
+		this.plugin = plugin;
+		this.cache = cache;
+		this.timeoutMillis = timeoutMillis;
+		this.kickMessage = kickMessage;
+		plugin.getProxy().getPluginManager().registerListener(plugin, this);
+	}
+
+	@EventHandler(priority = EventPriority.HIGHEST) // Not a monitor priority, the listener might cancel the login
+	public void onLogin(LoginEvent event)
+	{
+		if(event.isCancelled()) return;
+		final AtomicBoolean completed = new AtomicBoolean(false);
+		event.registerIntent(plugin);
+		final ScheduledTask timeoutTask = plugin.getProxy().getScheduler().schedule(plugin, () -> {
+			if(completed.compareAndSet(false, true))
+			{
+				disallow(event);
+				event.completeIntent(plugin);
+			}
+		}, timeoutMillis, TimeUnit.MILLISECONDS);
+		cache.load(event.getConnection().getUniqueId()).whenComplete((player, error) -> {
+			if(completed.compareAndSet(false, true))
+			{
+				timeoutTask.cancel();
+				if(error != null) disallow(event); // The cache already logs failed loads
+				event.completeIntent(plugin);
+			}
+		});
+	}
+
+	private void disallow(final @NotNull LoginEvent event)
+	{
+		if(kickMessage == null) return;
+		event.setCancelled(true);
+		event.setCancelReason(TextComponent.fromLegacyText(kickMessage));
+	}
+
+	public void close()
+	{
+		plugin.getProxy().getPluginManager().unregisterListener(this);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bungee.Database.Cache;
+
+import at.pcgamingfreaks.Database.Cache.Invalidation.CacheInvalidationBus;
+import at.pcgamingfreaks.Database.Cache.Invalidation.IInvalidationTransport;
+
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.Server;
+import net.md_5.bungee.api.event.PluginMessageEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.api.scheduler.ScheduledTask;
+import net.md_5.bungee.event.EventHandler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exchanges the cache invalidation messages of a proxy side cache with the servers of the network.
+ * Messages are sent to the servers the same way BungeeCord delivers "Forward" messages, so servers using the Bukkit transport with the same sub-channel will receive them.
+ * Forward messages sent by the servers are read, but still get delivered by BungeeCord to the other servers.
+ * Received events are applied on the event thread, so the cache has to be thread safe.
+ */
+public class PluginMessageInvalidationTransport implements IInvalidationTransport, Listener
+{
+	private static final String BUNGEE_CHANNEL = "BungeeCord", BUNGEE_CHANNEL_NEW = "bungeecord:main";
+	private static final long TICK_MILLIS = 50;
+
+	private final Plugin plugin;
+	private final String subChannel;
+	private CacheInvalidationBus bus;
+	private ScheduledTask flushTask;
+
+	/**
+	 * @param plugin The plugin owning the cache.
+	 * @param subChannel The sub-channel used for the messages. Must be the same on all servers.
+	 */
+	public PluginMessageInvalidationTransport(final @NotNull Plugin plugin, final @NotNull String subChannel)
+	{
+		this.plugin = plugin;
+		this.subChannel = subChannel;
+	}
+
+	@Override
+	public void start(final @NotNull CacheInvalidationBus bus)
+	{
+		this.bus = bus;
+		plugin.getProxy().getPluginManager().registerListener(plugin, this);
+		flushTask = plugin.getProxy().getScheduler().schedule(plugin, bus::flush, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public boolean send(final @NotNull byte[] message)
+	{
+		try(ByteArrayOutputStream stream = new ByteArrayOutputStream(message.length + 32); DataOutputStream out = new DataOutputStream(stream))
+		{
+			out.writeUTF(subChannel);
+			out.writeShort(message.length);
+			out.write(message);
+			out.flush();
+			byte[] data = stream.toByteArray();
+			for(ServerInfo server : plugin.getProxy().getServers().values())
+			{
+				server.sendData(BUNGEE_CHANNEL, data, true);
+			}
+			return true;
+		}
+		catch(IOException ignored) {}
+		return false;
+	}
+
+	@EventHandler
+	public void onPluginMessage(PluginMessageEvent event)
+	{
+		if(bus == null || !(event.getSender() instanceof Server) || !(BUNGEE_CHANNEL.equals(event.getTag()) || BUNGEE_CHANNEL_NEW.equals(event.getTag()))) return;
+		try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(event.getData())))
+		{
+			if(!"Forward".equals(in.readUTF())) return;
+			in.readUTF(); // Target
+			if(!subChannel.equals(in.readUTF())) return;
+			byte[] data = new byte[in.readUnsignedShort()];
+			in.readFully(data);
+			bus.receive(data);
+		}
+		catch(IOException e)
+		{
+			plugin.getLogger().warning("Failed to read cache invalidation message! " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		if(flushTask != null) flushTask.cancel();
+		plugin.getProxy().getPluginManager().unregisterListener(this);
+		bus = null;
+	}
+}
\ No newline at end of file
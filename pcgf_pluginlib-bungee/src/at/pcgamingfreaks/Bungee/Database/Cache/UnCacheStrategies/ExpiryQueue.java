@@ -0,0 +1,70 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bungee.Database.Cache.UnCacheStrategies;
+
+import at.pcgamingfreaks.Database.Cache.BaseExpiryQueueUnCacheStrategy;
+import at.pcgamingfreaks.Database.Cache.IPlayerCache;
+
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.api.scheduler.ScheduledTask;
+import net.md_5.bungee.event.EventHandler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+public class ExpiryQueue extends BaseExpiryQueueUnCacheStrategy implements Listener
+{
+	private final Plugin plugin;
+	private final ScheduledTask task;
+
+	/**
+	 * @param plugin The plugin owning the cache.
+	 * @param cache The cache to uncache the players from.
+	 * @param delayMillis The time in milliseconds after which an offline player gets uncached.
+	 */
+	public ExpiryQueue(final @NotNull Plugin plugin, final @NotNull IPlayerCache cache, final long delayMillis)
+	{
+		super(cache, delayMillis);
+		this.plugin = plugin;
+		plugin.getProxy().getPluginManager().registerListener(plugin, this);
+		task = plugin.getProxy().getScheduler().schedule(plugin, this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	@EventHandler(priority = Byte.MAX_VALUE)
+	public void playerJoinEvent(PostLoginEvent event)
+	{
+		cancelUnCache(event.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = Byte.MAX_VALUE)
+	public void playerLeaveEvent(PlayerDisconnectEvent event)
+	{
+		scheduleUnCache(event.getPlayer().getUniqueId());
+	}
+
+	@Override
+	public void close()
+	{
+		plugin.getProxy().getPluginManager().unregisterListener(this);
+		task.cancel();
+	}
+}
\ No newline at end of file
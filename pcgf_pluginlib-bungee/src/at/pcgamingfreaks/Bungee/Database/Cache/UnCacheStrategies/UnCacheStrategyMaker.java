@@ -42,6 +42,7 @@
 		{
 			case ON_DISCONNECT: return new OnDisconnect(plugin, cache);
 			case ON_DISCONNECT_DELAYED: return new OnDisconnectDelayed(plugin, cache, delay);
+			case EXPIRY_QUEUE: return new ExpiryQueue(plugin, cache, delay * 1000L);
 			case INTERVAL_DELAYED: return new IntervalDelayed(plugin, cache, delay, interval);
 			case INTERVAL: default: return new Interval(plugin, cache, delay, interval);
 		}
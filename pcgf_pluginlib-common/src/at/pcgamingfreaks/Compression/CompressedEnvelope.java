@@ -0,0 +1,205 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Compression;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Wraps compressed data with a versioned header, so that the codec and dictionary used to write a blob can be changed without breaking old blobs.
+ * Data without the header is returned unchanged by {@link #decode(byte[])}, so blobs written before the envelope was used stay readable.
+ * <p>
+ * Gzip compressed input (e.g. NBT data written by minecraft) gets unpacked before it is compressed with the codec.
+ * When decoding, it is packed into a gzip stream again, without compressing it (which is nearly free).
+ * <p>
+ * Format: magic "PCZ" (3 bytes), version (byte), codec id (byte), flags (byte), dictionary id (int, 0 = no dictionary), uncompressed length (int), payload.
+ */
+public class CompressedEnvelope
+{
+	private static final byte[] MAGIC = { 'P', 'C', 'Z' };
+	private static final byte VERSION = 1, FLAG_GZIP_CONTENT = 1;
+	private static final int HEADER_SIZE = MAGIC.length + 3 + 4 + 4;
+	/**
+	 * Deflate can't compress better than ~1032:1, LZ4 even less. A header claiming more is corrupted and must not be used to allocate the output buffer.
+	 */
+	private static final int MAX_COMPRESSION_RATIO = 1032, MAX_UNCOMPRESSED_LENGTH = 32 * 1024 * 1024;
+	private static final CompressionCodec[] BUILT_IN_CODECS = { new NoCompressionCodec(), new DeflateCodec(), new LZ4Codec() };
+
+	private final Map<Byte, CompressionCodec> codecs = new ConcurrentHashMap<>();
+	private final Map<Integer, CompressionDictionary> dictionaries = new ConcurrentHashMap<>();
+	@Getter private final CompressionCodec codec;
+	@Getter private final @Nullable CompressionDictionary dictionary;
+
+	/**
+	 * @param codec The codec used to write new blobs.
+	 * @param dictionary The dictionary used to write new blobs. Null to not use a dictionary.
+	 */
+	public CompressedEnvelope(final @NotNull CompressionCodec codec, final @Nullable CompressionDictionary dictionary)
+	{
+		this.codec = codec;
+		this.dictionary = dictionary;
+		for(CompressionCodec builtIn : BUILT_IN_CODECS)
+		{
+			registerCodec(builtIn);
+		}
+		registerCodec(codec);
+		registerDictionary(CompressionDictionary.ITEM_NBT);
+		if(dictionary != null) registerDictionary(dictionary);
+	}
+
+	/**
+	 * @param name The name of the codec (none, deflate or lz4).
+	 * @return The built-in codec with the given name. Null if there is no codec with this name.
+	 */
+	public static @Nullable CompressionCodec getBuiltInCodec(final @NotNull String name)
+	{
+		String lowerName = name.toLowerCase(Locale.ENGLISH);
+		for(CompressionCodec codec : BUILT_IN_CODECS)
+		{
+			if(codec.getName().equals(lowerName)) return codec;
+		}
+		return null;
+	}
+
+	/**
+	 * Registers a codec, so that blobs written with it can be decoded.
+	 *
+	 * @param codec The codec to register.
+	 */
+	public void registerCodec(final @NotNull CompressionCodec codec)
+	{
+		codecs.put(codec.getId(), codec);
+	}
+
+	/**
+	 * Registers a dictionary, so that blobs written with it can be decoded. The dictionaries used by older versions of a plugin should stay registered.
+	 *
+	 * @param dictionary The dictionary to register.
+	 */
+	public void registerDictionary(final @NotNull CompressionDictionary dictionary)
+	{
+		dictionaries.put(dictionary.getId(), dictionary);
+	}
+
+	/**
+	 * @param data The data to check.
+	 * @return True if the data starts with the envelope header.
+	 */
+	public static boolean isEnvelope(final @Nullable byte[] data)
+	{
+		return data != null && data.length >= HEADER_SIZE && data[0] == MAGIC[0] && data[1] == MAGIC[1] && data[2] == MAGIC[2];
+	}
+
+	/**
+	 * Compresses the data and wraps it into an envelope.
+	 *
+	 * @param data The data to compress.
+	 * @return The envelope. The input data if it is not compressible.
+	 */
+	public @NotNull byte[] encode(final @NotNull byte[] data)
+	{
+		byte flags = 0;
+		byte[] content = data;
+		if(data.length > 2 && data[0] == (byte) 0x1F && data[1] == (byte) 0x8B)
+		{
+			try
+			{
+				content = gunzip(data);
+				flags |= FLAG_GZIP_CONTENT;
+			}
+			catch(IOException ignored) {} // Not a valid gzip stream, compress it as it is
+		}
+		CompressionCodec usedCodec = codec;
+		byte[] payload = codec.compress(content, dictionary);
+		if(payload.length >= content.length)
+		{ // Not compressible
+			if(flags == 0 && !isEnvelope(data)) return data;
+			usedCodec = codecs.get(NoCompressionCodec.ID);
+			payload = content;
+		}
+		int dictionaryId = (dictionary != null && usedCodec.getId() != NoCompressionCodec.ID) ? dictionary.getId() : 0;
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+		buffer.put(MAGIC).put(VERSION).put(usedCodec.getId()).put(flags).putInt(dictionaryId).putInt(content.length).put(payload);
+		return buffer.array();
+	}
+
+	/**
+	 * Unwraps and decompresses an envelope.
+	 *
+	 * @param data The envelope. Data without envelope header is returned unchanged.
+	 * @return The original data.
+	 * @throws IOException If the envelope uses an unknown version, codec or dictionary or if the data is corrupted.
+	 */
+	public @NotNull byte[] decode(final @NotNull byte[] data) throws IOException
+	{
+		if(!isEnvelope(data)) return data;
+		ByteBuffer buffer = ByteBuffer.wrap(data, MAGIC.length, data.length - MAGIC.length);
+		byte version = buffer.get(), codecId = buffer.get(), flags = buffer.get();
+		int dictionaryId = buffer.getInt(), uncompressedLength = buffer.getInt();
+		if(version != VERSION) throw new IOException("Unsupported envelope version " + version);
+		CompressionCodec blobCodec = codecs.get(codecId);
+		if(blobCodec == null) throw new IOException("Unknown compression codec " + codecId);
+		CompressionDictionary blobDictionary = null;
+		if(dictionaryId != 0)
+		{
+			blobDictionary = dictionaries.get(dictionaryId);
+			if(blobDictionary == null) throw new IOException("Unknown compression dictionary " + Integer.toHexString(dictionaryId));
+		}
+		long payloadLength = data.length - HEADER_SIZE, maxLength = Math.min(MAX_UNCOMPRESSED_LENGTH, Math.max(1, payloadLength) * MAX_COMPRESSION_RATIO);
+		if(uncompressedLength < 0 || uncompressedLength > maxLength) throw new IOException("Invalid uncompressed length " + uncompressedLength + " for a payload of " + payloadLength + " bytes");
+		byte[] content = blobCodec.decompress(data, HEADER_SIZE, data.length - HEADER_SIZE, uncompressedLength, blobDictionary);
+		return ((flags & FLAG_GZIP_CONTENT) != 0) ? gzipStored(content) : content;
+	}
+
+	private static @NotNull byte[] gunzip(final @NotNull byte[] data) throws IOException
+	{
+		try(GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data)); ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4))
+		{
+			byte[] buffer = new byte[4096];
+			int read;
+			while((read = in.read(buffer)) > 0)
+			{
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	private static @NotNull byte[] gzipStored(final @NotNull byte[] data) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + 64);
+		try(GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.NO_COMPRESSION); }})
+		{
+			gzip.write(data);
+		}
+		return out.toByteArray();
+	}
+}
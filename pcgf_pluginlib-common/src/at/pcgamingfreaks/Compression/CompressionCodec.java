@@ -0,0 +1,58 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Compression;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * A codec used to compress the payload of a {@link CompressedEnvelope}.
+ * Implementations must be thread safe.
+ */
+public interface CompressionCodec
+{
+	/**
+	 * @return The id of the codec stored in the envelope. Ids below 16 are reserved for the codecs of the library.
+	 */
+	byte getId();
+
+	/**
+	 * @return The name of the codec, used to select the codec in configs.
+	 */
+	@NotNull String getName();
+
+	/**
+	 * @param data The data to compress.
+	 * @param dictionary The dictionary to use. Null to compress without a dictionary.
+	 * @return The compressed data.
+	 */
+	@NotNull byte[] compress(@NotNull byte[] data, @Nullable CompressionDictionary dictionary);
+
+	/**
+	 * @param data The array containing the compressed data.
+	 * @param offset The offset of the compressed data within the array.
+	 * @param length The length of the compressed data.
+	 * @param uncompressedLength The length of the uncompressed data.
+	 * @param dictionary The dictionary that has been used to compress the data.
+	 * @return The uncompressed data.
+	 * @throws IOException If the data is corrupted.
+	 */
+	@NotNull byte[] decompress(@NotNull byte[] data, int offset, int length, int uncompressedLength, @Nullable CompressionDictionary dictionary) throws IOException;
+}
@@ -0,0 +1,195 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Compression;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * A preset dictionary for the compression codecs. Small blobs with a lot of repeated structure (like item NBT data) compress much better with a dictionary,
+ * because the codec can reference the dictionary instead of having to learn the common strings from the blob itself.
+ * <p>
+ * Content that is used most frequently should be at the end of the dictionary. The dictionary of a blob is identified by its id, so a dictionary must never be changed once data has been written with it.
+ */
+public final class CompressionDictionary
+{
+	public static final int MAX_SIZE = 32 * 1024; // The deflate window size
+	private static final int TRAINING_SEGMENT_LENGTH = 8, MAX_TRAINING_BYTES = 256 * 1024;
+
+	/**
+	 * Contains the names and the NBT tag headers of the commonly used item NBT keys, item ids and text component fragments.
+	 */
+	public static final CompressionDictionary ITEM_NBT = buildItemNbtDictionary();
+
+	@Getter private final int id;
+	final byte[] data;
+
+	public CompressionDictionary(final @NotNull byte[] data)
+	{
+		if(data.length == 0 || data.length > MAX_SIZE) throw new IllegalArgumentException("The dictionary size must be between 1 and " + MAX_SIZE + " bytes");
+		this.data = data.clone();
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		int checksum = (int) crc.getValue();
+		this.id = (checksum == 0) ? 1 : checksum; // 0 is used for blobs without dictionary
+	}
+
+	public @NotNull byte[] getData()
+	{
+		return data.clone();
+	}
+
+	public int getSize()
+	{
+		return data.length;
+	}
+
+	//region item nbt dictionary
+	private static void writeNbtKey(final @NotNull ByteArrayOutputStream out, final int tagType, final @NotNull String name)
+	{
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		out.write(tagType);
+		out.write(nameBytes.length >>> 8);
+		out.write(nameBytes.length);
+		out.write(nameBytes, 0, nameBytes.length);
+	}
+
+	private static void writeNbtString(final @NotNull ByteArrayOutputStream out, final @NotNull String name, final @NotNull String value)
+	{
+		writeNbtKey(out, 8, name);
+		byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+		out.write(valueBytes.length >>> 8);
+		out.write(valueBytes.length);
+		out.write(valueBytes, 0, valueBytes.length);
+	}
+
+	private static @NotNull CompressionDictionary buildItemNbtDictionary()
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+		// Rarely used content first
+		for(String text : new String[] { "{\"extra\":[{\"bold\":false,\"italic\":false,\"underlined\":false,\"strikethrough\":false,\"obfuscated\":false,\"color\":\"", "\"}],\"text\":\"\"}", "{\"text\":\"", "\",\"color\":\"", "\",\"italic\":false}" })
+		{
+			byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+			out.write(bytes, 0, bytes.length);
+		}
+		writeNbtKey(out, 10, "BlockEntityTag");
+		writeNbtKey(out, 9, "Items");
+		writeNbtKey(out, 10, "SkullOwner");
+		writeNbtKey(out, 10, "Properties");
+		writeNbtKey(out, 9, "textures");
+		writeNbtKey(out, 8, "Value");
+		writeNbtKey(out, 11, "Id");
+		writeNbtKey(out, 9, "AttributeModifiers");
+		writeNbtKey(out, 8, "AttributeName");
+		writeNbtKey(out, 6, "Amount");
+		writeNbtKey(out, 3, "Operation");
+		writeNbtKey(out, 11, "UUID");
+		writeNbtKey(out, 8, "Potion");
+		writeNbtKey(out, 9, "CustomPotionEffects");
+		writeNbtKey(out, 10, "PublicBukkitValues");
+		writeNbtKey(out, 3, "CustomModelData");
+		writeNbtKey(out, 3, "HideFlags");
+		writeNbtKey(out, 1, "Unbreakable");
+		writeNbtKey(out, 9, "StoredEnchantments");
+		writeNbtKey(out, 9, "ench");
+		writeNbtKey(out, 3, "RepairCost");
+		writeNbtKey(out, 9, "Lore");
+		writeNbtKey(out, 8, "Name");
+		writeNbtKey(out, 10, "display");
+		writeNbtKey(out, 2, "lvl");
+		writeNbtKey(out, 9, "Enchantments");
+		writeNbtKey(out, 3, "Damage");
+		String[] items = { "oak_log", "oak_planks", "cobblestone", "stone", "dirt", "sand", "gravel", "glass", "torch", "chest", "coal", "iron_ingot", "gold_ingot", "diamond", "emerald", "redstone", "lapis_lazuli",
+				"netherite_ingot", "stick", "string", "bone", "arrow", "bow", "bread", "cooked_beef", "golden_apple", "ender_pearl", "experience_bottle", "potion", "enchanted_book", "shulker_box",
+				"player_head", "elytra", "shield", "totem_of_undying", "diamond_sword", "diamond_pickaxe", "diamond_axe", "diamond_shovel", "diamond_helmet", "diamond_chestplate", "diamond_leggings", "diamond_boots",
+				"iron_sword", "iron_pickaxe", "netherite_sword", "netherite_pickaxe", "sharpness", "efficiency", "unbreaking", "mending", "protection", "fortune", "looting", "silk_touch" };
+		for(String item : items)
+		{
+			writeNbtString(out, "id", "minecraft:" + item);
+		}
+		// Most frequently used content last
+		writeNbtKey(out, 10, "tag");
+		writeNbtKey(out, 1, "Count");
+		writeNbtKey(out, 8, "id");
+		writeNbtKey(out, 1, "Slot");
+		writeNbtKey(out, 3, "DataVersion");
+		writeNbtKey(out, 3, "size");
+		writeNbtKey(out, 9, "Inventory");
+		return new CompressionDictionary(out.toByteArray());
+	}
+	//endregion
+
+	/**
+	 * Builds a dictionary from the segments that are shared by the most samples. The samples should be uncompressed, typical blobs (e.g. the raw NBT data of stored inventories).
+	 *
+	 * @param samples The samples used for the training. Only the first 256KiB of sample data are used.
+	 * @param maxSize The max size of the dictionary.
+	 * @return The trained dictionary.
+	 * @throws IllegalArgumentException If the samples don't share any content.
+	 */
+	public static @NotNull CompressionDictionary train(final @NotNull Collection<byte[]> samples, final int maxSize)
+	{
+		final int sizeLimit = Math.min(maxSize, MAX_SIZE);
+		Map<String, int[]> segments = new HashMap<>(); // segment -> { samples containing it, index of last sample }
+		int sampleIndex = 0, usedBytes = 0;
+		for(byte[] sample : samples)
+		{
+			if(usedBytes >= MAX_TRAINING_BYTES) break;
+			sampleIndex++;
+			int length = Math.min(sample.length, MAX_TRAINING_BYTES - usedBytes);
+			usedBytes += length;
+			for(int i = 0; i + TRAINING_SEGMENT_LENGTH <= length; i++)
+			{
+				int[] stats = segments.computeIfAbsent(new String(sample, i, TRAINING_SEGMENT_LENGTH, StandardCharsets.ISO_8859_1), key -> new int[2]);
+				if(stats[1] != sampleIndex)
+				{
+					stats[0]++;
+					stats[1] = sampleIndex;
+				}
+			}
+		}
+		List<Map.Entry<String, int[]>> candidates = new ArrayList<>();
+		for(Map.Entry<String, int[]> entry : segments.entrySet())
+		{
+			if(entry.getValue()[0] > 1) candidates.add(entry);
+		}
+		candidates.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+		List<String> selected = new ArrayList<>();
+		StringBuilder content = new StringBuilder(); // Used to skip segments that are already part of the dictionary
+		for(Map.Entry<String, int[]> candidate : candidates)
+		{
+			if(content.length() + TRAINING_SEGMENT_LENGTH > sizeLimit) break;
+			if(content.indexOf(candidate.getKey()) >= 0) continue;
+			selected.add(candidate.getKey());
+			content.append(candidate.getKey());
+		}
+		if(selected.isEmpty()) throw new IllegalArgumentException("The samples don't share any content");
+		StringBuilder dictionary = new StringBuilder(content.length());
+		for(int i = selected.size() - 1; i >= 0; i--)
+		{ // Most frequent segments last
+			dictionary.append(selected.get(i));
+		}
+		return new CompressionDictionary(dictionary.toString().getBytes(StandardCharsets.ISO_8859_1));
+	}
+}
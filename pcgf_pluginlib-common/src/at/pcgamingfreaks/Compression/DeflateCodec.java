@@ -0,0 +1,114 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Compression;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses the data with raw deflate (no zlib or gzip header).
+ */
+public final class DeflateCodec implements CompressionCodec
+{
+	public static final byte ID = 1;
+
+	private final int level;
+
+	public DeflateCodec()
+	{
+		this(Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * @param level The compression level (0-9), see {@link Deflater}.
+	 */
+	public DeflateCodec(final int level)
+	{
+		this.level = level;
+	}
+
+	@Override
+	public byte getId()
+	{
+		return ID;
+	}
+
+	@Override
+	public @NotNull String getName()
+	{
+		return "deflate";
+	}
+
+	@Override
+	public @NotNull byte[] compress(final @NotNull byte[] data, final @Nullable CompressionDictionary dictionary)
+	{
+		Deflater deflater = new Deflater(level, true);
+		try
+		{
+			if(dictionary != null) deflater.setDictionary(dictionary.data);
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+			byte[] buffer = new byte[4096];
+			while(!deflater.finished())
+			{
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+
+	@Override
+	public @NotNull byte[] decompress(final @NotNull byte[] data, final int offset, final int length, final int uncompressedLength, final @Nullable CompressionDictionary dictionary) throws IOException
+	{
+		Inflater inflater = new Inflater(true);
+		try
+		{
+			if(dictionary != null) inflater.setDictionary(dictionary.data);
+			inflater.setInput(data, offset, length);
+			byte[] out = new byte[uncompressedLength];
+			int read = 0;
+			while(read < out.length)
+			{
+				int inflated = inflater.inflate(out, read, out.length - read);
+				if(inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) break;
+				read += inflated;
+			}
+			if(read != out.length) throw new IOException("Deflate data is truncated, expected " + uncompressedLength + " bytes but got " + read);
+			return out;
+		}
+		catch(DataFormatException e)
+		{
+			throw new IOException("Invalid deflate data", e);
+		}
+		finally
+		{
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Compression;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A pure java implementation of the LZ4 block format. Much faster than deflate, but with a lower compression ratio.
+ * The dictionary is used as prefix of the data, so matches can reference it.
+ */
+public final class LZ4Codec implements CompressionCodec
+{
+	public static final byte ID = 2;
+
+	private static final int MIN_MATCH = 4, MAX_OFFSET = 65535, LAST_LITERALS = 5, MF_LIMIT = 12, RUN_MASK = 15;
+	private static final int HASH_LOG = 12, HASH_SHIFT = 32 - HASH_LOG;
+
+	@Override
+	public byte getId()
+	{
+		return ID;
+	}
+
+	@Override
+	public @NotNull String getName()
+	{
+		return "lz4";
+	}
+
+	private static int readInt(final byte[] buffer, final int position)
+	{
+		return (buffer[position] & 0xFF) | ((buffer[position + 1] & 0xFF) << 8) | ((buffer[position + 2] & 0xFF) << 16) | ((buffer[position + 3] & 0xFF) << 24);
+	}
+
+	private static int hash(final int sequence)
+	{
+		return (sequence * -1640531535) >>> HASH_SHIFT;
+	}
+
+	private static int writeLength(final byte[] out, int op, int length)
+	{
+		while(length >= 255)
+		{
+			out[op++] = (byte) 255;
+			length -= 255;
+		}
+		out[op++] = (byte) length;
+		return op;
+	}
+
+	private static int dictionaryLength(final @Nullable CompressionDictionary dictionary)
+	{
+		return (dictionary == null) ? 0 : Math.min(dictionary.data.length, MAX_OFFSET);
+	}
+
+	private static byte[] withDictionary(final @Nullable CompressionDictionary dictionary, final int dictionaryLength, final int dataLength)
+	{
+		byte[] buffer = new byte[dictionaryLength + dataLength];
+		if(dictionaryLength > 0) System.arraycopy(dictionary.data, dictionary.data.length - dictionaryLength, buffer, 0, dictionaryLength);
+		return buffer;
+	}
+
+	@Override
+	public @NotNull byte[] compress(final @NotNull byte[] data, final @Nullable CompressionDictionary dictionary)
+	{
+		final int dictionaryLength = dictionaryLength(dictionary), end = dictionaryLength + data.length;
+		final byte[] in = withDictionary(dictionary, dictionaryLength, data.length);
+		System.arraycopy(data, 0, in, dictionaryLength, data.length);
+		final byte[] out = new byte[data.length + data.length / 255 + 16];
+		final int[] hashTable = new int[1 << HASH_LOG];
+		Arrays.fill(hashTable, -1);
+		for(int i = 0; i + MIN_MATCH <= dictionaryLength; i++)
+		{
+			hashTable[hash(readInt(in, i))] = i;
+		}
+		int ip = dictionaryLength, anchor = dictionaryLength, op = 0;
+		final int matchLimit = end - LAST_LITERALS, mfLimit = end - MF_LIMIT;
+		while(ip < mfLimit)
+		{
+			int sequence = readInt(in, ip), h = hash(sequence), ref = hashTable[h];
+			hashTable[h] = ip;
+			if(ref < 0 || ip - ref > MAX_OFFSET || readInt(in, ref) != sequence)
+			{
+				ip++;
+				continue;
+			}
+			while(ip > anchor && ref > 0 && in[ip - 1] == in[ref - 1])
+			{ // Extend the match backwards
+				ip--;
+				ref--;
+			}
+			int matchLength = MIN_MATCH;
+			while(ip + matchLength < matchLimit && in[ref + matchLength] == in[ip + matchLength]) matchLength++;
+			//region write sequence
+			int literals = ip - anchor, tokenPosition = op++;
+			out[tokenPosition] = (byte) ((Math.min(literals, RUN_MASK) << 4) | Math.min(matchLength - MIN_MATCH, RUN_MASK));
+			if(literals >= RUN_MASK) op = writeLength(out, op, literals - RUN_MASK);
+			System.arraycopy(in, anchor, out, op, literals);
+			op += literals;
+			int offset = ip - ref;
+			out[op++] = (byte) offset;
+			out[op++] = (byte) (offset >>> 8);
+			if(matchLength - MIN_MATCH >= RUN_MASK) op = writeLength(out, op, matchLength - MIN_MATCH - RUN_MASK);
+			//endregion
+			ip += matchLength;
+			anchor = ip;
+		}
+		// The last literals
+		int literals = end - anchor;
+		out[op++] = (byte) (Math.min(literals, RUN_MASK) << 4);
+		if(literals >= RUN_MASK) op = writeLength(out, op, literals - RUN_MASK);
+		System.arraycopy(in, anchor, out, op, literals);
+		op += literals;
+		return Arrays.copyOf(out, op);
+	}
+
+	@Override
+	public @NotNull byte[] decompress(final @NotNull byte[] data, final int offset, final int length, final int uncompressedLength, final @Nullable CompressionDictionary dictionary) throws IOException
+	{
+		final int dictionaryLength = dictionaryLength(dictionary), inEnd = offset + length;
+		final byte[] out = withDictionary(dictionary, dictionaryLength, uncompressedLength);
+		int ip = offset, op = dictionaryLength;
+		try
+		{
+			while(ip < inEnd)
+			{
+				int token = data[ip++] & 0xFF, literals = token >>> 4;
+				if(literals == RUN_MASK)
+				{
+					int b;
+					do
+					{
+						b = data[ip++] & 0xFF;
+						literals += b;
+					} while(b == 255);
+				}
+				if(ip + literals > inEnd || op + literals > out.length) throw new IOException("LZ4 literals exceed the block");
+				System.arraycopy(data, ip, out, op, literals);
+				ip += literals;
+				op += literals;
+				if(ip >= inEnd) break; // The last sequence has no match
+				int matchOffset = (data[ip] & 0xFF) | ((data[ip + 1] & 0xFF) << 8);
+				ip += 2;
+				int matchLength = token & RUN_MASK;
+				if(matchLength == RUN_MASK)
+				{
+					int b;
+					do
+					{
+						b = data[ip++] & 0xFF;
+						matchLength += b;
+					} while(b == 255);
+				}
+				matchLength += MIN_MATCH;
+				int ref = op - matchOffset;
+				if(matchOffset == 0 || ref < 0 || op + matchLength > out.length) throw new IOException("Invalid LZ4 match");
+				if(matchOffset >= matchLength) System.arraycopy(out, ref, out, op, matchLength);
+				else
+				{ // Overlapping match, has to be copied byte by byte
+					for(int i = 0; i < matchLength; i++) out[op + i] = out[ref + i];
+				}
+				op += matchLength;
+			}
+		}
+		catch(ArrayIndexOutOfBoundsException e)
+		{
+			throw new IOException("LZ4 data is truncated", e);
+		}
+		if(op != out.length) throw new IOException("LZ4 data is truncated, expected " + uncompressedLength + " bytes but got " + (op - dictionaryLength));
+		return Arrays.copyOfRange(out, dictionaryLength, out.length);
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Compression;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Stores the data without compressing it.
+ */
+public final class NoCompressionCodec implements CompressionCodec
+{
+	public static final byte ID = 0;
+
+	@Override
+	public byte getId()
+	{
+		return ID;
+	}
+
+	@Override
+	public @NotNull String getName()
+	{
+		return "none";
+	}
+
+	@Override
+	public @NotNull byte[] compress(final @NotNull byte[] data, final @Nullable CompressionDictionary dictionary)
+	{
+		return data;
+	}
+
+	@Override
+	public @NotNull byte[] decompress(final @NotNull byte[] data, final int offset, final int length, final int uncompressedLength, final @Nullable CompressionDictionary dictionary)
+	{
+		return Arrays.copyOfRange(data, offset, offset + length);
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of a config POJO or a getter of a config interface that should be bound by a {@link at.pcgamingfreaks.ConfigView}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface ConfigValue
+{
+	String NO_DEFAULT = "\u0000";
+
+	/**
+	 * @return The path of the value, relative to the bound section. If empty the name of the field (or the getter without the get/is prefix) is used.
+	 */
+	String value() default "";
+
+	/**
+	 * @return The value used if the path is not set in the config. Only used for interface getters, POJOs keep the initial value of the field.
+	 */
+	String defaultValue() default NO_DEFAULT;
+}
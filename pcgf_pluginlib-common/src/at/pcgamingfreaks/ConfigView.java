@@ -0,0 +1,319 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks;
+
+import at.pcgamingfreaks.Config.ConfigValue;
+import at.pcgamingfreaks.yaml.YAML;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * A typed, read only view on a section of a {@link Configuration}.
+ * All bound values are read and converted once into an immutable snapshot, which gets replaced atomically when the configuration is reloaded.
+ * Reading a value from the snapshot does not touch the yaml tree, which makes it suitable for hot code paths.
+ * <p>
+ * The bound type can either be:
+ * <ul>
+ *     <li>A POJO with a no-args constructor. All fields annotated with {@link ConfigValue} are bound, they must be final so the snapshot can't be modified.
+ *     Fields whose path is not set in the config keep the value assigned by the constructor. Reading a value is a plain field read.
+ *     <b>The initial values have to be assigned in the constructor!</b> A final field initialized with a constant (e.g. {@code final int port = 25565;}) is inlined by the compiler and would never return the configured value.</li>
+ *     <li>An interface with getters without parameters. All getters are bound, the {@link ConfigValue} annotation is optional.
+ *     Getters whose path is not set in the config return {@link ConfigValue#defaultValue()} or the default value of their return type.</li>
+ * </ul>
+ * Supported value types: {@link String}, {@code int}, {@code long}, {@code float}, {@code double}, {@code boolean} (and their wrappers), enums and {@code List<String>}.
+ *
+ * @param <T> The type the config section is bound to.
+ */
+public final class ConfigView<T>
+{
+	private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = new HashMap<>();
+	private static final Map<Class<?>, Function<String, Object>> CONVERTERS = new HashMap<>();
+
+	static
+	{
+		PRIMITIVE_DEFAULTS.put(int.class, 0);
+		PRIMITIVE_DEFAULTS.put(long.class, 0L);
+		PRIMITIVE_DEFAULTS.put(float.class, 0f);
+		PRIMITIVE_DEFAULTS.put(double.class, 0d);
+		PRIMITIVE_DEFAULTS.put(boolean.class, false);
+
+		CONVERTERS.put(String.class, value -> value);
+		CONVERTERS.put(int.class, Integer::parseInt);
+		CONVERTERS.put(Integer.class, Integer::parseInt);
+		CONVERTERS.put(long.class, Long::parseLong);
+		CONVERTERS.put(Long.class, Long::parseLong);
+		CONVERTERS.put(float.class, Float::parseFloat);
+		CONVERTERS.put(Float.class, Float::parseFloat);
+		CONVERTERS.put(double.class, Double::parseDouble);
+		CONVERTERS.put(Double.class, Double::parseDouble);
+		CONVERTERS.put(boolean.class, Boolean::parseBoolean);
+		CONVERTERS.put(Boolean.class, Boolean::parseBoolean);
+	}
+
+	private final Class<T> type;
+	private final String section;
+	private final List<Binding> bindings = new ArrayList<>();
+	private final Constructor<T> constructor; // null for interfaces
+	private final List<Consumer<? super T>> reloadListeners = new CopyOnWriteArrayList<>();
+	private volatile T snapshot;
+
+	ConfigView(final @NotNull Class<T> type, final @NotNull String section, final @NotNull YAML yaml)
+	{
+		this.type = type;
+		this.section = (section.isEmpty() || section.endsWith(".")) ? section : section + ".";
+		if(type.isInterface())
+		{
+			constructor = null;
+			for(Method method : type.getMethods())
+			{
+				if(method.isDefault() || Modifier.isStatic(method.getModifiers())) continue;
+				if(method.getParameterCount() != 0) throw new IllegalArgumentException("Config view getter " + method.getName() + " of " + type.getName() + " must not have parameters");
+				ConfigValue annotation = method.getAnnotation(ConfigValue.class);
+				String path = (annotation != null && !annotation.value().isEmpty()) ? annotation.value() : getterToPath(method.getName());
+				bindings.add(new Binding(this.section + path, method.getReturnType(), method.getGenericReturnType(), method, (annotation != null) ? annotation.defaultValue() : ConfigValue.NO_DEFAULT));
+			}
+		}
+		else
+		{
+			try
+			{
+				constructor = type.getDeclaredConstructor();
+				constructor.setAccessible(true);
+			}
+			catch(NoSuchMethodException e)
+			{
+				throw new IllegalArgumentException("Config view class " + type.getName() + " needs a no-args constructor", e);
+			}
+			for(Field field : Reflection.getFieldsIncludeParents(type))
+			{
+				ConfigValue annotation = field.getAnnotation(ConfigValue.class);
+				if(annotation == null) continue;
+				if(!Modifier.isFinal(field.getModifiers()) || Modifier.isStatic(field.getModifiers()))
+					throw new IllegalArgumentException("Config view field " + field.getName() + " of " + type.getName() + " must be final and not static");
+				field.setAccessible(true);
+				bindings.add(new Binding(this.section + (annotation.value().isEmpty() ? field.getName() : annotation.value()), field.getType(), field.getGenericType(), field, ConfigValue.NO_DEFAULT));
+			}
+		}
+		snapshot = createSnapshot(yaml);
+	}
+
+	/**
+	 * Gets the current snapshot of the bound values.
+	 * The returned object never changes, a reload of the configuration replaces the snapshot instead.
+	 *
+	 * @return The current snapshot.
+	 */
+	public @NotNull T get()
+	{
+		return snapshot;
+	}
+
+	public @NotNull Class<T> getType()
+	{
+		return type;
+	}
+
+	/**
+	 * @return The path of the bound config section. Empty if the view is bound to the root of the config.
+	 */
+	public @NotNull String getSection()
+	{
+		return section.isEmpty() ? section : section.substring(0, section.length() - 1);
+	}
+
+	/**
+	 * Registers a listener that gets called with the new snapshot after the configuration has been reloaded.
+	 *
+	 * @param listener The listener to register.
+	 */
+	public void addReloadListener(final @NotNull Consumer<? super T> listener)
+	{
+		reloadListeners.add(listener);
+	}
+
+	public void removeReloadListener(final @NotNull Consumer<? super T> listener)
+	{
+		reloadListeners.remove(listener);
+	}
+
+	/**
+	 * Creates a new snapshot and notifies the reload listeners.
+	 * If the new snapshot can't be created the previous one is kept.
+	 *
+	 * @return True if the snapshot has been replaced.
+	 */
+	boolean refresh(final @Nullable YAML yaml, final @NotNull Logger logger)
+	{
+		if(yaml == null)
+		{
+			logger.warning("Config not loaded, keeping the previous values of the config view for " + type.getName());
+			return false;
+		}
+		T newSnapshot;
+		try
+		{
+			newSnapshot = createSnapshot(yaml);
+		}
+		catch(Exception e)
+		{
+			logger.warning("Failed to reload the config view for " + type.getName() + ", keeping the previous values!");
+			e.printStackTrace();
+			return false;
+		}
+		snapshot = newSnapshot;
+		for(Consumer<? super T> listener : reloadListeners)
+		{
+			try
+			{
+				listener.accept(newSnapshot);
+			}
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+		}
+		return true;
+	}
+
+	private @NotNull T createSnapshot(final @NotNull YAML yaml)
+	{
+		try
+		{
+			if(constructor == null) return createProxySnapshot(yaml);
+			T instance = constructor.newInstance();
+			for(Binding binding : bindings)
+			{
+				if(!yaml.isSet(binding.path)) continue;
+				((Field) binding.target).set(instance, binding.read(yaml));
+			}
+			return instance;
+		}
+		catch(InstantiationException | IllegalAccessException | InvocationTargetException e)
+		{
+			throw new IllegalStateException("Failed to create config view snapshot for " + type.getName(), e);
+		}
+	}
+
+	private @NotNull T createProxySnapshot(final @NotNull YAML yaml)
+	{
+		Map<Method, Object> values = new HashMap<>();
+		for(Binding binding : bindings)
+		{
+			values.put((Method) binding.target, yaml.isSet(binding.path) ? binding.read(yaml) : binding.getDefault());
+		}
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new SnapshotInvocationHandler(type, values)));
+	}
+
+	private static @NotNull String getterToPath(final @NotNull String name)
+	{
+		if(name.length() > 3 && name.startsWith("get")) return name.substring(3);
+		if(name.length() > 2 && name.startsWith("is")) return name.substring(2);
+		return name;
+	}
+
+	private static final class Binding
+	{
+		private final String path, defaultValue;
+		private final Class<?> valueType;
+		private final Object target; // Field for POJOs, Method for interfaces
+
+		Binding(final @NotNull String path, final @NotNull Class<?> valueType, final @NotNull Type genericType, final @NotNull Object target, final @NotNull String defaultValue)
+		{
+			if(valueType == List.class)
+			{
+				if(!(genericType instanceof ParameterizedType) || ((ParameterizedType) genericType).getActualTypeArguments()[0] != String.class)
+					throw new IllegalArgumentException("Only List<String> is supported as list type for config view value " + path);
+			}
+			else if(!valueType.isEnum() && !CONVERTERS.containsKey(valueType))
+			{
+				throw new IllegalArgumentException("Unsupported type " + valueType.getName() + " for config view value " + path);
+			}
+			this.path = path;
+			this.valueType = valueType;
+			this.target = target;
+			this.defaultValue = defaultValue;
+		}
+
+		@Nullable Object read(final @NotNull YAML yaml)
+		{
+			if(valueType == List.class) return Collections.unmodifiableList(new ArrayList<>(yaml.getStringList(path, new ArrayList<>())));
+			if(valueType == String.class) return yaml.getString(path, null);
+			// Only called for set paths, the default is never used. Parsing the string ourselves makes sure invalid values are reported instead of replaced with the default.
+			return convert(yaml.getString(path, ""));
+		}
+
+		@Nullable Object getDefault()
+		{
+			if(!ConfigValue.NO_DEFAULT.equals(defaultValue)) return convert(defaultValue);
+			if(valueType == List.class) return Collections.emptyList();
+			return valueType.isPrimitive() ? PRIMITIVE_DEFAULTS.get(valueType) : null;
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private @Nullable Object convert(final @NotNull String value)
+		{
+			if(valueType == List.class)
+			{
+				if(value.trim().isEmpty()) return Collections.emptyList();
+				List<String> list = new ArrayList<>();
+				for(String element : value.split(","))
+				{
+					list.add(element.trim());
+				}
+				return Collections.unmodifiableList(list);
+			}
+			if(valueType.isEnum()) return Enum.valueOf((Class<? extends Enum>) valueType, value.trim().toUpperCase(Locale.ROOT));
+			return CONVERTERS.get(valueType).apply(value.trim());
+		}
+	}
+
+	private static final class SnapshotInvocationHandler implements InvocationHandler
+	{
+		private final Class<?> type;
+		private final Map<Method, Object> values;
+
+		SnapshotInvocationHandler(final @NotNull Class<?> type, final @NotNull Map<Method, Object> values)
+		{
+			this.type = type;
+			this.values = values;
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args)
+		{
+			if(method.getDeclaringClass() == Object.class)
+			{
+				switch(method.getName())
+				{
+					case "equals": return proxy == args[0];
+					case "hashCode": return System.identityHashCode(proxy);
+					default: return type.getSimpleName() + values.values();
+				}
+			}
+			return values.get(method);
+		}
+	}
+}
@@ -27,12 +27,15 @@
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
 public class Configuration extends YamlFileManager implements ILanguageConfiguration
 {
 	protected static final String DEFAULT_CONFIG_FILE_NAME = "config" + YAML_FILE_EXT;
 	private final Object plugin;
+	private final List<ConfigView<?>> views = new CopyOnWriteArrayList<>();
 	@Deprecated protected String languageKey = "Language", languageUpdateKey = "LanguageUpdateMode"; // Allow to change the keys for the language and the language update mode setting
 
 	@Override
@@ -187,8 +190,55 @@ public void reload()
 	{
 		extracted = false;
 		load();
+		for(ConfigView<?> view : views)
+		{
+			view.refresh(yaml, logger);
+		}
+	}
+
+	//region Config views
+	/**
+	 * Binds the root of the configuration to a typed view. See {@link ConfigView} for the supported types.
+	 * The values of the view get refreshed when the configuration is reloaded.
+	 *
+	 * @param type The POJO class or interface the configuration should be bound to.
+	 * @return The bound view.
+	 * @throws ConfigNotInitializedException If the configuration has not been loaded successful.
+	 * @throws IllegalArgumentException If the given type can't be bound.
+	 */
+	public @NotNull <T> ConfigView<T> bind(final @NotNull Class<T> type) throws ConfigNotInitializedException
+	{
+		return bind(type, "");
 	}
 
+	/**
+	 * Binds a section of the configuration to a typed view. See {@link ConfigView} for the supported types.
+	 * The values of the view get refreshed when the configuration is reloaded.
+	 *
+	 * @param type The POJO class or interface the configuration section should be bound to.
+	 * @param section The path to the section that should be bound. Empty for the root of the configuration.
+	 * @return The bound view.
+	 * @throws ConfigNotInitializedException If the configuration has not been loaded successful.
+	 * @throws IllegalArgumentException If the given type can't be bound.
+	 */
+	public @NotNull <T> ConfigView<T> bind(final @NotNull Class<T> type, final @NotNull String section) throws ConfigNotInitializedException
+	{
+		ConfigView<T> view = new ConfigView<>(type, section, getConfigE());
+		views.add(view);
+		return view;
+	}
+
+	/**
+	 * Stops refreshing a view on reload. The last snapshot of the view stays valid.
+	 *
+	 * @param view The view that should no longer be refreshed.
+	 */
+	public void unbind(final @NotNull ConfigView<?> view)
+	{
+		views.remove(view);
+	}
+	//endregion
+
 	//region General getter
 	/**
 	 * Gets the {@link YAML} configuration instance for direct read/write.
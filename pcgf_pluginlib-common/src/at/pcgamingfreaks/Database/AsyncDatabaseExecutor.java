@@ -0,0 +1,418 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database;
+
+import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
+
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Executes database work off the calling thread, using connections from a {@link ConnectionProvider}.
+ * The amount of waiting and running tasks is bounded. If the limit is reached new tasks are rejected ({@link OverflowPolicy#REJECT}, the default)
+ * or wait for a free slot ({@link OverflowPolicy#BLOCK}).
+ * Tasks are mostly submitted from the server main thread, blocking it would stall the whole server. That's why full queues reject new tasks by default.
+ * If the runtime supports virtual threads they are used for the tasks, otherwise a fixed pool of platform threads is used.
+ * <p>
+ * The returned futures are completed on the database threads. Do not use the server API in callbacks attached to them without switching to the main thread!
+ */
+public class AsyncDatabaseExecutor implements AutoCloseable
+{
+	public static final int DEFAULT_CONCURRENCY = 4, DEFAULT_MAX_PENDING_TASKS = 1000;
+	public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.REJECT;
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+	private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+	public enum OverflowPolicy
+	{
+		/**
+		 * Waits till there is space in the queue. Only use it if tasks are never submitted from the server main thread!
+		 */
+		BLOCK,
+		/**
+		 * Completes the future exceptionally with a {@link RejectedExecutionException}.
+		 */
+		REJECT
+	}
+
+	private final ConnectionProvider connectionProvider;
+	private final String name;
+	private final int concurrency, maxPendingTasks;
+	private final OverflowPolicy overflowPolicy;
+	private final ExecutorService executor;
+	private final boolean virtualThreads;
+	private final Semaphore pendingPermits, concurrencyPermits;
+	private final AtomicInteger activeTasks = new AtomicInteger();
+	private final LongAdder submittedTasks = new LongAdder(), completedTasks = new LongAdder(), failedTasks = new LongAdder(), rejectedTasks = new LongAdder(), totalWaitNanos = new LongAdder();
+	private volatile boolean closed = false;
+
+	public AsyncDatabaseExecutor(final @NotNull ConnectionProvider connectionProvider, final @NotNull String name)
+	{
+		this(connectionProvider, name, DEFAULT_CONCURRENCY, DEFAULT_MAX_PENDING_TASKS, DEFAULT_OVERFLOW_POLICY);
+	}
+
+	/**
+	 * @param connectionProvider The connection provider used to get the connections for the tasks.
+	 * @param name The name of the executor (normally the name of the plugin using it). Used for the thread names.
+	 * @param concurrency The max amount of tasks running at the same time. Should not be bigger than the amount of connections the provider can provide.
+	 * @param maxPendingTasks The max amount of tasks waiting or running.
+	 * @param overflowPolicy What should happen if a task is submitted while there are already maxPendingTasks tasks pending.
+	 */
+	public AsyncDatabaseExecutor(final @NotNull ConnectionProvider connectionProvider, final @NotNull String name, final int concurrency, final int maxPendingTasks, final @NotNull OverflowPolicy overflowPolicy)
+	{
+		if(concurrency < 1) throw new IllegalArgumentException("The concurrency must be at least 1");
+		if(maxPendingTasks < concurrency) throw new IllegalArgumentException("The max amount of pending tasks must not be smaller than the concurrency");
+		this.connectionProvider = connectionProvider;
+		this.name = name;
+		this.concurrency = concurrency;
+		this.maxPendingTasks = maxPendingTasks;
+		this.overflowPolicy = overflowPolicy;
+		this.pendingPermits = new Semaphore(maxPendingTasks, true);
+		this.concurrencyPermits = new Semaphore(concurrency, true);
+		ExecutorService virtualExecutor = createVirtualThreadExecutor();
+		this.virtualThreads = virtualExecutor != null;
+		this.executor = virtualThreads ? virtualExecutor : Executors.newFixedThreadPool(concurrency, new ThreadFactory() {
+			private final AtomicInteger threadId = new AtomicInteger();
+
+			@Override
+			public Thread newThread(final @NotNull Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, name + "-Database-" + threadId.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	//region virtual threads
+	private static @Nullable Method findVirtualThreadExecutorFactory()
+	{
+		try
+		{
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		}
+		catch(NoSuchMethodException ignored) {} // Java < 19
+		return null;
+	}
+
+	private static @Nullable ExecutorService createVirtualThreadExecutor()
+	{
+		if(NEW_VIRTUAL_THREAD_EXECUTOR == null) return null;
+		try
+		{
+			return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+		}
+		catch(Exception ignored) {} // Preview feature not enabled
+		return null;
+	}
+	//endregion
+
+	//region task submission
+	/**
+	 * Runs code using a connection from the connection provider. The connection is closed after the code has been executed.
+	 *
+	 * @param task The code that should be executed.
+	 * @param <T> The type of the result.
+	 * @return A future that completes with the result of the task.
+	 */
+	public @NotNull <T> CompletableFuture<T> submit(final @NotNull SQLFunction<Connection, T> task)
+	{
+		return submit(task, false);
+	}
+
+	/**
+	 * Runs code using a read-only connection from the connection provider (see {@link ConnectionProvider#getReadOnlyConnection()}).
+	 * The connection is closed after the code has been executed.
+	 *
+	 * @param task The code that should be executed. Must not write to the database!
+	 * @param <T> The type of the result.
+	 * @return A future that completes with the result of the task.
+	 */
+	public @NotNull <T> CompletableFuture<T> submitRead(final @NotNull SQLFunction<Connection, T> task)
+	{
+		return submit(task, true);
+	}
+
+	private @NotNull <T> CompletableFuture<T> submit(final @NotNull SQLFunction<Connection, T> task, final boolean readOnly)
+	{
+		CompletableFuture<T> future = new CompletableFuture<>();
+		if(closed || !acquirePendingPermit())
+		{
+			rejectedTasks.increment();
+			future.completeExceptionally(new RejectedExecutionException(closed ? "The database executor of " + name + " has been closed" : "Too many pending database tasks for " + name));
+			return future;
+		}
+		submittedTasks.increment();
+		final long queuedAt = System.nanoTime();
+		try
+		{
+			executor.execute(() -> run(task, readOnly, future, queuedAt));
+		}
+		catch(RejectedExecutionException e)
+		{
+			pendingPermits.release();
+			rejectedTasks.increment();
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Executes a statement that does not return anything (see {@link DBTools#runStatement(Connection, String, Object...)}).
+	 *
+	 * @param query The query to execute.
+	 * @param args The arguments used for the query.
+	 * @return A future that completes once the statement has been executed.
+	 */
+	public @NotNull CompletableFuture<Void> runStatement(final @NotNull @Language("SQL") String query, final @Nullable Object... args)
+	{
+		return submit(connection -> {
+			DBTools.runStatement(connection, query, args);
+			return null;
+		});
+	}
+
+	/**
+	 * Executes an INSERT, UPDATE or DELETE statement.
+	 *
+	 * @param query The query to execute.
+	 * @param args The arguments used for the query.
+	 * @return A future that completes with the amount of changed rows.
+	 */
+	public @NotNull CompletableFuture<Integer> update(final @NotNull @Language("SQL") String query, final @Nullable Object... args)
+	{
+		return submit(connection -> {
+			try(PreparedStatement statement = connection.prepareStatement(query))
+			{
+				DBTools.setParameters(statement, args);
+				return statement.executeUpdate();
+			}
+		});
+	}
+
+	/**
+	 * Executes a query and converts its result. The query is executed on a read-only connection.
+	 *
+	 * @param query The query to execute.
+	 * @param resultHandler Converts the result of the query. The result set is closed after the handler returns.
+	 * @param args The arguments used for the query.
+	 * @param <T> The type of the converted result.
+	 * @return A future that completes with the converted result.
+	 */
+	public @NotNull <T> CompletableFuture<T> query(final @NotNull @Language("SQL") String query, final @NotNull SQLFunction<ResultSet, T> resultHandler, final @Nullable Object... args)
+	{
+		return submitRead(connection -> {
+			try(PreparedStatement statement = connection.prepareStatement(query))
+			{
+				DBTools.setParameters(statement, args);
+				try(ResultSet resultSet = statement.executeQuery())
+				{
+					return resultHandler.apply(resultSet);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Executes a query and passes every mapped row to the given action without loading the whole result into memory (e.g. to fill a cache on startup).
+	 * The query is executed on a read-only connection, the action is called on the database thread.
+	 *
+	 * @param query The query to execute.
+	 * @param rowMapper Maps the current row of the result set.
+	 * @param action Is called for every mapped row.
+	 * @param args The arguments used for the query.
+	 * @param <T> The type of the mapped rows.
+	 * @return A future that completes with the amount of processed rows.
+	 */
+	public @NotNull <T> CompletableFuture<Integer> forEachRow(final @NotNull @Language("SQL") String query, final @NotNull SQLFunction<ResultSet, T> rowMapper, final @NotNull Consumer<? super T> action, final @Nullable Object... args)
+	{
+		return submitRead(connection -> DBTools.forEachRow(connection, query, rowMapper, action, args));
+	}
+
+	private boolean acquirePendingPermit()
+	{
+		if(overflowPolicy == OverflowPolicy.REJECT) return pendingPermits.tryAcquire();
+		try
+		{
+			pendingPermits.acquire();
+			return true;
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private <T> void run(final @NotNull SQLFunction<Connection, T> task, final boolean readOnly, final @NotNull CompletableFuture<T> future, final long queuedAt)
+	{
+		if(virtualThreads) concurrencyPermits.acquireUninterruptibly(); // Platform threads are limited by the size of the thread pool
+		totalWaitNanos.add(System.nanoTime() - queuedAt);
+		activeTasks.incrementAndGet();
+		T result = null;
+		Throwable error = null;
+		try(Connection connection = readOnly ? connectionProvider.getReadOnlyConnection() : connectionProvider.getConnection())
+		{
+			result = task.apply(connection);
+		}
+		catch(Throwable e)
+		{
+			error = e;
+		}
+		finally
+		{
+			activeTasks.decrementAndGet();
+			if(virtualThreads) concurrencyPermits.release();
+			pendingPermits.release();
+		}
+		// Complete the future after the connection has been returned, so callbacks chaining more database work don't hold two connections
+		if(error == null)
+		{
+			completedTasks.increment();
+			future.complete(result);
+		}
+		else
+		{
+			failedTasks.increment();
+			future.completeExceptionally(error);
+		}
+	}
+	//endregion
+
+	/**
+	 * Stops accepting new tasks and waits till the pending tasks are done.
+	 *
+	 * @param timeout The max time to wait.
+	 * @param unit The unit of the timeout.
+	 * @return True if all pending tasks have been executed. False if the timeout elapsed.
+	 */
+	public boolean shutdown(final long timeout, final @NotNull TimeUnit unit)
+	{
+		closed = true;
+		executor.shutdown();
+		try
+		{
+			if(executor.awaitTermination(timeout, unit)) return true;
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		executor.shutdownNow();
+		return false;
+	}
+
+	@Override
+	public void close()
+	{
+		shutdown(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	//region metrics
+	public @NotNull String getName()
+	{
+		return name;
+	}
+
+	public int getConcurrency()
+	{
+		return concurrency;
+	}
+
+	public int getMaxPendingTasks()
+	{
+		return maxPendingTasks;
+	}
+
+	public boolean isUsingVirtualThreads()
+	{
+		return virtualThreads;
+	}
+
+	public boolean isClosed()
+	{
+		return closed;
+	}
+
+	/**
+	 * @return The amount of tasks waiting for execution.
+	 */
+	public int getQueuedTasks()
+	{
+		return Math.max(0, maxPendingTasks - pendingPermits.availablePermits() - activeTasks.get());
+	}
+
+	/**
+	 * @return The amount of tasks currently executing.
+	 */
+	public int getActiveTasks()
+	{
+		return activeTasks.get();
+	}
+
+	public long getSubmittedTasks()
+	{
+		return submittedTasks.sum();
+	}
+
+	public long getCompletedTasks()
+	{
+		return completedTasks.sum();
+	}
+
+	public long getFailedTasks()
+	{
+		return failedTasks.sum();
+	}
+
+	/**
+	 * @return The amount of tasks rejected because the queue was full or the executor was already closed.
+	 */
+	public long getRejectedTasks()
+	{
+		return rejectedTasks.sum();
+	}
+
+	/**
+	 * @return The average time the tasks waited before they got executed, in milliseconds.
+	 */
+	public double getAverageWaitMillis()
+	{
+		long started = completedTasks.sum() + failedTasks.sum() + activeTasks.get();
+		return (started == 0) ? 0 : totalWaitNanos.sum() / (double) started / 1_000_000d;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "AsyncDatabaseExecutor{name=" + name + ", queued=" + getQueuedTasks() + ", active=" + getActiveTasks() + ", completed=" + getCompletedTasks() + ", failed=" + getFailedTasks() +
+				", rejected=" + getRejectedTasks() + ", avgWaitMs=" + String.format("%.2f", getAverageWaitMillis()) + ", virtualThreads=" + virtualThreads + "}";
+	}
+	//endregion
+}
@@ -0,0 +1,297 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database;
+
+import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
+
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects statements that don't return anything (inserts, updates, deletes) and writes them in batches.
+ * Statements are grouped by their SQL text, every group is sent with {@link PreparedStatement#addBatch()} / {@link PreparedStatement#executeBatch()}.
+ * All groups of one flush are written in a single transaction, in the order their SQL text has been queued first.
+ * A flush happens when the amount of queued statements reaches the batch size, when the flush interval elapsed or when the writer gets closed.
+ * For MySQL the batches are only sent as multi row statements if rewriteBatchedStatements is enabled for the connections (see {@link DatabaseConnectionConfiguration#useSQLRewriteBatchedStatements()}).
+ * <p>
+ * Statements with the same SQL text are executed in the order they have been added, statements with different SQL texts might be reordered.
+ * Don't use the writer for statements depending on each other!
+ */
+public class BatchedStatementWriter implements AutoCloseable
+{
+	public static final int DEFAULT_BATCH_SIZE = 500, DEFAULT_MAX_RETRIES = 2;
+	public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000, RETRY_DELAY_MILLIS = 100;
+
+	/**
+	 * Gets called if a batch could not be written, even after retrying.
+	 */
+	@FunctionalInterface
+	public interface FailureHandler
+	{
+		/**
+		 * @param query The SQL text of the failed batch.
+		 * @param parameterSets The parameters of the statements that have not been written.
+		 * @param exception The exception that caused the last attempt to fail.
+		 */
+		void onFailure(@NotNull String query, @NotNull List<Object[]> parameterSets, @NotNull SQLException exception);
+	}
+
+	private final ConnectionProvider connectionProvider;
+	private final Logger logger;
+	private final int batchSize, maxRetries;
+	private final ScheduledExecutorService flushExecutor;
+	private final Object queueLock = new Object(), flushLock = new Object();
+	private Map<String, List<Object[]>> queued = new LinkedHashMap<>();
+	private int queuedCount = 0;
+	private boolean flushScheduled = false;
+	private boolean closed = false;
+	private volatile @Nullable FailureHandler failureHandler;
+
+	public BatchedStatementWriter(final @NotNull ConnectionProvider connectionProvider, final @NotNull Logger logger)
+	{
+		this(connectionProvider, logger, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_RETRIES);
+	}
+
+	/**
+	 * @param connectionProvider The connection provider used to get the connections for writing.
+	 * @param logger The logger used to report failed batches if no failure handler is set.
+	 * @param batchSize The amount of queued statements that triggers a flush.
+	 * @param flushIntervalMillis The max time statements are queued before they get flushed. 0 or less to only flush on size or manually.
+	 * @param maxRetries How often a failed flush should be retried before the failure handler gets called.
+	 */
+	public BatchedStatementWriter(final @NotNull ConnectionProvider connectionProvider, final @NotNull Logger logger, final int batchSize, final long flushIntervalMillis, final int maxRetries)
+	{
+		if(batchSize < 1) throw new IllegalArgumentException("The batch size must be at least 1");
+		this.connectionProvider = connectionProvider;
+		this.logger = logger;
+		this.batchSize = batchSize;
+		this.maxRetries = Math.max(0, maxRetries);
+		flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "PCGF_PluginLib-BatchedStatementWriter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		if(flushIntervalMillis > 0) flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Sets the handler called for batches that could not be written. If no handler is set the failure is logged.
+	 *
+	 * @param failureHandler The handler. Null to only log failures.
+	 */
+	public void setFailureHandler(final @Nullable FailureHandler failureHandler)
+	{
+		this.failureHandler = failureHandler;
+	}
+
+	/**
+	 * Queues a statement for writing.
+	 *
+	 * @param query The statement to execute. Use the same SQL text for statements that should be batched together.
+	 * @param args The arguments used for the statement.
+	 */
+	public void add(final @NotNull @Language("SQL") String query, final @Nullable Object... args)
+	{
+		final Object[] parameters = (args == null) ? new Object[0] : args;
+		boolean scheduleFlush = false;
+		synchronized(queueLock)
+		{
+			if(closed) throw new IllegalStateException("The writer has already been closed");
+			queued.computeIfAbsent(query, key -> new ArrayList<>()).add(parameters);
+			if(++queuedCount >= batchSize && !flushScheduled)
+			{
+				flushScheduled = true;
+				scheduleFlush = true;
+			}
+		}
+		if(scheduleFlush)
+		{
+			try
+			{
+				flushExecutor.execute(this::flushQuietly);
+			}
+			catch(RejectedExecutionException ignored) {} // Closing, the remaining statements will be flushed by close()
+		}
+	}
+
+	/**
+	 * @return The amount of statements waiting to be written.
+	 */
+	public int getQueuedCount()
+	{
+		synchronized(queueLock)
+		{
+			return queuedCount;
+		}
+	}
+
+	/**
+	 * Writes all queued statements on the calling thread.
+	 *
+	 * @return The amount of statements that have been written.
+	 */
+	public int flush()
+	{
+		synchronized(flushLock) // Keep the order of the flushes
+		{
+			Map<String, List<Object[]>> batches;
+			synchronized(queueLock)
+			{
+				flushScheduled = false;
+				if(queuedCount == 0) return 0;
+				batches = queued;
+				queued = new LinkedHashMap<>();
+				queuedCount = 0;
+			}
+			SQLException lastException = null;
+			for(int attempt = 0; attempt <= maxRetries; attempt++)
+			{
+				if(attempt > 0 && !sleepBeforeRetry(attempt)) break;
+				try
+				{
+					return write(batches);
+				}
+				catch(SQLException e)
+				{
+					lastException = e;
+				}
+			}
+			reportFailure(batches, lastException);
+			return 0;
+		}
+	}
+
+	private void flushQuietly()
+	{
+		try
+		{
+			flush();
+		}
+		catch(Exception e)
+		{
+			logger.log(Level.SEVERE, "Failed to flush batched statements!", e);
+		}
+	}
+
+	private int write(final @NotNull Map<String, List<Object[]>> batches) throws SQLException
+	{
+		int written = 0;
+		try(Connection connection = connectionProvider.getConnection())
+		{
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try
+			{
+				for(Map.Entry<String, List<Object[]>> batch : batches.entrySet())
+				{
+					try(PreparedStatement statement = connection.prepareStatement(batch.getKey()))
+					{
+						for(Object[] parameters : batch.getValue())
+						{
+							DBTools.setParameters(statement, parameters);
+							statement.addBatch();
+						}
+						statement.executeBatch();
+					}
+					written += batch.getValue().size();
+				}
+				connection.commit();
+			}
+			catch(SQLException e)
+			{
+				connection.rollback();
+				throw e;
+			}
+			finally
+			{
+				connection.setAutoCommit(autoCommit);
+			}
+		}
+		return written;
+	}
+
+	private boolean sleepBeforeRetry(final int attempt)
+	{
+		try
+		{
+			Thread.sleep(RETRY_DELAY_MILLIS * attempt);
+			return true;
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void reportFailure(final @NotNull Map<String, List<Object[]>> batches, final @Nullable SQLException exception)
+	{
+		SQLException cause = (exception != null) ? exception : new SQLException("Interrupted while waiting to retry the batch");
+		FailureHandler handler = failureHandler;
+		for(Map.Entry<String, List<Object[]>> batch : batches.entrySet())
+		{
+			if(handler != null)
+			{
+				try
+				{
+					handler.onFailure(batch.getKey(), Collections.unmodifiableList(batch.getValue()), cause);
+				}
+				catch(Exception e)
+				{
+					logger.log(Level.SEVERE, "Failure handler of batched statements threw an exception!", e);
+				}
+			}
+			else
+			{
+				logger.log(Level.SEVERE, "Failed to write " + batch.getValue().size() + " batched statements (" + batch.getKey() + ")!", cause);
+			}
+		}
+	}
+
+	/**
+	 * Stops the timed flushing and writes all queued statements. Should be called before the connection provider gets closed.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized(queueLock)
+		{
+			closed = true;
+		}
+		flushExecutor.shutdown();
+		try
+		{
+			if(!flushExecutor.awaitTermination(30, TimeUnit.SECONDS)) flushExecutor.shutdownNow();
+		}
+		catch(InterruptedException e)
+		{
+			flushExecutor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Uncaches players a fixed delay after they went offline. The players are put into a {@link TimerWheel} when they disconnect,
+ * so every run only touches the players whose delay expired instead of checking every cached player.
+ * <p>
+ * Players that are cached while they are offline (e.g. for a command) are not known to the strategy, use {@link #scheduleUnCache(ICacheablePlayer)} for them.
+ */
+public abstract class BaseExpiryQueueUnCacheStrategy extends BaseUnCacheStrategy
+{
+	/**
+	 * The interval in milliseconds in which the expired players are checked.
+	 */
+	protected static final long TICK_MILLIS = 1000;
+	private static final int MAX_SLOTS = 4096;
+
+	private final TimerWheel<UUID> wheel;
+	private final long delayMillis;
+
+	/**
+	 * @param cache The cache to uncache the players from.
+	 * @param delayMillis The time in milliseconds after which an offline player gets uncached.
+	 */
+	protected BaseExpiryQueueUnCacheStrategy(final @NotNull IPlayerCache cache, final long delayMillis)
+	{
+		super(cache);
+		this.delayMillis = Math.max(0, delayMillis);
+		wheel = new TimerWheel<>(TICK_MILLIS, (int) Math.min(MAX_SLOTS, this.delayMillis / TICK_MILLIS + 1));
+		for(ICacheablePlayer player : cache.getCachedPlayers())
+		{
+			if(!player.isOnline()) scheduleUnCache(player);
+		}
+	}
+
+	/**
+	 * Schedules the player to be uncached after the delay. Should be called when the player disconnects.
+	 *
+	 * @param player The player that should be uncached.
+	 */
+	public void scheduleUnCache(final @NotNull ICacheablePlayer player)
+	{
+		scheduleUnCache(player.getUUID());
+	}
+
+	protected void scheduleUnCache(final @NotNull UUID uuid)
+	{
+		wheel.schedule(uuid, System.currentTimeMillis() + delayMillis);
+	}
+
+	/**
+	 * Should be called when the player connects, so that the player doesn't get uncached while online.
+	 *
+	 * @param uuid The uuid of the player.
+	 */
+	protected void cancelUnCache(final @NotNull UUID uuid)
+	{
+		wheel.cancel(uuid);
+	}
+
+	/**
+	 * Uncaches all players whose delay expired. Players that can't be uncached yet are scheduled again.
+	 * Must be called on the main thread unless the cache is thread safe.
+	 */
+	protected void tick()
+	{
+		for(UUID uuid : wheel.advance(System.currentTimeMillis()))
+		{
+			ICacheablePlayer player = cache.getCachedPlayer(uuid);
+			if(player == null || player.isOnline()) continue;
+			if(player.canBeUncached()) cache.unCache(player);
+			else scheduleUnCache(uuid);
+		}
+	}
+
+	/**
+	 * @return The amount of players waiting to be uncached.
+	 */
+	public int getScheduledCount()
+	{
+		return wheel.size();
+	}
+}
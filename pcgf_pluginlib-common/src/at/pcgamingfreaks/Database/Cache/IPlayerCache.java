@@ -40,4 +40,24 @@
 	 * @return A collection of players currently in the cache.
 	 */
 	@NotNull Collection<? extends ICacheablePlayer> getCachedPlayers();
+
+	/**
+	 * @return True if the cache can be used from any thread. Uncache strategies can then uncache players off the main thread.
+	 */
+	default boolean isThreadSafe()
+	{
+		return false;
+	}
+
+	/**
+	 * Removes the player from the cache because its data has been changed somewhere else (e.g. on another server).
+	 * Caches should discard unsaved changes of the player, they would overwrite the newer data. The default implementation uncaches the player.
+	 *
+	 * @param uuid The uuid of the player that should be invalidated.
+	 */
+	default void invalidate(@NotNull UUID uuid)
+	{
+		ICacheablePlayer player = getCachedPlayer(uuid);
+		if(player != null) unCache(player);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Loads and stores the players of a {@link PlayerCache}. The methods are called from background threads.
+ *
+ * @param <T> The type of the cached players.
+ */
+public interface IPlayerLoader<T extends ICacheablePlayer>
+{
+	/**
+	 * @param uuid The uuid of the player to load.
+	 * @return The loaded player. Null if there is no data for the player and the player should not be cached.
+	 * @throws SQLException If loading the player failed.
+	 */
+	@Nullable T load(@NotNull UUID uuid) throws SQLException;
+
+	/**
+	 * Persists the changes of the given players. Should use a single batch where possible.
+	 *
+	 * @param players The players that have been changed.
+	 * @throws SQLException If storing the players failed. All players will be retried with the next write.
+	 */
+	void save(@NotNull Collection<T> players) throws SQLException;
+}
@@ -0,0 +1,256 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache.Invalidation;
+
+import at.pcgamingfreaks.Database.Cache.ICacheablePlayer;
+import at.pcgamingfreaks.Database.Cache.IPlayerCache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the player caches of multiple servers in sync. Events get queued and are sent as a single message per tick (see {@link #flush()}).
+ * <p>
+ * Message format: version (byte), sender id (2 longs), amount of events (short), followed by the type (byte) and uuid (2 longs) of every event.
+ */
+public class CacheInvalidationBus implements AutoCloseable
+{
+	public static final String DEFAULT_CHANNEL = "PCGF_CacheInvalidation";
+	static final byte PROTOCOL_VERSION = 1;
+	private static final int MAX_EVENTS_PER_MESSAGE = 1024; // 17 bytes per event, stays well below the plugin message size limit
+	private static final int HEADER_SIZE = 1 + 16 + 2, EVENT_SIZE = 1 + 16;
+
+	public enum Type
+	{
+		/**
+		 * The player should be removed from the cache. Unsaved changes get written.
+		 */
+		UNCACHE,
+		/**
+		 * The data of the player has been changed on another server. The cached player gets removed without writing unsaved changes.
+		 */
+		INVALIDATE
+	}
+
+	@Getter private final UUID serverId = UUID.randomUUID();
+	private final IPlayerCache cache;
+	private final IInvalidationTransport transport;
+	private final Logger logger;
+	private final Map<UUID, Type> pending = new LinkedHashMap<>();
+	private final List<BiConsumer<Type, UUID>> listeners = new CopyOnWriteArrayList<>();
+	private final LongAdder sentEvents = new LongAdder(), receivedEvents = new LongAdder(), sentMessages = new LongAdder();
+	private volatile boolean closed = false;
+
+	/**
+	 * @param cache The cache that should be kept in sync. Received events are applied on the thread that receives the message (the main thread for Bukkit).
+	 * @param transport The transport used to exchange the messages with the other servers.
+	 * @param logger The logger used to report invalid messages.
+	 */
+	public CacheInvalidationBus(final @Nullable IPlayerCache cache, final @NotNull IInvalidationTransport transport, final @NotNull Logger logger)
+	{
+		this.cache = cache;
+		this.transport = transport;
+		this.logger = logger;
+		transport.start(this);
+	}
+
+	//region publishing
+	/**
+	 * Asks the other servers to remove the player from their cache. Unsaved changes will be written by them.
+	 *
+	 * @param uuid The uuid of the player.
+	 */
+	public void publishUnCache(final @NotNull UUID uuid)
+	{
+		publish(Type.UNCACHE, uuid);
+	}
+
+	/**
+	 * Asks the other servers to discard their cached copy of the player, because it has been changed by this server.
+	 *
+	 * @param uuid The uuid of the player.
+	 */
+	public void publishInvalidate(final @NotNull UUID uuid)
+	{
+		publish(Type.INVALIDATE, uuid);
+	}
+
+	public void publish(final @NotNull Type type, final @NotNull UUID uuid)
+	{
+		if(closed) return;
+		synchronized(pending)
+		{
+			if(type == Type.INVALIDATE) pending.put(uuid, type); // An invalidation supersedes an uncache of the same player
+			else pending.putIfAbsent(uuid, type);
+		}
+	}
+
+	/**
+	 * Sends all queued events. Should be called once per tick.
+	 * If the transport can't send the message at the moment, the events stay queued till the next flush.
+	 */
+	public void flush()
+	{
+		List<Map.Entry<UUID, Type>> events;
+		synchronized(pending)
+		{
+			if(pending.isEmpty()) return;
+			events = new ArrayList<>(pending.entrySet());
+		}
+		int sent = 0;
+		while(sent < events.size())
+		{
+			List<Map.Entry<UUID, Type>> batch = events.subList(sent, Math.min(events.size(), sent + MAX_EVENTS_PER_MESSAGE));
+			if(!transport.send(encode(batch))) break;
+			sent += batch.size();
+			sentMessages.increment();
+		}
+		sentEvents.add(sent);
+		synchronized(pending)
+		{
+			for(int i = 0; i < sent; i++)
+			{
+				Map.Entry<UUID, Type> event = events.get(i);
+				pending.remove(event.getKey(), event.getValue()); // Keep the event if it has been upgraded to an invalidation in the meantime
+			}
+		}
+	}
+
+	private @NotNull byte[] encode(final @NotNull List<Map.Entry<UUID, Type>> events)
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + events.size() * EVENT_SIZE);
+		buffer.put(PROTOCOL_VERSION).putLong(serverId.getMostSignificantBits()).putLong(serverId.getLeastSignificantBits()).putShort((short) events.size());
+		for(Map.Entry<UUID, Type> event : events)
+		{
+			buffer.put((byte) event.getValue().ordinal()).putLong(event.getKey().getMostSignificantBits()).putLong(event.getKey().getLeastSignificantBits());
+		}
+		return buffer.array();
+	}
+	//endregion
+
+	//region receiving
+	/**
+	 * Applies the events of a message received from another server.
+	 *
+	 * @param message The received message.
+	 */
+	public void receive(final @NotNull byte[] message)
+	{
+		if(closed) return;
+		if(message.length < HEADER_SIZE || message[0] != PROTOCOL_VERSION)
+		{
+			logger.warning("Received cache invalidation message with unknown format (length: " + message.length + ", version: " + (message.length > 0 ? message[0] : -1) + ")");
+			return;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(message);
+		buffer.get();
+		if(serverId.equals(new UUID(buffer.getLong(), buffer.getLong()))) return; // Own message
+		int count = buffer.getShort() & 0xFFFF;
+		if(buffer.remaining() < count * EVENT_SIZE)
+		{
+			logger.warning("Received truncated cache invalidation message");
+			return;
+		}
+		Type[] types = Type.values();
+		for(int i = 0; i < count; i++)
+		{
+			int typeId = buffer.get();
+			UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+			if(typeId < 0 || typeId >= types.length) continue; // Sent by a newer version
+			apply(types[typeId], uuid);
+		}
+		receivedEvents.add(count);
+	}
+
+	private void apply(final @NotNull Type type, final @NotNull UUID uuid)
+	{
+		if(cache != null)
+		{
+			if(type == Type.INVALIDATE) cache.invalidate(uuid);
+			else
+			{
+				ICacheablePlayer player = cache.getCachedPlayer(uuid);
+				if(player != null) cache.unCache(player);
+			}
+		}
+		for(BiConsumer<Type, UUID> listener : listeners)
+		{
+			listener.accept(type, uuid);
+		}
+	}
+	//endregion
+
+	/**
+	 * Adds a listener that gets informed about every received event. Can be used to keep additional caches in sync.
+	 *
+	 * @param listener The listener.
+	 */
+	public void addListener(final @NotNull BiConsumer<Type, UUID> listener)
+	{
+		listeners.add(listener);
+	}
+
+	public void removeListener(final @NotNull BiConsumer<Type, UUID> listener)
+	{
+		listeners.remove(listener);
+	}
+
+	public int getPendingEvents()
+	{
+		synchronized(pending)
+		{
+			return pending.size();
+		}
+	}
+
+	public long getSentEvents()
+	{
+		return sentEvents.sum();
+	}
+
+	public long getSentMessages()
+	{
+		return sentMessages.sum();
+	}
+
+	public long getReceivedEvents()
+	{
+		return receivedEvents.sum();
+	}
+
+	/**
+	 * Sends the queued events and stops the transport.
+	 */
+	@Override
+	public void close()
+	{
+		if(closed) return;
+		flush();
+		closed = true;
+		transport.close();
+	}
+}
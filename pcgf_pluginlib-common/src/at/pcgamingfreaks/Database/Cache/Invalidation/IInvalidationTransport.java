@@ -0,0 +1,45 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache.Invalidation;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Transports the batched invalidation messages of a {@link CacheInvalidationBus} to the other servers.
+ */
+public interface IInvalidationTransport
+{
+	/**
+	 * Starts the transport. Received messages have to be passed to {@link CacheInvalidationBus#receive(byte[])}.
+	 * Platform transports should also call {@link CacheInvalidationBus#flush()} once per tick.
+	 *
+	 * @param bus The bus using the transport.
+	 */
+	void start(@NotNull CacheInvalidationBus bus);
+
+	/**
+	 * @param message The encoded message that should be sent to all other servers.
+	 * @return True if the message has been sent. False if it can't be sent at the moment (e.g. no player is online that could be used to send it).
+	 */
+	boolean send(@NotNull byte[] message);
+
+	/**
+	 * Stops the transport. Messages received afterwards will be ignored.
+	 */
+	void close();
+}
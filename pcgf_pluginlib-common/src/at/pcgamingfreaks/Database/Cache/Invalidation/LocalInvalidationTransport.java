@@ -0,0 +1,70 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache.Invalidation;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers the messages in memory to all other transports of the same {@link Network}.
+ * Messages are delivered synchronously and the bus is not flushed automatically. Mainly used for tests.
+ */
+public class LocalInvalidationTransport implements IInvalidationTransport
+{
+	/**
+	 * A group of local transports that receive each other's messages.
+	 */
+	public static final class Network
+	{
+		private final List<LocalInvalidationTransport> transports = new CopyOnWriteArrayList<>();
+	}
+
+	private final Network network;
+	private volatile CacheInvalidationBus bus;
+
+	public LocalInvalidationTransport(final @NotNull Network network)
+	{
+		this.network = network;
+	}
+
+	@Override
+	public void start(final @NotNull CacheInvalidationBus bus)
+	{
+		this.bus = bus;
+		network.transports.add(this);
+	}
+
+	@Override
+	public boolean send(final @NotNull byte[] message)
+	{
+		for(LocalInvalidationTransport transport : network.transports)
+		{
+			if(transport != this && transport.bus != null) transport.bus.receive(message.clone());
+		}
+		return true;
+	}
+
+	@Override
+	public void close()
+	{
+		network.transports.remove(this);
+		bus = null;
+	}
+}
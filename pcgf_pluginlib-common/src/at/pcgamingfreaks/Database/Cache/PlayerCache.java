@@ -0,0 +1,361 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache;
+
+import at.pcgamingfreaks.Database.Metrics.LatencyHistogram;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A thread safe player cache that can be used with the uncache strategies of the library.
+ * <ul>
+ *     <li>Players are loaded in the background. Concurrent requests for the same player share a single load.</li>
+ *     <li>Changed players are marked as dirty and written in batches after the write-behind delay, or when they get uncached.
+ *     Loading a player whose write is still pending returns the not yet written player instead of the outdated data from the database.</li>
+ *     <li>The hits, misses and load times are recorded.</li>
+ * </ul>
+ * Preload the players on login (e.g. with the {@code PlayerCacheLoginListener} of the platform) so that the main thread doesn't need to wait for the database.
+ *
+ * @param <T> The type of the cached players.
+ */
+public class PlayerCache<T extends ICacheablePlayer> implements IPlayerCache, AutoCloseable
+{
+	private final Map<UUID, T> cache = new ConcurrentHashMap<>();
+	private final Map<UUID, CompletableFuture<T>> loading = new ConcurrentHashMap<>();
+	private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+	private final Map<UUID, List<T>> pendingWrites = new ConcurrentHashMap<>(); // Players whose changes are being written, a load must not read the outdated data from the database
+	private final IPlayerLoader<T> loader;
+	private final Executor loadExecutor;
+	private final ScheduledExecutorService writer;
+	private final Logger logger;
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder(), loadFailures = new LongAdder(), writes = new LongAdder(), writeFailures = new LongAdder();
+	@Getter private final LatencyHistogram loadTimes = new LatencyHistogram();
+	private volatile boolean closed = false;
+
+	/**
+	 * @param name The name of the cache (e.g. the name of the plugin). Used for the name of the write-behind thread.
+	 * @param loader Loads and stores the players.
+	 * @param loadExecutor The executor used to load the players.
+	 * @param logger The logger used to report failed loads and writes.
+	 * @param writeBehindDelayMillis The delay in milliseconds after which changed players are written to the database.
+	 */
+	public PlayerCache(final @NotNull String name, final @NotNull IPlayerLoader<T> loader, final @NotNull Executor loadExecutor, final @NotNull Logger logger, final long writeBehindDelayMillis)
+	{
+		if(writeBehindDelayMillis < 1) throw new IllegalArgumentException("The write-behind delay must be at least 1ms");
+		this.loader = loader;
+		this.loadExecutor = loadExecutor;
+		this.logger = logger;
+		writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "PCGF_PluginLib-" + name + "-PlayerCacheWriter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		writer.scheduleWithFixedDelay(this::flush, writeBehindDelayMillis, writeBehindDelayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Gets the player from the cache or loads it in the background. Concurrent calls for the same player share the same load.
+	 *
+	 * @param uuid The uuid of the player.
+	 * @return A future that completes with the player (null if the loader returned null).
+	 */
+	public @NotNull CompletableFuture<T> load(final @NotNull UUID uuid)
+	{
+		T player = cache.get(uuid);
+		if(player != null)
+		{
+			hits.increment();
+			return CompletableFuture.completedFuture(player);
+		}
+		misses.increment();
+		CompletableFuture<T> future = new CompletableFuture<>(), runningLoad = loading.putIfAbsent(uuid, future);
+		if(runningLoad != null) return runningLoad;
+		player = cache.get(uuid);
+		if(player == null)
+		{ // The player rejoined before its changes have been written, the database is outdated
+			List<T> pendingWrite = pendingWrites.get(uuid);
+			if(pendingWrite != null)
+			{
+				player = cache.putIfAbsent(uuid, pendingWrite.get(0));
+				if(player == null) player = pendingWrite.get(0);
+			}
+		}
+		if(player != null)
+		{ // The player finished loading in the meantime or is still waiting to be written
+			loading.remove(uuid, future);
+			future.complete(player);
+			return future;
+		}
+		try
+		{
+			loadExecutor.execute(() -> runLoad(uuid, future));
+		}
+		catch(RejectedExecutionException e)
+		{
+			loading.remove(uuid, future);
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private void runLoad(final @NotNull UUID uuid, final @NotNull CompletableFuture<T> future)
+	{
+		long start = System.nanoTime();
+		try
+		{
+			T player = loader.load(uuid);
+			if(player != null)
+			{
+				T cachedPlayer = cache.putIfAbsent(uuid, player); // Never replace a player that might have unsaved changes
+				if(cachedPlayer != null) player = cachedPlayer;
+			}
+			loadTimes.record(System.nanoTime() - start);
+			loading.remove(uuid, future);
+			future.complete(player);
+		}
+		catch(Throwable e)
+		{
+			loadFailures.increment();
+			loading.remove(uuid, future);
+			logger.log(Level.WARNING, "Failed to load player " + uuid + "!", e);
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Loads the player and waits for it. Must not be called on the main thread! Intended for async login events.
+	 *
+	 * @param uuid The uuid of the player.
+	 * @param timeout The max time to wait for the player.
+	 * @param unit The unit of the timeout.
+	 * @return The loaded player. Null if the loader returned null.
+	 * @throws ExecutionException If loading the player failed.
+	 * @throws TimeoutException If the player could not be loaded within the timeout.
+	 * @throws InterruptedException If the thread got interrupted while waiting.
+	 */
+	public @Nullable T loadBlocking(final @NotNull UUID uuid, final long timeout, final @NotNull TimeUnit unit) throws ExecutionException, TimeoutException, InterruptedException
+	{
+		return load(uuid).get(timeout, unit);
+	}
+
+	/**
+	 * @param uuid The UUID of the player for which the cached player should be obtained.
+	 * @return The cached player. Null if the player is not (yet) loaded.
+	 */
+	@Override
+	public @Nullable T getCachedPlayer(final @NotNull UUID uuid)
+	{
+		T player = cache.get(uuid);
+		if(player != null) hits.increment();
+		else misses.increment();
+		return player;
+	}
+
+	/**
+	 * Marks the player as changed. The player will be written with the next write-behind run.
+	 *
+	 * @param player The changed player.
+	 */
+	public void markDirty(final @NotNull T player)
+	{
+		dirty.add(player.getUUID());
+	}
+
+	/**
+	 * Removes the player from the cache. If the player has unsaved changes they are written in the background.
+	 *
+	 * @param player The cached player object that should be unloaded from the cache.
+	 */
+	@Override
+	public void unCache(final @NotNull ICacheablePlayer player)
+	{
+		UUID uuid = player.getUUID();
+		T cachedPlayer = cache.get(uuid);
+		if(cachedPlayer == null || cachedPlayer != player) return;
+		if(dirty.remove(uuid))
+		{
+			List<T> players = Collections.singletonList(cachedPlayer);
+			pendingWrites.put(uuid, players); // Before removing it from the cache, so that a load can't read the outdated data from the database
+			cache.remove(uuid, cachedPlayer);
+			if(!closed)
+			{
+				try
+				{
+					writer.execute(() -> writePending(uuid, players));
+					return;
+				}
+				catch(RejectedExecutionException ignored) {} // The cache got closed in the meantime
+			}
+			writePending(uuid, players);
+		}
+		else cache.remove(uuid, cachedPlayer);
+	}
+
+	private void writePending(final @NotNull UUID uuid, final @NotNull List<T> players)
+	{
+		write(players);
+		pendingWrites.remove(uuid, players); // Only if the player hasn't been uncached again in the meantime
+	}
+
+	/**
+	 * Removes the player from the cache without writing its unsaved changes.
+	 *
+	 * @param uuid The uuid of the player that should be invalidated.
+	 */
+	@Override
+	public void invalidate(final @NotNull UUID uuid)
+	{
+		dirty.remove(uuid);
+		cache.remove(uuid);
+	}
+
+	@Override
+	public @NotNull Collection<T> getCachedPlayers()
+	{
+		return Collections.unmodifiableCollection(cache.values());
+	}
+
+	@Override
+	public boolean isThreadSafe()
+	{
+		return true;
+	}
+
+	/**
+	 * Writes all changed players to the database. Called automatically by the write-behind thread.
+	 */
+	public void flush()
+	{
+		if(dirty.isEmpty()) return;
+		List<T> players = new ArrayList<>(dirty.size());
+		Map<UUID, List<T>> flushing = new HashMap<>();
+		Iterator<UUID> dirtyIterator = dirty.iterator();
+		while(dirtyIterator.hasNext())
+		{
+			UUID uuid = dirtyIterator.next();
+			T player = cache.get(uuid);
+			if(player != null)
+			{ // Registered before it is marked clean, so that a player uncached during the write is served from the pending writes
+				List<T> pendingWrite = Collections.singletonList(player);
+				pendingWrites.put(uuid, pendingWrite);
+				flushing.put(uuid, pendingWrite);
+				players.add(player);
+			}
+			dirtyIterator.remove();
+		}
+		if(players.isEmpty()) return;
+		write(players);
+		flushing.forEach(pendingWrites::remove); // Only if the player hasn't been uncached with new changes in the meantime
+	}
+
+	private void write(final @NotNull List<T> players)
+	{
+		try
+		{
+			loader.save(players);
+			writes.add(players.size());
+		}
+		catch(Throwable e)
+		{
+			writeFailures.increment();
+			logger.log(Level.WARNING, "Failed to write " + players.size() + " changed player(s)! Will retry with the next write.", e);
+			for(T player : players)
+			{
+				dirty.add(player.getUUID());
+				cache.putIfAbsent(player.getUUID(), player); // Keep uncached players until they have been written
+			}
+		}
+	}
+
+	/**
+	 * Stops the write-behind thread and writes all changed players.
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		writer.shutdown();
+		try
+		{
+			if(!writer.awaitTermination(30, TimeUnit.SECONDS)) logger.warning("The player cache writer did not finish within 30 seconds!");
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+
+	//region metrics
+	public int getSize()
+	{
+		return cache.size();
+	}
+
+	public int getDirtyCount()
+	{
+		return dirty.size();
+	}
+
+	public long getHits()
+	{
+		return hits.sum();
+	}
+
+	public long getMisses()
+	{
+		return misses.sum();
+	}
+
+	/**
+	 * @return The share of requests that could be answered from the cache (0 - 1).
+	 */
+	public double getHitRate()
+	{
+		long hits = getHits(), total = hits + getMisses();
+		return (total == 0) ? 0 : hits / (double) total;
+	}
+
+	public long getLoadFailures()
+	{
+		return loadFailures.sum();
+	}
+
+	/**
+	 * @return The amount of players that have been written to the database.
+	 */
+	public long getWrites()
+	{
+		return writes.sum();
+	}
+
+	public long getWriteFailures()
+	{
+		return writeFailures.sum();
+	}
+	//endregion
+}
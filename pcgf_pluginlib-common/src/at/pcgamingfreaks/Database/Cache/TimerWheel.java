@@ -0,0 +1,127 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * A hashed timer wheel. Scheduling and cancelling is O(1), advancing the wheel only touches the entries in the slots that have been passed.
+ * Entries with a deadline further away than one rotation of the wheel stay in their slot until the rotation in which they expire.
+ * The wheel is thread safe.
+ *
+ * @param <K> The type of the keys.
+ */
+public final class TimerWheel<K>
+{
+	private final long tickMillis;
+	private final int mask;
+	private final Set<K>[] slots;
+	private final Map<K, Long> deadlines = new HashMap<>();
+	private long lastTick;
+
+	/**
+	 * @param tickMillis The resolution of the wheel in milliseconds.
+	 * @param slotCount The amount of slots of the wheel. Will be rounded up to the next power of two.
+	 */
+	@SuppressWarnings("unchecked")
+	public TimerWheel(final long tickMillis, final int slotCount)
+	{
+		if(tickMillis < 1) throw new IllegalArgumentException("The tick duration must be at least 1ms");
+		int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+		this.tickMillis = tickMillis;
+		this.mask = size - 1;
+		this.slots = new Set[size];
+		for(int i = 0; i < size; i++)
+		{
+			slots[i] = new LinkedHashSet<>();
+		}
+		lastTick = System.currentTimeMillis() / tickMillis;
+	}
+
+	/**
+	 * Schedules the key to expire at the given time. An already scheduled key gets rescheduled.
+	 *
+	 * @param key The key.
+	 * @param deadlineMillis The time in milliseconds since 1970-01-01 00:00:00 when the key expires.
+	 */
+	public synchronized void schedule(final @NotNull K key, final long deadlineMillis)
+	{
+		cancel(key);
+		deadlines.put(key, deadlineMillis);
+		slots[slotOf(deadlineMillis)].add(key);
+	}
+
+	/**
+	 * @param key The key that should no longer expire.
+	 * @return True if the key was scheduled.
+	 */
+	public synchronized boolean cancel(final @NotNull K key)
+	{
+		Long deadline = deadlines.remove(key);
+		if(deadline == null) return false;
+		slots[slotOf(deadline)].remove(key);
+		return true;
+	}
+
+	public synchronized boolean isScheduled(final @NotNull K key)
+	{
+		return deadlines.containsKey(key);
+	}
+
+	public synchronized int size()
+	{
+		return deadlines.size();
+	}
+
+	/**
+	 * Advances the wheel to the given time and removes all expired keys.
+	 *
+	 * @param nowMillis The current time in milliseconds since 1970-01-01 00:00:00.
+	 * @return The keys that expired since the last call.
+	 */
+	public synchronized @NotNull List<K> advance(final long nowMillis)
+	{
+		long currentTick = nowMillis / tickMillis;
+		if(currentTick < lastTick) return Collections.emptyList();
+		List<K> expired = new ArrayList<>();
+		long ticks = Math.min(currentTick - lastTick, mask); // Passing more ticks than there are slots means all slots need to be checked once
+		for(long tick = currentTick - ticks; tick <= currentTick; tick++)
+		{
+			Iterator<K> iterator = slots[(int) (tick & mask)].iterator();
+			while(iterator.hasNext())
+			{
+				K key = iterator.next();
+				if(deadlines.get(key) <= nowMillis)
+				{
+					iterator.remove();
+					deadlines.remove(key);
+					expired.add(key);
+				}
+			}
+		}
+		lastTick = currentTick;
+		return expired;
+	}
+
+	private int slotOf(final long deadlineMillis)
+	{
+		return (int) ((deadlineMillis / tickMillis) & mask);
+	}
+}
@@ -26,7 +26,8 @@
 	ON_DISCONNECT,
 	ON_DISCONNECT_DELAYED,
 	INTERVAL,
-	INTERVAL_DELAYED;
+	INTERVAL_DELAYED,
+	EXPIRY_QUEUE;
 
 	/**
 	 * @param value The name of the uncache strategy.
@@ -43,6 +44,7 @@ public static UnCacheStrategy getStrategy(@NotNull String value) throws IllegalA
 			case "ondisconnectdelayed": case "on_disconnect_delayed": return ON_DISCONNECT_DELAYED;
 			case "intervalchecked": case "interval_delayed": return INTERVAL_DELAYED;
 			case "interval": return INTERVAL;
+			case "expiryqueue": case "expiry_queue": return EXPIRY_QUEUE;
 		}
 		throw new IllegalArgumentException("Unknown UnCacheStrategy '" + value + "'");
 	}
@@ -31,6 +31,19 @@
 	 */
 	Connection getConnection() throws SQLException;
 
+	/**
+	 * Gets a connection that is only used for reading. Providers that don't have dedicated connections for reading return a normal connection.
+	 * Never use it to write! Depending on the provider the write will fail or will block other readers.
+	 * If you take one, close it when you are done!
+	 *
+	 * @return A connection for reading.
+	 * @throws SQLException If there was a problem with the connection.
+	 */
+	default Connection getReadOnlyConnection() throws SQLException
+	{
+		return getConnection();
+	}
+
 	String getDatabaseType();
 
 	/**
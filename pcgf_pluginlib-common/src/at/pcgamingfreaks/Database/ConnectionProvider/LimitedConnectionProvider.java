@@ -0,0 +1,339 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.ConnectionProvider;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Limits the amount of connections a single consumer (e.g. a plugin using a shared pool) can hold at the same time.
+ * Threads waiting for a connection are served in the order they started waiting.
+ * Read-only connections can be given their own limit, for databases that serve them from a separate pool (e.g. SQLite with a single writer connection).
+ * The provider keeps track of who is holding which connection and warns about connections that are held longer than the leak detection threshold.
+ * The leak detection is disabled by default, when enabled the stack trace is recorded every time a connection is acquired, which is expensive for busy consumers.
+ */
+public class LimitedConnectionProvider implements ConnectionProvider
+{
+	public static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 30000;
+	private static final long LEAK_CHECK_INTERVAL_MILLIS = 5000;
+	private static final Object LEAK_DETECTOR_LOCK = new Object();
+	private static @Nullable ScheduledExecutorService leakDetector = null;
+	private static int leakDetectorUsers = 0;
+
+	/**
+	 * Information about a borrowed connection.
+	 */
+	public static final class ConnectionHolder
+	{
+		@Getter private final String threadName;
+		@Getter private final long acquiredAt = System.currentTimeMillis();
+		/**
+		 * The stack trace of the code that acquired the connection. Only recorded if leak detection is enabled.
+		 */
+		@Getter private final @Nullable Throwable acquiredBy;
+		private volatile boolean leakReported = false;
+
+		private ConnectionHolder(final @NotNull String threadName, final @Nullable Throwable acquiredBy)
+		{
+			this.threadName = threadName;
+			this.acquiredBy = acquiredBy;
+		}
+
+		public long getHeldMillis()
+		{
+			return System.currentTimeMillis() - acquiredAt;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "ConnectionHolder{thread=" + threadName + ", heldMs=" + getHeldMillis() + "}";
+		}
+	}
+
+	private final ConnectionProvider connectionProvider;
+	@Getter private final String name;
+	private final Logger logger;
+	@Getter private final int maxConnections, maxReadConnections;
+	private final long acquireTimeoutMillis, leakDetectionThresholdMillis;
+	private final Semaphore permits, readPermits;
+	private final Set<ConnectionHolder> holders = ConcurrentHashMap.newKeySet();
+	private volatile @Nullable ScheduledFuture<?> leakCheckTask;
+
+	/**
+	 * @param connectionProvider The connection provider the connections are taken from.
+	 * @param name The name of the consumer (e.g. the name of the plugin). Used in log messages.
+	 * @param logger The logger used for the leak warnings.
+	 * @param maxConnections The max amount of connections the consumer can hold at the same time.
+	 * @param leakDetectionThresholdMillis Connections held longer than this are reported as possible leaks. 0 or less to disable the leak detection (and recording the acquiring stack traces).
+	 */
+	public LimitedConnectionProvider(final @NotNull ConnectionProvider connectionProvider, final @NotNull String name, final @NotNull Logger logger, final int maxConnections, final long leakDetectionThresholdMillis)
+	{
+		this(connectionProvider, name, logger, maxConnections, leakDetectionThresholdMillis, DEFAULT_ACQUIRE_TIMEOUT_MILLIS);
+	}
+
+	public LimitedConnectionProvider(final @NotNull ConnectionProvider connectionProvider, final @NotNull String name, final @NotNull Logger logger, final int maxConnections, final long leakDetectionThresholdMillis, final long acquireTimeoutMillis)
+	{
+		this(connectionProvider, name, logger, maxConnections, 0, leakDetectionThresholdMillis, acquireTimeoutMillis);
+	}
+
+	/**
+	 * @param connectionProvider The connection provider the connections are taken from.
+	 * @param name The name of the consumer (e.g. the name of the plugin). Used in log messages.
+	 * @param logger The logger used for the leak warnings.
+	 * @param maxConnections The max amount of connections the consumer can hold at the same time.
+	 * @param maxReadConnections The max amount of read-only connections the consumer can hold at the same time, in addition to the other connections. 0 or less to count read-only connections against maxConnections.
+	 * @param leakDetectionThresholdMillis Connections held longer than this are reported as possible leaks. 0 or less to disable the leak detection (and recording the acquiring stack traces).
+	 * @param acquireTimeoutMillis The max time to wait for a connection to become available.
+	 */
+	public LimitedConnectionProvider(final @NotNull ConnectionProvider connectionProvider, final @NotNull String name, final @NotNull Logger logger, final int maxConnections, final int maxReadConnections, final long leakDetectionThresholdMillis, final long acquireTimeoutMillis)
+	{
+		if(maxConnections < 1) throw new IllegalArgumentException("The max amount of connections must be at least 1");
+		this.connectionProvider = connectionProvider;
+		this.name = name;
+		this.logger = logger;
+		this.maxConnections = maxConnections;
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+		this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+		this.permits = new Semaphore(maxConnections, true);
+		if(maxReadConnections > 0)
+		{
+			this.maxReadConnections = maxReadConnections;
+			this.readPermits = new Semaphore(maxReadConnections, true);
+		}
+		else
+		{
+			this.maxReadConnections = maxConnections;
+			this.readPermits = permits;
+		}
+		leakCheckTask = (leakDetectionThresholdMillis > 0) ? scheduleLeakCheck(this::checkForLeaks, Math.min(LEAK_CHECK_INTERVAL_MILLIS, leakDetectionThresholdMillis)) : null;
+	}
+
+	private static @NotNull ScheduledFuture<?> scheduleLeakCheck(final @NotNull Runnable check, final long interval)
+	{
+		synchronized(LEAK_DETECTOR_LOCK)
+		{
+			if(leakDetector == null)
+			{
+				leakDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "PCGF_PluginLib-ConnectionLeakDetector");
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+			leakDetectorUsers++;
+			return leakDetector.scheduleWithFixedDelay(check, interval, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private static void cancelLeakCheck(final @NotNull ScheduledFuture<?> task)
+	{
+		synchronized(LEAK_DETECTOR_LOCK)
+		{
+			task.cancel(false);
+			if(--leakDetectorUsers == 0 && leakDetector != null)
+			{ // Don't keep the thread (and with it the class loader of the plugin) alive if no one needs it
+				leakDetector.shutdownNow();
+				leakDetector = null;
+			}
+		}
+	}
+
+	/**
+	 * @return True if the thread used for the leak detection is running.
+	 */
+	static boolean isLeakDetectorRunning()
+	{
+		synchronized(LEAK_DETECTOR_LOCK)
+		{
+			return leakDetector != null;
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException
+	{
+		return acquire(false);
+	}
+
+	@Override
+	public Connection getReadOnlyConnection() throws SQLException
+	{
+		return acquire(true);
+	}
+
+	private @NotNull Connection acquire(final boolean readOnly) throws SQLException
+	{
+		final Semaphore permits = readOnly ? readPermits : this.permits;
+		try
+		{
+			if(!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS))
+			{
+				throw new SQLTransientConnectionException(name + " is already using its max of " + (readOnly ? maxReadConnections + " read-only" : maxConnections) + " connections, no connection became available within " + acquireTimeoutMillis + "ms. Held connections: " + holders);
+			}
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a connection", e);
+		}
+		final Connection connection;
+		try
+		{
+			connection = readOnly ? connectionProvider.getReadOnlyConnection() : connectionProvider.getConnection();
+		}
+		catch(SQLException | RuntimeException e)
+		{
+			permits.release();
+			throw e;
+		}
+		final ConnectionHolder holder = new ConnectionHolder(Thread.currentThread().getName(), isLeakDetectionEnabled() ? new Throwable("Connection acquired here") : null);
+		holders.add(holder);
+		final AtomicBoolean closed = new AtomicBoolean(false);
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] { Connection.class }, (proxy, method, args) -> {
+			if(method.getName().equals("close") && method.getParameterCount() == 0)
+			{
+				if(closed.compareAndSet(false, true))
+				{
+					try
+					{
+						connection.close();
+					}
+					finally
+					{
+						holders.remove(holder);
+						permits.release();
+					}
+				}
+				return null;
+			}
+			if(method.getName().equals("isClosed") && closed.get()) return true;
+			return invokeWrapped(proxy, connection, method, args);
+		});
+	}
+
+	/**
+	 * Forwards a call to the wrapped connection, without leaking it through the {@link java.sql.Wrapper} methods (which would allow closing it without releasing the permit).
+	 */
+	private static Object invokeWrapped(final @NotNull Object proxy, final @NotNull Connection connection, final @NotNull Method method, final @Nullable Object[] args) throws Throwable
+	{
+		if(args != null && args.length == 1)
+		{
+			switch(method.getName())
+			{
+				case "unwrap": if(args[0] instanceof Class && ((Class<?>) args[0]).isInstance(proxy)) return proxy; break;
+				case "isWrapperFor": if(args[0] instanceof Class && ((Class<?>) args[0]).isInstance(proxy)) return true; break;
+				case "equals": return proxy == args[0];
+			}
+		}
+		else if(args == null && method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+		try
+		{
+			return method.invoke(connection, args);
+		}
+		catch(InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	private void checkForLeaks()
+	{
+		for(ConnectionHolder holder : holders)
+		{
+			if(!holder.leakReported && holder.getHeldMillis() > leakDetectionThresholdMillis)
+			{
+				holder.leakReported = true;
+				logger.log(Level.WARNING, "Possible connection leak detected in " + name + "! The connection has been held by thread " + holder.getThreadName() + " for " + holder.getHeldMillis() / 1000 + " seconds.", holder.getAcquiredBy());
+			}
+		}
+	}
+
+	public boolean isLeakDetectionEnabled()
+	{
+		return leakCheckTask != null;
+	}
+
+	/**
+	 * @return The connections currently held by the consumer.
+	 */
+	public @NotNull List<ConnectionHolder> getHeldConnections()
+	{
+		return new ArrayList<>(holders);
+	}
+
+	public int getActiveConnections()
+	{
+		return holders.size();
+	}
+
+	/**
+	 * @return The amount of threads waiting because the consumer already holds its max amount of connections.
+	 */
+	public int getWaitingThreads()
+	{
+		return permits.getQueueLength() + ((readPermits != permits) ? readPermits.getQueueLength() : 0);
+	}
+
+	@Override
+	public String getDatabaseType()
+	{
+		return connectionProvider.getDatabaseType();
+	}
+
+	/**
+	 * Does nothing, the underlying connection provider is shared and must not be closed by a single consumer. Use {@link #shutdown()} to dispose the provider.
+	 */
+	@Override
+	public void close() {}
+
+	/**
+	 * Stops the leak detection. Should be called by the owner of the underlying connection provider before it gets closed.
+	 * The leak detection thread is stopped once no provider uses it anymore.
+	 */
+	public synchronized void shutdown()
+	{
+		if(leakCheckTask != null)
+		{
+			cancelLeakCheck(leakCheckTask);
+			leakCheckTask = null;
+		}
+	}
+
+	@Override
+	public boolean isAvailable()
+	{
+		return connectionProvider.isAvailable();
+	}
+}
@@ -21,24 +21,72 @@
 import at.pcgamingfreaks.Database.DatabaseConnectionConfiguration;
 
 import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
+/**
+ * Provides connections to a MySQL server. If read replicas are configured, read-only connections are balanced across them (see {@link ReplicaRouter}).
+ */
 public class MySQLConnectionProvider extends PooledConnectionProvider
 {
+	private static final long REPLICA_CONNECTION_TIMEOUT_MILLIS = 3000; // Fail fast, the read can be done on the primary server
 	private final DatabaseConnectionConfiguration connectionConfiguration;
+	private final List<HikariDataSource> replicaDataSources = new ArrayList<>();
+	private @Nullable ReplicaRouter replicaRouter;
 
 	public MySQLConnectionProvider(@NotNull Logger logger, @NotNull String pluginName, @NotNull DatabaseConnectionConfiguration connectionConfiguration)
 	{
 		super(logger, pluginName);
 		this.connectionConfiguration = connectionConfiguration;
 		init();
+		initReplicas();
+	}
+
+	private void initReplicas()
+	{
+		List<String> replicaHosts = connectionConfiguration.getSQLReplicaHosts();
+		if(replicaHosts.isEmpty() || !isAvailable()) return;
+		Map<String, ReplicaRouter.ConnectionSupplier> replicas = new LinkedHashMap<>();
+		for(String host : replicaHosts)
+		{
+			try
+			{
+				HikariConfig poolConfig = createPoolConfig(host, connectionConfiguration.getSQLReplicaMaxConnections());
+				poolConfig.setReadOnly(true);
+				poolConfig.setInitializationFailTimeout(-1); // Unreachable replicas are handled by the router
+				poolConfig.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MILLIS);
+				HikariDataSource dataSource = createDataSource(poolConfig, getPluginName() + "-Replica-" + (replicaDataSources.size() + 1) + "-Connection-Pool");
+				replicaDataSources.add(dataSource);
+				replicas.put(host, dataSource::getConnection);
+			}
+			catch(Exception e)
+			{
+				logger.warning(ConsoleColor.RED + "Failed to create the connection pool for the read replica " + host + "!" + ConsoleColor.RESET + " Error: " + e.getMessage());
+			}
+		}
+		if(!replicas.isEmpty())
+		{
+			replicaRouter = new ReplicaRouter(super::getConnection, replicas, logger, connectionConfiguration.getSQLReplicaPinTime(), connectionConfiguration.getSQLReplicaRetryInterval());
+		}
 	}
 
 	@Override
 	protected @NotNull HikariConfig getPoolConfig()
+	{
+		return createPoolConfig(connectionConfiguration.getSQLHost(), connectionConfiguration.getSQLMaxConnections());
+	}
+
+	private @NotNull HikariConfig createPoolConfig(final @NotNull String host, final int maxConnections)
 	{
 		//region force loading of jdbc driver
 		// Some plugins, prevent the driver from auto-loading for some reason, this forces the driver to be loaded and registered.
@@ -59,16 +107,81 @@ public MySQLConnectionProvider(@NotNull Logger logger, @NotNull String pluginNam
 		}
 		//endregion
 		HikariConfig poolConfig = new HikariConfig();
-		poolConfig.setJdbcUrl("jdbc:mysql://" + connectionConfiguration.getSQLHost() + "/" + connectionConfiguration.getSQLDatabase() + connectionConfiguration.getSQLConnectionProperties());
+		poolConfig.setJdbcUrl("jdbc:mysql://" + host + "/" + connectionConfiguration.getSQLDatabase() + connectionConfiguration.getSQLConnectionProperties());
 		poolConfig.setUsername(connectionConfiguration.getSQLUser());
 		poolConfig.setPassword(connectionConfiguration.getSQLPassword());
 		poolConfig.setMinimumIdle(1);
-		poolConfig.setMaximumPoolSize(connectionConfiguration.getSQLMaxConnections());
+		poolConfig.setMaximumPoolSize(maxConnections);
+		if(connectionConfiguration.useSQLRewriteBatchedStatements()) poolConfig.addDataSourceProperty("rewriteBatchedStatements", "true"); // Sends batched inserts as multi row inserts
 		if(connectionConfiguration.getSQLMaxLifetime() > 0) poolConfig.setMaxLifetime(connectionConfiguration.getSQLMaxLifetime());
 		if(connectionConfiguration.getSQLIdleTimeout() > 0) poolConfig.setIdleTimeout(connectionConfiguration.getSQLIdleTimeout());
 		return poolConfig;
 	}
 
+	/**
+	 * Gets a connection to the primary server. Reads of the current thread will be pinned to the primary server for the configured time.
+	 * The pinning only applies to the current thread, use {@link #recordWrite(Object)} if the data is read on a different thread (e.g. an async executor).
+	 */
+	@Override
+	public Connection getConnection() throws SQLException
+	{
+		if(replicaRouter != null) replicaRouter.recordWrite();
+		return super.getConnection();
+	}
+
+	/**
+	 * Gets a connection from a healthy read replica. Falls back to the primary server if no replica is configured or healthy, or if the current thread wrote recently.
+	 * Writes done on other threads are not considered, use {@link #getReadOnlyConnection(Object)} to read data that might have been written on another thread.
+	 */
+	@Override
+	public Connection getReadOnlyConnection() throws SQLException
+	{
+		return (replicaRouter != null) ? replicaRouter.getReadOnlyConnection() : super.getConnection();
+	}
+
+	/**
+	 * Gets a connection for reading data identified by a key (e.g. the uuid of a player).
+	 * Reads are routed to the primary server if the data has been written recently (see {@link #recordWrite(Object)}).
+	 *
+	 * @param key The key of the data.
+	 * @return A connection for reading.
+	 * @throws SQLException If there was a problem with the connection.
+	 */
+	public Connection getReadOnlyConnection(final @NotNull Object key) throws SQLException
+	{
+		return (replicaRouter != null) ? replicaRouter.getReadOnlyConnection(key) : super.getConnection();
+	}
+
+	/**
+	 * Records a write of the data identified by a key, so that it gets read from the primary server till the replicas caught up.
+	 *
+	 * @param key The key of the written data.
+	 */
+	public void recordWrite(final @NotNull Object key)
+	{
+		if(replicaRouter != null) replicaRouter.recordWrite(key);
+	}
+
+	/**
+	 * @return The router used for the read replicas. Null if no replica is configured.
+	 */
+	public @Nullable ReplicaRouter getReplicaRouter()
+	{
+		return replicaRouter;
+	}
+
+	@Override
+	public void close()
+	{
+		replicaRouter = null;
+		for(HikariDataSource dataSource : replicaDataSources)
+		{
+			if(!dataSource.isClosed()) dataSource.close();
+		}
+		replicaDataSources.clear();
+		super.close();
+	}
+
 	@Override
 	public String getDatabaseType()
 	{
@@ -18,6 +18,7 @@
 package at.pcgamingfreaks.Database.ConnectionProvider;
 
 import at.pcgamingfreaks.ConsoleColor;
+import at.pcgamingfreaks.Database.Metrics.ConnectionPoolMetrics;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -32,6 +33,7 @@ public abstract class PooledConnectionProvider implements ConnectionProvider
 {
 	protected final Logger logger;
 	private final String pluginName;
+	private final ConnectionPoolMetrics poolMetrics = new ConnectionPoolMetrics();
 	private HikariDataSource dataSource; // SQL Connection Pool
 
 	protected PooledConnectionProvider(@NotNull Logger logger, @NotNull String pluginName)
@@ -45,13 +47,8 @@ public void init()
 		try
 		{
 			HikariConfig poolConfig = getPoolConfig();
-			poolConfig.setPoolName(pluginName + "-Connection-Pool");
-			poolConfig.addDataSourceProperty("useUnicode", "true");
-			poolConfig.addDataSourceProperty("characterEncoding", "utf-8");
-			poolConfig.addDataSourceProperty("cachePrepStmts", "true");
-			poolConfig.addDataSourceProperty("prepStmtCacheSize", "250");
-			poolConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-			dataSource = new HikariDataSource(poolConfig);
+			poolConfig.setMetricsTrackerFactory(poolMetrics);
+			dataSource = createDataSource(poolConfig, pluginName + "-Connection-Pool");
 		}
 		catch(Exception e)
 		{
@@ -61,6 +58,29 @@ public void init()
 		}
 	}
 
+	/**
+	 * Creates a connection pool with the settings shared by all pools.
+	 *
+	 * @param poolConfig The config for the connection pool.
+	 * @param poolName The name of the pool.
+	 * @return The created connection pool.
+	 */
+	protected @NotNull HikariDataSource createDataSource(final @NotNull HikariConfig poolConfig, final @NotNull String poolName)
+	{
+		poolConfig.setPoolName(poolName);
+		poolConfig.addDataSourceProperty("useUnicode", "true");
+		poolConfig.addDataSourceProperty("characterEncoding", "utf-8");
+		poolConfig.addDataSourceProperty("cachePrepStmts", "true");
+		poolConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+		poolConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+		return new HikariDataSource(poolConfig);
+	}
+
+	protected @NotNull String getPluginName()
+	{
+		return pluginName;
+	}
+
 	/**
 	 * Gets a config for a Hikari connection pool.
 	 *
@@ -68,6 +88,16 @@ public void init()
 	 */
 	protected abstract @NotNull HikariConfig getPoolConfig();
 
+	/**
+	 * Gets the metrics of the connection pool (connection usage, wait times for connections, ...).
+	 *
+	 * @return The metrics of the connection pool.
+	 */
+	public @NotNull ConnectionPoolMetrics getPoolMetrics()
+	{
+		return poolMetrics;
+	}
+
 	@Override
 	public Connection getConnection() throws SQLException
 	{
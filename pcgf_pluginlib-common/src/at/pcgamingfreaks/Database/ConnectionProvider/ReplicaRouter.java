@@ -0,0 +1,227 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.ConnectionProvider;
+
+import org.jetbrains.annotations.NotNull;
+
+import lombok.Getter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Routes read-only connections to read replicas. The replicas are used round-robin, replicas that fail to provide a connection are skipped till the retry interval passed.
+ * If no replica is healthy, the connection is taken from the primary server.
+ * <p>
+ * Replicas might lag behind the primary server. To allow reading own writes, reads are pinned to the primary server for a configurable time after a write.
+ * Writes get recorded per thread (see {@link #recordWrite()}) and optionally per key (e.g. the uuid of a player, see {@link #recordWrite(Object)}).
+ * <p>
+ * The per thread pinning only works if the data is written and read on the same thread. Database work is usually done on async executors or scheduler threads,
+ * where the next task for the same player might run on a different thread. In this case the writes need to be recorded with a key and read with the same key.
+ */
+public class ReplicaRouter
+{
+	public static final long DEFAULT_PIN_MILLIS = 2000, DEFAULT_RETRY_INTERVAL_MILLIS = 30000;
+	private static final int PINNED_KEYS_CLEANUP_THRESHOLD = 1024;
+
+	@FunctionalInterface
+	public interface ConnectionSupplier
+	{
+		@NotNull Connection get() throws SQLException;
+	}
+
+	private static final class Replica
+	{
+		private final String name;
+		private final ConnectionSupplier supplier;
+		private volatile long unhealthyUntil = 0;
+
+		private Replica(final @NotNull String name, final @NotNull ConnectionSupplier supplier)
+		{
+			this.name = name;
+			this.supplier = supplier;
+		}
+	}
+
+	private final ConnectionSupplier primary;
+	private final Replica[] replicas;
+	private final Logger logger;
+	@Getter private final long pinMillis, retryIntervalMillis;
+	private final AtomicInteger nextReplica = new AtomicInteger();
+	private final ThreadLocal<Long> lastThreadWrite = new ThreadLocal<>();
+	private final Map<Object, Long> lastKeyWrite = new ConcurrentHashMap<>();
+	private final LongAdder replicaReads = new LongAdder(), primaryReads = new LongAdder(), replicaFailures = new LongAdder();
+
+	/**
+	 * @param primary Provides connections to the primary server. Used if the read is pinned or no replica is healthy.
+	 * @param replicas The replicas with their name (used in log messages).
+	 * @param logger The logger used to report unhealthy replicas.
+	 * @param pinMillis The time in milliseconds reads are routed to the primary server after a write. 0 to disable the pinning.
+	 * @param retryIntervalMillis The time in milliseconds an unhealthy replica is skipped.
+	 */
+	public ReplicaRouter(final @NotNull ConnectionSupplier primary, final @NotNull Map<String, ConnectionSupplier> replicas, final @NotNull Logger logger, final long pinMillis, final long retryIntervalMillis)
+	{
+		this.primary = primary;
+		this.logger = logger;
+		this.pinMillis = pinMillis;
+		this.retryIntervalMillis = retryIntervalMillis;
+		List<Replica> replicaList = new ArrayList<>(replicas.size());
+		replicas.forEach((name, supplier) -> replicaList.add(new Replica(name, supplier)));
+		this.replicas = replicaList.toArray(new Replica[0]);
+	}
+
+	//region pinning
+	/**
+	 * Pins the reads of the current thread to the primary server for the configured time. Reads on other threads are not pinned.
+	 */
+	public void recordWrite()
+	{
+		if(pinMillis > 0) lastThreadWrite.set(System.currentTimeMillis());
+	}
+
+	/**
+	 * Pins the reads for the given key to the primary server for the configured time.
+	 *
+	 * @param key The key of the written data, e.g. the uuid of a player.
+	 */
+	public void recordWrite(final @NotNull Object key)
+	{
+		if(pinMillis <= 0) return;
+		long now = System.currentTimeMillis();
+		lastKeyWrite.put(key, now);
+		if(lastKeyWrite.size() > PINNED_KEYS_CLEANUP_THRESHOLD) lastKeyWrite.values().removeIf(time -> now - time > pinMillis);
+	}
+
+	/**
+	 * @return True if reads of the current thread are pinned to the primary server.
+	 */
+	public boolean isPinned()
+	{
+		Long lastWrite = lastThreadWrite.get();
+		return lastWrite != null && System.currentTimeMillis() - lastWrite <= pinMillis;
+	}
+
+	/**
+	 * @param key The key of the data.
+	 * @return True if reads for the given key (or of the current thread) are pinned to the primary server.
+	 */
+	public boolean isPinned(final @NotNull Object key)
+	{
+		if(isPinned()) return true;
+		Long lastWrite = lastKeyWrite.get(key);
+		return lastWrite != null && System.currentTimeMillis() - lastWrite <= pinMillis;
+	}
+	//endregion
+
+	/**
+	 * Gets a connection for reading from a healthy replica. Falls back to the primary server.
+	 *
+	 * @return A connection for reading.
+	 * @throws SQLException If the connection to the primary server failed.
+	 */
+	public @NotNull Connection getReadOnlyConnection() throws SQLException
+	{
+		return route(isPinned());
+	}
+
+	/**
+	 * Gets a connection for reading data identified by a key from a healthy replica. Falls back to the primary server.
+	 *
+	 * @param key The key of the data, e.g. the uuid of a player.
+	 * @return A connection for reading.
+	 * @throws SQLException If the connection to the primary server failed.
+	 */
+	public @NotNull Connection getReadOnlyConnection(final @NotNull Object key) throws SQLException
+	{
+		return route(isPinned(key));
+	}
+
+	private @NotNull Connection route(final boolean pinned) throws SQLException
+	{
+		if(!pinned && replicas.length > 0)
+		{
+			long now = System.currentTimeMillis();
+			int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.length);
+			for(int i = 0; i < replicas.length; i++)
+			{
+				Replica replica = replicas[(start + i) % replicas.length];
+				if(replica.unhealthyUntil > now) continue;
+				try
+				{
+					Connection connection = replica.supplier.get();
+					replicaReads.increment();
+					if(replica.unhealthyUntil != 0)
+					{
+						replica.unhealthyUntil = 0;
+						logger.info("Read replica " + replica.name + " is available again.");
+					}
+					return connection;
+				}
+				catch(SQLException e)
+				{
+					replicaFailures.increment();
+					replica.unhealthyUntil = now + retryIntervalMillis;
+					logger.warning("Failed to get connection from read replica " + replica.name + ", it will not be used for the next " + retryIntervalMillis / 1000 + " seconds. Error: " + e.getMessage());
+				}
+			}
+		}
+		primaryReads.increment();
+		return primary.get();
+	}
+
+	/**
+	 * @return The amount of replicas that are currently not skipped.
+	 */
+	public int getHealthyReplicas()
+	{
+		long now = System.currentTimeMillis();
+		int healthy = 0;
+		for(Replica replica : replicas)
+		{
+			if(replica.unhealthyUntil <= now) healthy++;
+		}
+		return healthy;
+	}
+
+	public int getReplicaCount()
+	{
+		return replicas.length;
+	}
+
+	public long getReplicaReads()
+	{
+		return replicaReads.sum();
+	}
+
+	public long getPrimaryReads()
+	{
+		return primaryReads.sum();
+	}
+
+	public long getReplicaFailures()
+	{
+		return replicaFailures.sum();
+	}
+}
@@ -20,20 +20,32 @@
 import at.pcgamingfreaks.ConsoleColor;
 
 import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.logging.Logger;
 
 public class SQLiteConnectionProvider extends PooledConnectionProvider
 {
 	private final String databasePath;
+	private final SQLiteSettings settings;
+	private HikariDataSource readDataSource; // Read-only connections, the writer uses the pool of the PooledConnectionProvider
 
 	public SQLiteConnectionProvider(@NotNull Logger logger, @NotNull String pluginName, @NotNull String databasePath)
+	{
+		this(logger, pluginName, databasePath, new SQLiteSettings());
+	}
+
+	public SQLiteConnectionProvider(@NotNull Logger logger, @NotNull String pluginName, @NotNull String databasePath, @NotNull SQLiteSettings settings)
 	{
 		super(logger, pluginName);
 		this.databasePath = databasePath;
+		this.settings = settings;
 		init();
+		if(isAvailable()) readDataSource = settings.createReadDataSource(logger, pluginName + "-Read-Connection-Pool", databasePath);
 	}
 
 	@Override
@@ -47,11 +59,25 @@ public SQLiteConnectionProvider(@NotNull Logger logger, @NotNull String pluginNa
 		{
 			logger.severe(ConsoleColor.RED + " Failed to load SQLite JDBC driver!" + ConsoleColor.RESET);
 		}
-		HikariConfig poolConfig = new HikariConfig();
-		poolConfig.setMaximumPoolSize(1);
-		poolConfig.setJdbcUrl("jdbc:sqlite:" + databasePath);
-		poolConfig.setConnectionTestQuery("SELECT 1;"); // HikariCP doesn't support connection tests on it's own.
-		return poolConfig;
+		return settings.createPoolConfig(databasePath, false);
+	}
+
+	@Override
+	public Connection getReadOnlyConnection() throws SQLException
+	{
+		HikariDataSource readDataSource = this.readDataSource;
+		return (readDataSource != null) ? readDataSource.getConnection() : getConnection();
+	}
+
+	@Override
+	public void close()
+	{
+		if(readDataSource != null)
+		{
+			readDataSource.close();
+			readDataSource = null;
+		}
+		super.close();
 	}
 
 	@Override
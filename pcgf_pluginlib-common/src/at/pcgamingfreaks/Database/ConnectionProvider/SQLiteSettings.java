@@ -0,0 +1,120 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.ConnectionProvider;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.logging.Logger;
+
+/**
+ * Tuning for SQLite databases.
+ * The database is opened in WAL mode with {@code synchronous=NORMAL}. In WAL mode readers don't block the writer and the writer doesn't block readers,
+ * so all writes go through a single connection while reads are spread over a small pool of read-only connections.
+ */
+public class SQLiteSettings
+{
+	private static final int SQLITE_OPEN_READONLY = 0x01;
+
+	/**
+	 * The amount of read-only connections. 0 to route reads to the writer connection.
+	 */
+	@Getter @Setter private int readConnections = 3;
+	/**
+	 * The max amount of bytes of the database file that are memory mapped. 0 to disable memory mapped I/O.
+	 */
+	@Getter @Setter private long mmapSize = 64L * 1024 * 1024;
+	/**
+	 * The page cache size per connection. Positive values are pages, negative values KiB (same as the cache_size pragma).
+	 */
+	@Getter @Setter private int cacheSize = -8000;
+	/**
+	 * Time in ms a connection waits for a lock before failing with SQLITE_BUSY.
+	 */
+	@Getter @Setter private int busyTimeout = 5000;
+
+	public SQLiteSettings() {}
+
+	public SQLiteSettings(final int readConnections, final long mmapSize, final int cacheSize)
+	{
+		this.readConnections = readConnections;
+		this.mmapSize = mmapSize;
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Creates the pool config for the SQLite database.
+	 *
+	 * @param databasePath The path to the database file.
+	 * @param readOnly True to create the config for the read-only pool, false for the writer.
+	 * @return The config for the connection pool.
+	 */
+	public @NotNull HikariConfig createPoolConfig(final @NotNull String databasePath, final boolean readOnly)
+	{
+		HikariConfig poolConfig = new HikariConfig();
+		poolConfig.setJdbcUrl("jdbc:sqlite:" + databasePath);
+		poolConfig.setConnectionTestQuery("SELECT 1;"); // HikariCP doesn't support connection tests on it's own.
+		// The pragmas are applied by the sqlite driver when the connection is opened
+		poolConfig.addDataSourceProperty("synchronous", "NORMAL");
+		poolConfig.addDataSourceProperty("cache_size", String.valueOf(cacheSize));
+		poolConfig.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeout));
+		if(mmapSize > 0) poolConfig.setConnectionInitSql("PRAGMA mmap_size=" + mmapSize + ";");
+		if(readOnly)
+		{
+			poolConfig.setMaximumPoolSize(Math.max(1, readConnections));
+			poolConfig.setMinimumIdle(1);
+			poolConfig.addDataSourceProperty("open_mode", String.valueOf(SQLITE_OPEN_READONLY));
+		}
+		else
+		{
+			poolConfig.setMaximumPoolSize(1);
+			poolConfig.addDataSourceProperty("journal_mode", "WAL"); // Persisted in the database file, so only the writer needs to set it
+		}
+		return poolConfig;
+	}
+
+	/**
+	 * Creates the pool of read-only connections. Must be called after the writer pool has been created, so that the database file exists and is in WAL mode.
+	 *
+	 * @param logger The logger used to report problems.
+	 * @param poolName The name of the pool.
+	 * @param databasePath The path to the database file.
+	 * @return The read-only pool. Null if it is disabled or could not be created, reads should use the writer connection in this case.
+	 */
+	public @Nullable HikariDataSource createReadDataSource(final @NotNull Logger logger, final @NotNull String poolName, final @NotNull String databasePath)
+	{
+		if(readConnections < 1) return null;
+		try
+		{
+			HikariConfig poolConfig = createPoolConfig(databasePath, true);
+			poolConfig.setPoolName(poolName);
+			return new HikariDataSource(poolConfig);
+		}
+		catch(Exception e)
+		{
+			logger.warning("Failed to create the read-only connection pool for the SQLite database, reads will use the writer connection. Error: " + e.getMessage());
+		}
+		return null;
+	}
+}
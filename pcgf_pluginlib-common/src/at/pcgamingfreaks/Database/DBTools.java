@@ -17,19 +17,27 @@
 
 package at.pcgamingfreaks.Database;
 
+import at.pcgamingfreaks.Database.Schema.MySQLTableIntrospector;
+import at.pcgamingfreaks.Database.Schema.SQLiteTableIntrospector;
+import at.pcgamingfreaks.Database.Schema.TableIntrospector;
+
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.util.Arrays;
-import java.util.Locale;
+import java.sql.*;
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 public class DBTools
 {
+	/**
+	 * The amount of rows fetched at once when streaming a result from a database that supports fetching in chunks.
+	 */
+	public static final int STREAMING_FETCH_SIZE = 500;
+
 	/**
 	 * Updates the database so that the given table exists and matches the schema after using this function
 	 * <b>Important:</b> Currently only tested and optimised for MySQL! No warranty that it works with SQL databases other than MySQL.
@@ -54,14 +62,54 @@
 	 * @throws SQLException If any handling with the database failed
 	 */
 	public static void updateDB(@NotNull Connection connection, @NotNull @Language("SQL") String tableDefinition, @Nullable Logger logger) throws IllegalArgumentException, SQLException
+	{
+		updateDB(connection, Collections.singletonList(tableDefinition), logger);
+	}
+
+	/**
+	 * Updates the database so that the given tables exist and match the schema after using this function.
+	 * A fingerprint of every applied table definition is stored in the database. Tables whose definition didn't change since the last call are not validated again,
+	 * so the check for all tables only needs a single query as long as nothing changed.
+	 * See {@link #updateDB(Connection, String, Logger)} for the requirements of the table definitions.
+	 *
+	 * @param connection The JDBC database connection
+	 * @param tableDefinitions The create queries of the tables. Tables will be created/updated in the given order.
+	 * @param logger (optional) A logger to print additional infos in case of a problem
+	 * @throws IllegalArgumentException If a create query is not in the right format
+	 * @throws SQLException If any handling with the database failed
+	 */
+	public static void updateDB(final @NotNull Connection connection, final @NotNull Collection<String> tableDefinitions, final @Nullable Logger logger) throws IllegalArgumentException, SQLException
+	{
+		SQLTableValidator validator = getValidator(connection);
+		SchemaFingerprintStore fingerprintStore = SchemaFingerprintStore.load(connection, logger);
+		for(String tableDefinition : tableDefinitions)
+		{
+			String tableName = SchemaFingerprintStore.getTableName(tableDefinition), fingerprint = SchemaFingerprintStore.fingerprint(tableDefinition);
+			if(tableName != null && fingerprintStore.isUpToDate(tableName, fingerprint)) continue;
+			validator.validate(connection, tableDefinition, logger);
+			if(tableName != null) fingerprintStore.store(tableName, fingerprint);
+		}
+	}
+
+	private static @NotNull SQLTableValidator getValidator(final @NotNull Connection connection) throws SQLException
 	{
 		String dbType = connection.getMetaData().getDatabaseProductName();
+		SQLTableValidator validator;
+		TableIntrospector introspector;
 		switch(dbType.toLowerCase(Locale.ENGLISH))
 		{
-			case "mysql": case "mariadb": new MySQLTableValidator().validate(connection, tableDefinition); return;
-			case "sqlite": new SQLiteTableValidator().validate(connection, tableDefinition); return;
+			case "mysql": case "mariadb":
+				validator = new MySQLTableValidator();
+				introspector = new MySQLTableIntrospector();
+				break;
+			case "sqlite":
+				validator = new SQLiteTableValidator();
+				introspector = new SQLiteTableIntrospector();
+				break;
 			default: throw new RuntimeException("Unsupported database backend '" + dbType + "'!");
 		}
+		validator.setTableIntrospector(introspector);
+		return validator;
 	}
 
 	/**
@@ -130,6 +178,137 @@ public static void runStatementWithoutException(final @NotNull Connection connec
 		}
 	}
 
+	//region streaming query helpers
+	/**
+	 * Prepares a statement for reading a large result row by row instead of loading the whole result into memory.
+	 * MySQL streams the result when the fetch size is set to {@link Integer#MIN_VALUE}. <b>While a streamed result is open no other statement can be executed on the same connection!</b>
+	 * Other databases fetch the result in chunks of {@link #STREAMING_FETCH_SIZE} rows.
+	 *
+	 * @param connection The connection used for the query.
+	 * @param query The query to prepare.
+	 * @return The prepared statement.
+	 * @throws SQLException If there was a problem preparing the statement.
+	 */
+	public static @NotNull PreparedStatement prepareStreamingStatement(final @NotNull Connection connection, final @NotNull @Language("SQL") String query) throws SQLException
+	{
+		PreparedStatement preparedStatement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		try
+		{
+			preparedStatement.setFetchSize(connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("MySQL") ? Integer.MIN_VALUE : STREAMING_FETCH_SIZE);
+		}
+		catch(SQLException | RuntimeException e)
+		{
+			preparedStatement.close();
+			throw e;
+		}
+		return preparedStatement;
+	}
+
+	/**
+	 * Executes a query and returns an iterator that maps the rows lazily. Only the current row is held in memory.
+	 * The iterator must be closed (or fully consumed) to release the statement. The connection is not closed!
+	 *
+	 * @param connection The connection used for the query.
+	 * @param query The query to execute.
+	 * @param rowMapper Maps the current row of the result set.
+	 * @param args The arguments used for the query.
+	 * @param <T> The type of the mapped rows.
+	 * @return An iterator over the mapped rows.
+	 * @throws SQLException If there was a problem executing the query.
+	 */
+	public static @NotNull <T> ResultSetIterator<T> iterate(final @NotNull Connection connection, final @NotNull @Language("SQL") String query, final @NotNull SQLFunction<ResultSet, T> rowMapper, final @Nullable Object... args) throws SQLException
+	{
+		PreparedStatement preparedStatement = prepareStreamingStatement(connection, query);
+		try
+		{
+			setParameters(preparedStatement, args);
+			return new ResultSetIterator<>(preparedStatement.executeQuery(), preparedStatement, rowMapper);
+		}
+		catch(SQLException | RuntimeException e)
+		{
+			preparedStatement.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Executes a query and returns a lazy stream of the mapped rows. Only the current row is held in memory.
+	 * The stream must be closed (e.g. with try-with-resources) to release the statement. The connection is not closed!
+	 * Errors while reading the rows are thrown as {@link ResultSetIterator.ResultSetIterationException}.
+	 *
+	 * @param connection The connection used for the query.
+	 * @param query The query to execute.
+	 * @param rowMapper Maps the current row of the result set.
+	 * @param args The arguments used for the query.
+	 * @param <T> The type of the mapped rows.
+	 * @return A stream of the mapped rows.
+	 * @throws SQLException If there was a problem executing the query.
+	 */
+	public static @NotNull <T> Stream<T> stream(final @NotNull Connection connection, final @NotNull @Language("SQL") String query, final @NotNull SQLFunction<ResultSet, T> rowMapper, final @Nullable Object... args) throws SQLException
+	{
+		return iterate(connection, query, rowMapper, args).stream();
+	}
+
+	/**
+	 * Executes a query and passes every mapped row to the given action, without loading the whole result into memory.
+	 * The statement is closed after the last row. The connection is not closed!
+	 *
+	 * @param connection The connection used for the query.
+	 * @param query The query to execute.
+	 * @param rowMapper Maps the current row of the result set.
+	 * @param action Is called for every mapped row.
+	 * @param args The arguments used for the query.
+	 * @param <T> The type of the mapped rows.
+	 * @return The amount of processed rows.
+	 * @throws SQLException If there was a problem executing the query or reading the rows.
+	 */
+	public static <T> int forEachRow(final @NotNull Connection connection, final @NotNull @Language("SQL") String query, final @NotNull SQLFunction<ResultSet, T> rowMapper, final @NotNull Consumer<? super T> action, final @Nullable Object... args) throws SQLException
+	{
+		int rows = 0;
+		try(PreparedStatement preparedStatement = prepareStreamingStatement(connection, query))
+		{
+			setParameters(preparedStatement, args);
+			try(ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				while(resultSet.next())
+				{
+					action.accept(rowMapper.apply(resultSet));
+					rows++;
+				}
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Executes a query and collects all mapped rows. Use {@link #forEachRow} or {@link #stream} for large results.
+	 *
+	 * @param connection The connection used for the query.
+	 * @param query The query to execute.
+	 * @param rowMapper Maps the current row of the result set.
+	 * @param args The arguments used for the query.
+	 * @param <T> The type of the mapped rows.
+	 * @return The mapped rows.
+	 * @throws SQLException If there was a problem executing the query or reading the rows.
+	 */
+	public static @NotNull <T> List<T> queryList(final @NotNull Connection connection, final @NotNull @Language("SQL") String query, final @NotNull SQLFunction<ResultSet, T> rowMapper, final @Nullable Object... args) throws SQLException
+	{
+		List<T> result = new ArrayList<>();
+		try(PreparedStatement preparedStatement = connection.prepareStatement(query))
+		{
+			setParameters(preparedStatement, args);
+			try(ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				while(resultSet.next())
+				{
+					result.add(rowMapper.apply(resultSet));
+				}
+			}
+		}
+		return result;
+	}
+	//endregion
+
 	/**
 	 * Method to batch set parameters of a prepared statement.
 	 * Starts with 1.
@@ -18,6 +18,7 @@
 package at.pcgamingfreaks.Database;
 
 import at.pcgamingfreaks.Config.IConfig;
+import at.pcgamingfreaks.Database.ConnectionProvider.ReplicaRouter;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -74,6 +75,15 @@ default int getSQLMaxConnections()
 		return Math.max(1, getConfigE().getInt("Database.SQL.MaxConnections", 2));
 	}
 
+	/**
+	 * @return True to let the driver send batched statements as multi row statements (rewriteBatchedStatements). Speeds up batched writes (e.g. of the {@link BatchedStatementWriter}),
+	 *         but {@link java.sql.Statement#executeBatch()} no longer reports the update counts of the single statements and the generated keys of batched inserts change.
+	 */
+	default boolean useSQLRewriteBatchedStatements()
+	{
+		return getConfigE().getBoolean("Database.SQL.RewriteBatchedStatements", false);
+	}
+
 	default long getSQLMaxLifetime()
 	{
 		return getConfigE().getLong("Database.SQL.MaxLifetime", -1) * 1000;
@@ -83,4 +93,33 @@ default long getSQLIdleTimeout()
 	{
 		return getConfigE().getLong("Database.SQL.IdleTimeout", -1) * 1000;
 	}
+
+	/**
+	 * @return The hosts (host:port) of the read replicas. Read-only connections are balanced across them. Empty to read from the primary server.
+	 */
+	default @NotNull List<String> getSQLReplicaHosts()
+	{
+		return getConfigE().getStringList("Database.SQL.Replicas", new ArrayList<>());
+	}
+
+	default int getSQLReplicaMaxConnections()
+	{
+		return Math.max(1, getConfigE().getInt("Database.SQL.ReplicaMaxConnections", getSQLMaxConnections()));
+	}
+
+	/**
+	 * @return The time in milliseconds reads are routed to the primary server after a write.
+	 */
+	default long getSQLReplicaPinTime()
+	{
+		return getConfigE().getLong("Database.SQL.ReplicaPinTime", ReplicaRouter.DEFAULT_PIN_MILLIS / 1000) * 1000;
+	}
+
+	/**
+	 * @return The time in milliseconds a replica that failed to provide a connection is not used.
+	 */
+	default long getSQLReplicaRetryInterval()
+	{
+		return getConfigE().getLong("Database.SQL.ReplicaRetryInterval", ReplicaRouter.DEFAULT_RETRY_INTERVAL_MILLIS / 1000) * 1000;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the metrics of a Hikari connection pool. Set it as metrics tracker factory on the pool config before the pool is created.
+ * One instance should only be used for a single pool.
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory
+{
+	/**
+	 * The time it took to get a connection from the pool.
+	 */
+	@Getter private final LatencyHistogram acquireLatency = new LatencyHistogram();
+	/**
+	 * The time connections have been borrowed from the pool.
+	 */
+	@Getter private final LatencyHistogram usageTime = new LatencyHistogram();
+	private final LongAdder createdConnections = new LongAdder(), connectionTimeouts = new LongAdder();
+	private volatile @Nullable PoolStats poolStats;
+	@Getter private volatile @Nullable String poolName;
+
+	@Override
+	public IMetricsTracker create(final String poolName, final PoolStats poolStats)
+	{
+		this.poolName = poolName;
+		this.poolStats = poolStats;
+		return new IMetricsTracker() {
+			@Override
+			public void recordConnectionCreatedMillis(final long connectionCreatedMillis)
+			{
+				createdConnections.increment();
+			}
+
+			@Override
+			public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos)
+			{
+				acquireLatency.record(elapsedAcquiredNanos);
+			}
+
+			@Override
+			public void recordConnectionUsageMillis(final long elapsedBorrowedMillis)
+			{
+				usageTime.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+			}
+
+			@Override
+			public void recordConnectionTimeout()
+			{
+				connectionTimeouts.increment();
+			}
+		};
+	}
+
+	/**
+	 * @return The amount of connections currently in use.
+	 */
+	public int getActiveConnections()
+	{
+		PoolStats stats = poolStats;
+		return (stats == null) ? 0 : stats.getActiveConnections();
+	}
+
+	/**
+	 * @return The amount of open connections not in use.
+	 */
+	public int getIdleConnections()
+	{
+		PoolStats stats = poolStats;
+		return (stats == null) ? 0 : stats.getIdleConnections();
+	}
+
+	public int getTotalConnections()
+	{
+		PoolStats stats = poolStats;
+		return (stats == null) ? 0 : stats.getTotalConnections();
+	}
+
+	public int getMaxConnections()
+	{
+		PoolStats stats = poolStats;
+		return (stats == null) ? 0 : stats.getMaxConnections();
+	}
+
+	/**
+	 * @return The amount of threads waiting for a connection. If this stays above 0 the pool is too small.
+	 */
+	public int getPendingThreads()
+	{
+		PoolStats stats = poolStats;
+		return (stats == null) ? 0 : stats.getPendingThreads();
+	}
+
+	public long getCreatedConnections()
+	{
+		return createdConnections.sum();
+	}
+
+	/**
+	 * @return The amount of times getting a connection failed because no connection became available in time.
+	 */
+	public long getConnectionTimeouts()
+	{
+		return connectionTimeouts.sum();
+	}
+
+	public @NotNull String getSummary()
+	{
+		return String.format("%s: active=%d, idle=%d, pending=%d, max=%d, timeouts=%d, acquire [%s], usage [%s]", poolName, getActiveConnections(), getIdleConnections(), getPendingThreads(),
+		                     getMaxConnections(), getConnectionTimeouts(), acquireLatency, usageTime);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ConnectionPoolMetrics{" + getSummary() + "}";
+	}
+}
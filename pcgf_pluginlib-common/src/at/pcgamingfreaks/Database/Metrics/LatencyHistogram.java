@@ -0,0 +1,116 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram for durations. The buckets grow exponentially (powers of two microseconds, from &lt; 1µs to &gt; 67s),
+ * so percentiles are reported as the upper bound of the bucket they fall into.
+ */
+public final class LatencyHistogram
+{
+	private static final int BUCKETS = 28;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder count = new LongAdder(), totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	public LatencyHistogram()
+	{
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	public void record(final long nanos)
+	{
+		long micros = Math.max(0, nanos / 1000);
+		int bucket = (micros == 0) ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		buckets[bucket].increment();
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	public void record(final long duration, final TimeUnit unit)
+	{
+		record(unit.toNanos(duration));
+	}
+
+	public long getCount()
+	{
+		return count.sum();
+	}
+
+	public double getAverageMillis()
+	{
+		long count = getCount();
+		return (count == 0) ? 0 : totalNanos.sum() / (double) count / 1_000_000d;
+	}
+
+	public double getMaxMillis()
+	{
+		return maxNanos.get() / 1_000_000d;
+	}
+
+	/**
+	 * Gets the upper bound of the bucket containing the given percentile.
+	 *
+	 * @param percentile The percentile (0 - 100).
+	 * @return The upper bound of the duration of the percentile in milliseconds. 0 if nothing has been recorded.
+	 */
+	public double getPercentileMillis(final double percentile)
+	{
+		long[] snapshot = new long[BUCKETS];
+		long total = 0;
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			snapshot[i] = buckets[i].sum();
+			total += snapshot[i];
+		}
+		if(total == 0) return 0;
+		long target = (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100d), seen = 0;
+		for(int i = 0; i < BUCKETS; i++)
+		{
+			seen += snapshot[i];
+			if(seen >= target && snapshot[i] > 0) return Math.min((1L << i) / 1000d, getMaxMillis());
+		}
+		return getMaxMillis();
+	}
+
+	public void reset()
+	{
+		for(LongAdder bucket : buckets)
+		{
+			bucket.reset();
+		}
+		count.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("count=%d, avg=%.2fms, p50=%.2fms, p95=%.2fms, p99=%.2fms, max=%.2fms", getCount(), getAverageMillis(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99), getMaxMillis());
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Metrics;
+
+import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Wraps a connection provider and measures the execution time of every statement executed on its connections.
+ * The timings are grouped by the SQL text of the statement. Statements taking longer than the slow query threshold are logged.
+ * If the statement timing is disabled, the connections are handed out without the wrapper and no timings are recorded.
+ */
+public class MonitoredConnectionProvider implements ConnectionProvider
+{
+	private static final int MAX_TRACKED_STATEMENTS = 500; // Prevents unbounded growth if a plugin builds its queries without placeholders
+	private static final String OTHER_STATEMENTS = "<other>", UNKNOWN_STATEMENT = "<unknown>";
+
+	private final ConnectionProvider connectionProvider;
+	private final Logger logger;
+	private final Map<String, LatencyHistogram> statementTimings = new ConcurrentHashMap<>();
+	private final LongAdder slowQueries = new LongAdder();
+	/**
+	 * Enables the timing of the statements. Only affects connections obtained after the change.
+	 */
+	@Getter @Setter private volatile boolean statementTimingEnabled;
+	/**
+	 * Statements running longer than this (in ms) are logged. 0 or less to disable the slow query log.
+	 */
+	@Getter @Setter private volatile long slowQueryThresholdMillis;
+
+	public MonitoredConnectionProvider(final @NotNull ConnectionProvider connectionProvider, final @NotNull Logger logger, final long slowQueryThresholdMillis)
+	{
+		this(connectionProvider, logger, true, slowQueryThresholdMillis);
+	}
+
+	public MonitoredConnectionProvider(final @NotNull ConnectionProvider connectionProvider, final @NotNull Logger logger, final boolean statementTimingEnabled, final long slowQueryThresholdMillis)
+	{
+		this.connectionProvider = connectionProvider;
+		this.logger = logger;
+		this.statementTimingEnabled = statementTimingEnabled;
+		this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException
+	{
+		return wrapConnection(connectionProvider.getConnection());
+	}
+
+	@Override
+	public Connection getReadOnlyConnection() throws SQLException
+	{
+		return wrapConnection(connectionProvider.getReadOnlyConnection());
+	}
+
+	@Override
+	public String getDatabaseType()
+	{
+		return connectionProvider.getDatabaseType();
+	}
+
+	@Override
+	public void close()
+	{
+		connectionProvider.close();
+	}
+
+	@Override
+	public boolean isAvailable()
+	{
+		return connectionProvider.isAvailable();
+	}
+
+	/**
+	 * @return The execution times of the statements, grouped by their SQL text.
+	 */
+	public @NotNull Map<String, LatencyHistogram> getStatementTimings()
+	{
+		return Collections.unmodifiableMap(statementTimings);
+	}
+
+	/**
+	 * @param limit The max amount of statements to return.
+	 * @return The SQL texts of the statements with the highest total execution time, slowest first.
+	 */
+	public @NotNull List<String> getSlowestStatements(final int limit)
+	{
+		List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(statementTimings.entrySet());
+		entries.sort(Comparator.comparingDouble((Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().getAverageMillis() * entry.getValue().getCount()).reversed());
+		List<String> slowest = new ArrayList<>(Math.min(limit, entries.size()));
+		for(int i = 0; i < limit && i < entries.size(); i++)
+		{
+			slowest.add(entries.get(i).getKey());
+		}
+		return slowest;
+	}
+
+	/**
+	 * @return The amount of statements that took longer than the slow query threshold.
+	 */
+	public long getSlowQueries()
+	{
+		return slowQueries.sum();
+	}
+
+	public void resetStatementTimings()
+	{
+		statementTimings.clear();
+		slowQueries.reset();
+	}
+
+	private void record(final @NotNull String sql, final long nanos)
+	{
+		LatencyHistogram histogram = statementTimings.get(sql);
+		if(histogram == null)
+		{
+			histogram = statementTimings.computeIfAbsent((statementTimings.size() < MAX_TRACKED_STATEMENTS) ? sql : OTHER_STATEMENTS, key -> new LatencyHistogram());
+		}
+		histogram.record(nanos);
+		long threshold = slowQueryThresholdMillis;
+		if(threshold > 0 && nanos >= threshold * 1_000_000L)
+		{
+			slowQueries.increment();
+			logger.warning(String.format("Slow query (%.1fms): %s", nanos / 1_000_000d, sql));
+		}
+	}
+
+	//region proxies
+	private @Nullable Connection wrapConnection(final @Nullable Connection connection)
+	{
+		if(connection == null || !statementTimingEnabled) return connection;
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] { Connection.class }, (proxy, method, args) -> {
+			Object result = invokeWrapped(proxy, connection, method, args);
+			if(result instanceof Statement)
+			{
+				String sql = (method.getName().startsWith("prepare") && args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : null;
+				return wrapStatement((Statement) result, (Connection) proxy, method.getReturnType(), sql);
+			}
+			return result;
+		});
+	}
+
+	private @NotNull Object wrapStatement(final @NotNull Statement statement, final @NotNull Connection connectionProxy, final @NotNull Class<?> type, final @Nullable String preparedSql)
+	{
+		Class<?> proxyType = Statement.class.isAssignableFrom(type) ? type : Statement.class;
+		return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[] { proxyType }, (proxy, method, args) -> {
+			if(method.getName().equals("getConnection") && method.getParameterCount() == 0) return connectionProxy;
+			if(!method.getName().startsWith("execute")) return invokeWrapped(proxy, statement, method, args);
+			String sql = preparedSql;
+			if(sql == null) sql = (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : UNKNOWN_STATEMENT;
+			long start = System.nanoTime();
+			try
+			{
+				return invoke(statement, method, args);
+			}
+			finally
+			{
+				record(sql, System.nanoTime() - start);
+			}
+		});
+	}
+
+	/**
+	 * Forwards a call to the wrapped object, without leaking the wrapped object through the {@link Wrapper} methods or breaking equals and hashCode of the proxy.
+	 */
+	private static Object invokeWrapped(final @NotNull Object proxy, final @NotNull Object target, final @NotNull Method method, final @Nullable Object[] args) throws Throwable
+	{
+		if(args != null && args.length == 1)
+		{
+			switch(method.getName())
+			{
+				case "unwrap": if(args[0] instanceof Class && ((Class<?>) args[0]).isInstance(proxy)) return proxy; break;
+				case "isWrapperFor": if(args[0] instanceof Class && ((Class<?>) args[0]).isInstance(proxy)) return true; break;
+				case "equals": return proxy == args[0];
+			}
+		}
+		else if(args == null && method.getName().equals("hashCode")) return System.identityHashCode(proxy);
+		return invoke(target, method, args);
+	}
+
+	private static Object invoke(final @NotNull Object target, final @NotNull Method method, final @Nullable Object[] args) throws Throwable
+	{
+		try
+		{
+			return method.invoke(target, args);
+		}
+		catch(InvocationTargetException e)
+		{
+			throw e.getCause();
+		}
+	}
+	//endregion
+}
@@ -24,9 +24,23 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Collects all differences of a table and applies them with a single {@code ALTER TABLE} statement, so that the table only has to be rebuilt once.
+ * The statement is executed with {@code ALGORITHM=INPLACE} first, if the server can't apply the changes in place it falls back to the algorithm chosen by the server.
+ * <p>
+ * Foreign keys that need to be changed are dropped with a separate statement before the combined {@code ALTER TABLE}, because MySQL doesn't allow
+ * dropping and adding a foreign key with the same name in one statement. The update is therefore not atomic: if the combined statement fails,
+ * the changed foreign keys are missing until the table gets validated again.
+ */
 public class MySQLTableValidator extends SQLTableValidator
 {
+	private static final int ER_ALTER_OPERATION_NOT_SUPPORTED = 1845, ER_ALTER_OPERATION_NOT_SUPPORTED_REASON = 1846;
+
+	private final List<String> alterSpecifications = new ArrayList<>(), droppedForeignKeys = new ArrayList<>();
+
 	@Override
 	protected String getCurrentCreateStatement(@NotNull Connection connection, @NotNull String tableName) throws SQLException
 	{
@@ -44,93 +58,96 @@ protected String getCurrentCreateStatement(@NotNull Connection connection, @NotN
 	}
 
 	@Override
-	protected void addColumn(Connection connection, String tableName, String columnName, String columnDefinition) throws SQLException
+	protected void beginChanges(@NotNull String tableName)
 	{
-		try(Statement statement = connection.createStatement())
-		{
-			statement.executeUpdate("ALTER TABLE `" + tableName + "` ADD COLUMN `" + columnName + "` " + columnDefinition);
-		}
+		alterSpecifications.clear();
+		droppedForeignKeys.clear();
 	}
 
 	@Override
-	protected void modifyColumn(Connection connection, String tableName, String columnName, String columnDefinition) throws SQLException
+	protected void applyChanges(@NotNull Connection connection, @NotNull String tableName, @NotNull String tableDefinition) throws SQLException
 	{
-		try(Statement statement = connection.createStatement())
+		if(!droppedForeignKeys.isEmpty())
+		{ // A foreign key can't be dropped and added with the same name in one statement, dropping it is a cheap metadata change anyway
+			execute(connection, "ALTER TABLE `" + tableName + "` " + String.join(", ", droppedForeignKeys));
+		}
+		if(alterSpecifications.isEmpty()) return;
+		String alter = "ALTER TABLE `" + tableName + "` " + String.join(", ", alterSpecifications);
+		if(isDryRun())
+		{
+			execute(connection, alter);
+			return;
+		}
+		try
+		{
+			execute(connection, alter + ", ALGORITHM=INPLACE");
+		}
+		catch(SQLException e)
 		{
-			statement.executeUpdate("ALTER TABLE `" + tableName + "` MODIFY COLUMN `" + columnName + "` " + columnDefinition);
+			if(e.getErrorCode() != ER_ALTER_OPERATION_NOT_SUPPORTED && e.getErrorCode() != ER_ALTER_OPERATION_NOT_SUPPORTED_REASON) throw e;
+			// Not all changes can be done in place (e.g. changing the type of a column), let the server choose the algorithm
+			execute(connection, alter);
 		}
 	}
 
 	@Override
-	protected void addIndex(@NotNull Connection connection, String tableName, String columnName, String indexString) throws SQLException
+	protected void addColumn(Connection connection, String tableName, String columnName, String columnDefinition)
 	{
-		try(Statement statement = connection.createStatement())
-		{
-			statement.executeUpdate("ALTER TABLE " + tableName + " ADD INDEX " + (columnName != null && columnName.length() > 0 ? "`" + columnName + "` " : "") + "(" + indexString + ")");
-		}
+		alterSpecifications.add("ADD COLUMN `" + columnName + "` " + columnDefinition);
 	}
 
 	@Override
-	protected void modifyIndex(@NotNull Connection connection, String tableName, String columnName, String indexString) throws SQLException
+	protected void modifyColumn(Connection connection, String tableName, String columnName, String columnDefinition)
 	{
-		try(Statement statement = connection.createStatement())
-		{
-			statement.executeUpdate("ALTER TABLE " + tableName + " DROP INDEX `" + columnName + "`, ADD INDEX `" + columnName + "` (" + indexString + ")");
-		}
+		alterSpecifications.add("MODIFY COLUMN `" + columnName + "` " + columnDefinition);
 	}
 
 	@Override
-	protected void makeIndexUnique(@NotNull Connection connection, String tableName, String columnName, String indexString) throws SQLException
+	protected void addIndex(@NotNull Connection connection, String tableName, String columnName, String indexString)
 	{
-		try(Statement statement = connection.createStatement())
-		{
-			statement.executeUpdate("ALTER TABLE " + tableName + " DROP INDEX `" + columnName + "`, ADD UNIQUE INDEX `" + columnName + "` (" + indexString + ")");
-		}
+		alterSpecifications.add("ADD INDEX " + (columnName != null && columnName.length() > 0 ? "`" + columnName + "` " : "") + "(" + indexString + ")");
 	}
 
 	@Override
-	protected void addUniqueIndex(@NotNull Connection connection, String tableName, @Nullable String columnName, String indexString) throws SQLException
+	protected void modifyIndex(@NotNull Connection connection, String tableName, String columnName, String indexString)
 	{
-		try(Statement statement = connection.createStatement())
-		{
-			statement.executeUpdate("ALTER TABLE " + tableName + " ADD UNIQUE INDEX " + (columnName == null ? "" : "`" + columnName + "` ") + "(" + indexString + ")");
-		}
+		alterSpecifications.add("DROP INDEX `" + columnName + "`, ADD INDEX `" + columnName + "` (" + indexString + ")");
 	}
 
 	@Override
-	protected void addConstraint(@NotNull Connection connection, String tableName, String columnName, String foreignKey, String references) throws SQLException
+	protected void makeIndexUnique(@NotNull Connection connection, String tableName, String columnName, String indexString)
 	{
-		try(Statement statement = connection.createStatement())
-		{
-			statement.executeUpdate("ALTER TABLE " + tableName + " ADD CONSTRAINT " + (columnName == null ? "" : "`" + columnName + "` ") + "FOREIGN KEY (" + foreignKey + ") REFERENCES " + references);
-		}
+		alterSpecifications.add("DROP INDEX `" + columnName + "`, ADD UNIQUE INDEX `" + columnName + "` (" + indexString + ")");
 	}
 
 	@Override
-	protected void modifyConstraint(@NotNull Connection connection, String tableName, String columnName, String foreignKey, String references) throws SQLException
+	protected void addUniqueIndex(@NotNull Connection connection, String tableName, @Nullable String columnName, String indexString)
 	{
-		try(Statement statement = connection.createStatement())
-		{
-			statement.executeUpdate("ALTER TABLE " + tableName + " DROP FOREIGN KEY `" + columnName + "`");
-		}
+		alterSpecifications.add("ADD UNIQUE INDEX " + (columnName == null ? "" : "`" + columnName + "` ") + "(" + indexString + ")");
+	}
+
+	@Override
+	protected void addConstraint(@NotNull Connection connection, String tableName, String columnName, String foreignKey, String references)
+	{
+		alterSpecifications.add("ADD CONSTRAINT " + (columnName == null ? "" : "`" + columnName + "` ") + "FOREIGN KEY (" + foreignKey + ") REFERENCES " + references);
+	}
+
+	@Override
+	protected void modifyConstraint(@NotNull Connection connection, String tableName, String columnName, String foreignKey, String references)
+	{
+		droppedForeignKeys.add("DROP FOREIGN KEY `" + columnName + "`");
 		addConstraint(connection, tableName, columnName, foreignKey, references);
 	}
 
 	@Override
-	protected void addPrimaryKey(@NotNull Connection connection, String tableName, String primaryKey) throws SQLException
+	protected void addPrimaryKey(@NotNull Connection connection, String tableName, String primaryKey)
 	{
-		try(Statement statement = connection.createStatement())
-		{
-			statement.executeUpdate("ALTER TABLE " + tableName + " ADD PRIMARY KEY " + primaryKey);
-		}
+		alterSpecifications.add("ADD PRIMARY KEY " + primaryKey);
 	}
 
 	@Override
-	protected void modifyPrimaryKey(@NotNull Connection connection, String tableName, String primaryKey) throws SQLException
+	protected void modifyPrimaryKey(@NotNull Connection connection, String tableName, String primaryKey)
 	{
-		try(Statement statement = connection.createStatement())
-		{
-			statement.executeUpdate("ALTER TABLE " + tableName + " DROP PRIMARY KEY, ADD PRIMARY KEY " + primaryKey);
-		}
+		alterSpecifications.add("DROP PRIMARY KEY, ADD PRIMARY KEY " + primaryKey);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily maps the rows of a {@link ResultSet}. Only the current row is held in memory (if the statement has been configured to stream the result, see {@link DBTools#prepareStreamingStatement}).
+ * The result set and its statement are closed once all rows have been read, when an error occurs or when the iterator gets closed.
+ * The connection is not closed!
+ *
+ * @param <T> The type of the mapped rows.
+ */
+public class ResultSetIterator<T> implements Iterator<T>, AutoCloseable
+{
+	private final ResultSet resultSet;
+	private final @Nullable Statement statement;
+	private final SQLFunction<ResultSet, T> rowMapper;
+	private boolean hasNextRow = false, advanced = false, closed = false;
+
+	/**
+	 * @param resultSet The result set to iterate over.
+	 * @param statement The statement the result set belongs to. Will be closed together with the result set. Null to only close the result set.
+	 * @param rowMapper Maps the current row of the result set. Must not move the cursor of the result set.
+	 */
+	public ResultSetIterator(final @NotNull ResultSet resultSet, final @Nullable Statement statement, final @NotNull SQLFunction<ResultSet, T> rowMapper)
+	{
+		this.resultSet = resultSet;
+		this.statement = statement;
+		this.rowMapper = rowMapper;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if(closed) return false;
+		if(!advanced)
+		{
+			try
+			{
+				hasNextRow = resultSet.next();
+				advanced = true;
+			}
+			catch(SQLException e)
+			{
+				close();
+				throw new ResultSetIterationException(e);
+			}
+			if(!hasNextRow) close();
+		}
+		return hasNextRow;
+	}
+
+	@Override
+	public T next()
+	{
+		if(!hasNext()) throw new NoSuchElementException();
+		advanced = false;
+		try
+		{
+			return rowMapper.apply(resultSet);
+		}
+		catch(SQLException e)
+		{
+			close();
+			throw new ResultSetIterationException(e);
+		}
+	}
+
+	/**
+	 * @return A sequential stream over the remaining rows. Closing the stream closes the result set.
+	 */
+	public @NotNull Stream<T> stream()
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false).onClose(this::close);
+	}
+
+	@Override
+	public void close()
+	{
+		if(closed) return;
+		closed = true;
+		try
+		{
+			resultSet.close();
+		}
+		catch(SQLException ignored) {}
+		if(statement != null)
+		{
+			try
+			{
+				statement.close();
+			}
+			catch(SQLException ignored) {}
+		}
+	}
+
+	/**
+	 * Thrown by the iterator (and the streams created from it) if reading or mapping a row failed. The cause is the {@link SQLException} thrown by the driver or the row mapper.
+	 */
+	public static class ResultSetIterationException extends RuntimeException
+	{
+		public ResultSetIterationException(final @NotNull SQLException cause)
+		{
+			super(cause.getMessage(), cause);
+		}
+
+		@Override
+		public synchronized SQLException getCause()
+		{
+			return (SQLException) super.getCause();
+		}
+	}
+}
@@ -0,0 +1,32 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database;
+
+import java.sql.SQLException;
+
+/**
+ * A function that is allowed to throw a {@link SQLException}, e.g. code working with a {@link java.sql.Connection} or reading a {@link java.sql.ResultSet}.
+ *
+ * @param <I> The type of the input.
+ * @param <O> The type of the result.
+ */
+@FunctionalInterface
+public interface SQLFunction<I, O>
+{
+	O apply(I input) throws SQLException;
+}
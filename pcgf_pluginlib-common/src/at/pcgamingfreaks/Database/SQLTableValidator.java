@@ -17,6 +17,8 @@
 
 package at.pcgamingfreaks.Database;
 
+import at.pcgamingfreaks.Database.Schema.*;
+
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -25,6 +27,7 @@
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -44,6 +47,51 @@
 	private static final Pattern UNIQUE_INDEX_PATTERN = Pattern.compile("^(`(\\w+)`|\\w+)?\\s*\\((.*)\\)$", Pattern.CASE_INSENSITIVE);
 	private static final Pattern FOREIGN_KEY_PATTERN = Pattern.compile("^(`(\\w+)`|\\w+)?\\s*\\(([^)]*)\\)\\s+REFERENCES\\s+(`\\w+`|\\w+)\\s+\\(([^)]*)\\)\\s*(ON DELETE (RESTRICT|CASCADE|SET NULL|NO ACTION))?\\s*(ON UPDATE (RESTRICT|CASCADE|SET NULL|NO ACTION))?$", Pattern.CASE_INSENSITIVE);
 
+	private final List<String> plannedStatements = new ArrayList<>();
+	private boolean dryRun = false;
+	private @Nullable TableIntrospector tableIntrospector = null;
+
+	/**
+	 * In dry-run mode the validator only plans the statements needed to update the tables but doesn't execute them.
+	 * The plan is printed to the logger passed to {@link #validate(Connection, String, Logger)} and can be retrieved with {@link #getPlannedStatements()}.
+	 *
+	 * @param dryRun True to only plan the changes.
+	 */
+	public void setDryRun(boolean dryRun)
+	{
+		this.dryRun = dryRun;
+	}
+
+	public boolean isDryRun()
+	{
+		return dryRun;
+	}
+
+	/**
+	 * Sets the introspector used to read the structure of existing tables from the database metadata.
+	 * With an introspector the table is compared as structured model, independent of how the database formats its create statement.
+	 * Without an introspector (or if the metadata can't be read) the create statement of the table is parsed.
+	 *
+	 * @param tableIntrospector The introspector for the used database. Null to parse the create statement of the table.
+	 */
+	public void setTableIntrospector(@Nullable TableIntrospector tableIntrospector)
+	{
+		this.tableIntrospector = tableIntrospector;
+	}
+
+	public @Nullable TableIntrospector getTableIntrospector()
+	{
+		return tableIntrospector;
+	}
+
+	/**
+	 * @return The statements that have been (or in dry-run mode would have been) executed by the last call of validate.
+	 */
+	public @NotNull List<String> getPlannedStatements()
+	{
+		return Collections.unmodifiableList(plannedStatements);
+	}
+
 	/**
 	 * Updates the database so that the given table exists and matches the schema after using this function
 	 * <b>Important:</b> Currently only tested and optimised for MySQL! No warranty that it works with SQL databases other than MySQL.
@@ -94,8 +142,9 @@ public void validate(@NotNull Connection connection, @NotNull @Language("SQL") S
 	 */
 	public void validate(@NotNull Connection connection, @NotNull @Language("SQL") String tableDefinition, @Nullable Logger logger) throws IllegalArgumentException, SQLException
 	{
-		//region validate and prepare table definition
 		tableDefinition = tableDefinition.trim();
+		if(tableIntrospector != null && validateWithModel(connection, tableDefinition, logger)) return;
+		//region validate and prepare table definition
 		Matcher definitionTableInfoMatch = CURRENT_TABLE_INFO.matcher(tableDefinition);
 		if(!definitionTableInfoMatch.find())
 		{
@@ -106,6 +155,8 @@ public void validate(@NotNull Connection connection, @NotNull @Language("SQL") S
 		String tableName = definitionTableInfoMatch.group("tableNameEsc");
 		if(tableName == null) tableName = definitionTableInfoMatch.group("tableName");
 		if(tableName == null || tableName.isEmpty()) throw new IllegalArgumentException("Invalid format of create query detected!");
+		plannedStatements.clear();
+		beginChanges(tableName);
 		String[] definitionTableColumns = definitionTableInfoMatch.group("columns").split(",\n\\s?");
 		//endregion
 		//region get current definition
@@ -118,10 +169,8 @@ public void validate(@NotNull Connection connection, @NotNull @Language("SQL") S
 		}
 		catch(SQLException ignored)
 		{
-			try(Statement statement = connection.createStatement())
-			{
-				statement.executeUpdate(tableDefinition);
-			}
+			execute(connection, tableDefinition);
+			printPlan(tableName, logger);
 			return;
 		}
 		//endregion
@@ -146,6 +195,7 @@ public void validate(@NotNull Connection connection, @NotNull @Language("SQL") S
 				columnMatcher = COLUMN_NAME_EXTRACTOR_PATTERN.matcher(definitionTableColumns[i]);
 				if(columnMatcher.find()) processName(connection, columnMatcher, tableName, definitionTableColumns[i], currentTableColumns);
 			}
+			applyChanges(connection, tableName, tableDefinition);
 		}
 		catch(SQLException e)
 		{
@@ -156,6 +206,138 @@ public void validate(@NotNull Connection connection, @NotNull @Language("SQL") S
 			throw e;
 		}
 		//endregion
+		printPlan(tableName, logger);
+	}
+
+	private boolean validateWithModel(@NotNull Connection connection, @NotNull @Language("SQL") String tableDefinition, @Nullable Logger logger) throws IllegalArgumentException, SQLException
+	{
+		assert tableIntrospector != null;
+		TableModel target = TableDefinitionParser.parse(tableDefinition), current;
+		String tableName = target.getName();
+		plannedStatements.clear();
+		beginChanges(tableName);
+		try
+		{
+			current = tableIntrospector.introspect(connection, tableName);
+		}
+		catch(SQLException e)
+		{
+			if(logger != null) logger.log(Level.FINE, "Failed to read the structure of table " + tableName + " from the database metadata, parsing its create statement instead.", e);
+			return false;
+		}
+		if(current == null)
+		{
+			execute(connection, tableDefinition);
+		}
+		else
+		{
+			try
+			{
+				applyDifferences(connection, tableName, current, target);
+				applyChanges(connection, tableName, tableDefinition);
+			}
+			catch(SQLException e)
+			{
+				if(logger != null)
+				{
+					logger.severe("Failed to update table definition for " + tableName + "!\nCurrent table layout:\n" + current + "\nRequested table layout:\n" + tableDefinition);
+				}
+				throw e;
+			}
+		}
+		printPlan(tableName, logger);
+		return true;
+	}
+
+	/**
+	 * Reports all differences between the table in the database and the requested table to the database specific methods.
+	 * Columns, indexes and foreign keys that only exist in the database are kept.
+	 *
+	 * @param connection The JDBC database connection
+	 * @param tableName The name of the table.
+	 * @param current The table as it is in the database.
+	 * @param target The requested table.
+	 * @throws SQLException If any handling with the database failed
+	 */
+	protected void applyDifferences(@NotNull Connection connection, @NotNull String tableName, @NotNull TableModel current, @NotNull TableModel target) throws SQLException
+	{
+		for(ColumnModel column : target.getColumns())
+		{
+			ColumnModel currentColumn = current.getColumn(column.getName());
+			if(currentColumn == null) addColumn(connection, tableName, column.getName(), column.getDefinition());
+			else if(!currentColumn.matches(column)) modifyColumn(connection, tableName, column.getName(), column.getDefinition());
+		}
+		if(!target.getPrimaryKey().isEmpty() && !TableModel.equalColumns(current.getPrimaryKey(), target.getPrimaryKey()))
+		{
+			String primaryKey = "(" + TableModel.formatColumnList(target.getPrimaryKey()) + ")";
+			if(current.getPrimaryKey().isEmpty()) addPrimaryKey(connection, tableName, primaryKey);
+			else modifyPrimaryKey(connection, tableName, primaryKey);
+		}
+		for(IndexModel index : target.getIndexes())
+		{
+			IndexModel currentIndex = current.findIndex(index);
+			if(currentIndex == null)
+			{
+				if(index.isUnique()) addUniqueIndex(connection, tableName, index.getName(), index.getColumnList());
+				else addIndex(connection, tableName, index.getName(), index.getColumnList());
+			}
+			else if(index.isUnique() && (!currentIndex.isUnique() || !TableModel.equalColumns(currentIndex.getColumns(), index.getColumns())))
+			{
+				makeIndexUnique(connection, tableName, currentIndex.getName(), index.getColumnList());
+			}
+			else if(!TableModel.equalColumns(currentIndex.getColumns(), index.getColumns()))
+			{
+				modifyIndex(connection, tableName, currentIndex.getName(), index.getColumnList());
+			}
+		}
+		for(ForeignKeyModel foreignKey : target.getForeignKeys())
+		{
+			ForeignKeyModel currentForeignKey = current.findForeignKey(foreignKey);
+			if(currentForeignKey == null)
+			{
+				addConstraint(connection, tableName, foreignKey.getName(), TableModel.formatColumnList(foreignKey.getColumns()), foreignKey.getReferenceDefinition());
+			}
+			else if(!currentForeignKey.matches(foreignKey))
+			{
+				String name = currentForeignKey.getName() != null ? currentForeignKey.getName() : foreignKey.getName();
+				modifyConstraint(connection, tableName, name, TableModel.formatColumnList(foreignKey.getColumns()), foreignKey.getReferenceDefinition());
+			}
+		}
+	}
+
+	private void printPlan(@NotNull String tableName, @Nullable Logger logger)
+	{
+		if(!dryRun || logger == null) return;
+		if(plannedStatements.isEmpty()) logger.info("Table " + tableName + " is up to date.");
+		else
+		{
+			StringBuilder plan = new StringBuilder("Planned changes for table ").append(tableName).append(':');
+			for(String statement : plannedStatements)
+			{
+				plan.append('\n').append(statement);
+				if(!statement.endsWith(";")) plan.append(';');
+			}
+			logger.info(plan.toString());
+		}
+	}
+
+	/**
+	 * Executes a statement that changes the database. In dry-run mode the statement is only recorded.
+	 *
+	 * @param connection The connection to execute the statement on.
+	 * @param sql The statement to execute.
+	 * @throws SQLException If the statement failed.
+	 */
+	protected void execute(@NotNull Connection connection, @NotNull @Language("SQL") String sql) throws SQLException
+	{
+		if(!dryRun)
+		{
+			try(Statement statement = connection.createStatement())
+			{
+				statement.executeUpdate(sql);
+			}
+		}
+		plannedStatements.add(sql);
 	}
 
 	protected List<String> getCurrentTableColumns(@NotNull @Language("SQL") String currentCreateStatement) throws SQLException
@@ -567,6 +749,24 @@ protected void processName(@NotNull Connection connection, @NotNull Matcher colu
 	}
 
 	//region SQL commands to be implemented by database specific classes
+	/**
+	 * Called before the table gets compared. Database specific classes can use it to reset the changes collected for the previous table.
+	 *
+	 * @param tableName The name of the table that will be compared.
+	 */
+	protected void beginChanges(@NotNull String tableName) {}
+
+	/**
+	 * Called after all differences of the table have been reported. Database specific classes that collect the changes instead of executing them directly
+	 * have to apply them here, ideally with as few statements as possible.
+	 *
+	 * @param connection The JDBC database connection
+	 * @param tableName The name of the table.
+	 * @param tableDefinition The requested definition of the table.
+	 * @throws SQLException If applying the changes failed.
+	 */
+	protected void applyChanges(@NotNull Connection connection, @NotNull String tableName, @NotNull @Language("SQL") String tableDefinition) throws SQLException {}
+
 	protected abstract String getCurrentCreateStatement(@NotNull Connection connection, @NotNull String tableName) throws SQLException;
 
 	protected abstract void addColumn(Connection connection, String tableName, String columnName, String columnDefinition) throws SQLException;
@@ -20,13 +20,28 @@
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
+/**
+ * SQLite can only add columns to existing tables. All other changes are applied by rebuilding the table within a single transaction:
+ * the table gets created with the new definition, the data gets copied, the old table gets dropped and the new one renamed.
+ * Indexes are created with separate statements within the same transaction.
+ */
 public class SQLiteTableValidator extends SQLTableValidator
 {
+	private static final Pattern CREATE_TABLE_PATTERN = Pattern.compile("^\\s*CREATE\\s+TABLE\\s+(IF\\s+NOT\\s+EXISTS\\s+)?(`[^`]+`|\\w+)", Pattern.CASE_INSENSITIVE);
+	private static final String REBUILD_SUFFIX = "_pcgf_rebuild";
+
+	private final List<String> addedColumns = new ArrayList<>(), indexStatements = new ArrayList<>();
+	private boolean rebuildRequired = false;
+
 	@Override
 	protected String getCurrentCreateStatement(@NotNull Connection connection, @NotNull String tableName) throws SQLException
 	{
-		try(PreparedStatement preparedStatement = connection.prepareStatement("SELECT sql FROM sqlite_master WHERE tbl_name=?;"))
+		try(PreparedStatement preparedStatement = connection.prepareStatement("SELECT sql FROM sqlite_master WHERE type='table' AND tbl_name=?;"))
 		{
 			preparedStatement.setString(1, tableName);
 			try(ResultSet tableExists = preparedStatement.executeQuery())
@@ -41,65 +56,194 @@ protected String getCurrentCreateStatement(@NotNull Connection connection, @NotN
 	}
 
 	@Override
-	protected void addColumn(Connection connection, String tableName, String columnName, String columnDefinition) throws SQLException
+	protected void beginChanges(@NotNull String tableName)
+	{
+		addedColumns.clear();
+		indexStatements.clear();
+		rebuildRequired = false;
+	}
+
+	@Override
+	protected void applyChanges(@NotNull Connection connection, @NotNull String tableName, @NotNull String tableDefinition) throws SQLException
+	{
+		if(!rebuildRequired && addedColumns.isEmpty() && indexStatements.isEmpty()) return;
+		if(isDryRun())
+		{
+			applyChangesInTransaction(connection, tableName, tableDefinition);
+			return;
+		}
+		// Foreign keys can't be toggled within a transaction, they need to be disabled while the table is rebuilt
+		boolean foreignKeys = rebuildRequired && isForeignKeysEnabled(connection);
+		if(foreignKeys) setForeignKeysEnabled(connection, false);
+		boolean autoCommit = connection.getAutoCommit();
+		try
+		{
+			connection.setAutoCommit(false);
+			applyChangesInTransaction(connection, tableName, tableDefinition);
+			connection.commit();
+		}
+		catch(SQLException e)
+		{
+			connection.rollback();
+			throw e;
+		}
+		finally
+		{
+			connection.setAutoCommit(autoCommit);
+			if(foreignKeys) setForeignKeysEnabled(connection, true);
+		}
+	}
+
+	private void applyChangesInTransaction(@NotNull Connection connection, @NotNull String tableName, @NotNull String tableDefinition) throws SQLException
+	{
+		if(rebuildRequired) rebuildTable(connection, tableName, tableDefinition);
+		else
+		{
+			for(String column : addedColumns)
+			{
+				execute(connection, "ALTER TABLE `" + tableName + "` ADD COLUMN " + column);
+			}
+		}
+		for(String indexStatement : indexStatements)
+		{
+			execute(connection, indexStatement);
+		}
+	}
+
+	private void rebuildTable(@NotNull Connection connection, @NotNull String tableName, @NotNull String tableDefinition) throws SQLException
+	{
+		String rebuildTableName = tableName + REBUILD_SUFFIX;
+		List<String> columns = getColumns(connection, tableName), indexes = getIndexDefinitions(connection, tableName);
+		execute(connection, CREATE_TABLE_PATTERN.matcher(tableDefinition).replaceFirst("CREATE TABLE `" + rebuildTableName + "`"));
+		if(!isDryRun())
+		{ // The validator never drops columns, make sure that no data gets lost by the rebuild
+			List<String> newColumns = getColumns(connection, rebuildTableName);
+			for(String column : columns)
+			{
+				if(!newColumns.contains(column)) throw new SQLException("Can't rebuild table " + tableName + ", the column " + column + " is not part of the new table definition!");
+			}
+		}
+		String columnList = "`" + String.join("`, `", columns) + "`";
+		execute(connection, "INSERT INTO `" + rebuildTableName + "` (" + columnList + ") SELECT " + columnList + " FROM `" + tableName + "`");
+		execute(connection, "DROP TABLE `" + tableName + "`");
+		execute(connection, "ALTER TABLE `" + rebuildTableName + "` RENAME TO `" + tableName + "`");
+		for(String index : indexes)
+		{ // Indexes are dropped together with the old table
+			execute(connection, index);
+		}
+	}
+
+	private static boolean isForeignKeysEnabled(@NotNull Connection connection) throws SQLException
 	{
+		try(Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("PRAGMA foreign_keys;"))
+		{
+			return resultSet.next() && resultSet.getInt(1) == 1;
+		}
+	}
+
+	private static void setForeignKeysEnabled(@NotNull Connection connection, boolean enabled) throws SQLException
+	{ // Not part of the planned statements, it only belongs to the way the changes are applied
 		try(Statement statement = connection.createStatement())
 		{
-			statement.executeUpdate("ALTER TABLE `" + tableName + "` ADD COLUMN `" + columnName + "` " + columnDefinition);
+			statement.executeUpdate("PRAGMA foreign_keys=" + (enabled ? "ON" : "OFF"));
+		}
+	}
+
+	private static @NotNull List<String> getColumns(@NotNull Connection connection, @NotNull String tableName) throws SQLException
+	{
+		List<String> columns = new ArrayList<>();
+		try(Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("PRAGMA table_info(`" + tableName + "`);"))
+		{
+			while(resultSet.next())
+			{
+				columns.add(resultSet.getString("name").toLowerCase(Locale.ENGLISH));
+			}
 		}
+		return columns;
+	}
+
+	private static @NotNull List<String> getIndexDefinitions(@NotNull Connection connection, @NotNull String tableName) throws SQLException
+	{
+		List<String> indexes = new ArrayList<>();
+		try(PreparedStatement preparedStatement = connection.prepareStatement("SELECT sql FROM sqlite_master WHERE type='index' AND tbl_name=? AND sql IS NOT NULL;"))
+		{
+			preparedStatement.setString(1, tableName);
+			try(ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				while(resultSet.next())
+				{
+					indexes.add(resultSet.getString("sql"));
+				}
+			}
+		}
+		return indexes;
+	}
+
+	private static @NotNull String getIndexName(@NotNull String tableName, String indexName, @NotNull String indexString)
+	{
+		if(indexName != null && indexName.length() > 0) return indexName;
+		return tableName + "_" + indexString.replaceAll("[`\\s]", "").replace(',', '_');
+	}
+
+	@Override
+	protected void addColumn(Connection connection, String tableName, String columnName, String columnDefinition)
+	{
+		addedColumns.add("`" + columnName + "` " + columnDefinition);
 	}
 
 	@Override
-	protected void modifyColumn(Connection connection, String tableName, String columnName, String columnDefinition) throws SQLException
+	protected void modifyColumn(Connection connection, String tableName, String columnName, String columnDefinition)
 	{
-		//TODO SQLite doesn't allow to modify columns, rename table, create new table, copy old data
+		rebuildRequired = true;
 	}
 
 	@Override
-	protected void addIndex(@NotNull Connection connection, String tableName, String columnName, String indexString) throws SQLException
+	protected void addIndex(@NotNull Connection connection, String tableName, String columnName, String indexString)
 	{
-		//TODO https://www.sqlite.org/lang_createindex.html
+		indexStatements.add("CREATE INDEX IF NOT EXISTS `" + getIndexName(tableName, columnName, indexString) + "` ON `" + tableName + "` (" + indexString + ")");
 	}
 
 	@Override
-	protected void modifyIndex(@NotNull Connection connection, String tableName, String columnName, String indexString) throws SQLException
+	protected void modifyIndex(@NotNull Connection connection, String tableName, String columnName, String indexString)
 	{
-		//TODO
+		indexStatements.add("DROP INDEX IF EXISTS `" + columnName + "`");
+		indexStatements.add("CREATE INDEX `" + columnName + "` ON `" + tableName + "` (" + indexString + ")");
 	}
 
 	@Override
-	protected void makeIndexUnique(@NotNull Connection connection, String tableName, String columnName, String indexString) throws SQLException
+	protected void makeIndexUnique(@NotNull Connection connection, String tableName, String columnName, String indexString)
 	{
-		//TODO
+		indexStatements.add("DROP INDEX IF EXISTS `" + columnName + "`");
+		indexStatements.add("CREATE UNIQUE INDEX `" + columnName + "` ON `" + tableName + "` (" + indexString + ")");
 	}
 
 	@Override
-	protected void addUniqueIndex(@NotNull Connection connection, String tableName, String columnName, String indexString) throws SQLException
+	protected void addUniqueIndex(@NotNull Connection connection, String tableName, String columnName, String indexString)
 	{
-		//TODO
+		indexStatements.add("CREATE UNIQUE INDEX IF NOT EXISTS `" + getIndexName(tableName, columnName, indexString) + "` ON `" + tableName + "` (" + indexString + ")");
 	}
 
 	@Override
-	protected void addConstraint(@NotNull Connection connection, String tableName, String columnName, String foreignKey, String references) throws SQLException
+	protected void addConstraint(@NotNull Connection connection, String tableName, String columnName, String foreignKey, String references)
 	{
-		//TODO
+		rebuildRequired = true;
 	}
 
 	@Override
-	protected void modifyConstraint(@NotNull Connection connection, String tableName, String columnName, String foreignKey, String references) throws SQLException
+	protected void modifyConstraint(@NotNull Connection connection, String tableName, String columnName, String foreignKey, String references)
 	{
-		//TODO
+		rebuildRequired = true;
 	}
 
 	@Override
-	protected void addPrimaryKey(@NotNull Connection connection, String tableName, String primaryKey) throws SQLException
+	protected void addPrimaryKey(@NotNull Connection connection, String tableName, String primaryKey)
 	{
-		//TODO
+		rebuildRequired = true;
 	}
 
 	@Override
-	protected void modifyPrimaryKey(@NotNull Connection connection, String tableName, String primaryKey) throws SQLException
+	protected void modifyPrimaryKey(@NotNull Connection connection, String tableName, String primaryKey)
 	{
-		//TODO
+		rebuildRequired = true;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Schema;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+@Getter
+public class ColumnModel
+{
+	private static final Pattern INTEGER_DISPLAY_WIDTH = Pattern.compile("^((tiny|small|medium|big)?int)\\(\\d+\\)");
+
+	private final String name;
+	/**
+	 * The normalized type of the column, see {@link #normalizeType(String)}.
+	 */
+	private final String type;
+	private final boolean nullable;
+	/**
+	 * Null if the database doesn't report if the column is auto incremented.
+	 */
+	private final @Nullable Boolean autoIncrement;
+	/**
+	 * The definition of the column as written in the create query (everything after the column name). Null for columns read from the database.
+	 */
+	private final @Nullable String definition;
+
+	public ColumnModel(final @NotNull String name, final @NotNull String type, final boolean nullable, final @Nullable Boolean autoIncrement, final @Nullable String definition)
+	{
+		this.name = name;
+		this.type = normalizeType(type);
+		this.nullable = nullable;
+		this.autoIncrement = autoIncrement;
+		this.definition = definition;
+	}
+
+	/**
+	 * Checks if the column read from the database matches the requested column.
+	 * Only the type, the nullability and the auto increment flag are compared, defaults and comments are ignored.
+	 *
+	 * @param target The requested column.
+	 * @return True if the column doesn't need to be modified.
+	 */
+	public boolean matches(final @NotNull ColumnModel target)
+	{
+		if(!type.equals(target.type) || nullable != target.nullable) return false;
+		return autoIncrement == null || target.autoIncrement == null || autoIncrement.equals(target.autoIncrement);
+	}
+
+	/**
+	 * Brings a column type into a comparable form. The type is lower cased, whitespaces are normalized, synonyms are replaced
+	 * and the display width of integer types is removed (it has no effect on the stored values and newer MySQL versions don't report it anymore).
+	 *
+	 * @param type The type of the column, e.g. {@code INT(10) UNSIGNED}.
+	 * @return The normalized type, e.g. {@code int unsigned}.
+	 */
+	public static @NotNull String normalizeType(final @NotNull String type)
+	{
+		String normalized = type.trim().toLowerCase(Locale.ENGLISH).replaceAll("\\s+", " ").replaceAll("\\s*([(),])\\s*", "$1").replaceAll("\\)(?=\\w)", ") ");
+		if(normalized.startsWith("integer")) normalized = "int" + normalized.substring(7);
+		else if(normalized.startsWith("boolean")) normalized = "tinyint" + normalized.substring(7);
+		else if(normalized.startsWith("bool")) normalized = "tinyint" + normalized.substring(4);
+		else if(normalized.startsWith("double precision")) normalized = "double" + normalized.substring(16);
+		return INTEGER_DISPLAY_WIDTH.matcher(normalized).replaceFirst("$1");
+	}
+
+	@Override
+	public String toString()
+	{
+		return name + " " + type + (nullable ? "" : " not null") + (Boolean.TRUE.equals(autoIncrement) ? " auto_increment" : "");
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Schema;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Locale;
+
+@Getter
+public class ForeignKeyModel
+{
+	/**
+	 * Null if the constraint has no name (SQLite doesn't report the names of foreign keys).
+	 */
+	private final @Nullable String name;
+	private final List<String> columns;
+	private final String referencedTable;
+	private final List<String> referencedColumns;
+	/**
+	 * The referential actions in upper case, e.g. {@code CASCADE}. {@code RESTRICT} and {@code NO ACTION} are stored as null, since they behave the same.
+	 */
+	private final @Nullable String onDelete, onUpdate;
+
+	public ForeignKeyModel(final @Nullable String name, final @NotNull List<String> columns, final @NotNull String referencedTable, final @NotNull List<String> referencedColumns, final @Nullable String onDelete, final @Nullable String onUpdate)
+	{
+		this.name = name;
+		this.columns = columns;
+		this.referencedTable = referencedTable;
+		this.referencedColumns = referencedColumns;
+		this.onDelete = normalizeAction(onDelete);
+		this.onUpdate = normalizeAction(onUpdate);
+	}
+
+	private static @Nullable String normalizeAction(final @Nullable String action)
+	{
+		if(action == null) return null;
+		String normalized = action.trim().toUpperCase(Locale.ENGLISH).replaceAll("[\\s_]+", " ");
+		return (normalized.isEmpty() || normalized.equals("RESTRICT") || normalized.equals("NO ACTION")) ? null : normalized;
+	}
+
+	/**
+	 * @param other The foreign key to compare with.
+	 * @return True if both foreign keys reference the same columns with the same actions. The name is ignored.
+	 */
+	public boolean matches(final @NotNull ForeignKeyModel other)
+	{
+		return TableModel.equalColumns(columns, other.columns) && referencedTable.equalsIgnoreCase(other.referencedTable) && TableModel.equalColumns(referencedColumns, other.referencedColumns) &&
+				(onDelete == null ? other.onDelete == null : onDelete.equals(other.onDelete)) && (onUpdate == null ? other.onUpdate == null : onUpdate.equals(other.onUpdate));
+	}
+
+	/**
+	 * @return The reference definition, e.g. {@code `users` (`id`) ON DELETE CASCADE}.
+	 */
+	public @NotNull String getReferenceDefinition()
+	{
+		return "`" + referencedTable + "` (" + TableModel.formatColumnList(referencedColumns) + ")" + (onDelete == null ? "" : " ON DELETE " + onDelete) + (onUpdate == null ? "" : " ON UPDATE " + onUpdate);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "FOREIGN KEY " + (name == null ? "" : name + " ") + columns + " REFERENCES " + getReferenceDefinition();
+	}
+}
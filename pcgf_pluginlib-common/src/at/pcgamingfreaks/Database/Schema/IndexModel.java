@@ -0,0 +1,62 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Schema;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class IndexModel
+{
+	/**
+	 * Null if the index has no name in the create query.
+	 */
+	private final @Nullable String name;
+	private final boolean unique;
+	private final List<String> columns;
+	/**
+	 * The column list of the index as written in the create query (without the parentheses). Null for indexes read from the database.
+	 */
+	private final @Nullable String definition;
+
+	public IndexModel(final @Nullable String name, final boolean unique, final @NotNull List<String> columns, final @Nullable String definition)
+	{
+		this.name = name;
+		this.unique = unique;
+		this.columns = columns;
+		this.definition = definition;
+	}
+
+	/**
+	 * @return The column list of the index to be used in an index definition (without the parentheses).
+	 */
+	public @NotNull String getColumnList()
+	{
+		return definition != null ? definition : TableModel.formatColumnList(columns);
+	}
+
+	@Override
+	public String toString()
+	{
+		return (unique ? "UNIQUE INDEX " : "INDEX ") + (name == null ? "" : name + " ") + columns;
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Schema;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Reads the structure of a table from the {@code information_schema} of MySQL/MariaDB.
+ * Needs one query for the columns, one for the indexes and one for the foreign keys, independent of the size of the table.
+ */
+public class MySQLTableIntrospector extends TableIntrospector
+{
+	@Override
+	protected void loadColumns(final @NotNull Connection connection, final @NotNull TableModel table) throws SQLException
+	{
+		try(PreparedStatement preparedStatement = connection.prepareStatement("SELECT `COLUMN_NAME`, `COLUMN_TYPE`, `IS_NULLABLE`, `EXTRA` FROM `information_schema`.`COLUMNS` WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = ? ORDER BY `ORDINAL_POSITION`;"))
+		{
+			preparedStatement.setString(1, table.getName());
+			try(ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				while(resultSet.next())
+				{
+					String extra = resultSet.getString("EXTRA");
+					table.addColumn(new ColumnModel(resultSet.getString("COLUMN_NAME"), resultSet.getString("COLUMN_TYPE"), resultSet.getString("IS_NULLABLE").equalsIgnoreCase("YES"),
+					                                extra != null && extra.toLowerCase(Locale.ENGLISH).contains("auto_increment"), null));
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void loadIndexes(final @NotNull Connection connection, final @NotNull TableModel table) throws SQLException
+	{
+		Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+		Map<String, Boolean> uniqueIndexes = new HashMap<>();
+		try(PreparedStatement preparedStatement = connection.prepareStatement("SELECT `INDEX_NAME`, `NON_UNIQUE`, `COLUMN_NAME` FROM `information_schema`.`STATISTICS` WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = ? ORDER BY `INDEX_NAME`, `SEQ_IN_INDEX`;"))
+		{
+			preparedStatement.setString(1, table.getName());
+			try(ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				while(resultSet.next())
+				{
+					String name = resultSet.getString("INDEX_NAME");
+					indexColumns.computeIfAbsent(name, key -> new ArrayList<>()).add(resultSet.getString("COLUMN_NAME"));
+					uniqueIndexes.put(name, resultSet.getInt("NON_UNIQUE") == 0);
+				}
+			}
+		}
+		List<String> primaryKey = indexColumns.get("PRIMARY");
+		if(primaryKey != null) table.setPrimaryKey(primaryKey);
+		addIndexes(table, indexColumns, uniqueIndexes);
+	}
+
+	@Override
+	protected void loadForeignKeys(final @NotNull Connection connection, final @NotNull TableModel table) throws SQLException
+	{
+		Map<String, ForeignKeyBuilder> foreignKeys = new LinkedHashMap<>();
+		try(PreparedStatement preparedStatement = connection.prepareStatement("SELECT k.`CONSTRAINT_NAME`, k.`COLUMN_NAME`, k.`REFERENCED_TABLE_NAME`, k.`REFERENCED_COLUMN_NAME`, r.`DELETE_RULE`, r.`UPDATE_RULE` " +
+				"FROM `information_schema`.`KEY_COLUMN_USAGE` k JOIN `information_schema`.`REFERENTIAL_CONSTRAINTS` r ON r.`CONSTRAINT_SCHEMA` = k.`CONSTRAINT_SCHEMA` AND r.`CONSTRAINT_NAME` = k.`CONSTRAINT_NAME` " +
+				"WHERE k.`TABLE_SCHEMA` = DATABASE() AND k.`TABLE_NAME` = ? AND k.`REFERENCED_TABLE_NAME` IS NOT NULL ORDER BY k.`CONSTRAINT_NAME`, k.`ORDINAL_POSITION`;"))
+		{
+			preparedStatement.setString(1, table.getName());
+			try(ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				while(resultSet.next())
+				{
+					String name = resultSet.getString("CONSTRAINT_NAME"), referencedTable = resultSet.getString("REFERENCED_TABLE_NAME");
+					String onDelete = resultSet.getString("DELETE_RULE"), onUpdate = resultSet.getString("UPDATE_RULE");
+					foreignKeys.computeIfAbsent(name, key -> new ForeignKeyBuilder(name, referencedTable, onDelete, onUpdate))
+							.add(resultSet.getString("COLUMN_NAME"), resultSet.getString("REFERENCED_COLUMN_NAME"));
+				}
+			}
+		}
+		for(ForeignKeyBuilder builder : foreignKeys.values())
+		{
+			table.addForeignKey(builder.build());
+		}
+	}
+}
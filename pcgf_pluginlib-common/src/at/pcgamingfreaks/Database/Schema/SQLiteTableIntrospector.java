@@ -0,0 +1,100 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Schema;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Reads the structure of a table with the {@code PRAGMA} statements of SQLite.
+ * SQLite doesn't report if a column is auto incremented or the names of foreign keys, they are ignored when comparing the tables.
+ */
+public class SQLiteTableIntrospector extends TableIntrospector
+{
+	@Override
+	protected void loadColumns(final @NotNull Connection connection, final @NotNull TableModel table) throws SQLException
+	{
+		SortedMap<Integer, String> primaryKey = new TreeMap<>();
+		try(Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("PRAGMA table_info(`" + table.getName() + "`);"))
+		{
+			while(resultSet.next())
+			{
+				String name = resultSet.getString("name");
+				int primaryKeyIndex = resultSet.getInt("pk");
+				if(primaryKeyIndex > 0) primaryKey.put(primaryKeyIndex, name);
+				table.addColumn(new ColumnModel(name, resultSet.getString("type"), resultSet.getInt("notnull") == 0 && primaryKeyIndex == 0, null, null));
+			}
+		}
+		table.setPrimaryKey(new ArrayList<>(primaryKey.values()));
+	}
+
+	@Override
+	protected void loadIndexes(final @NotNull Connection connection, final @NotNull TableModel table) throws SQLException
+	{
+		Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+		Map<String, Boolean> uniqueIndexes = new HashMap<>();
+		try(Statement statement = connection.createStatement())
+		{
+			try(ResultSet resultSet = statement.executeQuery("PRAGMA index_list(`" + table.getName() + "`);"))
+			{
+				while(resultSet.next())
+				{
+					if("pk".equalsIgnoreCase(resultSet.getString("origin"))) continue;
+					uniqueIndexes.put(resultSet.getString("name"), resultSet.getInt("unique") == 1);
+				}
+			}
+			for(String index : uniqueIndexes.keySet())
+			{
+				SortedMap<Integer, String> columns = new TreeMap<>();
+				try(ResultSet resultSet = statement.executeQuery("PRAGMA index_info(`" + index + "`);"))
+				{
+					while(resultSet.next())
+					{
+						columns.put(resultSet.getInt("seqno"), resultSet.getString("name"));
+					}
+				}
+				indexColumns.put(index, new ArrayList<>(columns.values()));
+			}
+		}
+		addIndexes(table, indexColumns, uniqueIndexes);
+	}
+
+	@Override
+	protected void loadForeignKeys(final @NotNull Connection connection, final @NotNull TableModel table) throws SQLException
+	{
+		Map<Integer, ForeignKeyBuilder> foreignKeys = new TreeMap<>();
+		try(Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("PRAGMA foreign_key_list(`" + table.getName() + "`);"))
+		{
+			while(resultSet.next())
+			{
+				String referencedTable = resultSet.getString("table"), onDelete = resultSet.getString("on_delete"), onUpdate = resultSet.getString("on_update");
+				foreignKeys.computeIfAbsent(resultSet.getInt("id"), key -> new ForeignKeyBuilder(null, referencedTable, onDelete, onUpdate))
+						.add(resultSet.getString("from"), resultSet.getString("to"));
+			}
+		}
+		for(ForeignKeyBuilder builder : foreignKeys.values())
+		{
+			table.addForeignKey(builder.build());
+		}
+	}
+}
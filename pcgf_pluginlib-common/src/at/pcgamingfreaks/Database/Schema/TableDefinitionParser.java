@@ -0,0 +1,289 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Schema;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses a create query into a {@link TableModel}.
+ * Unlike the regex based parsing of the {@link at.pcgamingfreaks.Database.SQLTableValidator} the parser tokenizes the query,
+ * so it doesn't depend on line breaks and keeps whitespaces within quoted values.
+ */
+public final class TableDefinitionParser
+{
+	private static final Pattern CREATE_TABLE_PATTERN = Pattern.compile("^\\s*CREATE\\s+TABLE\\s+(IF\\s+NOT\\s+EXISTS\\s+)?(`(?<tableNameEsc>[^`]+)`|\"(?<tableNameQuoted>[^\"]+)\"|(?<tableName>\\w+))\\s*\\(", Pattern.CASE_INSENSITIVE);
+	private static final Set<String> TYPE_ATTRIBUTES = new HashSet<>(Arrays.asList("UNSIGNED", "SIGNED", "ZEROFILL", "PRECISION", "VARYING"));
+
+	private TableDefinitionParser() {}
+
+	private enum TokenType { WORD, QUOTED, GROUP, OTHER }
+
+	private static final class Token
+	{
+		private final TokenType type;
+		private final String text;
+		private final int start;
+
+		private Token(final @NotNull TokenType type, final @NotNull String text, final int start)
+		{
+			this.type = type;
+			this.text = text;
+			this.start = start;
+		}
+
+		private boolean is(final @NotNull String keyword)
+		{
+			return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+		}
+
+		private boolean isIdentifier()
+		{
+			return type == TokenType.WORD || type == TokenType.QUOTED;
+		}
+	}
+
+	/**
+	 * @param tableDefinition The create query of the table.
+	 * @return The model of the requested table.
+	 * @throws IllegalArgumentException If the create query could not be parsed.
+	 */
+	public static @NotNull TableModel parse(final @NotNull String tableDefinition) throws IllegalArgumentException
+	{
+		Matcher matcher = CREATE_TABLE_PATTERN.matcher(tableDefinition);
+		if(!matcher.find()) throw new IllegalArgumentException("Invalid format of create query detected!");
+		String tableName = matcher.group("tableNameEsc");
+		if(tableName == null) tableName = matcher.group("tableNameQuoted");
+		if(tableName == null) tableName = matcher.group("tableName");
+		int end = findClosingParenthesis(tableDefinition, matcher.end());
+		if(end < 0) throw new IllegalArgumentException("Invalid format of create query detected - missing closing parenthesis!");
+
+		TableModel table = new TableModel(tableName);
+		List<String[]> columns = new ArrayList<>(); // name, type, definition
+		Set<String> notNullColumns = new HashSet<>(), autoIncrementColumns = new HashSet<>();
+		List<String> primaryKey = new ArrayList<>();
+		for(String element : splitTopLevel(tableDefinition.substring(matcher.end(), end)))
+		{
+			List<Token> tokens = tokenize(element);
+			if(tokens.isEmpty()) continue;
+			int i = 0;
+			String constraintName = null;
+			if(tokens.get(0).is("CONSTRAINT"))
+			{
+				i++;
+				if(i < tokens.size() && tokens.get(i).isIdentifier() && !isConstraintKeyword(tokens.get(i))) constraintName = tokens.get(i++).text;
+			}
+			if(i >= tokens.size()) throw new IllegalArgumentException("Invalid format of create query detected - incomplete constraint: " + element);
+			Token token = tokens.get(i);
+			if(token.is("PRIMARY"))
+			{
+				primaryKey.addAll(parseColumnList(expectGroup(tokens, i + 2, element).text));
+			}
+			else if(token.is("UNIQUE"))
+			{
+				i++;
+				if(i < tokens.size() && (tokens.get(i).is("INDEX") || tokens.get(i).is("KEY"))) i++;
+				String name = constraintName;
+				if(i < tokens.size() && tokens.get(i).isIdentifier()) name = tokens.get(i++).text;
+				Token group = expectGroup(tokens, i, element);
+				table.addIndex(new IndexModel(name, true, parseColumnList(group.text), group.text.trim()));
+			}
+			else if(token.is("FOREIGN"))
+			{
+				table.addForeignKey(parseForeignKey(tokens, i + 2, constraintName, element));
+			}
+			else if(constraintName == null && token.type == TokenType.WORD && (token.is("INDEX") || token.is("KEY")))
+			{
+				i++;
+				String name = null;
+				if(i < tokens.size() && tokens.get(i).isIdentifier()) name = tokens.get(i++).text;
+				Token group = expectGroup(tokens, i, element);
+				table.addIndex(new IndexModel(name, false, parseColumnList(group.text), group.text.trim()));
+			}
+			else if(token.is("FULLTEXT") || token.is("SPATIAL") || token.is("CHECK") || constraintName != null)
+			{
+				// Not compared
+			}
+			else
+			{
+				if(tokens.size() < 2 || !token.isIdentifier()) throw new IllegalArgumentException("Invalid format of create query detected - invalid column definition: " + element);
+				String name = token.text;
+				StringBuilder type = new StringBuilder(tokens.get(1).text);
+				int pos = 2;
+				if(pos < tokens.size() && tokens.get(pos).type == TokenType.GROUP) type.append('(').append(tokens.get(pos++).text).append(')');
+				while(pos < tokens.size() && tokens.get(pos).type == TokenType.WORD && TYPE_ATTRIBUTES.contains(tokens.get(pos).text.toUpperCase(Locale.ENGLISH)))
+				{
+					type.append(' ').append(tokens.get(pos++).text);
+				}
+				for(; pos < tokens.size(); pos++)
+				{
+					Token attribute = tokens.get(pos);
+					if(attribute.is("NOT") && pos + 1 < tokens.size() && tokens.get(pos + 1).is("NULL")) notNullColumns.add(name);
+					else if(attribute.is("AUTO_INCREMENT") || attribute.is("AUTOINCREMENT")) autoIncrementColumns.add(name);
+					else if(attribute.is("PRIMARY") && pos + 1 < tokens.size() && tokens.get(pos + 1).is("KEY")) primaryKey.add(name);
+					else if(attribute.is("UNIQUE")) table.addIndex(new IndexModel(null, true, Collections.singletonList(name), null));
+				}
+				columns.add(new String[] { name, type.toString(), element.substring(tokens.get(1).start).trim() });
+			}
+		}
+		for(String[] column : columns)
+		{
+			boolean inPrimaryKey = false;
+			for(String key : primaryKey)
+			{
+				if(key.equalsIgnoreCase(column[0])) inPrimaryKey = true;
+			}
+			table.addColumn(new ColumnModel(column[0], column[1], !notNullColumns.contains(column[0]) && !inPrimaryKey, autoIncrementColumns.contains(column[0]), column[2]));
+		}
+		table.setPrimaryKey(primaryKey);
+		return table;
+	}
+
+	private static boolean isConstraintKeyword(final @NotNull Token token)
+	{
+		return token.is("PRIMARY") || token.is("UNIQUE") || token.is("FOREIGN") || token.is("CHECK");
+	}
+
+	private static @NotNull Token expectGroup(final @NotNull List<Token> tokens, final int index, final @NotNull String element)
+	{
+		if(index >= tokens.size() || tokens.get(index).type != TokenType.GROUP) throw new IllegalArgumentException("Invalid format of create query detected - missing column list: " + element);
+		return tokens.get(index);
+	}
+
+	private static @NotNull ForeignKeyModel parseForeignKey(final @NotNull List<Token> tokens, int i, final @Nullable String constraintName, final @NotNull String element)
+	{
+		String name = constraintName;
+		if(i < tokens.size() && tokens.get(i).isIdentifier()) name = tokens.get(i++).text;
+		List<String> columns = parseColumnList(expectGroup(tokens, i++, element).text);
+		if(i + 1 >= tokens.size() || !tokens.get(i).is("REFERENCES") || !tokens.get(i + 1).isIdentifier()) throw new IllegalArgumentException("Invalid format of create query detected - invalid reference: " + element);
+		String referencedTable = tokens.get(i + 1).text;
+		List<String> referencedColumns = parseColumnList(expectGroup(tokens, i + 2, element).text);
+		if(columns.size() != referencedColumns.size()) throw new IllegalArgumentException("Invalid format of create query detected - invalid reference detected!");
+		String onDelete = null, onUpdate = null;
+		for(i += 3; i + 2 < tokens.size(); i++)
+		{
+			if(!tokens.get(i).is("ON")) continue;
+			String action = tokens.get(i + 2).text;
+			if((tokens.get(i + 2).is("SET") || tokens.get(i + 2).is("NO")) && i + 3 < tokens.size()) action += " " + tokens.get(i + 3).text;
+			if(tokens.get(i + 1).is("DELETE")) onDelete = action;
+			else if(tokens.get(i + 1).is("UPDATE")) onUpdate = action;
+		}
+		return new ForeignKeyModel(name, columns, referencedTable, referencedColumns, onDelete, onUpdate);
+	}
+
+	/**
+	 * @param columnList The content of a column list, e.g. {@code `name`(10) ASC, `id`}.
+	 * @return The names of the columns, e.g. {@code [name, id]}.
+	 */
+	static @NotNull List<String> parseColumnList(final @NotNull String columnList)
+	{
+		List<String> columns = new ArrayList<>();
+		for(String column : splitTopLevel(columnList))
+		{
+			List<Token> tokens = tokenize(column);
+			if(!tokens.isEmpty() && tokens.get(0).isIdentifier()) columns.add(tokens.get(0).text);
+		}
+		return columns;
+	}
+
+	private static int findClosingParenthesis(final @NotNull String text, final int start)
+	{
+		int depth = 1;
+		char quote = 0;
+		for(int i = start; i < text.length(); i++)
+		{
+			char c = text.charAt(i);
+			if(quote != 0)
+			{
+				if(c == quote) quote = 0;
+			}
+			else if(c == '`' || c == '\'' || c == '"') quote = c;
+			else if(c == '(') depth++;
+			else if(c == ')' && --depth == 0) return i;
+		}
+		return -1;
+	}
+
+	private static @NotNull List<String> splitTopLevel(final @NotNull String text)
+	{
+		List<String> parts = new ArrayList<>();
+		int depth = 0, partStart = 0;
+		char quote = 0;
+		for(int i = 0; i < text.length(); i++)
+		{
+			char c = text.charAt(i);
+			if(quote != 0)
+			{
+				if(c == quote) quote = 0;
+			}
+			else if(c == '`' || c == '\'' || c == '"') quote = c;
+			else if(c == '(') depth++;
+			else if(c == ')') depth--;
+			else if(c == ',' && depth == 0)
+			{
+				parts.add(text.substring(partStart, i));
+				partStart = i + 1;
+			}
+		}
+		parts.add(text.substring(partStart));
+		return parts;
+	}
+
+	private static @NotNull List<Token> tokenize(final @NotNull String text)
+	{
+		List<Token> tokens = new ArrayList<>();
+		int i = 0;
+		while(i < text.length())
+		{
+			char c = text.charAt(i);
+			if(Character.isWhitespace(c))
+			{
+				i++;
+			}
+			else if(c == '`' || c == '"' || c == '\'')
+			{
+				int end = text.indexOf(c, i + 1);
+				if(end < 0) end = text.length();
+				tokens.add(new Token(c == '\'' ? TokenType.OTHER : TokenType.QUOTED, text.substring(i + 1, end), i));
+				i = end + 1;
+			}
+			else if(c == '(')
+			{
+				int end = findClosingParenthesis(text, i + 1);
+				if(end < 0) end = text.length();
+				tokens.add(new Token(TokenType.GROUP, text.substring(i + 1, end), i));
+				i = end + 1;
+			}
+			else if(Character.isLetterOrDigit(c) || c == '_' || c == '$')
+			{
+				int start = i;
+				while(i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_' || text.charAt(i) == '$')) i++;
+				tokens.add(new Token(TokenType.WORD, text.substring(start, i), start));
+			}
+			else
+			{
+				tokens.add(new Token(TokenType.OTHER, String.valueOf(c), i++));
+			}
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Schema;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Reads the structure of a table from the database into a {@link TableModel}.
+ * This implementation uses the {@link DatabaseMetaData} of the JDBC driver and works with every driver that implements it.
+ * Database specific subclasses can use faster or more accurate sources (e.g. {@code information_schema}).
+ */
+public class TableIntrospector
+{
+	/**
+	 * @param connection The JDBC database connection.
+	 * @param tableName The name of the table.
+	 * @return The model of the table. Null if the table doesn't exist.
+	 * @throws SQLException If the structure of the table could not be read.
+	 */
+	public @Nullable TableModel introspect(final @NotNull Connection connection, final @NotNull String tableName) throws SQLException
+	{
+		if(!tableExists(connection, tableName)) return null;
+		TableModel table = new TableModel(tableName);
+		loadColumns(connection, table);
+		loadIndexes(connection, table);
+		loadForeignKeys(connection, table);
+		return table;
+	}
+
+	protected boolean tableExists(final @NotNull Connection connection, final @NotNull String tableName) throws SQLException
+	{
+		try(ResultSet resultSet = connection.getMetaData().getTables(connection.getCatalog(), null, tableName, new String[] { "TABLE" }))
+		{
+			while(resultSet.next())
+			{
+				if(tableName.equalsIgnoreCase(resultSet.getString("TABLE_NAME"))) return true; // The name is a pattern, _ would match any character
+			}
+		}
+		return false;
+	}
+
+	protected void loadColumns(final @NotNull Connection connection, final @NotNull TableModel table) throws SQLException
+	{
+		DatabaseMetaData metaData = connection.getMetaData();
+		Set<String> primaryKey = new HashSet<>();
+		List<String> primaryKeyColumns = new ArrayList<>();
+		try(ResultSet resultSet = metaData.getPrimaryKeys(connection.getCatalog(), null, table.getName()))
+		{
+			SortedMap<Short, String> keyColumns = new TreeMap<>();
+			while(resultSet.next())
+			{
+				keyColumns.put(resultSet.getShort("KEY_SEQ"), resultSet.getString("COLUMN_NAME"));
+			}
+			primaryKeyColumns.addAll(keyColumns.values());
+			for(String column : primaryKeyColumns) primaryKey.add(column.toLowerCase(Locale.ENGLISH));
+		}
+		table.setPrimaryKey(primaryKeyColumns);
+		try(ResultSet resultSet = metaData.getColumns(connection.getCatalog(), null, table.getName(), "%"))
+		{
+			while(resultSet.next())
+			{
+				if(!table.getName().equalsIgnoreCase(resultSet.getString("TABLE_NAME"))) continue;
+				String name = resultSet.getString("COLUMN_NAME"), type = resultSet.getString("TYPE_NAME").toLowerCase(Locale.ENGLISH);
+				if(type.contains("char") || type.contains("binary"))
+				{
+					type = type.replaceFirst("^(\\w+)", "$1(" + resultSet.getInt("COLUMN_SIZE") + ")");
+				}
+				else if(type.startsWith("decimal") || type.startsWith("numeric"))
+				{
+					type = type.replaceFirst("^(\\w+)", "$1(" + resultSet.getInt("COLUMN_SIZE") + "," + resultSet.getInt("DECIMAL_DIGITS") + ")");
+				}
+				String autoIncrement = resultSet.getString("IS_AUTOINCREMENT");
+				boolean nullable = resultSet.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls && !primaryKey.contains(name.toLowerCase(Locale.ENGLISH));
+				table.addColumn(new ColumnModel(name, type, nullable, (autoIncrement == null || autoIncrement.isEmpty()) ? null : autoIncrement.equalsIgnoreCase("YES"), null));
+			}
+		}
+	}
+
+	protected void loadIndexes(final @NotNull Connection connection, final @NotNull TableModel table) throws SQLException
+	{
+		Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+		Map<String, Boolean> uniqueIndexes = new HashMap<>();
+		try(ResultSet resultSet = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table.getName(), false, false))
+		{
+			while(resultSet.next())
+			{
+				String name = resultSet.getString("INDEX_NAME"), column = resultSet.getString("COLUMN_NAME");
+				if(name == null || column == null || resultSet.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) continue;
+				indexColumns.computeIfAbsent(name, key -> new ArrayList<>()).add(column); // The result is ordered by the name and the position within the index
+				uniqueIndexes.put(name, !resultSet.getBoolean("NON_UNIQUE"));
+			}
+		}
+		addIndexes(table, indexColumns, uniqueIndexes);
+	}
+
+	protected static void addIndexes(final @NotNull TableModel table, final @NotNull Map<String, List<String>> indexColumns, final @NotNull Map<String, Boolean> uniqueIndexes)
+	{
+		for(Map.Entry<String, List<String>> index : indexColumns.entrySet())
+		{
+			if(index.getKey().equalsIgnoreCase("PRIMARY") || (uniqueIndexes.get(index.getKey()) && TableModel.equalColumns(index.getValue(), table.getPrimaryKey()))) continue; // The index of the primary key
+			table.addIndex(new IndexModel(index.getKey(), uniqueIndexes.get(index.getKey()), index.getValue(), null));
+		}
+	}
+
+	protected void loadForeignKeys(final @NotNull Connection connection, final @NotNull TableModel table) throws SQLException
+	{
+		Map<String, ForeignKeyBuilder> foreignKeys = new LinkedHashMap<>();
+		try(ResultSet resultSet = connection.getMetaData().getImportedKeys(connection.getCatalog(), null, table.getName()))
+		{
+			while(resultSet.next())
+			{
+				String name = resultSet.getString("FK_NAME"), referencedTable = resultSet.getString("PKTABLE_NAME");
+				ForeignKeyBuilder builder = foreignKeys.computeIfAbsent((name == null || name.isEmpty()) ? referencedTable : name,
+				                                                        key -> new ForeignKeyBuilder(name, referencedTable, getAction(resultSet, "DELETE_RULE"), getAction(resultSet, "UPDATE_RULE")));
+				builder.add(resultSet.getString("FKCOLUMN_NAME"), resultSet.getString("PKCOLUMN_NAME"));
+			}
+		}
+		for(ForeignKeyBuilder builder : foreignKeys.values())
+		{
+			table.addForeignKey(builder.build());
+		}
+	}
+
+	private static @Nullable String getAction(final @NotNull ResultSet resultSet, final @NotNull String column)
+	{
+		try
+		{
+			switch(resultSet.getShort(column))
+			{
+				case DatabaseMetaData.importedKeyCascade: return "CASCADE";
+				case DatabaseMetaData.importedKeySetNull: return "SET NULL";
+				case DatabaseMetaData.importedKeySetDefault: return "SET DEFAULT";
+				default: return null;
+			}
+		}
+		catch(SQLException ignored)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Collects the columns of a foreign key that is spread over multiple result rows.
+	 */
+	protected static final class ForeignKeyBuilder
+	{
+		private final String name, referencedTable, onDelete, onUpdate;
+		private final List<String> columns = new ArrayList<>(), referencedColumns = new ArrayList<>();
+
+		public ForeignKeyBuilder(final @Nullable String name, final @NotNull String referencedTable, final @Nullable String onDelete, final @Nullable String onUpdate)
+		{
+			this.name = name;
+			this.referencedTable = referencedTable;
+			this.onDelete = onDelete;
+			this.onUpdate = onUpdate;
+		}
+
+		public void add(final @NotNull String column, final @NotNull String referencedColumn)
+		{
+			columns.add(column);
+			referencedColumns.add(referencedColumn);
+		}
+
+		public @NotNull ForeignKeyModel build()
+		{
+			return new ForeignKeyModel(name, columns, referencedTable, referencedColumns, onDelete, onUpdate);
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Schema;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * A structured representation of a table. Used to compare the table in the database with the requested table definition.
+ */
+public class TableModel
+{
+	@Getter private final String name;
+	private final Map<String, ColumnModel> columns = new LinkedHashMap<>();
+	@Getter private List<String> primaryKey = Collections.emptyList();
+	private final List<IndexModel> indexes = new ArrayList<>();
+	private final List<ForeignKeyModel> foreignKeys = new ArrayList<>();
+
+	public TableModel(final @NotNull String name)
+	{
+		this.name = name;
+	}
+
+	public void addColumn(final @NotNull ColumnModel column)
+	{
+		columns.put(column.getName().toLowerCase(Locale.ENGLISH), column);
+	}
+
+	public @Nullable ColumnModel getColumn(final @NotNull String name)
+	{
+		return columns.get(name.toLowerCase(Locale.ENGLISH));
+	}
+
+	public @NotNull Collection<ColumnModel> getColumns()
+	{
+		return Collections.unmodifiableCollection(columns.values());
+	}
+
+	public void setPrimaryKey(final @NotNull List<String> primaryKey)
+	{
+		this.primaryKey = primaryKey;
+	}
+
+	public void addIndex(final @NotNull IndexModel index)
+	{
+		indexes.add(index);
+	}
+
+	public @NotNull List<IndexModel> getIndexes()
+	{
+		return Collections.unmodifiableList(indexes);
+	}
+
+	public void addForeignKey(final @NotNull ForeignKeyModel foreignKey)
+	{
+		foreignKeys.add(foreignKey);
+	}
+
+	public @NotNull List<ForeignKeyModel> getForeignKeys()
+	{
+		return Collections.unmodifiableList(foreignKeys);
+	}
+
+	/**
+	 * Finds the index matching the given index. Named indexes are searched by their name first, afterwards an index on the same columns is searched.
+	 *
+	 * @param index The index to search for.
+	 * @return The matching index of this table. Null if there is none.
+	 */
+	public @Nullable IndexModel findIndex(final @NotNull IndexModel index)
+	{
+		if(index.getName() != null)
+		{
+			for(IndexModel existing : indexes)
+			{
+				if(index.getName().equalsIgnoreCase(existing.getName())) return existing;
+			}
+		}
+		for(IndexModel existing : indexes)
+		{
+			if(existing.isUnique() == index.isUnique() && equalColumns(existing.getColumns(), index.getColumns())) return existing;
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the foreign key matching the given foreign key. Named foreign keys are searched by their name first, afterwards a foreign key on the same columns is searched.
+	 *
+	 * @param foreignKey The foreign key to search for.
+	 * @return The matching foreign key of this table. Null if there is none.
+	 */
+	public @Nullable ForeignKeyModel findForeignKey(final @NotNull ForeignKeyModel foreignKey)
+	{
+		if(foreignKey.getName() != null)
+		{
+			for(ForeignKeyModel existing : foreignKeys)
+			{
+				if(foreignKey.getName().equalsIgnoreCase(existing.getName())) return existing;
+			}
+		}
+		for(ForeignKeyModel existing : foreignKeys)
+		{
+			if(equalColumns(existing.getColumns(), foreignKey.getColumns())) return existing;
+		}
+		return null;
+	}
+
+	public static boolean equalColumns(final @NotNull List<String> columns, final @NotNull List<String> otherColumns)
+	{
+		if(columns.size() != otherColumns.size()) return false;
+		for(int i = 0; i < columns.size(); i++)
+		{
+			if(!columns.get(i).equalsIgnoreCase(otherColumns.get(i))) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param columns The names of the columns.
+	 * @return The quoted, comma separated column names, e.g. {@code `id`, `name`}.
+	 */
+	public static @NotNull String formatColumnList(final @NotNull List<String> columns)
+	{
+		return "`" + String.join("`, `", columns) + "`";
+	}
+
+	@Override
+	public String toString()
+	{
+		return "TableModel{name=" + name + ", columns=" + columns.values() + ", primaryKey=" + primaryKey + ", indexes=" + indexes + ", foreignKeys=" + foreignKeys + "}";
+	}
+}
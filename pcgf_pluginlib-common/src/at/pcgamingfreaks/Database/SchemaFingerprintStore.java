@@ -0,0 +1,202 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stores a fingerprint of every table definition that has been applied to the database in a metadata table.
+ * If the definition of a table didn't change since it has been applied the table doesn't need to be validated again.
+ * <p>
+ * The fingerprints are keyed by the schema qualified name of the table ({@code <schema>.<table>}), so they can't be mistaken for the ones of an equally named table in another schema.
+ * Table definitions using a schema qualified table name are always validated.
+ * <p>
+ * If a table gets changed manually, delete its row from the {@value #METADATA_TABLE} table to force the validation on the next start.
+ */
+final class SchemaFingerprintStore
+{
+	static final String METADATA_TABLE = "pcgf_schema_fingerprints";
+	private static final Pattern TABLE_NAME_PATTERN = Pattern.compile("^\\s*CREATE\\s+TABLE\\s+(IF\\s+NOT\\s+EXISTS\\s+)?(`(?<tableNameEsc>[^`]+)`|(?<tableName>\\w+))(?<qualified>\\s*\\.)?", Pattern.CASE_INSENSITIVE);
+	private static final String SQLSTATE_TABLE_NOT_FOUND = "42S02";
+	private static final int MYSQL_ERROR_TABLE_NOT_FOUND = 1146;
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Connection connection;
+	private final String schema;
+	private final Map<String, String> fingerprints;
+	private final Set<String> existingTables;
+	private final boolean available;
+
+	private SchemaFingerprintStore(final @NotNull Connection connection, final @NotNull String schema, final @NotNull Map<String, String> fingerprints, final @NotNull Set<String> existingTables, final boolean available)
+	{
+		this.connection = connection;
+		this.schema = schema;
+		this.fingerprints = fingerprints;
+		this.existingTables = existingTables;
+		this.available = available;
+	}
+
+	/**
+	 * Loads the fingerprints of all tables with a single query. Creates the metadata table if it doesn't exist.
+	 * If the metadata table can't be used (e.g. missing permissions) all tables will be reported as changed.
+	 *
+	 * @param connection The connection to the database.
+	 * @param logger (optional) A logger to report problems with the metadata table.
+	 * @return The loaded fingerprints.
+	 */
+	static @NotNull SchemaFingerprintStore load(final @NotNull Connection connection, final @Nullable Logger logger)
+	{
+		Map<String, String> fingerprints = new HashMap<>();
+		String schema = "";
+		try
+		{
+			schema = getSchema(connection);
+			try(Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("SELECT `table_name`, `fingerprint` FROM `" + METADATA_TABLE + "`;"))
+			{
+				while(resultSet.next())
+				{
+					fingerprints.put(resultSet.getString(1).toLowerCase(Locale.ENGLISH), resultSet.getString(2));
+				}
+			}
+			catch(SQLException e)
+			{
+				if(!isTableMissing(e)) throw e;
+				// The metadata table doesn't exist yet
+				try(Statement statement = connection.createStatement())
+				{
+					statement.executeUpdate("CREATE TABLE IF NOT EXISTS `" + METADATA_TABLE + "` (\n`table_name` VARCHAR(191) NOT NULL,\n`fingerprint` CHAR(64) NOT NULL,\n`updated` BIGINT NOT NULL,\nPRIMARY KEY (`table_name`)\n);");
+				}
+			}
+			return new SchemaFingerprintStore(connection, schema, fingerprints, getExistingTables(connection), true);
+		}
+		catch(SQLException e)
+		{
+			if(logger != null) logger.warning("Failed to use the schema fingerprint table, all tables will be validated. Error: " + e.getMessage());
+		}
+		return new SchemaFingerprintStore(connection, schema, fingerprints, new HashSet<>(), false);
+	}
+
+	private static boolean isTableMissing(final @NotNull SQLException e)
+	{
+		if(SQLSTATE_TABLE_NOT_FOUND.equals(e.getSQLState()) || e.getErrorCode() == MYSQL_ERROR_TABLE_NOT_FOUND) return true;
+		return e.getMessage() != null && e.getMessage().toLowerCase(Locale.ENGLISH).contains("no such table"); // SQLite only reports a generic error code
+	}
+
+	private static @NotNull String getSchema(final @NotNull Connection connection) throws SQLException
+	{
+		String schema = connection.getCatalog();
+		return (schema != null) ? schema : "";
+	}
+
+	private static @NotNull Set<String> getExistingTables(final @NotNull Connection connection) throws SQLException
+	{
+		Set<String> tables = new HashSet<>();
+		try(ResultSet resultSet = connection.getMetaData().getTables(connection.getCatalog(), null, "%", new String[] { "TABLE" }))
+		{
+			while(resultSet.next())
+			{
+				tables.add(resultSet.getString("TABLE_NAME").toLowerCase(Locale.ENGLISH));
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * Checks if the table exists and has been created or validated with exactly this definition.
+	 *
+	 * @param tableName The name of the table.
+	 * @param fingerprint The fingerprint of the table definition.
+	 * @return True if the table doesn't need to be validated.
+	 */
+	boolean isUpToDate(final @NotNull String tableName, final @NotNull String fingerprint)
+	{
+		return available && existingTables.contains(tableName.toLowerCase(Locale.ENGLISH)) && fingerprint.equals(fingerprints.get(getKey(tableName)));
+	}
+
+	/**
+	 * Stores the fingerprint of a table definition after it has been applied to the database.
+	 *
+	 * @param tableName The name of the table.
+	 * @param fingerprint The fingerprint of the applied table definition.
+	 * @throws SQLException If the fingerprint could not be written.
+	 */
+	void store(final @NotNull String tableName, final @NotNull String fingerprint) throws SQLException
+	{
+		if(!available) return;
+		String key = getKey(tableName);
+		DBTools.runStatement(connection, "REPLACE INTO `" + METADATA_TABLE + "` (`table_name`, `fingerprint`, `updated`) VALUES (?, ?, ?);", key, fingerprint, System.currentTimeMillis());
+		fingerprints.put(key, fingerprint);
+		existingTables.add(tableName.toLowerCase(Locale.ENGLISH));
+	}
+
+	private @NotNull String getKey(final @NotNull String tableName)
+	{
+		return (schema + '.' + tableName).toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * @param tableDefinition The create query of the table.
+	 * @return The name of the table. Null if the create query could not be parsed or uses a schema qualified table name.
+	 */
+	static @Nullable String getTableName(final @NotNull String tableDefinition)
+	{
+		Matcher matcher = TABLE_NAME_PATTERN.matcher(tableDefinition);
+		if(!matcher.find() || matcher.group("qualified") != null) return null;
+		return (matcher.group("tableNameEsc") != null) ? matcher.group("tableNameEsc") : matcher.group("tableName");
+	}
+
+	/**
+	 * Calculates the fingerprint of a table definition. Changes in whitespaces don't change the fingerprint.
+	 *
+	 * @param tableDefinition The create query of the table.
+	 * @return The SHA-256 hash of the normalized table definition as hex string.
+	 */
+	static @NotNull String fingerprint(final @NotNull String tableDefinition)
+	{
+		String normalized = tableDefinition.trim().replaceAll("\\s+", " ");
+		try
+		{
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+			char[] hex = new char[hash.length * 2];
+			for(int i = 0; i < hash.length; i++)
+			{
+				hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+				hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+			}
+			return new String(hex);
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException("SHA-256 is not available", e); // Every java implementation has to support SHA-256
+		}
+	}
+}
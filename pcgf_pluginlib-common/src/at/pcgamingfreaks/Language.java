@@ -31,7 +31,6 @@
 import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
-import java.util.LinkedList;
 import java.util.Locale;
 import java.util.logging.Logger;
 
@@ -343,23 +342,7 @@ protected void extractFile()
 	protected void doUpgrade(@NotNull YamlFileManager oldYamlFile)
 	{
 		logger.info("No custom " + getFileDescription() + " upgrade code. Copying data from old file to new one.");
-		for(String key : yaml.getKeys())
-		{
-			if(oldYamlFile.yaml.isSet(key))
-			{
-				if(key.equals(KEY_YAML_VERSION)) continue;
-				if(oldYamlFile.yaml.isList(key))
-				{
-					yaml.set(key, oldYamlFile.yaml.getStringList(key, new LinkedList<>()));
-				}
-				else
-				{
-					yaml.set(key, oldYamlFile.yaml.getString(key, null));
-					if(oldYamlFile.yaml.isSet(key + KEY_ADDITION_SEND_METHOD)) yaml.set(key + KEY_ADDITION_SEND_METHOD, oldYamlFile.yaml.getString(key + KEY_ADDITION_SEND_METHOD, null));
-					if(oldYamlFile.yaml.isSet(key + KEY_ADDITION_PARAMETERS)) yaml.set(key + KEY_ADDITION_PARAMETERS, oldYamlFile.yaml.getString(key + KEY_ADDITION_PARAMETERS, null));
-				}
-			}
-		}
+		new YamlUpgrader().copyWithSuffixes(KEY_ADDITION_SEND_METHOD, KEY_ADDITION_PARAMETERS).upgrade(oldYamlFile.yaml, yaml);
 	}
 
 	/**
@@ -27,7 +27,13 @@
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.logging.Logger;
 
 /**
@@ -36,6 +42,8 @@
 public class YamlFileManager
 {
 	protected static final String KEY_YAML_VERSION = "Version", YAML_FILE_EXT = ".yml";
+	private static final String TEMP_FILE_EXT = ".tmp";
+	private static ExecutorService asyncSaveExecutor = null;
 
 	protected final Logger logger; // The logger instance of the using plugin
 	protected final String inJarPrefix, path;
@@ -48,6 +56,10 @@
 	protected File yamlFile; // The loaded yaml file
 	@Deprecated protected YamlFileUpdateMethod updateMode = null; // Defines the update behavior for yaml files
 	@Getter protected String fileDescription = "config", fileDescriptionCapitalized = "Config"; // Used to allow customisation of log messages based on what the yaml file is used for
+	private final Object saveQueueLock = new Object(), fileWriteLock = new Object();
+	private CompletableFuture<Void> queuedSave = null, lastAsyncSave = null; // Guarded by saveQueueLock
+	private String pendingContent = null; // Guarded by saveQueueLock
+	private YamlFileStatistics loadStatistics = null, activeStatistics = null;
 
 	YamlFileManager(final @NotNull Logger logger, final @NotNull File baseDir, final int version, final int upgradeThreshold, final @Nullable String path,
 	                final @Nullable String file, final @NotNull String inJarPrefix, final @Nullable YAML oldConfig)
@@ -173,24 +185,7 @@ protected void doUpgrade(@NotNull YamlFileManager oldYamlFile, @NotNull Map<Stri
 	 */
 	protected void doUpgrade(@NotNull YamlFileManager oldYamlFile, @NotNull Map<String, String> configKeyReMappings, @NotNull Collection<String> keysToKeep)
 	{
-		List<String> keysToProcess = new ArrayList<>(yaml.getKeys());
-		keysToProcess.addAll(keysToKeep);
-		for(String key : keysToProcess)
-		{
-			if(key.equals(KEY_YAML_VERSION)) continue;
-			String oldKey = configKeyReMappings.getOrDefault(key, key);
-			if(oldYamlFile.yaml.isSet(oldKey))
-			{
-				if(oldYamlFile.yaml.isList(oldKey))
-				{
-					yaml.set(key, oldYamlFile.yaml.getStringList(oldKey, new LinkedList<>()));
-				}
-				else
-				{
-					yaml.set(key, oldYamlFile.yaml.getString(oldKey, null));
-				}
-			}
-		}
+		new YamlUpgrader().remap(configKeyReMappings).keep(keysToKeep).upgrade(oldYamlFile.yaml, yaml);
 	}
 
 	/**
@@ -236,27 +231,224 @@ protected void loaded()
 
 	/**
 	 * Saves all changes to the file.
+	 * The content is written into a temporary file first, which then replaces the file. This way the file doesn't get truncated if the server dies while saving.
 	 *
 	 * @throws FileNotFoundException If the file that should be saved doesn't exist.
 	 */
 	public void save() throws FileNotFoundException
 	{
-		yaml.save(yamlFile);
+		synchronized(fileWriteLock)
+		{
+			synchronized(saveQueueLock)
+			{
+				pendingContent = null; // This save contains all changes, a queued async save must not overwrite it with older content
+			}
+			File tempFile = new File(yamlFile.getPath() + TEMP_FILE_EXT);
+			yaml.save(tempFile);
+			try
+			{
+				replaceFile(tempFile, yamlFile);
+			}
+			catch(IOException e)
+			{
+				logger.warning("Failed to replace " + getFileDescription() + " file (" + e.getMessage() + "), writing it directly!");
+				yaml.save(yamlFile);
+				//noinspection ResultOfMethodCallIgnored
+				tempFile.delete();
+			}
+		}
+	}
+
+	private static void replaceFile(final @NotNull File source, final @NotNull File target) throws IOException
+	{
+		try
+		{
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch(AtomicMoveNotSupportedException ignored)
+		{
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	//region async saving
+	/**
+	 * Saves all changes to the file on a background thread.
+	 * The yaml content is serialized on the calling thread, only writing the file happens in the background. Changes made after this call are not included.
+	 * Saves requested while a save of this file is still waiting to be executed are coalesced into that save, it will write the content of the latest request.
+	 *
+	 * @return A future that completes once the file has been written.
+	 */
+	public @NotNull CompletableFuture<Void> saveAsync()
+	{
+		final String content = yaml.saveAsString(); // The yaml tree is not thread safe, it must not be read on the background thread while it gets modified
+		synchronized(saveQueueLock)
+		{
+			pendingContent = content;
+			if(queuedSave != null) return queuedSave;
+			final CompletableFuture<Void> future = new CompletableFuture<>();
+			queuedSave = lastAsyncSave = future;
+			getAsyncSaveExecutor().execute(() -> writePendingContent(future));
+			return future;
+		}
+	}
+
+	private void writePendingContent(final @NotNull CompletableFuture<Void> future)
+	{
+		synchronized(fileWriteLock)
+		{
+			String content;
+			synchronized(saveQueueLock)
+			{
+				content = pendingContent;
+				pendingContent = null;
+				queuedSave = null;
+			}
+			try
+			{
+				if(content != null) writeContent(content); // null if a synchronous save already wrote the changes
+				future.complete(null);
+			}
+			catch(Exception e)
+			{
+				logger.warning("Failed to save " + getFileDescription() + " file!");
+				e.printStackTrace();
+				future.completeExceptionally(e);
+			}
+		}
+	}
+
+	void writeContent(final @NotNull String content) throws IOException
+	{
+		File tempFile = new File(yamlFile.getPath() + TEMP_FILE_EXT);
+		Files.write(tempFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		replaceFile(tempFile, yamlFile);
+	}
+
+	/**
+	 * Waits till all async saves of this file have been written.
+	 * Plugins that shade the lib have to call this (or {@link #close()}) when they get disabled, otherwise the last changes might get lost when the server stops.
+	 */
+	public void flushPendingSaves()
+	{
+		CompletableFuture<Void> future;
+		synchronized(saveQueueLock)
+		{
+			future = lastAsyncSave;
+		}
+		if(future == null) return;
+		try
+		{
+			future.join();
+		}
+		catch(CompletionException | CancellationException ignored) {} // Failures have already been logged
+	}
+
+	/**
+	 * Writes all pending async saves of this file. Should be called by the owning plugin when it gets disabled.
+	 * The file manager can still be used afterwards.
+	 */
+	public void close()
+	{
+		flushPendingSaves();
+	}
+
+	/**
+	 * Waits till all async saves requested so far (of all yaml files handled by this copy of the lib) have been written.
+	 */
+	public static void flushAllPendingSaves()
+	{
+		ExecutorService executor;
+		synchronized(YamlFileManager.class)
+		{
+			executor = asyncSaveExecutor;
+		}
+		if(executor == null) return;
+		try
+		{
+			executor.submit(() -> {}).get(); // The executor is single threaded, so all previously queued saves are done once this task ran
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch(ExecutionException ignored) {}
+	}
+
+	/**
+	 * Writes all pending async saves and stops the thread writing them, so that it doesn't keep the class loader of a disabled plugin alive.
+	 * Should be called when the plugin containing this copy of the lib gets disabled. A later async save starts a new thread.
+	 */
+	public static void shutdownAsyncSaves()
+	{
+		ExecutorService executor;
+		synchronized(YamlFileManager.class)
+		{
+			executor = asyncSaveExecutor;
+			asyncSaveExecutor = null;
+		}
+		if(executor == null) return;
+		executor.shutdown(); // Already queued saves are still written
+		try
+		{
+			if(!executor.awaitTermination(30, TimeUnit.SECONDS)) Logger.getLogger("PCGF_PluginLib").warning("The async yaml saves did not finish within 30 seconds!");
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	static synchronized boolean isAsyncSaveExecutorRunning()
+	{
+		return asyncSaveExecutor != null;
 	}
 
+	private static synchronized @NotNull ExecutorService getAsyncSaveExecutor()
+	{
+		if(asyncSaveExecutor == null)
+		{
+			asyncSaveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "PCGF_PluginLib-YamlSaver");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return asyncSaveExecutor;
+	}
+	//endregion
+
 	protected void load()
 	{
+		boolean outermostLoad = activeStatistics == null; // Updates and upgrades might load the file again
+		if(outermostLoad) activeStatistics = new YamlFileStatistics(getFileDescription());
 		try
 		{
 			if(!yamlFile.exists() || yamlFile.length() == 0)
 			{
-				extractFile();
+				timedExtractFile();
+			}
+			beginPhase(YamlFileStatistics.Phase.PARSE);
+			try
+			{
+				yaml = new YAML(yamlFile);
+			}
+			finally
+			{
+				endPhase();
+			}
+			beginPhase(YamlFileStatistics.Phase.VALIDATE);
+			try
+			{
+				validate();
+			}
+			finally
+			{
+				endPhase();
 			}
-			yaml = new YAML(yamlFile);
-			validate();
 			if(extracted && newConfigCreated())
 			{
-				save();
+				timedSave();
 			}
 		}
 		catch(Exception e)
@@ -264,8 +456,65 @@ protected void load()
 			logger.warning("Failed to load " + getFileDescription() + " file!");
 			e.printStackTrace();
 		}
+		finally
+		{
+			if(outermostLoad)
+			{
+				activeStatistics.finish(yaml, yamlFile);
+				loadStatistics = activeStatistics;
+				activeStatistics = null;
+			}
+		}
 	}
 
+	//region load statistics
+	/**
+	 * Gets the timings and size of the last load of the file.
+	 *
+	 * @return The statistics of the last load. Null if the file has not been loaded yet.
+	 */
+	public @Nullable YamlFileStatistics getLoadStatistics()
+	{
+		return loadStatistics;
+	}
+
+	private void beginPhase(final @NotNull YamlFileStatistics.Phase phase)
+	{
+		if(activeStatistics != null) activeStatistics.begin(phase);
+	}
+
+	private void endPhase()
+	{
+		if(activeStatistics != null) activeStatistics.end();
+	}
+
+	private void timedExtractFile()
+	{
+		beginPhase(YamlFileStatistics.Phase.EXTRACT);
+		try
+		{
+			extractFile();
+		}
+		finally
+		{
+			endPhase();
+		}
+	}
+
+	private void timedSave() throws FileNotFoundException
+	{
+		beginPhase(YamlFileStatistics.Phase.SAVE);
+		try
+		{
+			save();
+		}
+		finally
+		{
+			endPhase();
+		}
+	}
+	//endregion
+
 	protected void validate()
 	{
 		if(getExpectedVersion().newerThan(version()))
@@ -277,15 +526,31 @@ protected void validate()
 			switch(decideYamlUpdateMode())
 			{
 				case OVERWRITE:
-					extractFile();
+					timedExtractFile();
 					load();
 					logger.info(ConsoleColor.GREEN + "Successful updated " + getFileDescription() + " file." + ConsoleColor.RESET);
 					break;
 				case UPDATE:
-					update();
+					beginPhase(YamlFileStatistics.Phase.UPDATE);
+					try
+					{
+						update();
+					}
+					finally
+					{
+						endPhase();
+					}
 					break;
 				case UPGRADE:
-					upgrade();
+					beginPhase(YamlFileStatistics.Phase.UPGRADE);
+					try
+					{
+						upgrade();
+					}
+					finally
+					{
+						endPhase();
+					}
 					break;
 			}
 		}
@@ -303,7 +568,7 @@ protected void update()
 		{
 			doUpdate();
 			yaml.set(KEY_YAML_VERSION, getExpectedVersion());
-			save();
+			timedSave();
 			logger.info(ConsoleColor.GREEN + "Successful updated " + getFileDescription() + " file." + ConsoleColor.RESET);
 		}
 		catch(Exception e)
@@ -335,7 +600,7 @@ protected void upgrade()
 				doUpgrade(new YamlFileManager(logger, baseDir, oldVersion, new Version(0), path, file + oldExt, inJarPrefix, oldYAML));
 			}
 			yaml.set(KEY_YAML_VERSION, getExpectedVersion());
-			save();
+			timedSave();
 			logger.info(ConsoleColor.GREEN + "Successful upgraded " + getFileDescription() + " file." + ConsoleColor.RESET);
 		}
 		catch(Exception e)
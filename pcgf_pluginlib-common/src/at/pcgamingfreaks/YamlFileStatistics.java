@@ -0,0 +1,240 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks;
+
+import at.pcgamingfreaks.yaml.YAML;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Timings and size of the last load of a yaml file handled by a {@link YamlFileManager}.
+ * The time of each phase is exclusive, e.g. the time spent on parsing the file again during an upgrade is counted as {@link Phase#PARSE} and not as {@link Phase#UPGRADE}.
+ */
+public final class YamlFileStatistics
+{
+	private static final Map<String, YamlFileStatistics> LATEST = new ConcurrentHashMap<>();
+
+	public enum Phase
+	{
+		EXTRACT,
+		PARSE,
+		VALIDATE,
+		UPDATE,
+		UPGRADE,
+		SAVE,
+		/**
+		 * Everything else done while loading the file (file checks, ...).
+		 */
+		OTHER
+	}
+
+	private final String fileDescription;
+	private final long[] phaseNanos = new long[Phase.values().length];
+	private final long loadedAt = System.currentTimeMillis();
+	private String file = "";
+	private long totalNanos = 0, fileBytes = 0;
+	private int keyCount = 0;
+	private boolean loaded = false;
+
+	// Recording state, only used by the thread loading the file
+	private final Thread recordingThread = Thread.currentThread();
+	private final Deque<Phase> activePhases = new ArrayDeque<>();
+	private final long start;
+	private long lastSwitch;
+
+	YamlFileStatistics(final @NotNull String fileDescription)
+	{
+		this.fileDescription = fileDescription;
+		start = lastSwitch = System.nanoTime();
+		activePhases.push(Phase.OTHER);
+	}
+
+	//region recording
+	void begin(final @NotNull Phase phase)
+	{
+		if(Thread.currentThread() != recordingThread) return;
+		long now = System.nanoTime();
+		phaseNanos[activePhases.peek().ordinal()] += now - lastSwitch;
+		activePhases.push(phase);
+		lastSwitch = now;
+	}
+
+	void end()
+	{
+		if(Thread.currentThread() != recordingThread || activePhases.size() < 2) return;
+		long now = System.nanoTime();
+		phaseNanos[activePhases.pop().ordinal()] += now - lastSwitch;
+		lastSwitch = now;
+	}
+
+	void finish(final @Nullable YAML yaml, final @Nullable File yamlFile)
+	{
+		long now = System.nanoTime();
+		phaseNanos[Phase.OTHER.ordinal()] += now - lastSwitch;
+		totalNanos = now - start;
+		loaded = yaml != null;
+		if(yaml != null) keyCount = yaml.getKeys().size();
+		if(yamlFile != null)
+		{
+			file = String.valueOf(yamlFile);
+			fileBytes = yamlFile.length();
+		}
+		LATEST.put(fileDescription + ':' + file, this);
+	}
+	//endregion
+
+	//region getters
+	public @NotNull String getFileDescription()
+	{
+		return fileDescription;
+	}
+
+	/**
+	 * @return The path of the loaded file.
+	 */
+	public @NotNull String getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * @return The time spent in the given phase, in nanoseconds.
+	 */
+	public long getPhaseNanos(final @NotNull Phase phase)
+	{
+		return phaseNanos[phase.ordinal()];
+	}
+
+	public long getPhaseMillis(final @NotNull Phase phase)
+	{
+		return TimeUnit.NANOSECONDS.toMillis(getPhaseNanos(phase));
+	}
+
+	/**
+	 * @return The time the whole load took, in nanoseconds.
+	 */
+	public long getTotalNanos()
+	{
+		return totalNanos;
+	}
+
+	public long getTotalMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+	}
+
+	/**
+	 * @return The size of the file after it has been loaded, in bytes.
+	 */
+	public long getFileBytes()
+	{
+		return fileBytes;
+	}
+
+	/**
+	 * @return The amount of keys in the loaded file.
+	 */
+	public int getKeyCount()
+	{
+		return keyCount;
+	}
+
+	/**
+	 * @return True if the file has been loaded successful.
+	 */
+	public boolean isLoaded()
+	{
+		return loaded;
+	}
+
+	/**
+	 * @return The time the load has been started at, in milliseconds since the epoch.
+	 */
+	public long getLoadedAt()
+	{
+		return loadedAt;
+	}
+	//endregion
+
+	@Override
+	public String toString()
+	{
+		StringBuilder builder = new StringBuilder(fileDescription).append(" file ").append(file).append(" loaded in ").append(getTotalMillis()).append("ms (");
+		for(Phase phase : Phase.values())
+		{
+			builder.append(phase.name().toLowerCase(Locale.ROOT)).append(": ").append(getPhaseMillis(phase)).append("ms, ");
+		}
+		return builder.append(fileBytes).append(" bytes, ").append(keyCount).append(" keys)").toString();
+	}
+
+	//region global statistics
+	/**
+	 * Gets the statistics of the last load of all yaml files that have been loaded so far.
+	 *
+	 * @return The statistics, the slowest file first.
+	 */
+	public static @NotNull List<YamlFileStatistics> getAll()
+	{
+		List<YamlFileStatistics> statistics = new ArrayList<>(LATEST.values());
+		statistics.sort(Comparator.comparingLong(YamlFileStatistics::getTotalNanos).reversed());
+		return statistics;
+	}
+
+	/**
+	 * Writes a single summary line of the load times of all yaml files to the log.
+	 *
+	 * @param logger The logger the summary should be written to.
+	 * @param slowestFiles The amount of slowest files that should be listed.
+	 */
+	public static void logSummary(final @NotNull Logger logger, final int slowestFiles)
+	{
+		List<YamlFileStatistics> statistics = getAll();
+		if(statistics.isEmpty()) return;
+		long totalNanos = 0, bytes = 0;
+		long[] phases = new long[Phase.values().length];
+		for(YamlFileStatistics statistic : statistics)
+		{
+			totalNanos += statistic.totalNanos;
+			bytes += statistic.fileBytes;
+			for(int i = 0; i < phases.length; i++)
+			{
+				phases[i] += statistic.phaseNanos[i];
+			}
+		}
+		StringBuilder builder = new StringBuilder("Loaded ").append(statistics.size()).append(" yaml files (").append(bytes).append(" bytes) in ").append(TimeUnit.NANOSECONDS.toMillis(totalNanos)).append("ms (");
+		for(Phase phase : Phase.values())
+		{
+			if(phase.ordinal() > 0) builder.append(", ");
+			builder.append(phase.name().toLowerCase(Locale.ROOT)).append(": ").append(TimeUnit.NANOSECONDS.toMillis(phases[phase.ordinal()])).append("ms");
+		}
+		builder.append("). Slowest:");
+		for(int i = 0; i < Math.min(slowestFiles, statistics.size()); i++)
+		{
+			builder.append(' ').append(statistics.get(i).file).append(" (").append(statistics.get(i).getTotalMillis()).append("ms)");
+		}
+		logger.info(builder.toString());
+	}
+	//endregion
+}
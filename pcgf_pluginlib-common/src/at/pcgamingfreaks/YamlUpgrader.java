@@ -0,0 +1,196 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks;
+
+import at.pcgamingfreaks.yaml.YAML;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * Copies the values of an old yaml file into the new version of the file, based on a declarative spec.
+ * Keys are copied with their value, even if the value is null. All values are written into the new file after the merge has been computed.
+ * The YAML library only offers access by key, so every copied value is still read and set by its full key. The upgrader replaces the hand written upgrade loops, it is not faster than them.
+ */
+public final class YamlUpgrader
+{
+	private static final String KEY_YAML_VERSION = "Version";
+
+	private final Map<String, String> remappings = new HashMap<>(); // new key -> old key
+	private final Map<String, String> sectionRemappings = new LinkedHashMap<>(); // new section prefix -> old section prefix
+	private final Set<String> keysToKeep = new LinkedHashSet<>(), keysToSkip = new HashSet<>();
+	private final Map<String, UnaryOperator<String>> transformers = new HashMap<>();
+	private final List<String> companionSuffixes = new ArrayList<>();
+
+	/**
+	 * Reads the value for a key of the new file from another key in the old file.
+	 *
+	 * @param newKey The key in the new file.
+	 * @param oldKey The key in the old file.
+	 * @return The upgrader, for chaining.
+	 */
+	public @NotNull YamlUpgrader remap(final @NotNull String newKey, final @NotNull String oldKey)
+	{
+		remappings.put(newKey, oldKey);
+		return this;
+	}
+
+	/**
+	 * @param remappings Map of keys that should get remapped, key = new key, value = old key
+	 * @return The upgrader, for chaining.
+	 */
+	public @NotNull YamlUpgrader remap(final @NotNull Map<String, String> remappings)
+	{
+		this.remappings.putAll(remappings);
+		return this;
+	}
+
+	/**
+	 * Reads all values of a section of the new file from another section of the old file. Remappings of single keys take precedence.
+	 *
+	 * @param newSection The path of the section in the new file.
+	 * @param oldSection The path of the section in the old file.
+	 * @return The upgrader, for chaining.
+	 */
+	public @NotNull YamlUpgrader remapSection(final @NotNull String newSection, final @NotNull String oldSection)
+	{
+		sectionRemappings.put(newSection + '.', oldSection + '.');
+		return this;
+	}
+
+	/**
+	 * Copies the keys even if they do not exist in the new file.
+	 *
+	 * @param keys The keys that should be kept.
+	 * @return The upgrader, for chaining.
+	 */
+	public @NotNull YamlUpgrader keep(final @NotNull Collection<String> keys)
+	{
+		keysToKeep.addAll(keys);
+		return this;
+	}
+
+	public @NotNull YamlUpgrader keep(final @NotNull String... keys)
+	{
+		return keep(Arrays.asList(keys));
+	}
+
+	/**
+	 * Keeps the value of the new file for the given keys.
+	 *
+	 * @param keys The keys that should not be copied from the old file.
+	 * @return The upgrader, for chaining.
+	 */
+	public @NotNull YamlUpgrader skip(final @NotNull String... keys)
+	{
+		keysToSkip.addAll(Arrays.asList(keys));
+		return this;
+	}
+
+	/**
+	 * Converts the value of a key while it gets copied. Not applied to lists.
+	 *
+	 * @param newKey The key in the new file.
+	 * @param transformer The function converting the old value into the new one. If it returns null the value of the new file is kept.
+	 * @return The upgrader, for chaining.
+	 */
+	public @NotNull YamlUpgrader transform(final @NotNull String newKey, final @NotNull UnaryOperator<String> transformer)
+	{
+		transformers.put(newKey, transformer);
+		return this;
+	}
+
+	/**
+	 * Also copies {@code <key><suffix>} from the old file for every copied (non list) key, even if the new file doesn't contain it.
+	 *
+	 * @param suffixes The suffixes of the companion keys.
+	 * @return The upgrader, for chaining.
+	 */
+	public @NotNull YamlUpgrader copyWithSuffixes(final @NotNull String... suffixes)
+	{
+		companionSuffixes.addAll(Arrays.asList(suffixes));
+		return this;
+	}
+
+	/**
+	 * Copies the values from the old file into the new one. The version key is never copied.
+	 *
+	 * @param oldYaml The old file.
+	 * @param newYaml The new file, the values will be written into it.
+	 * @return The amount of values that have been copied.
+	 */
+	public int upgrade(final @NotNull YAML oldYaml, final @NotNull YAML newYaml)
+	{
+		Set<String> oldKeys = new HashSet<>(oldYaml.getKeys());
+		Collection<String> newKeys = newYaml.getKeys();
+		Map<String, Object> merged = new LinkedHashMap<>(newKeys.size() * 4 / 3 + 1);
+		for(String key : newKeys)
+		{
+			merge(key, oldYaml, oldKeys, merged);
+		}
+		for(String key : keysToKeep)
+		{
+			merge(key, oldYaml, oldKeys, merged);
+		}
+		for(Map.Entry<String, Object> entry : merged.entrySet())
+		{
+			newYaml.set(entry.getKey(), entry.getValue());
+		}
+		return merged.size();
+	}
+
+	private void merge(final @NotNull String key, final @NotNull YAML oldYaml, final @NotNull Set<String> oldKeys, final @NotNull Map<String, Object> merged)
+	{
+		if(key.equals(KEY_YAML_VERSION) || keysToSkip.contains(key)) return;
+		String oldKey = getOldKey(key);
+		if(!oldKeys.contains(oldKey)) return;
+		if(oldYaml.isList(oldKey))
+		{
+			merged.put(key, oldYaml.getStringList(oldKey, new LinkedList<>()));
+			return;
+		}
+		String value = oldYaml.getString(oldKey, null);
+		UnaryOperator<String> transformer = transformers.get(key);
+		if(transformer == null || value == null) merged.put(key, value);
+		else
+		{
+			String transformed = transformer.apply(value);
+			if(transformed != null) merged.put(key, transformed);
+		}
+		for(String suffix : companionSuffixes)
+		{
+			if(oldKeys.contains(oldKey + suffix) && !merged.containsKey(key + suffix)) merged.put(key + suffix, oldYaml.getString(oldKey + suffix, null));
+		}
+	}
+
+	private @NotNull String getOldKey(final @NotNull String key)
+	{
+		String oldKey = remappings.get(key);
+		if(oldKey != null) return oldKey;
+		if(!sectionRemappings.isEmpty())
+		{
+			for(Map.Entry<String, String> section : sectionRemappings.entrySet())
+			{
+				if(key.startsWith(section.getKey())) return section.getValue() + key.substring(section.getKey().length());
+			}
+		}
+		return key;
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Compression;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class CompressedEnvelopeTest
+{
+	private static void writeKey(final DataOutputStream out, final int type, final String name) throws IOException
+	{
+		out.writeByte(type);
+		out.writeUTF(name);
+	}
+
+	private static byte[] sampleInventory(final int seed)
+	{
+		Random random = new Random(seed);
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		try(DataOutputStream out = new DataOutputStream(stream))
+		{
+			writeKey(out, 10, "");
+			writeKey(out, 3, "size");
+			out.writeInt(36);
+			writeKey(out, 9, "Inventory");
+			for(int slot = 0; slot < 36; slot++)
+			{
+				if(random.nextInt(3) == 0) continue;
+				writeKey(out, 1, "Slot");
+				out.writeByte(slot);
+				writeKey(out, 8, "id");
+				out.writeUTF("minecraft:" + (random.nextBoolean() ? "diamond_sword" : "cobblestone"));
+				writeKey(out, 1, "Count");
+				out.writeByte(random.nextInt(64) + 1);
+				if(random.nextBoolean())
+				{
+					writeKey(out, 10, "tag");
+					writeKey(out, 3, "Damage");
+					out.writeInt(random.nextInt(100));
+					out.writeByte(0);
+				}
+				out.writeByte(0);
+			}
+			out.writeByte(0);
+		}
+		catch(IOException e)
+		{
+			throw new RuntimeException(e);
+		}
+		return stream.toByteArray();
+	}
+
+	private static byte[] gzip(final byte[] data) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(GZIPOutputStream gzip = new GZIPOutputStream(out))
+		{
+			gzip.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] gunzip(final byte[] data) throws IOException
+	{
+		try(GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data)); ByteArrayOutputStream out = new ByteArrayOutputStream())
+		{
+			byte[] buffer = new byte[1024];
+			int read;
+			while((read = in.read(buffer)) > 0) out.write(buffer, 0, read);
+			return out.toByteArray();
+		}
+	}
+
+	@Test
+	public void testCodecRoundTrip() throws IOException
+	{
+		Random random = new Random(42);
+		byte[] randomData = new byte[5000], runs = new byte[70000];
+		random.nextBytes(randomData);
+		for(int i = 0; i < runs.length; i++) runs[i] = (byte) ((i / 300) % 3); // Long overlapping matches
+		List<byte[]> inputs = new ArrayList<>();
+		inputs.add(new byte[0]);
+		inputs.add(new byte[] { 1, 2, 3 });
+		inputs.add(randomData);
+		inputs.add(runs);
+		inputs.add(sampleInventory(1));
+		for(CompressionCodec codec : new CompressionCodec[] { new NoCompressionCodec(), new DeflateCodec(), new LZ4Codec() })
+		{
+			for(CompressionDictionary dictionary : new CompressionDictionary[] { null, CompressionDictionary.ITEM_NBT })
+			{
+				for(byte[] input : inputs)
+				{
+					byte[] compressed = codec.compress(input, dictionary);
+					assertArrayEquals(codec.getName() + " should restore the data", input, codec.decompress(compressed, 0, compressed.length, input.length, dictionary));
+				}
+			}
+		}
+		byte[] compressed = new LZ4Codec().compress(runs, null);
+		assertTrue("Repeated data should be compressed", compressed.length < runs.length / 10);
+		try
+		{
+			new LZ4Codec().decompress(compressed, 0, compressed.length / 2, runs.length, null);
+			fail("Truncated data should be detected");
+		}
+		catch(IOException ignored) {}
+	}
+
+	@Test
+	public void testDictionaryImprovesCompression()
+	{
+		byte[] inventory = sampleInventory(7);
+		for(CompressionCodec codec : new CompressionCodec[] { new DeflateCodec(), new LZ4Codec() })
+		{
+			assertTrue("The item dictionary should improve the " + codec.getName() + " compression", codec.compress(inventory, CompressionDictionary.ITEM_NBT).length < codec.compress(inventory, null).length);
+		}
+		List<byte[]> samples = new ArrayList<>();
+		for(int i = 0; i < 20; i++) samples.add(sampleInventory(100 + i));
+		CompressionDictionary trained = CompressionDictionary.train(samples, 2048);
+		assertTrue(trained.getSize() <= 2048);
+		DeflateCodec deflate = new DeflateCodec();
+		assertTrue("A trained dictionary should improve the compression", deflate.compress(inventory, trained).length < deflate.compress(inventory, null).length);
+	}
+
+	@Test
+	public void testEnvelope() throws IOException
+	{
+		byte[] raw = sampleInventory(3), gzipped = gzip(raw);
+		CompressedEnvelope lz4 = new CompressedEnvelope(new LZ4Codec(), CompressionDictionary.ITEM_NBT), deflate = new CompressedEnvelope(new DeflateCodec(), null);
+		byte[] envelope = lz4.encode(gzipped);
+		assertTrue(CompressedEnvelope.isEnvelope(envelope));
+		assertArrayEquals("Gzip content should be restored as gzip stream", raw, gunzip(lz4.decode(envelope)));
+		assertArrayEquals("Blobs should be readable with another codec configured", raw, gunzip(deflate.decode(envelope)));
+		assertArrayEquals(raw, deflate.decode(deflate.encode(raw)));
+		assertSame("Legacy blobs should be returned unchanged", gzipped, lz4.decode(gzipped));
+		byte[] random = new byte[100];
+		new Random(1).nextBytes(random);
+		assertSame("Incompressible data should not be wrapped", random, lz4.encode(random));
+
+		CompressionDictionary custom = new CompressionDictionary("custom dictionary content".getBytes(StandardCharsets.UTF_8));
+		byte[] customEnvelope = new CompressedEnvelope(new DeflateCodec(), custom).encode(raw);
+		try
+		{
+			deflate.decode(customEnvelope);
+			fail("Unknown dictionaries should be detected");
+		}
+		catch(IOException ignored) {}
+		deflate.registerDictionary(custom);
+		assertArrayEquals(raw, deflate.decode(customEnvelope));
+		assertEquals("lz4", CompressedEnvelope.getBuiltInCodec("LZ4").getName());
+		assertNull(CompressedEnvelope.getBuiltInCodec("zstd"));
+	}
+
+	@Test
+	public void testCorruptHeader() throws IOException
+	{
+		CompressedEnvelope envelope = new CompressedEnvelope(new LZ4Codec(), null);
+		byte[] data = envelope.encode(sampleInventory(3));
+		for(int length : new int[] { -1, Integer.MAX_VALUE, data.length * 2000 })
+		{
+			byte[] corrupted = data.clone();
+			ByteBuffer.wrap(corrupted).putInt(10, length); // The uncompressed length is stored after magic, version, codec, flags and dictionary id
+			try
+			{
+				envelope.decode(corrupted);
+				fail("The uncompressed length " + length + " should be rejected");
+			}
+			catch(IOException ignored) {}
+		}
+	}
+}
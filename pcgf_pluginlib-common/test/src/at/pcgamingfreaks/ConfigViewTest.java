@@ -0,0 +1,125 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks;
+
+import at.pcgamingfreaks.Config.ConfigValue;
+import at.pcgamingfreaks.yaml.YAML;
+import at.pcgamingfreaks.yaml.YamlInvalidContentException;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class ConfigViewTest
+{
+	private static final String CONFIG = "Version: 5\nLanguage: de\nTestConfig:\n  List:\n    - 1\n    - 2\n  Value1: Test\nTestDouble: 2.6\nTestBoolean: true\nMode: update\n";
+
+	public static class TestSection
+	{
+		@ConfigValue("Value1") private final String value1;
+		@ConfigValue("List") private final List<String> list;
+		@ConfigValue("Missing") private final int missing;
+
+		public TestSection()
+		{
+			value1 = "Default";
+			list = Collections.emptyList();
+			missing = 42;
+		}
+	}
+
+	public static class MutableTestSection
+	{
+		@ConfigValue("Value1") private String value1;
+	}
+
+	public interface TestRoot
+	{
+		String getLanguage();
+		double getTestDouble();
+		boolean isTestBoolean();
+		@ConfigValue("Mode") YamlFileUpdateMethod updateMode();
+		@ConfigValue(value = "Missing", defaultValue = "7") int missing();
+		long getMissingLong();
+	}
+
+	@Test
+	public void testPojoView() throws YamlInvalidContentException
+	{
+		ConfigView<TestSection> view = new ConfigView<>(TestSection.class, "TestConfig", new YAML(CONFIG));
+		assertEquals("The section should match", "TestConfig", view.getSection());
+		TestSection section = view.get();
+		assertEquals("The string should match", "Test", section.value1);
+		assertEquals("The list should match", Arrays.asList("1", "2"), section.list);
+		assertEquals("Missing values should keep their initial value", 42, section.missing);
+		assertSame("The snapshot should be cached", section, view.get());
+	}
+
+	@Test
+	public void testInterfaceView() throws YamlInvalidContentException
+	{
+		TestRoot root = new ConfigView<>(TestRoot.class, "", new YAML(CONFIG)).get();
+		assertEquals("The string should match", "de", root.getLanguage());
+		assertEquals("The double should match", 2.6, root.getTestDouble(), 0.001);
+		assertTrue("The boolean should match", root.isTestBoolean());
+		assertEquals("The enum should match", YamlFileUpdateMethod.UPDATE, root.updateMode());
+		assertEquals("Missing values should use the annotated default", 7, root.missing());
+		assertEquals("Missing values without default should use the type default", 0L, root.getMissingLong());
+	}
+
+	@Test
+	public void testRefresh() throws YamlInvalidContentException
+	{
+		ConfigView<TestSection> view = new ConfigView<>(TestSection.class, "TestConfig", new YAML(CONFIG));
+		TestSection oldSnapshot = view.get();
+		final int[] notified = { 0 };
+		view.addReloadListener(section -> notified[0]++);
+		assertTrue("The view should be refreshed", view.refresh(new YAML(CONFIG.replace("Value1: Test", "Value1: Changed")), mock(Logger.class)));
+		assertEquals("The listener should have been notified", 1, notified[0]);
+		assertEquals("The old snapshot should not change", "Test", oldSnapshot.value1);
+		assertEquals("The new snapshot should contain the new value", "Changed", view.get().value1);
+		assertFalse("Invalid values should not replace the snapshot", view.refresh(new YAML(CONFIG.replace("  Value1: Test", "  Value1: Test\n  Missing: abc")), mock(Logger.class)));
+		assertEquals("The previous snapshot should be kept", "Changed", view.get().value1);
+		assertFalse("A not loaded config should not replace the snapshot", view.refresh(null, mock(Logger.class)));
+		assertEquals("The listener should not have been notified again", 1, notified[0]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedType() throws YamlInvalidContentException
+	{
+		new ConfigView<>(Runnable.class, "", new YAML(CONFIG));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMutablePojo() throws YamlInvalidContentException
+	{
+		new ConfigView<>(MutableTestSection.class, "TestConfig", new YAML(CONFIG));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testImmutableList() throws YamlInvalidContentException
+	{
+		new ConfigView<>(TestSection.class, "TestConfig", new YAML(CONFIG)).get().list.add("3");
+	}
+}
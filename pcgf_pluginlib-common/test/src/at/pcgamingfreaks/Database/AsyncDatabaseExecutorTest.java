@@ -0,0 +1,108 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database;
+
+import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
+
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AsyncDatabaseExecutorTest
+{
+	private static ConnectionProvider mockConnectionProvider(final Connection connection) throws SQLException
+	{
+		ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+		doReturn(connection).when(connectionProvider).getConnection();
+		doReturn(connection).when(connectionProvider).getReadOnlyConnection();
+		return connectionProvider;
+	}
+
+	@Test
+	public void testQueryAndUpdate() throws Exception
+	{
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		ResultSet resultSet = mock(ResultSet.class);
+		doReturn(statement).when(connection).prepareStatement(anyString());
+		doReturn(3).when(statement).executeUpdate();
+		doReturn(resultSet).when(statement).executeQuery();
+		doReturn(true).when(resultSet).next();
+		doReturn("value").when(resultSet).getString(1);
+		ConnectionProvider connectionProvider = mockConnectionProvider(connection);
+		try(AsyncDatabaseExecutor executor = new AsyncDatabaseExecutor(connectionProvider, "Test"))
+		{
+			assertEquals("The amount of changed rows should be returned", 3, executor.update("UPDATE table SET name = ? WHERE id = ?", "name", 1).get(5, TimeUnit.SECONDS).intValue());
+			verify(statement, times(1)).setObject(1, "name");
+			assertEquals("The handled result should be returned", "value", executor.query("SELECT name FROM table WHERE id = ?", rs -> rs.next() ? rs.getString(1) : null, 1).get(5, TimeUnit.SECONDS));
+			verify(resultSet, times(1)).close();
+			verify(connectionProvider, times(1)).getConnection();
+			verify(connectionProvider, times(1)).getReadOnlyConnection();
+			verify(connection, times(2)).close();
+			assertEquals("The completed tasks should be counted", 2, executor.getCompletedTasks());
+		}
+	}
+
+	@Test
+	public void testFailedTask() throws Exception
+	{
+		Connection connection = mock(Connection.class);
+		doThrow(new SQLException("failed")).when(connection).prepareStatement(anyString());
+		try(AsyncDatabaseExecutor executor = new AsyncDatabaseExecutor(mockConnectionProvider(connection), "Test"))
+		{
+			executor.update("DELETE FROM table").get(5, TimeUnit.SECONDS);
+			fail("The future should complete exceptionally");
+		}
+		catch(ExecutionException e)
+		{
+			assertTrue("The SQLException should be passed on", e.getCause() instanceof SQLException);
+		}
+	}
+
+	@Test
+	public void testRejectWhenFull() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		AsyncDatabaseExecutor executor = new AsyncDatabaseExecutor(mockConnectionProvider(mock(Connection.class)), "Test", 1, 2, AsyncDatabaseExecutor.DEFAULT_OVERFLOW_POLICY);
+		SQLFunction<Connection, Void> blockingTask = connection -> {
+			try
+			{
+				release.await();
+			}
+			catch(InterruptedException ignored) {}
+			return null;
+		};
+		CompletableFuture<Void> first = executor.submit(blockingTask), second = executor.submit(blockingTask), rejected = executor.submit(blockingTask);
+		assertTrue("The third task should be rejected", rejected.isCompletedExceptionally());
+		assertEquals("The rejected task should be counted", 1, executor.getRejectedTasks());
+		release.countDown();
+		first.get(5, TimeUnit.SECONDS);
+		second.get(5, TimeUnit.SECONDS);
+		assertTrue("The executor should shut down", executor.shutdown(5, TimeUnit.SECONDS));
+		assertTrue("Tasks submitted after the shutdown should be rejected", executor.submit(blockingTask).isCompletedExceptionally());
+		assertEquals("There should be no pending tasks left", 0, executor.getQueuedTasks() + executor.getActiveTasks());
+	}
+}
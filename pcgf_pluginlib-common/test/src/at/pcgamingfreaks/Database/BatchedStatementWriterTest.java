@@ -0,0 +1,119 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database;
+
+import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
+
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class BatchedStatementWriterTest
+{
+	private static final String INSERT = "INSERT INTO log (player, action) VALUES (?, ?)", UPDATE = "UPDATE stats SET value = value + 1 WHERE player = ?";
+
+	@Test
+	public void testFlushBatches() throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		doReturn(true).when(connection).getAutoCommit();
+		doReturn(statement).when(connection).prepareStatement(anyString());
+		ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+		doReturn(connection).when(connectionProvider).getConnection();
+		BatchedStatementWriter writer = new BatchedStatementWriter(connectionProvider, mock(Logger.class), 1000, 0, 0);
+		for(int i = 0; i < 10; i++)
+		{
+			writer.add(INSERT, "Player" + i, "join");
+			writer.add(UPDATE, "Player" + i);
+		}
+		assertEquals("All statements should be queued", 20, writer.getQueuedCount());
+		assertEquals("All statements should be written", 20, writer.flush());
+		assertEquals("The queue should be empty", 0, writer.getQueuedCount());
+		verify(connection, times(1)).prepareStatement(INSERT);
+		verify(connection, times(1)).prepareStatement(UPDATE);
+		verify(statement, times(20)).addBatch();
+		verify(statement, times(2)).executeBatch();
+		verify(connection, times(1)).setAutoCommit(false);
+		verify(connection, times(1)).commit();
+		verify(connection, times(1)).setAutoCommit(true);
+		verify(connection, times(1)).close();
+		writer.close();
+		verify(connectionProvider, times(1)).getConnection();
+	}
+
+	@Test
+	public void testRetryAndFailureHandler() throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		doReturn(statement).when(connection).prepareStatement(anyString());
+		doThrow(new SQLException("Deadlock")).when(statement).executeBatch();
+		ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+		doReturn(connection).when(connectionProvider).getConnection();
+		AtomicInteger failedStatements = new AtomicInteger();
+		BatchedStatementWriter writer = new BatchedStatementWriter(connectionProvider, mock(Logger.class), 1000, 0, 2);
+		writer.setFailureHandler((String query, List<Object[]> parameterSets, SQLException exception) -> failedStatements.addAndGet(parameterSets.size()));
+		writer.add(INSERT, "Player", "quit");
+		writer.add(INSERT, "Player", "join");
+		assertEquals("Nothing should be written", 0, writer.flush());
+		verify(statement, times(3)).executeBatch();
+		verify(connection, times(3)).rollback();
+		verify(connection, never()).commit();
+		assertEquals("The failure handler should receive all statements", 2, failedStatements.get());
+		writer.close();
+	}
+
+	@Test
+	public void testFlushOnBatchSizeAndClose() throws SQLException, InterruptedException
+	{
+		Connection connection = mock(Connection.class);
+		PreparedStatement statement = mock(PreparedStatement.class);
+		doReturn(statement).when(connection).prepareStatement(anyString());
+		ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+		doReturn(connection).when(connectionProvider).getConnection();
+		BatchedStatementWriter writer = new BatchedStatementWriter(connectionProvider, mock(Logger.class), 5, 0, 0);
+		for(int i = 0; i < 5; i++)
+		{
+			writer.add(UPDATE, "Player" + i);
+		}
+		for(int i = 0; i < 100 && writer.getQueuedCount() > 0; i++)
+		{
+			Thread.sleep(10);
+		}
+		assertEquals("Reaching the batch size should trigger a flush", 0, writer.getQueuedCount());
+		writer.add(UPDATE, "Player");
+		writer.close();
+		verify(statement, times(6)).addBatch();
+		try
+		{
+			writer.add(UPDATE, "Player");
+			fail("Adding to a closed writer should fail");
+		}
+		catch(IllegalStateException ignored) {}
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache.Invalidation;
+
+import at.pcgamingfreaks.Database.Cache.ICacheablePlayer;
+import at.pcgamingfreaks.Database.Cache.IPlayerCache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CacheInvalidationBusTest
+{
+	@Test
+	public void testBatchedDelivery()
+	{
+		LocalInvalidationTransport.Network network = new LocalInvalidationTransport.Network();
+		IPlayerCache senderCache = mock(IPlayerCache.class), receiverCache = mock(IPlayerCache.class);
+		UUID uncached = UUID.randomUUID(), invalidated = UUID.randomUUID();
+		ICacheablePlayer player = mock(ICacheablePlayer.class);
+		doReturn(player).when(receiverCache).getCachedPlayer(uncached);
+		CacheInvalidationBus sender = new CacheInvalidationBus(senderCache, new LocalInvalidationTransport(network), mock(Logger.class));
+		CacheInvalidationBus receiver = new CacheInvalidationBus(receiverCache, new LocalInvalidationTransport(network), mock(Logger.class));
+		List<UUID> received = new ArrayList<>();
+		receiver.addListener((type, uuid) -> received.add(uuid));
+
+		sender.publishUnCache(uncached);
+		sender.publishInvalidate(invalidated);
+		sender.publishUnCache(invalidated); // Must not downgrade the invalidation
+		assertEquals("The events should be queued till the next flush", 0, receiver.getReceivedEvents());
+		assertEquals(2, sender.getPendingEvents());
+		sender.flush();
+		assertEquals("All events should be sent in one message", 1, sender.getSentMessages());
+		assertEquals(0, sender.getPendingEvents());
+		assertEquals(2, receiver.getReceivedEvents());
+		verify(receiverCache, times(1)).unCache(player);
+		verify(receiverCache, times(1)).invalidate(invalidated);
+		verify(receiverCache, never()).invalidate(uncached);
+		assertEquals(2, received.size());
+		verify(senderCache, never()).invalidate(any());
+		sender.close();
+		receiver.close();
+	}
+
+	@Test
+	public void testKeepEventsIfTransportUnavailable()
+	{
+		IInvalidationTransport transport = mock(IInvalidationTransport.class);
+		doReturn(false).doReturn(true).when(transport).send(any());
+		CacheInvalidationBus bus = new CacheInvalidationBus(null, transport, mock(Logger.class));
+		verify(transport, times(1)).start(bus);
+		bus.publishInvalidate(UUID.randomUUID());
+		bus.flush();
+		assertEquals("The event should be kept if it could not be sent", 1, bus.getPendingEvents());
+		bus.flush();
+		assertEquals(0, bus.getPendingEvents());
+		verify(transport, times(2)).send(any());
+	}
+
+	@Test
+	public void testIgnoreOwnAndInvalidMessages()
+	{
+		IPlayerCache cache = mock(IPlayerCache.class);
+		Logger logger = mock(Logger.class);
+		IInvalidationTransport transport = mock(IInvalidationTransport.class);
+		doReturn(true).when(transport).send(any());
+		CacheInvalidationBus bus = new CacheInvalidationBus(cache, transport, logger);
+		bus.publishInvalidate(UUID.randomUUID());
+		bus.flush();
+		verify(transport).send(argThat(message -> {
+			bus.receive(message);
+			return true;
+		}));
+		verify(cache, never()).invalidate(any());
+		bus.receive(new byte[] { 42 });
+		verify(logger, times(1)).warning(anyString());
+	}
+}
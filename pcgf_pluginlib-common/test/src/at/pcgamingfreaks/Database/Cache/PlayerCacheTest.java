@@ -0,0 +1,212 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class PlayerCacheTest
+{
+	private static class TestPlayer implements ICacheablePlayer
+	{
+		private final UUID uuid;
+
+		TestPlayer(UUID uuid)
+		{
+			this.uuid = uuid;
+		}
+
+		@Override
+		public @NotNull UUID getUUID()
+		{
+			return uuid;
+		}
+
+		@Override
+		public boolean isOnline()
+		{
+			return false;
+		}
+
+		@Override
+		public long getLastPlayed()
+		{
+			return 0;
+		}
+
+		@Override
+		public boolean canBeUncached()
+		{
+			return true;
+		}
+	}
+
+	private static class TestLoader implements IPlayerLoader<TestPlayer>
+	{
+		final AtomicInteger loads = new AtomicInteger();
+		final List<TestPlayer> saved = Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch loadLatch = new CountDownLatch(1), saveStarted = new CountDownLatch(1);
+		volatile CountDownLatch saveLatch = null;
+
+		@Override
+		public TestPlayer load(@NotNull UUID uuid)
+		{
+			loads.incrementAndGet();
+			try
+			{
+				loadLatch.await(5, TimeUnit.SECONDS);
+			}
+			catch(InterruptedException ignored) {}
+			return new TestPlayer(uuid);
+		}
+
+		@Override
+		public void save(@NotNull Collection<TestPlayer> players)
+		{
+			saveStarted.countDown();
+			CountDownLatch latch = saveLatch;
+			if(latch != null)
+			{
+				try
+				{
+					latch.await(5, TimeUnit.SECONDS);
+				}
+				catch(InterruptedException ignored) {}
+			}
+			saved.addAll(players);
+		}
+	}
+
+	@Test
+	public void testSingleFlightLoading() throws Exception
+	{
+		TestLoader loader = new TestLoader();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try(PlayerCache<TestPlayer> cache = new PlayerCache<>("Test", loader, executor, mock(Logger.class), 1000))
+		{
+			UUID uuid = UUID.randomUUID();
+			CompletableFuture<TestPlayer> first = cache.load(uuid), second = cache.load(uuid);
+			assertSame("Concurrent loads should share the future", first, second);
+			assertNull("The player should not be cached before it is loaded", cache.getCachedPlayer(uuid));
+			loader.loadLatch.countDown();
+			TestPlayer player = first.get(5, TimeUnit.SECONDS);
+			assertEquals(1, loader.loads.get());
+			assertSame(player, cache.getCachedPlayer(uuid));
+			assertSame(player, cache.load(uuid).get());
+			assertEquals(2, cache.getHits());
+			assertEquals(3, cache.getMisses());
+			assertEquals(1, cache.getLoadTimes().getCount());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testWriteBehind() throws Exception
+	{
+		TestLoader loader = new TestLoader();
+		loader.loadLatch.countDown();
+		try(PlayerCache<TestPlayer> cache = new PlayerCache<>("Test", loader, Runnable::run, mock(Logger.class), 50))
+		{
+			TestPlayer first = cache.load(UUID.randomUUID()).get(), second = cache.load(UUID.randomUUID()).get();
+			cache.markDirty(first);
+			cache.markDirty(first);
+			assertEquals("The player should only be marked once", 1, cache.getDirtyCount());
+			long timeout = System.currentTimeMillis() + 5000;
+			while(loader.saved.isEmpty() && System.currentTimeMillis() < timeout) Thread.sleep(10);
+			assertEquals(Collections.singletonList(first), loader.saved);
+			assertEquals(0, cache.getDirtyCount());
+			cache.markDirty(second);
+			cache.unCache(second);
+			assertNull("The player should be removed from the cache", cache.getCachedPlayer(second.getUUID()));
+			timeout = System.currentTimeMillis() + 5000;
+			while(loader.saved.size() < 2 && System.currentTimeMillis() < timeout) Thread.sleep(10);
+			assertEquals("Uncached dirty players should be written", second, loader.saved.get(1));
+			assertEquals(2, cache.getWrites());
+		}
+	}
+
+	@Test
+	public void testRejoinBeforeWrite() throws Exception
+	{
+		TestLoader loader = new TestLoader();
+		loader.loadLatch.countDown();
+		loader.saveLatch = new CountDownLatch(1);
+		TestPlayer player;
+		try(PlayerCache<TestPlayer> cache = new PlayerCache<>("Test", loader, Runnable::run, mock(Logger.class), 10000))
+		{
+			player = cache.load(UUID.randomUUID()).get();
+			cache.markDirty(player);
+			cache.unCache(player);
+			assertNull("The player should be removed from the cache", cache.getCachedPlayer(player.getUUID()));
+			assertSame("The player with the pending changes should be returned", player, cache.load(player.getUUID()).get(5, TimeUnit.SECONDS));
+			assertEquals("The outdated player should not be loaded from the database", 1, loader.loads.get());
+			loader.saveLatch.countDown();
+		}
+		assertEquals("The pending changes should be written", Collections.singletonList(player), loader.saved);
+	}
+
+	@Test
+	public void testUnCacheDuringFlush() throws Exception
+	{
+		TestLoader loader = new TestLoader();
+		loader.loadLatch.countDown();
+		loader.saveLatch = new CountDownLatch(1);
+		try(PlayerCache<TestPlayer> cache = new PlayerCache<>("Test", loader, Runnable::run, mock(Logger.class), 10000))
+		{
+			TestPlayer player = cache.load(UUID.randomUUID()).get();
+			cache.markDirty(player);
+			Thread flushThread = new Thread(cache::flush);
+			flushThread.start();
+			assertTrue("The save should have been started", loader.saveStarted.await(5, TimeUnit.SECONDS));
+			cache.unCache(player);
+			assertNull("The player should be removed from the cache", cache.getCachedPlayer(player.getUUID()));
+			assertSame("The player that is being written should be returned", player, cache.load(player.getUUID()).get(5, TimeUnit.SECONDS));
+			assertEquals("The outdated player should not be loaded from the database", 1, loader.loads.get());
+			loader.saveLatch.countDown();
+			flushThread.join(5000);
+			assertEquals(Collections.singletonList(player), loader.saved);
+			cache.unCache(player);
+			assertNotSame("The written player should be loaded from the database", player, cache.load(player.getUUID()).get(5, TimeUnit.SECONDS));
+			assertEquals(2, loader.loads.get());
+		}
+	}
+
+	@Test
+	public void testUnCacheAfterClose() throws Exception
+	{
+		TestLoader loader = new TestLoader();
+		loader.loadLatch.countDown();
+		PlayerCache<TestPlayer> cache = new PlayerCache<>("Test", loader, Runnable::run, mock(Logger.class), 10000);
+		TestPlayer player = cache.load(UUID.randomUUID()).get();
+		cache.close();
+		cache.markDirty(player);
+		cache.unCache(player);
+		assertEquals("The player should be written synchronously after the cache got closed", Collections.singletonList(player), loader.saved);
+	}
+}
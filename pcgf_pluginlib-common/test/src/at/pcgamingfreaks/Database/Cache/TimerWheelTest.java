@@ -0,0 +1,90 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Cache;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class TimerWheelTest
+{
+	@Test
+	public void testExpiry()
+	{
+		long now = System.currentTimeMillis();
+		TimerWheel<String> wheel = new TimerWheel<>(100, 8);
+		wheel.schedule("a", now + 250);
+		wheel.schedule("b", now + 500);
+		wheel.schedule("c", now + 5000); // More than one rotation away
+		wheel.schedule("d", now + 300);
+		assertTrue(wheel.cancel("d"));
+		assertFalse(wheel.cancel("d"));
+		assertEquals(3, wheel.size());
+		assertEquals(Collections.emptyList(), wheel.advance(now + 100));
+		assertEquals(Collections.singletonList("a"), wheel.advance(now + 300));
+		assertEquals("Entries of later rotations must not expire early", Collections.singletonList("b"), wheel.advance(now + 1000));
+		assertTrue(wheel.isScheduled("c"));
+		assertEquals(Collections.singletonList("c"), wheel.advance(now + 10000));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testReschedule()
+	{
+		long now = System.currentTimeMillis();
+		TimerWheel<String> wheel = new TimerWheel<>(100, 8);
+		wheel.schedule("a", now + 200);
+		wheel.schedule("a", now + 600);
+		assertEquals(1, wheel.size());
+		assertEquals(Collections.emptyList(), wheel.advance(now + 300));
+		assertEquals(Collections.singletonList("a"), wheel.advance(now + 700));
+	}
+
+	@Test
+	public void testExpiryQueueStrategy() throws InterruptedException
+	{
+		IPlayerCache cache = mock(IPlayerCache.class);
+		ICacheablePlayer online = mock(ICacheablePlayer.class), offline = mock(ICacheablePlayer.class), locked = mock(ICacheablePlayer.class);
+		UUID onlineId = UUID.randomUUID(), offlineId = UUID.randomUUID(), lockedId = UUID.randomUUID();
+		doReturn(onlineId).when(online).getUUID();
+		doReturn(true).when(online).isOnline();
+		doReturn(offlineId).when(offline).getUUID();
+		doReturn(true).when(offline).canBeUncached();
+		doReturn(lockedId).when(locked).getUUID();
+		doReturn(online).when(cache).getCachedPlayer(onlineId);
+		doReturn(offline).when(cache).getCachedPlayer(offlineId);
+		doReturn(locked).when(cache).getCachedPlayer(lockedId);
+		doReturn(Arrays.asList(online, offline, locked)).when(cache).getCachedPlayers();
+		BaseExpiryQueueUnCacheStrategy strategy = new BaseExpiryQueueUnCacheStrategy(cache, 0)
+		{
+			@Override
+			public void close() {}
+		};
+		assertEquals("Only offline players should be scheduled", 2, strategy.getScheduledCount());
+		strategy.scheduleUnCache(online);
+		Thread.sleep(BaseExpiryQueueUnCacheStrategy.TICK_MILLIS + 10);
+		strategy.tick();
+		verify(cache, times(1)).unCache(offline);
+		verify(cache, never()).unCache(online);
+		verify(cache, never()).unCache(locked);
+		assertEquals("Players that can't be uncached yet should be scheduled again", 1, strategy.getScheduledCount());
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.ConnectionProvider;
+
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LimitedConnectionProviderTest
+{
+	private static ConnectionProvider mockConnectionProvider() throws SQLException
+	{
+		ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+		doAnswer(invocation -> mock(Connection.class)).when(connectionProvider).getConnection();
+		doAnswer(invocation -> mock(Connection.class)).when(connectionProvider).getReadOnlyConnection();
+		return connectionProvider;
+	}
+
+	@Test
+	public void testLimit() throws SQLException
+	{
+		LimitedConnectionProvider provider = new LimitedConnectionProvider(mockConnectionProvider(), "Test", mock(Logger.class), 2, 0, 50);
+		Connection first = provider.getConnection(), second = provider.getConnection();
+		assertEquals("Both connections should be tracked", 2, provider.getActiveConnections());
+		assertEquals("The holder should be the current thread", Thread.currentThread().getName(), provider.getHeldConnections().get(0).getThreadName());
+		assertFalse("The leak detection should be disabled", provider.isLeakDetectionEnabled());
+		assertNull("The stack should not be recorded without leak detection", provider.getHeldConnections().get(0).getAcquiredBy());
+		try
+		{
+			provider.getConnection();
+			fail("The third connection should time out");
+		}
+		catch(SQLTransientConnectionException ignored) {}
+		first.close();
+		first.close(); // Closing twice must not release two permits
+		assertTrue("The closed connection should report that it is closed", first.isClosed());
+		Connection third = provider.getConnection();
+		assertEquals("The limit should still be enforced", 2, provider.getActiveConnections());
+		second.close();
+		third.close();
+		assertEquals("All connections should be released", 0, provider.getActiveConnections());
+		provider.shutdown();
+	}
+
+	@Test
+	public void testLeakDetection() throws SQLException, InterruptedException
+	{
+		Logger logger = mock(Logger.class);
+		LimitedConnectionProvider provider = new LimitedConnectionProvider(mockConnectionProvider(), "Test", logger, 1, 50);
+		Connection connection = provider.getConnection();
+		assertNotNull("The stack of the acquiring code should be recorded", provider.getHeldConnections().get(0).getAcquiredBy());
+		Thread.sleep(300);
+		verify(logger, times(1)).log(eq(Level.WARNING), anyString(), any(Throwable.class));
+		connection.close();
+		provider.shutdown();
+	}
+
+	@Test
+	public void testSeparateReadLimit() throws SQLException
+	{
+		LimitedConnectionProvider provider = new LimitedConnectionProvider(mockConnectionProvider(), "Test", mock(Logger.class), 1, 2, 0, 50);
+		Connection writer = provider.getConnection();
+		Connection firstReader = provider.getReadOnlyConnection(), secondReader = provider.getReadOnlyConnection();
+		assertEquals("Readers should not use the permit of the writer", 3, provider.getActiveConnections());
+		try
+		{
+			provider.getReadOnlyConnection();
+			fail("The third read-only connection should time out");
+		}
+		catch(SQLTransientConnectionException ignored) {}
+		firstReader.close();
+		provider.getReadOnlyConnection().close();
+		writer.close();
+		secondReader.close();
+		assertEquals("All connections should be released", 0, provider.getActiveConnections());
+		provider.shutdown();
+	}
+
+	@Test
+	public void testSharedReadLimit() throws SQLException
+	{
+		LimitedConnectionProvider provider = new LimitedConnectionProvider(mockConnectionProvider(), "Test", mock(Logger.class), 1, 0, 50);
+		Connection writer = provider.getConnection();
+		try
+		{
+			provider.getReadOnlyConnection();
+			fail("Reads should count against the limit if no read limit is set");
+		}
+		catch(SQLTransientConnectionException ignored) {}
+		writer.close();
+		provider.shutdown();
+	}
+
+	@Test
+	public void testWrapperMethods() throws SQLException
+	{
+		LimitedConnectionProvider provider = new LimitedConnectionProvider(mockConnectionProvider(), "Test", mock(Logger.class), 1, 0, 50);
+		Connection connection = provider.getConnection();
+		assertSame("Unwrapping should not expose the connection that is not tracked", connection, connection.unwrap(Connection.class));
+		assertTrue(connection.isWrapperFor(Connection.class));
+		assertEquals(connection, connection);
+		assertEquals(System.identityHashCode(connection), connection.hashCode());
+		connection.unwrap(Connection.class).close();
+		assertEquals("Closing the unwrapped connection should release it", 0, provider.getActiveConnections());
+		provider.getConnection().close();
+		provider.shutdown();
+	}
+
+	@Test
+	public void testLeakDetectorStopped() throws SQLException
+	{
+		LimitedConnectionProvider first = new LimitedConnectionProvider(mockConnectionProvider(), "First", mock(Logger.class), 1, 1000);
+		LimitedConnectionProvider second = new LimitedConnectionProvider(mockConnectionProvider(), "Second", mock(Logger.class), 1, 1000);
+		assertTrue(LimitedConnectionProvider.isLeakDetectorRunning());
+		first.shutdown();
+		first.shutdown(); // Shutting down twice must not stop the detector used by the other provider
+		assertTrue("The detector is still in use", LimitedConnectionProvider.isLeakDetectorRunning());
+		second.shutdown();
+		assertFalse("The detector should be stopped once it is no longer used", LimitedConnectionProvider.isLeakDetectorRunning());
+		new LimitedConnectionProvider(mockConnectionProvider(), "Third", mock(Logger.class), 1, 1000).shutdown(); // The detector needs to restart after it has been stopped
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.ConnectionProvider;
+
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class ReplicaRouterTest
+{
+	private final Connection primary = mock(Connection.class), replica1 = mock(Connection.class), replica2 = mock(Connection.class);
+
+	private ReplicaRouter createRouter(final AtomicBoolean replica1Down, final long pinMillis, final long retryIntervalMillis)
+	{
+		Map<String, ReplicaRouter.ConnectionSupplier> replicas = new LinkedHashMap<>();
+		replicas.put("replica1", () -> {
+			if(replica1Down.get()) throw new SQLException("Connection refused");
+			return replica1;
+		});
+		replicas.put("replica2", () -> replica2);
+		return new ReplicaRouter(() -> primary, replicas, mock(Logger.class), pinMillis, retryIntervalMillis);
+	}
+
+	@Test
+	public void testLoadBalancing() throws SQLException
+	{
+		ReplicaRouter router = createRouter(new AtomicBoolean(false), 0, 1000);
+		Connection first = router.getReadOnlyConnection(), second = router.getReadOnlyConnection();
+		assertNotSame("The reads should be balanced across the replicas", first, second);
+		assertNotSame(primary, first);
+		assertNotSame(primary, second);
+		assertEquals(2, router.getReplicaReads());
+		assertEquals(0, router.getPrimaryReads());
+	}
+
+	@Test
+	public void testFallback() throws SQLException, InterruptedException
+	{
+		AtomicBoolean replica1Down = new AtomicBoolean(true);
+		ReplicaRouter router = createRouter(replica1Down, 0, 100);
+		for(int i = 0; i < 4; i++)
+		{
+			assertSame("The unhealthy replica should be skipped", replica2, router.getReadOnlyConnection());
+		}
+		assertEquals(1, router.getReplicaFailures());
+		assertEquals(1, router.getHealthyReplicas());
+		Thread.sleep(150);
+		replica1Down.set(false);
+		assertEquals("The replica should be retried after the retry interval", 2, router.getHealthyReplicas());
+		assertNotSame(router.getReadOnlyConnection(), router.getReadOnlyConnection());
+
+		ReplicaRouter noReplicas = new ReplicaRouter(() -> primary, new LinkedHashMap<>(), mock(Logger.class), 0, 100);
+		assertSame("Without replicas the primary should be used", primary, noReplicas.getReadOnlyConnection());
+	}
+
+	@Test
+	public void testReadAfterWritePinning() throws SQLException, InterruptedException
+	{
+		ReplicaRouter router = createRouter(new AtomicBoolean(false), 100, 1000);
+		UUID player = UUID.randomUUID();
+		router.recordWrite(player);
+		assertSame("Reads of recently written data should use the primary", primary, router.getReadOnlyConnection(player));
+		assertNotSame("Other reads should still use the replicas", primary, router.getReadOnlyConnection(UUID.randomUUID()));
+		router.recordWrite();
+		assertSame("Reads of the writing thread should use the primary", primary, router.getReadOnlyConnection());
+		Thread.sleep(150);
+		assertNotSame("The pin should expire", primary, router.getReadOnlyConnection());
+		assertNotSame(primary, router.getReadOnlyConnection(player));
+	}
+}
@@ -20,10 +20,15 @@
 import org.junit.BeforeClass;
 import org.junit.Test;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -49,4 +54,72 @@ public void testRunStatementWithoutException() throws SQLException
 		DBTools.runStatementWithoutException(mockedConnection, "SELECT * FROM table WHERE id = ? AND name = ?", 3, "TEST");
 		verify(mockedPreparedStatement, times(2)).execute();
 	}
+
+	private static Connection mockConnection(String databaseProductName, PreparedStatement preparedStatement) throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		doReturn(databaseProductName).when(metaData).getDatabaseProductName();
+		doReturn(metaData).when(connection).getMetaData();
+		doReturn(preparedStatement).when(connection).prepareStatement(anyString(), anyInt(), anyInt());
+		doReturn(preparedStatement).when(connection).prepareStatement(anyString());
+		ResultSet resultSet = mock(ResultSet.class);
+		doReturn(true).doReturn(true).doReturn(true).doReturn(false).when(resultSet).next();
+		doReturn(1).doReturn(2).doReturn(3).when(resultSet).getInt(1);
+		doReturn(resultSet).when(preparedStatement).executeQuery();
+		return connection;
+	}
+
+	@Test
+	public void testStream() throws SQLException
+	{
+		PreparedStatement preparedStatement = mock(PreparedStatement.class);
+		Connection connection = mockConnection("MySQL", preparedStatement);
+		List<Integer> mapped = new ArrayList<>();
+		try(Stream<Integer> stream = DBTools.stream(connection, "SELECT id FROM table WHERE name = ?", resultSet -> {
+			int id = resultSet.getInt(1);
+			mapped.add(id);
+			return id;
+		}, "TEST"))
+		{
+			verify(preparedStatement, times(1)).setFetchSize(Integer.MIN_VALUE);
+			verify(preparedStatement, times(1)).setObject(1, "TEST");
+			assertTrue("Rows must not be mapped before they are consumed", mapped.isEmpty());
+			assertEquals(Arrays.asList(2, 3), stream.skip(1).collect(Collectors.toList()));
+		}
+		verify(preparedStatement, times(1)).close();
+		verify(connection, never()).close();
+	}
+
+	@Test
+	public void testForEachRow() throws SQLException
+	{
+		PreparedStatement preparedStatement = mock(PreparedStatement.class);
+		Connection connection = mockConnection("SQLite", preparedStatement);
+		List<Integer> rows = new ArrayList<>();
+		assertEquals(3, DBTools.forEachRow(connection, "SELECT id FROM table", resultSet -> resultSet.getInt(1), rows::add));
+		assertEquals(Arrays.asList(1, 2, 3), rows);
+		verify(preparedStatement, times(1)).setFetchSize(DBTools.STREAMING_FETCH_SIZE);
+		verify(preparedStatement, times(1)).close();
+	}
+
+	@Test
+	public void testIteratorErrorHandling() throws SQLException
+	{
+		PreparedStatement preparedStatement = mock(PreparedStatement.class);
+		Connection connection = mockConnection("MySQL", preparedStatement);
+		ResultSetIterator<Integer> iterator = DBTools.iterate(connection, "SELECT id FROM table", resultSet -> { throw new SQLException("Mapping failed"); });
+		assertTrue(iterator.hasNext());
+		try
+		{
+			iterator.next();
+			fail("The mapping error should be thrown");
+		}
+		catch(ResultSetIterator.ResultSetIterationException e)
+		{
+			assertEquals("Mapping failed", e.getCause().getMessage());
+		}
+		assertFalse("The iterator should be closed after an error", iterator.hasNext());
+		verify(preparedStatement, times(1)).close();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Metrics;
+
+import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
+
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class MonitoredConnectionProviderTest
+{
+	private static final String QUERY = "SELECT * FROM table WHERE id = ?";
+
+	@Test
+	public void testStatementTimings() throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		PreparedStatement preparedStatement = mock(PreparedStatement.class);
+		Statement statement = mock(Statement.class);
+		doReturn(preparedStatement).when(connection).prepareStatement(anyString());
+		doReturn(statement).when(connection).createStatement();
+		doAnswer(invocation -> {
+			Thread.sleep(20);
+			return true;
+		}).when(preparedStatement).execute();
+		ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+		doReturn(connection).when(connectionProvider).getConnection();
+		Logger logger = mock(Logger.class);
+		MonitoredConnectionProvider monitoredProvider = new MonitoredConnectionProvider(connectionProvider, logger, 10);
+		try(Connection monitoredConnection = monitoredProvider.getConnection())
+		{
+			try(PreparedStatement ps = monitoredConnection.prepareStatement(QUERY))
+			{
+				ps.setInt(1, 5);
+				ps.execute();
+			}
+			try(Statement st = monitoredConnection.createStatement())
+			{
+				st.executeUpdate("DELETE FROM table");
+			}
+		}
+		verify(preparedStatement, times(1)).setInt(1, 5);
+		verify(connection, times(1)).close();
+		assertEquals("Both statements should be tracked", 2, monitoredProvider.getStatementTimings().size());
+		assertEquals("The prepared statement should be recorded once", 1, monitoredProvider.getStatementTimings().get(QUERY).getCount());
+		assertTrue("The execution time should be recorded", monitoredProvider.getStatementTimings().get(QUERY).getMaxMillis() >= 20);
+		assertEquals("The slowest statement should be the prepared one", QUERY, monitoredProvider.getSlowestStatements(1).get(0));
+		assertEquals("The slow query should be counted", 1, monitoredProvider.getSlowQueries());
+		verify(logger, times(1)).warning(anyString());
+	}
+
+	@Test
+	public void testWrapperMethods() throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		PreparedStatement preparedStatement = mock(PreparedStatement.class);
+		doReturn(preparedStatement).when(connection).prepareStatement(anyString());
+		doReturn(connection).when(connection).unwrap(Connection.class);
+		ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+		doReturn(connection).when(connectionProvider).getConnection();
+		MonitoredConnectionProvider monitoredProvider = new MonitoredConnectionProvider(connectionProvider, mock(Logger.class), 10);
+		Connection monitoredConnection = monitoredProvider.getConnection();
+		assertNotSame("The connection should be wrapped", connection, monitoredConnection);
+		assertSame("Unwrapping to the connection interface should return the wrapper", monitoredConnection, monitoredConnection.unwrap(Connection.class));
+		assertTrue("The wrapper should be a wrapper for the connection interface", monitoredConnection.isWrapperFor(Connection.class));
+		assertEquals("The wrapper should equal itself", monitoredConnection, monitoredConnection);
+		PreparedStatement ps = monitoredConnection.prepareStatement(QUERY);
+		assertSame("The statement should return the wrapped connection", monitoredConnection, ps.getConnection());
+		assertSame("Unwrapping to the statement interface should return the wrapper", ps, ps.unwrap(PreparedStatement.class));
+		verify(connection, never()).unwrap(any());
+		verify(preparedStatement, never()).getConnection();
+	}
+
+	@Test
+	public void testNoWrappingWhenDisabled() throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+		doReturn(connection).when(connectionProvider).getConnection();
+		MonitoredConnectionProvider monitoredProvider = new MonitoredConnectionProvider(connectionProvider, mock(Logger.class), false, 10);
+		assertSame("The connection should not be wrapped if the monitoring is disabled", connection, monitoredProvider.getConnection());
+		monitoredProvider.setStatementTimingEnabled(true);
+		assertNotSame("The connection should be wrapped after the monitoring got enabled", connection, monitoredProvider.getConnection());
+	}
+
+	@Test
+	public void testTimingWithoutSlowQueryLog() throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		Statement statement = mock(Statement.class);
+		doReturn(statement).when(connection).createStatement();
+		ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+		doReturn(connection).when(connectionProvider).getConnection();
+		Logger logger = mock(Logger.class);
+		MonitoredConnectionProvider monitoredProvider = new MonitoredConnectionProvider(connectionProvider, logger, 0);
+		try(Connection monitoredConnection = monitoredProvider.getConnection(); Statement st = monitoredConnection.createStatement())
+		{
+			st.execute("DELETE FROM table");
+		}
+		assertEquals("The statement should be timed without a slow query threshold", 1, monitoredProvider.getStatementTimings().get("DELETE FROM table").getCount());
+		assertEquals("No statement should be reported as slow", 0, monitoredProvider.getSlowQueries());
+		verify(logger, never()).warning(anyString());
+	}
+
+	@Test
+	public void testHistogram()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals("An empty histogram should report 0", 0, histogram.getPercentileMillis(99), 0);
+		for(int i = 1; i <= 100; i++)
+		{
+			histogram.record(i, TimeUnit.MILLISECONDS);
+		}
+		assertEquals("All values should be counted", 100, histogram.getCount());
+		assertEquals("The average should match", 50.5, histogram.getAverageMillis(), 0.001);
+		assertEquals("The max should match", 100, histogram.getMaxMillis(), 0.001);
+		double p50 = histogram.getPercentileMillis(50);
+		assertTrue("The median should be within the bucket precision", p50 >= 50 && p50 <= 100);
+		assertTrue("The percentiles should be ordered", histogram.getPercentileMillis(50) <= histogram.getPercentileMillis(99));
+		histogram.reset();
+		assertEquals("The histogram should be empty after a reset", 0, histogram.getCount());
+	}
+}
@@ -17,12 +17,19 @@
 
 package at.pcgamingfreaks.Database;
 
+import at.pcgamingfreaks.Database.Schema.*;
+
 import org.intellij.lang.annotations.Language;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.sql.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.logging.Logger;
 
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -791,4 +798,113 @@ public void testWithEngineParameter() throws SQLException
 		new MySQLTableValidator().validate(mockedConnection, createStatement);
 		verify(mockedStatement, times(1)).executeUpdate(createStatement);
 	}
+
+	@Test
+	public void testCombinedAlterTable() throws SQLException
+	{
+		doReturn("CREATE TABLE `test` (\n" +
+				         "  `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT,\n" +
+				         "  `val` VARCHAR(100)\n" +
+				         ")").when(mockedResultSet).getString(2);
+		new MySQLTableValidator().validate(mockedConnection, "CREATE TABLE `test` (\n" +
+				"  `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT,\n" +
+				"  `val` VARCHAR(255),\n" +
+				"  `usr` INT(10) UNSIGNED NOT NULL,\n" +
+				"  UNIQUE INDEX (`usr`),\n" +
+				"  PRIMARY KEY (`id`)\n" +
+				")");
+		verify(mockedStatement, times(1)).executeUpdate(anyString());
+		verify(mockedStatement, times(1)).executeUpdate("ALTER TABLE `test` MODIFY COLUMN `val` VARCHAR(255), ADD COLUMN `usr` INT(10) UNSIGNED NOT NULL, ADD UNIQUE INDEX (`usr`), ADD PRIMARY KEY (`id`), ALGORITHM=INPLACE");
+	}
+
+	@Test
+	public void testFallbackWhenInplaceNotSupported() throws SQLException
+	{
+		doReturn("CREATE TABLE `test` (\n" +
+				         "  `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT\n" +
+				         ")").when(mockedResultSet).getString(2);
+		doThrow(new SQLException("ALGORITHM=INPLACE is not supported. Reason: Cannot change column type INPLACE.", "0A000", 1846)).when(mockedStatement).executeUpdate(contains("ALGORITHM=INPLACE"));
+		MySQLTableValidator validator = new MySQLTableValidator();
+		validator.validate(mockedConnection, "CREATE TABLE `test` (\n" +
+				"  `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT,\n" +
+				"  PRIMARY KEY (`id`)\n" +
+				")");
+		verify(mockedStatement, times(1)).executeUpdate("ALTER TABLE `test` ADD PRIMARY KEY (`id`)");
+		assertEquals("Only the successful statement should be reported", 1, validator.getPlannedStatements().size());
+	}
+
+	@Test
+	public void testNoFallbackOnOtherErrors() throws SQLException
+	{
+		doReturn("CREATE TABLE `test` (\n" +
+				         "  `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT\n" +
+				         ")").when(mockedResultSet).getString(2);
+		doThrow(new SQLException("Multiple primary key defined", "42000", 1068)).when(mockedStatement).executeUpdate(contains("ALGORITHM=INPLACE"));
+		try
+		{
+			new MySQLTableValidator().validate(mockedConnection, "CREATE TABLE `test` (\n" +
+					"  `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT,\n" +
+					"  PRIMARY KEY (`id`)\n" +
+					")");
+			fail("The error should be passed on");
+		}
+		catch(SQLException e)
+		{
+			assertEquals(1068, e.getErrorCode());
+		}
+		verify(mockedStatement, times(1)).executeUpdate(anyString());
+	}
+
+	@Test
+	public void testDryRun() throws SQLException
+	{
+		doReturn("CREATE TABLE `test` (\n" +
+				         "  `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT\n" +
+				         ")").when(mockedResultSet).getString(2);
+		Logger logger = mock(Logger.class);
+		MySQLTableValidator validator = new MySQLTableValidator();
+		validator.setDryRun(true);
+		validator.validate(mockedConnection, "CREATE TABLE `test` (\n" +
+				"  `id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT,\n" +
+				"  `val` VARCHAR(255),\n" +
+				"  PRIMARY KEY (`id`)\n" +
+				")", logger);
+		verify(mockedStatement, never()).executeUpdate(anyString());
+		assertEquals(1, validator.getPlannedStatements().size());
+		assertEquals("ALTER TABLE `test` ADD COLUMN `val` VARCHAR(255), ADD PRIMARY KEY (`id`)", validator.getPlannedStatements().get(0));
+		verify(logger, times(1)).info(contains(validator.getPlannedStatements().get(0)));
+	}
+
+	@Test
+	public void testValidateWithTableIntrospector() throws SQLException
+	{
+		TableModel current = new TableModel("test");
+		current.addColumn(new ColumnModel("id", "int(10) unsigned", false, true, null));
+		current.addColumn(new ColumnModel("val", "varchar(100)", true, false, null));
+		current.addColumn(new ColumnModel("usr", "int", false, false, null));
+		current.setPrimaryKey(Collections.singletonList("id"));
+		current.addIndex(new IndexModel("usr", false, Collections.singletonList("usr"), null));
+		current.addForeignKey(new ForeignKeyModel("fk_usr", Collections.singletonList("usr"), "users", Collections.singletonList("id"), null, null));
+		TableIntrospector introspector = mock(TableIntrospector.class);
+		doReturn(current).when(introspector).introspect(any(Connection.class), anyString());
+		MySQLTableValidator validator = new MySQLTableValidator();
+		validator.setTableIntrospector(introspector);
+		validator.validate(mockedConnection, "CREATE TABLE `test` (`id` INT UNSIGNED NOT NULL AUTO_INCREMENT, `val` VARCHAR(255),  `usr` INT NOT NULL, `created` BIGINT NOT NULL,\n" +
+				"UNIQUE INDEX `usr` (`usr`), CONSTRAINT `fk_usr` FOREIGN KEY (`usr`) REFERENCES `users` (`id`) ON DELETE CASCADE, PRIMARY KEY (`id`))");
+		verify(mockedStatement, never()).executeQuery(anyString()); // The create statement is not needed
+		assertEquals(Arrays.asList("ALTER TABLE `test` DROP FOREIGN KEY `fk_usr`",
+		                           "ALTER TABLE `test` MODIFY COLUMN `val` VARCHAR(255), ADD COLUMN `created` BIGINT NOT NULL, DROP INDEX `usr`, ADD UNIQUE INDEX `usr` (`usr`), " +
+				                           "ADD CONSTRAINT `fk_usr` FOREIGN KEY (`usr`) REFERENCES `users` (`id`) ON DELETE CASCADE, ALGORITHM=INPLACE"), validator.getPlannedStatements());
+	}
+
+	@Test
+	public void testCreateWithTableIntrospector() throws SQLException
+	{
+		TableIntrospector introspector = mock(TableIntrospector.class);
+		MySQLTableValidator validator = new MySQLTableValidator();
+		validator.setTableIntrospector(introspector);
+		@Language("SQL") String tableDefinition = "CREATE TABLE `test` (`id` INT UNSIGNED NOT NULL AUTO_INCREMENT, PRIMARY KEY (`id`))";
+		validator.validate(mockedConnection, tableDefinition);
+		verify(mockedStatement, times(1)).executeUpdate(tableDefinition);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database;
+
+import at.pcgamingfreaks.Database.Schema.SQLiteTableIntrospector;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SQLiteTableValidatorTest
+{
+	@Language("SQL") private static final String TABLE_DEFINITION = "CREATE TABLE IF NOT EXISTS `players` (\n`id` INTEGER NOT NULL,\n`name` VARCHAR(16) NOT NULL,\n`points` INT NOT NULL DEFAULT 0,\nPRIMARY KEY (`id`)\n);";
+
+	private Connection connection;
+
+	@Before
+	public void prepareDatabase() throws SQLException
+	{
+		connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+		try(Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate("PRAGMA foreign_keys=ON");
+			statement.executeUpdate("CREATE TABLE `players` (\n`id` INTEGER NOT NULL,\n`name` VARCHAR(16) NOT NULL,\nPRIMARY KEY (`id`)\n);");
+			statement.executeUpdate("CREATE INDEX `players_name` ON `players` (`name`)");
+			statement.executeUpdate("INSERT INTO `players` (`id`, `name`) VALUES (1, 'GeorgH93'), (2, 'MarkusWME')");
+		}
+	}
+
+	@After
+	public void closeDatabase() throws SQLException
+	{
+		connection.close();
+	}
+
+	private static SQLiteTableValidator newValidator()
+	{
+		SQLiteTableValidator validator = new SQLiteTableValidator();
+		validator.setTableIntrospector(new SQLiteTableIntrospector());
+		return validator;
+	}
+
+	private List<String> getNames() throws SQLException
+	{
+		List<String> names = new ArrayList<>();
+		try(Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("SELECT `name` FROM `players` ORDER BY `id`"))
+		{
+			while(resultSet.next()) names.add(resultSet.getString(1));
+		}
+		return names;
+	}
+
+	private String getColumnType(String column) throws SQLException
+	{
+		try(Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("PRAGMA table_info(`players`)"))
+		{
+			while(resultSet.next())
+			{
+				if(resultSet.getString("name").equals(column)) return resultSet.getString("type");
+			}
+		}
+		return null;
+	}
+
+	private boolean hasIndex(String index) throws SQLException
+	{
+		try(PreparedStatement preparedStatement = connection.prepareStatement("SELECT 1 FROM sqlite_master WHERE type='index' AND name=?"))
+		{
+			preparedStatement.setString(1, index);
+			try(ResultSet resultSet = preparedStatement.executeQuery())
+			{
+				return resultSet.next();
+			}
+		}
+	}
+
+	private boolean isForeignKeysEnabled() throws SQLException
+	{
+		try(Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("PRAGMA foreign_keys"))
+		{
+			return resultSet.next() && resultSet.getInt(1) == 1;
+		}
+	}
+
+	@Test
+	public void testAddColumn() throws SQLException
+	{
+		SQLiteTableValidator validator = newValidator();
+		validator.validate(connection, TABLE_DEFINITION);
+		assertEquals("Adding a column should not rebuild the table", 1, validator.getPlannedStatements().size());
+		assertTrue(validator.getPlannedStatements().get(0).startsWith("ALTER TABLE `players` ADD COLUMN `points`"));
+		assertEquals("INT", getColumnType("points"));
+		assertEquals("The data should survive", 2, getNames().size());
+		assertTrue("The index should still exist", hasIndex("players_name"));
+	}
+
+	@Test
+	public void testChangeColumnType() throws SQLException
+	{
+		SQLiteTableValidator validator = newValidator();
+		validator.validate(connection, TABLE_DEFINITION.replace("VARCHAR(16)", "VARCHAR(32)"));
+		assertEquals("VARCHAR(32)", getColumnType("name"));
+		assertEquals("INT", getColumnType("points"));
+		assertEquals("The data should survive the rebuild", 2, getNames().size());
+		assertEquals("GeorgH93", getNames().get(0));
+		assertTrue("The index should be restored after the rebuild", hasIndex("players_name"));
+		assertTrue("The foreign keys should be enabled again", isForeignKeysEnabled());
+		for(String statement : validator.getPlannedStatements())
+		{
+			assertFalse("PRAGMA statements should not be part of the plan", statement.startsWith("PRAGMA"));
+		}
+		assertTrue(validator.getPlannedStatements().contains("DROP TABLE `players`"));
+	}
+
+	@Test
+	public void testDroppedColumnIsKept() throws SQLException
+	{
+		try(Statement statement = connection.createStatement())
+		{
+			statement.executeUpdate("ALTER TABLE `players` ADD COLUMN `legacy` INT NOT NULL DEFAULT 42");
+		}
+		SQLiteTableValidator validator = newValidator();
+		try
+		{ // The type change requires a rebuild, the rebuild would drop the legacy column
+			validator.validate(connection, TABLE_DEFINITION.replace("VARCHAR(16)", "VARCHAR(32)"));
+			fail("The rebuild should be refused since it would drop a column");
+		}
+		catch(SQLException ignored) {}
+		assertEquals("The changes should be rolled back", "VARCHAR(16)", getColumnType("name"));
+		assertEquals("The column should still exist", "INT", getColumnType("legacy"));
+		assertNull("The added column should be rolled back", getColumnType("points"));
+		assertEquals("The data should survive", 2, getNames().size());
+		assertTrue("The index should still exist", hasIndex("players_name"));
+		assertTrue("The foreign keys should be enabled again", isForeignKeysEnabled());
+		assertTrue("The connection should be back in auto commit mode", connection.getAutoCommit());
+	}
+}
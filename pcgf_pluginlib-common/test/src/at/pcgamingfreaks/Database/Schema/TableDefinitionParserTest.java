@@ -0,0 +1,78 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database.Schema;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class TableDefinitionParserTest
+{
+	private static final String TABLE_DEFINITION = "CREATE TABLE IF NOT EXISTS `players` (`id` INT(10) UNSIGNED NOT NULL AUTO_INCREMENT, `name` VARCHAR(16) NOT NULL DEFAULT 'a,  b',\n" +
+			"`guild` INT UNSIGNED, `amount` DECIMAL(10, 2), UNIQUE INDEX `name_idx` (`name`), INDEX (`guild`, `name`(8)),\n" +
+			"CONSTRAINT `fk_guild` FOREIGN KEY (`guild`) REFERENCES `guilds` (`id`) ON DELETE SET NULL ON UPDATE CASCADE, PRIMARY KEY (`id`));";
+
+	@Test
+	public void testParse()
+	{
+		TableModel table = TableDefinitionParser.parse(TABLE_DEFINITION);
+		assertEquals("players", table.getName());
+		assertEquals(4, table.getColumns().size());
+		ColumnModel id = table.getColumn("ID");
+		assertNotNull("Columns should be found case insensitive", id);
+		assertEquals("int unsigned", id.getType());
+		assertFalse(id.isNullable());
+		assertEquals(Boolean.TRUE, id.getAutoIncrement());
+		ColumnModel name = table.getColumn("name");
+		assertNotNull(name);
+		assertEquals("Whitespaces within values must be kept", "VARCHAR(16) NOT NULL DEFAULT 'a,  b'", name.getDefinition());
+		assertEquals("decimal(10,2)", table.getColumn("amount").getType());
+		assertTrue(table.getColumn("guild").isNullable());
+		assertEquals(Collections.singletonList("id"), table.getPrimaryKey());
+		assertEquals(2, table.getIndexes().size());
+		assertTrue(table.getIndexes().get(0).isUnique());
+		assertEquals("name_idx", table.getIndexes().get(0).getName());
+		assertNull(table.getIndexes().get(1).getName());
+		assertEquals(Arrays.asList("guild", "name"), table.getIndexes().get(1).getColumns());
+		assertEquals("`guild`, `name`(8)", table.getIndexes().get(1).getColumnList());
+		ForeignKeyModel foreignKey = table.getForeignKeys().get(0);
+		assertEquals("fk_guild", foreignKey.getName());
+		assertEquals("`guilds` (`id`) ON DELETE SET NULL ON UPDATE CASCADE", foreignKey.getReferenceDefinition());
+	}
+
+	@Test
+	public void testCompareModels()
+	{
+		TableModel target = TableDefinitionParser.parse(TABLE_DEFINITION);
+		assertTrue("Display widths should be ignored", new ColumnModel("id", "int(11) unsigned", false, true, null).matches(target.getColumn("id")));
+		assertTrue("Unknown auto increment flags should be ignored", new ColumnModel("id", "INT UNSIGNED", false, null, null).matches(target.getColumn("id")));
+		assertFalse(new ColumnModel("name", "varchar(32)", false, false, null).matches(target.getColumn("name")));
+		assertFalse(new ColumnModel("guild", "int unsigned", false, false, null).matches(target.getColumn("guild")));
+		assertTrue("RESTRICT and NO ACTION should be equal", new ForeignKeyModel(null, Collections.singletonList("a"), "t", Collections.singletonList("b"), "RESTRICT", null)
+				.matches(new ForeignKeyModel("fk", Collections.singletonList("a"), "t", Collections.singletonList("b"), "NO ACTION", "NO_ACTION")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidDefinition()
+	{
+		TableDefinitionParser.parse("CREATE TABLE `test` (`id` INT");
+	}
+}
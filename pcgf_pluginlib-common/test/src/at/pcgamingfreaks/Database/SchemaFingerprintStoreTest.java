@@ -0,0 +1,122 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Database;
+
+import org.junit.Test;
+
+import java.sql.*;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SchemaFingerprintStoreTest
+{
+	private static final String TABLE_DEFINITION = "CREATE TABLE IF NOT EXISTS `players` (\n`id` INT NOT NULL AUTO_INCREMENT,\n`name` VARCHAR(16) NOT NULL,\nPRIMARY KEY (`id`)\n);";
+
+	@Test
+	public void testFingerprint()
+	{
+		String fingerprint = SchemaFingerprintStore.fingerprint(TABLE_DEFINITION);
+		assertEquals("The fingerprint should be a SHA-256 hex string", 64, fingerprint.length());
+		assertEquals("Whitespace changes should not change the fingerprint", fingerprint, SchemaFingerprintStore.fingerprint("  " + TABLE_DEFINITION.replace("\n", "\n    ") + "\n"));
+		assertNotEquals("Definition changes should change the fingerprint", fingerprint, SchemaFingerprintStore.fingerprint(TABLE_DEFINITION.replace("VARCHAR(16)", "VARCHAR(32)")));
+	}
+
+	@Test
+	public void testGetTableName()
+	{
+		assertEquals("players", SchemaFingerprintStore.getTableName(TABLE_DEFINITION));
+		assertEquals("stats", SchemaFingerprintStore.getTableName("CREATE TABLE stats (\n`id` INT\n);"));
+		assertNull(SchemaFingerprintStore.getTableName("SELECT 1;"));
+		assertNull("Schema qualified tables should not be fingerprinted", SchemaFingerprintStore.getTableName("CREATE TABLE `other`.`players` (\n`id` INT\n);"));
+	}
+
+	@Test
+	public void testSkipUnchangedTables() throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		doReturn(metaData).when(connection).getMetaData();
+		doReturn("minecraft").when(connection).getCatalog();
+		doReturn("MySQL").when(metaData).getDatabaseProductName();
+		ResultSet tables = mock(ResultSet.class);
+		doReturn(true).doReturn(false).when(tables).next();
+		doReturn("players").when(tables).getString("TABLE_NAME");
+		doReturn(tables).when(metaData).getTables(any(), any(), anyString(), any(String[].class));
+		Statement statement = mock(Statement.class);
+		ResultSet fingerprints = mock(ResultSet.class);
+		doReturn(true).doReturn(false).when(fingerprints).next();
+		doReturn("minecraft.players").when(fingerprints).getString(1);
+		doReturn(SchemaFingerprintStore.fingerprint(TABLE_DEFINITION)).when(fingerprints).getString(2);
+		doReturn(fingerprints).when(statement).executeQuery(contains(SchemaFingerprintStore.METADATA_TABLE));
+		doReturn(statement).when(connection).createStatement();
+		PreparedStatement preparedStatement = mock(PreparedStatement.class);
+		doReturn(preparedStatement).when(connection).prepareStatement(anyString());
+
+		DBTools.updateDB(connection, Arrays.asList(TABLE_DEFINITION, TABLE_DEFINITION), null);
+		verify(statement, times(1)).executeQuery(anyString()); // Only the fingerprints have been loaded
+		verify(statement, never()).executeUpdate(anyString());
+		verify(connection, never()).prepareStatement(anyString());
+	}
+
+	@Test
+	public void testCreateMissingTable() throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		doReturn(metaData).when(connection).getMetaData();
+		doReturn("minecraft").when(connection).getCatalog();
+		doReturn("MySQL").when(metaData).getDatabaseProductName();
+		doReturn(mock(ResultSet.class)).when(metaData).getTables(any(), any(), anyString(), any(String[].class));
+		Statement statement = mock(Statement.class);
+		doThrow(new SQLException("Table 'minecraft.pcgf_schema_fingerprints' doesn't exist", "42S02", 1146)).when(statement).executeQuery(anyString());
+		doReturn(statement).when(connection).createStatement();
+		PreparedStatement preparedStatement = mock(PreparedStatement.class);
+		doReturn(preparedStatement).when(connection).prepareStatement(anyString());
+
+		DBTools.updateDB(connection, TABLE_DEFINITION, null);
+		verify(statement, times(1)).executeUpdate(contains("CREATE TABLE IF NOT EXISTS `" + SchemaFingerprintStore.METADATA_TABLE + "`"));
+		verify(statement, times(1)).executeUpdate(TABLE_DEFINITION);
+		verify(connection, times(1)).prepareStatement(startsWith("REPLACE INTO `" + SchemaFingerprintStore.METADATA_TABLE + "`"));
+		verify(preparedStatement, times(1)).setObject(1, "minecraft.players");
+		verify(preparedStatement, times(1)).setObject(2, SchemaFingerprintStore.fingerprint(TABLE_DEFINITION));
+	}
+
+	@Test
+	public void testMetadataTableNotReadable() throws SQLException
+	{
+		Connection connection = mock(Connection.class);
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		doReturn(metaData).when(connection).getMetaData();
+		doReturn("MySQL").when(metaData).getDatabaseProductName();
+		doReturn(mock(ResultSet.class)).when(metaData).getTables(any(), any(), anyString(), any(String[].class));
+		Statement statement = mock(Statement.class);
+		doThrow(new SQLException("SELECT command denied", "42000", 1142)).when(statement).executeQuery(anyString());
+		doReturn(statement).when(connection).createStatement();
+		Logger logger = mock(Logger.class);
+
+		DBTools.updateDB(connection, TABLE_DEFINITION, logger);
+		verify(logger, times(1)).warning(contains("SELECT command denied"));
+		verify(statement, never()).executeUpdate(contains(SchemaFingerprintStore.METADATA_TABLE));
+		verify(statement, times(1)).executeUpdate(TABLE_DEFINITION); // The table still gets validated
+		verify(connection, never()).prepareStatement(anyString());
+	}
+}
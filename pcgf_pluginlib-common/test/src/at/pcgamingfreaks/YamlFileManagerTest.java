@@ -21,6 +21,7 @@
 import at.pcgamingfreaks.yaml.YAML;
 import at.pcgamingfreaks.yaml.YamlInvalidContentException;
 
+import org.jetbrains.annotations.NotNull;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.powermock.core.classloader.annotations.PrepareForTest;
@@ -28,11 +29,21 @@
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -71,7 +82,7 @@ public void testNewConfigCreated()
 	}
 
 	@Test
-	public void testSave() throws FileNotFoundException
+	public void testSave() throws IOException
 	{
 		final int[] warnCount = { 0 };
 		Logger mockedLogger = mock(Logger.class);
@@ -79,11 +90,89 @@ public void testSave() throws FileNotFoundException
 			warnCount[0]++;
 			return null;
 		}).when(mockedLogger).warning(anyString());
-		YAML mockedYAML = mock(YAML.class);
-		doNothing().when(mockedYAML).save(any(File.class));
-		YamlFileManager testFileManager = new YamlFileManager(mockedLogger, null, 20, 15, "", "Test.file", "", mockedYAML);
+		YAML mockedYAML = mockYamlWritingFiles();
+		File tmpDir = Files.createTempDirectory("YamlFileManagerTest").toFile();
+		tmpDir.deleteOnExit();
+		YamlFileManager testFileManager = new YamlFileManager(mockedLogger, tmpDir, 20, 15, "", "Test.file", "", mockedYAML);
 		testFileManager.save();
 		assertEquals("No info message should be written to the console", 0, warnCount[0]);
+		assertTrue("The file should have been written", new File(tmpDir, "Test.file").exists());
+		assertFalse("The temp file should have been moved", new File(tmpDir, "Test.file.tmp").exists());
+	}
+
+	@Test
+	public void testSaveAsync() throws Exception
+	{
+		Logger mockedLogger = mock(Logger.class);
+		File tmpDir = Files.createTempDirectory("YamlFileManagerTest").toFile();
+		tmpDir.deleteOnExit();
+		// Block the shared save thread with the save of another file, so the saves of the test file can't start before the burst is done
+		CountDownLatch blockerStarted = new CountDownLatch(1), releaseBlocker = new CountDownLatch(1);
+		YamlFileManager blockingFileManager = new YamlFileManager(mockedLogger, tmpDir, 20, 15, "", "Blocking.file", "", mockYamlWritingFiles())
+		{
+			@Override
+			void writeContent(final @NotNull String content) throws IOException
+			{
+				blockerStarted.countDown();
+				try
+				{
+					releaseBlocker.await(10, TimeUnit.SECONDS);
+				}
+				catch(InterruptedException ignored) {}
+				super.writeContent(content);
+			}
+		};
+		YAML mockedYAML = mockYamlWritingFiles();
+		final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+		YamlFileManager testFileManager = new YamlFileManager(mockedLogger, tmpDir, 20, 15, "", "Test.file", "", mockedYAML)
+		{
+			@Override
+			void writeContent(final @NotNull String content) throws IOException
+			{
+				writes.add(content);
+				super.writeContent(content);
+			}
+		};
+		blockingFileManager.saveAsync();
+		assertTrue("The blocking save should have been started", blockerStarted.await(10, TimeUnit.SECONDS));
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for(int i = 1; i <= 5; i++)
+		{
+			when(mockedYAML.saveAsString()).thenReturn("Version: " + i);
+			futures.add(testFileManager.saveAsync());
+		}
+		releaseBlocker.countDown();
+		testFileManager.close();
+		for(CompletableFuture<Void> future : futures)
+		{
+			assertTrue("The saves should be done after the flush", future.isDone());
+		}
+		assertEquals("The burst of saves should be written once", 1, writes.size());
+		assertEquals("The content of the last save should be written", "Version: 5", new String(Files.readAllBytes(new File(tmpDir, "Test.file").toPath()), StandardCharsets.UTF_8));
+		verify(mockedYAML, never()).save(any(File.class));
+		verify(mockedLogger, never()).warning(anyString());
+		testFileManager.saveAsync();
+		YamlFileManager.flushAllPendingSaves();
+		assertEquals("A later save should be written again", 2, writes.size());
+		testFileManager.saveAsync();
+		YamlFileManager.shutdownAsyncSaves();
+		assertEquals("Pending saves should be written before the saver stops", 3, writes.size());
+		assertFalse("The saver should be stopped", YamlFileManager.isAsyncSaveExecutorRunning());
+		testFileManager.saveAsync().join();
+		assertEquals("A save after the shutdown should start a new saver", 4, writes.size());
+		YamlFileManager.shutdownAsyncSaves();
+	}
+
+	private static YAML mockYamlWritingFiles() throws FileNotFoundException
+	{
+		YAML mockedYAML = mock(YAML.class);
+		doAnswer(invocationOnMock -> {
+			File file = invocationOnMock.getArgument(0);
+			Files.write(file.toPath(), "Version: 20".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(mockedYAML).save(any(File.class));
+		when(mockedYAML.saveAsString()).thenReturn("Version: 20");
+		return mockedYAML;
 	}
 
 	@Test
@@ -0,0 +1,67 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks;
+
+import at.pcgamingfreaks.yaml.YAML;
+import at.pcgamingfreaks.yaml.YamlInvalidContentException;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class YamlFileStatisticsTest
+{
+	@Test
+	public void testExclusivePhases() throws InterruptedException, YamlInvalidContentException
+	{
+		YamlFileStatistics statistics = new YamlFileStatistics("test");
+		statistics.begin(YamlFileStatistics.Phase.UPGRADE);
+		Thread.sleep(20);
+		statistics.begin(YamlFileStatistics.Phase.PARSE);
+		Thread.sleep(20);
+		statistics.end();
+		statistics.end();
+		YAML yaml = new YAML("Version: 1\nKey: Value\nSection:\n  Key: Value");
+		statistics.finish(yaml, new File("statistics_test.yml"));
+		assertTrue("The parse time should be recorded", statistics.getPhaseMillis(YamlFileStatistics.Phase.PARSE) >= 20);
+		assertTrue("The upgrade time should not contain the parse time", statistics.getPhaseMillis(YamlFileStatistics.Phase.UPGRADE) < statistics.getTotalMillis() - 15);
+		long sum = 0;
+		for(YamlFileStatistics.Phase phase : YamlFileStatistics.Phase.values())
+		{
+			sum += statistics.getPhaseNanos(phase);
+		}
+		assertEquals("The phases should sum up to the total time", statistics.getTotalNanos(), sum);
+		assertEquals("The key count should match", yaml.getKeys().size(), statistics.getKeyCount());
+		assertTrue("The file should be marked as loaded", statistics.isLoaded());
+		assertTrue("The statistics should be registered", YamlFileStatistics.getAll().contains(statistics));
+	}
+
+	@Test
+	public void testLogSummary()
+	{
+		new YamlFileStatistics("summary").finish(null, null);
+		Logger logger = mock(Logger.class);
+		YamlFileStatistics.logSummary(logger, 3);
+		verify(logger, times(1)).info(anyString());
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks;
+
+import at.pcgamingfreaks.yaml.YAML;
+import at.pcgamingfreaks.yaml.YamlInvalidContentException;
+import at.pcgamingfreaks.yaml.YamlKeyNotFoundException;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class YamlUpgraderTest
+{
+	private static final int SECTIONS = 100, KEYS_PER_SECTION = 50; // 5000 keys, the size of a large language file
+
+	@Test
+	public void testUpgrade() throws YamlInvalidContentException, YamlKeyNotFoundException
+	{
+		YAML oldYaml = new YAML("Version: 1\nOldName: renamed\nOldSection:\n  A: a\n  B: b\nList:\n  - x\n  - y\nSkipped: old\nNumber: '5'\nRemoved: kept\nMessage: Hi\nMessage_SendMethod: TITLE\n");
+		YAML newYaml = new YAML("Version: 2\nNewName: default\nNewSection:\n  A: default\n  B: default\nList:\n  - default\nSkipped: new\nNumber: '1'\nMessage: Hello\n");
+		int copied = new YamlUpgrader().remap("NewName", "OldName").remapSection("NewSection", "OldSection").skip("Skipped").keep("Removed")
+				.transform("Number", value -> String.valueOf(Integer.parseInt(value) * 2)).copyWithSuffixes("_SendMethod").upgrade(oldYaml, newYaml);
+		assertEquals("The version should not be copied", "2", newYaml.getString("Version"));
+		assertEquals("The remapped key should be copied", "renamed", newYaml.getString("NewName"));
+		assertEquals("The remapped section should be copied", "a", newYaml.getString("NewSection.A"));
+		assertEquals("The remapped section should be copied", "b", newYaml.getString("NewSection.B"));
+		assertEquals("The list should be copied", Arrays.asList("x", "y"), newYaml.getStringList("List", new LinkedList<>()));
+		assertEquals("Skipped keys should not be copied", "new", newYaml.getString("Skipped"));
+		assertEquals("Kept keys should be copied", "kept", newYaml.getString("Removed"));
+		assertEquals("The transformer should be applied", "10", newYaml.getString("Number"));
+		assertEquals("The message should be copied", "Hi", newYaml.getString("Message"));
+		assertEquals("The companion key should be copied", "TITLE", newYaml.getString("Message_SendMethod"));
+		assertEquals("The amount of copied values should match", 8, copied);
+	}
+
+	@Test
+	public void testNullValuesAreCopied()
+	{
+		YAML oldYaml = mock(YAML.class), newYaml = mock(YAML.class);
+		doReturn(Arrays.asList("Version", "Empty")).when(oldYaml).getKeys();
+		doReturn(Arrays.asList("Version", "Empty")).when(newYaml).getKeys();
+		doReturn(null).when(oldYaml).getString("Empty", null);
+		assertEquals("The null value should be copied", 1, new YamlUpgrader().upgrade(oldYaml, newYaml));
+		verify(newYaml).set("Empty", null);
+	}
+
+	@Test
+	public void testMatchesLegacyUpgrade() throws YamlInvalidContentException, YamlKeyNotFoundException
+	{
+		YAML legacyNew = new YAML(generateLanguageFile("new")), newYaml = new YAML(generateLanguageFile("new"));
+		legacyUpgrade(new YAML(generateLanguageFile("old")), legacyNew);
+		new YamlUpgrader().upgrade(new YAML(generateLanguageFile("old")), newYaml);
+		for(String key : legacyNew.getKeys())
+		{
+			assertEquals("The upgraded files should be equal", legacyNew.getString(key), newYaml.getString(key));
+		}
+		assertEquals("The old value should be copied", "old 0 0", newYaml.getString("Section0.Key0"));
+	}
+
+	private static String generateLanguageFile(final String valuePrefix)
+	{
+		StringBuilder builder = new StringBuilder("Version: 1\n");
+		for(int section = 0; section < SECTIONS; section++)
+		{
+			builder.append("Section").append(section).append(":\n");
+			for(int key = 0; key < KEYS_PER_SECTION; key++)
+			{
+				builder.append("  Key").append(key).append(": \"").append(valuePrefix).append(' ').append(section).append(' ').append(key).append("\"\n");
+			}
+		}
+		return builder.toString();
+	}
+
+	// The upgrade code used before the YamlUpgrader has been introduced
+	private static void legacyUpgrade(final YAML oldYaml, final YAML newYaml)
+	{
+		for(String key : newYaml.getKeys())
+		{
+			if(key.equals("Version")) continue;
+			if(oldYaml.isSet(key))
+			{
+				if(oldYaml.isList(key))
+				{
+					newYaml.set(key, oldYaml.getStringList(key, new LinkedList<>()));
+				}
+				else
+				{
+					newYaml.set(key, oldYaml.getString(key, null));
+				}
+			}
+		}
+	}
+}
@@ -24,13 +24,9 @@
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.ZipEntry;
@@ -39,36 +35,15 @@
 public final class NMSReflectionRemapped implements NmsReflector
 {
 	private static final Map<String, Class<?>> CLASS_MAP = new ConcurrentHashMap<>();
-	private static final Map<String, String> CLASS_NAME_MAP = new HashMap<>();
-	private static final Map<String, String> FIELD_NAME_MAP = new HashMap<>();
-	private static final Map<String, String> METHOD_NAME_MAP = new HashMap<>();
 
-	static
-	{
-		loadMappings(CLASS_NAME_MAP, "Class");
-		loadMappings(FIELD_NAME_MAP, "Field");
-		loadMappings(METHOD_NAME_MAP, "Method");
+	private static final class MappingsHolder
+	{ // The mappings are only loaded with the first lookup that needs them
+		static final NmsMappings MAPPINGS = NmsMappings.load(MCVersion.CURRENT_VERSION.getIdentifier());
 	}
 
-	private static void loadMappings(final @NotNull Map<String, String> map, final @NotNull String type)
+	private static @Nullable String getMapping(final @NotNull NmsMappings.Type type, final @NotNull String name)
 	{
-		InputStream fieldMappingStream = NMSReflectionRemapped.class.getClassLoader().getResourceAsStream("mappings/" + MCVersion.CURRENT_VERSION.getIdentifier() + "/" + type + "Mappings.txt");
-		if(fieldMappingStream == null) return;
-		try(BufferedReader reader = new BufferedReader(new InputStreamReader(fieldMappingStream)))
-		{
-			String line;
-			while((line = reader.readLine()) != null)
-			{
-				if(line.startsWith("#")) continue;
-				String[] l = line.split(" ");
-				if(l.length != 2) continue;
-				map.put(l[0], l[1]);
-			}
-		}
-		catch(IOException e)
-		{
-			e.printStackTrace();
-		}
+		return MappingsHolder.MAPPINGS.get(type, name);
 	}
 
 	public Class<?> findClass(@NotNull String className)
@@ -99,7 +74,8 @@ public Class<?> findClass(@NotNull String className)
 	{
 		Class<?> clazz = CLASS_MAP.get(className);
 		if(clazz != null) return clazz;
-		clazz = Reflection.getClassSilent(CLASS_NAME_MAP.getOrDefault(className, className));
+		String remapped = getMapping(NmsMappings.Type.CLASS, className);
+		clazz = Reflection.getClassSilent((remapped != null) ? remapped : className);
 		if(clazz == null) clazz = findClass(className);
 		if(clazz == null) Reflection.getClass(className);
 		if(clazz != null) CLASS_MAP.put(className, clazz);
@@ -111,7 +87,7 @@ public Class<?> findClass(@NotNull String className)
 	public @Nullable Method getNmsMethod(@Nullable Class<?> clazz, @NotNull String name, @NotNull Class<?>... args)
 	{
 		if(clazz == null) return null;
-		String remapped = METHOD_NAME_MAP.get(clazz.getName() + "#" + name);
+		String remapped = getMapping(NmsMappings.Type.METHOD, clazz.getName() + "#" + name);
 		if(remapped != null) name = remapped;
 		return Reflection.getMethod(clazz, name, args);
 	}
@@ -121,7 +97,7 @@ public Class<?> findClass(@NotNull String className)
 	public @Nullable Field getNmsField(@Nullable Class<?> clazz, @NotNull String name)
 	{
 		if(clazz == null) return null;
-		String remapped = FIELD_NAME_MAP.get(clazz.getName() + "#" + name);
+		String remapped = getMapping(NmsMappings.Type.FIELD, clazz.getName() + "#" + name);
 		if(remapped != null) name = remapped;
 		return Reflection.getField(clazz, name);
 	}
@@ -139,7 +115,7 @@ public Class<?> findClass(@NotNull String className)
 	{
 		Class<?> clazz = getNmsClass(enumClass);
 		if(clazz == null) return null;
-		String remapped = FIELD_NAME_MAP.get(clazz.getName() + "#" + enumName);
+		String remapped = getMapping(NmsMappings.Type.FIELD, clazz.getName() + "#" + enumName);
 		if(remapped != null) enumName = remapped;
 		return Reflection.getEnum(clazz, enumName);
 	}
@@ -0,0 +1,238 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Name mappings for the remapped NMS classes of one Minecraft version.
+ * The mappings are stored in a compact binary format ({@code mappings/<version identifier>/Mappings.bin}) that gets generated from the
+ * {@code ClassMappings.txt}, {@code FieldMappings.txt} and {@code MethodMappings.txt} files during the build (see {@link #main(String[])}).
+ * The binary format consists of a sorted, deduplicated string table followed by one section per mapping type, each holding the
+ * string table indices of the key/value pairs ordered by key. Lookups are done with a binary search.
+ */
+public final class NmsMappings
+{
+	private static final int MAGIC = 0x50434D41; // PCMA
+	private static final byte FORMAT_VERSION = 1;
+	private static final String MAPPINGS_PATH = "mappings/", BINARY_FILE_NAME = "Mappings.bin";
+	private static final NmsMappings EMPTY = new NmsMappings(new String[Type.values().length][0], new String[Type.values().length][0]);
+
+	public enum Type
+	{
+		CLASS("Class"),
+		FIELD("Field"),
+		METHOD("Method");
+
+		private final String textFileName;
+
+		Type(final @NotNull String name)
+		{
+			textFileName = name + "Mappings.txt";
+		}
+	}
+
+	private final String[][] keys, values;
+
+	private NmsMappings(final @NotNull String[][] keys, final @NotNull String[][] values)
+	{
+		this.keys = keys;
+		this.values = values;
+	}
+
+	/**
+	 * Gets the mapped name.
+	 *
+	 * @param type The type of the mapping.
+	 * @param name The name that should be mapped. For fields and methods the format is {@code <full class name>#<name>}.
+	 * @return The mapped name. Null if there is no mapping for the given name.
+	 */
+	public @Nullable String get(final @NotNull Type type, final @NotNull String name)
+	{
+		int index = Arrays.binarySearch(keys[type.ordinal()], name);
+		return (index < 0) ? null : values[type.ordinal()][index];
+	}
+
+	/**
+	 * @param type The type of the mapping.
+	 * @return The amount of mappings of the given type.
+	 */
+	public int size(final @NotNull Type type)
+	{
+		return keys[type.ordinal()].length;
+	}
+
+	//region loading
+	/**
+	 * Loads the mappings for a Minecraft version. The binary mappings are preferred, if they are not available the text mappings are parsed.
+	 *
+	 * @param versionIdentifier The identifier of the Minecraft version ({@link MCVersion#getIdentifier()}).
+	 * @return The loaded mappings. Empty mappings if there are no mappings for the given version.
+	 */
+	public static @NotNull NmsMappings load(final @NotNull String versionIdentifier)
+	{
+		ClassLoader classLoader = NmsMappings.class.getClassLoader();
+		String basePath = MAPPINGS_PATH + versionIdentifier + "/";
+		try(InputStream binaryStream = classLoader.getResourceAsStream(basePath + BINARY_FILE_NAME))
+		{
+			if(binaryStream != null) return read(new DataInputStream(new BufferedInputStream(binaryStream)));
+			List<Map<String, String>> mappings = new ArrayList<>(Type.values().length);
+			boolean found = false;
+			for(Type type : Type.values())
+			{
+				Map<String, String> map = new TreeMap<>();
+				try(InputStream textStream = classLoader.getResourceAsStream(basePath + type.textFileName))
+				{
+					if(textStream != null)
+					{
+						readText(textStream, map);
+						found = true;
+					}
+				}
+				mappings.add(map);
+			}
+			if(found) return fromMaps(mappings);
+		}
+		catch(IOException e)
+		{
+			e.printStackTrace();
+		}
+		return EMPTY;
+	}
+
+	static @NotNull NmsMappings read(final @NotNull DataInputStream in) throws IOException
+	{
+		if(in.readInt() != MAGIC) throw new IOException("Invalid mappings file");
+		byte version = in.readByte();
+		if(version != FORMAT_VERSION) throw new IOException("Unsupported mappings format version " + version);
+		String[] strings = new String[in.readInt()];
+		for(int i = 0; i < strings.length; i++)
+		{
+			strings[i] = in.readUTF();
+		}
+		String[][] keys = new String[Type.values().length][], values = new String[Type.values().length][];
+		for(int section = 0; section < keys.length; section++)
+		{
+			int count = in.readInt();
+			keys[section] = new String[count];
+			values[section] = new String[count];
+			for(int i = 0; i < count; i++)
+			{
+				keys[section][i] = strings[in.readInt()];
+				values[section][i] = strings[in.readInt()];
+			}
+		}
+		return new NmsMappings(keys, values);
+	}
+
+	private static void readText(final @NotNull InputStream stream, final @NotNull Map<String, String> map) throws IOException
+	{
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+		String line;
+		while((line = reader.readLine()) != null)
+		{
+			if(line.startsWith("#")) continue;
+			int separator = line.indexOf(' ');
+			if(separator < 1 || separator != line.lastIndexOf(' ') || separator == line.length() - 1) continue;
+			map.put(line.substring(0, separator), line.substring(separator + 1));
+		}
+	}
+
+	private static @NotNull NmsMappings fromMaps(final @NotNull List<Map<String, String>> mappings)
+	{
+		String[][] keys = new String[mappings.size()][], values = new String[mappings.size()][];
+		for(int section = 0; section < keys.length; section++)
+		{
+			Map<String, String> map = mappings.get(section); // Sorted by key (TreeMap)
+			keys[section] = map.keySet().toArray(new String[0]);
+			values[section] = map.values().toArray(new String[0]);
+		}
+		return new NmsMappings(keys, values);
+	}
+	//endregion
+
+	//region build time generation
+	private static void write(final @NotNull List<Map<String, String>> mappings, final @NotNull DataOutputStream out) throws IOException
+	{
+		SortedSet<String> stringSet = new TreeSet<>();
+		for(Map<String, String> map : mappings)
+		{
+			stringSet.addAll(map.keySet());
+			stringSet.addAll(map.values());
+		}
+		String[] strings = stringSet.toArray(new String[0]);
+		out.writeInt(MAGIC);
+		out.writeByte(FORMAT_VERSION);
+		out.writeInt(strings.length);
+		for(String string : strings)
+		{
+			out.writeUTF(string);
+		}
+		for(Map<String, String> map : mappings)
+		{
+			out.writeInt(map.size());
+			for(Map.Entry<String, String> entry : map.entrySet()) // Sorted by key (TreeMap)
+			{
+				out.writeInt(Arrays.binarySearch(strings, entry.getKey()));
+				out.writeInt(Arrays.binarySearch(strings, entry.getValue()));
+			}
+		}
+	}
+
+	/**
+	 * Converts the text mappings into the binary format. Used during the build.
+	 *
+	 * @param args The directory containing the text mappings (one sub directory per version identifier) and the directory the binary mappings should be written to.
+	 * @throws IOException If the mappings could not be read or written.
+	 */
+	public static void main(final String[] args) throws IOException
+	{
+		if(args.length != 2) throw new IllegalArgumentException("Usage: NmsMappings <text mappings directory> <output directory>");
+		File[] versionDirectories = new File(args[0]).listFiles(File::isDirectory);
+		if(versionDirectories == null) return;
+		for(File versionDirectory : versionDirectories)
+		{
+			List<Map<String, String>> mappings = new ArrayList<>(Type.values().length);
+			for(Type type : Type.values())
+			{
+				Map<String, String> map = new TreeMap<>();
+				File textFile = new File(versionDirectory, type.textFileName);
+				if(textFile.isFile())
+				{
+					try(InputStream stream = new FileInputStream(textFile))
+					{
+						readText(stream, map);
+					}
+				}
+				mappings.add(map);
+			}
+			File outputDirectory = new File(args[1], versionDirectory.getName());
+			if(!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) throw new IOException("Failed to create directory " + outputDirectory);
+			try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(outputDirectory, BINARY_FILE_NAME)))))
+			{
+				write(mappings, out);
+			}
+		}
+	}
+	//endregion
+}
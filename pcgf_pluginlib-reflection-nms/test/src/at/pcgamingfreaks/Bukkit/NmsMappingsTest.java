@@ -0,0 +1,74 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class NmsMappingsTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static void writeFile(final File file, final String content) throws IOException
+	{
+		try(Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))
+		{
+			writer.write(content);
+		}
+	}
+
+	@Test
+	public void testBinaryMappings() throws IOException
+	{
+		File textDirectory = folder.newFolder("text"), versionDirectory = new File(textDirectory, "1_18_R1");
+		assertTrue(versionDirectory.mkdir());
+		writeFile(new File(versionDirectory, "FieldMappings.txt"), "#Comment\nnet.minecraft.A#field b\nnet.minecraft.A#other a\n\ninvalid line here\nnet.minecraft.B#field b\n");
+		writeFile(new File(versionDirectory, "MethodMappings.txt"), "net.minecraft.A#send a\n");
+		File outputDirectory = folder.newFolder("bin");
+		NmsMappings.main(new String[] { textDirectory.getAbsolutePath(), outputDirectory.getAbsolutePath() });
+
+		NmsMappings mappings;
+		try(DataInputStream in = new DataInputStream(new FileInputStream(new File(outputDirectory, "1_18_R1/Mappings.bin"))))
+		{
+			mappings = NmsMappings.read(in);
+		}
+		assertEquals("There should be no class mappings", 0, mappings.size(NmsMappings.Type.CLASS));
+		assertEquals("There should be 3 field mappings", 3, mappings.size(NmsMappings.Type.FIELD));
+		assertEquals("There should be 1 method mapping", 1, mappings.size(NmsMappings.Type.METHOD));
+		assertEquals("The field should be mapped", "b", mappings.get(NmsMappings.Type.FIELD, "net.minecraft.A#field"));
+		assertEquals("The field should be mapped", "a", mappings.get(NmsMappings.Type.FIELD, "net.minecraft.A#other"));
+		assertEquals("The method should be mapped", "a", mappings.get(NmsMappings.Type.METHOD, "net.minecraft.A#send"));
+		assertNull("A field mapping should not be used for methods", mappings.get(NmsMappings.Type.METHOD, "net.minecraft.A#field"));
+		assertNull("Unknown names should not be mapped", mappings.get(NmsMappings.Type.FIELD, "net.minecraft.C#field"));
+	}
+
+	@Test
+	public void testMissingMappings()
+	{
+		NmsMappings mappings = NmsMappings.load("0_0_R0");
+		assertEquals("There should be no mappings", 0, mappings.size(NmsMappings.Type.FIELD));
+		assertNull("Nothing should be mapped", mappings.get(NmsMappings.Type.CLASS, "EntityPlayer"));
+	}
+}
@@ -31,6 +31,26 @@
 
 public class Reflection
 {
+	private static final ReflectionCache CACHE = new ReflectionCache();
+
+	/**
+	 * Gets the usage statistics of the lookup cache used by the get methods of this class.
+	 *
+	 * @return A snapshot of the current cache statistics.
+	 */
+	public static @NotNull ReflectionCache.Statistics getCacheStatistics()
+	{
+		return CACHE.getStatistics();
+	}
+
+	/**
+	 * Removes all cached lookups and resets the cache statistics. Should be used if classes that have been looked up are unloaded (e.g. on plugin reloads).
+	 */
+	public static void clearCache()
+	{
+		CACHE.clear();
+	}
+
 	/**
 	 * Gets a class reference.
 	 *
@@ -39,15 +59,17 @@
 	 */
 	public static @Nullable Class<?> getClass(final @NotNull String classPath)
 	{
-		try
-		{
-			return Class.forName(classPath);
-		}
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-		return null;
+		return CACHE.get(ReflectionCache.Kind.CLASS, null, classPath, null, () -> {
+			try
+			{
+				return Class.forName(classPath);
+			}
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+			return null;
+		});
 	}
 
 	/**
@@ -58,12 +80,14 @@
 	 */
 	public static @Nullable Class<?> getClassSilent(final @NotNull String classPath)
 	{
-		try
-		{
-			return Class.forName(classPath);
-		}
-		catch(Exception ignored) {}
-		return null;
+		return CACHE.get(ReflectionCache.Kind.CLASS_SILENT, null, classPath, null, () -> {
+			try
+			{
+				return Class.forName(classPath);
+			}
+			catch(Exception ignored) {}
+			return null;
+		});
 	}
 
 	/**
@@ -75,19 +99,21 @@
 	 */
 	public static @Nullable Class<?> getInnerClass(final @NotNull Class<?> clazz, final @NotNull String className)
 	{
-		try
-		{
-			Class<?>[] classes = clazz.getClasses();
-			for(Class<?> innerClass : classes)
+		return CACHE.get(ReflectionCache.Kind.INNER_CLASS, clazz, className, null, () -> {
+			try
 			{
-				if(innerClass.getSimpleName().equals(className)) return innerClass;
+				Class<?>[] classes = clazz.getClasses();
+				for(Class<?> innerClass : classes)
+				{
+					if(innerClass.getSimpleName().equals(className)) return innerClass;
+				}
 			}
-		}
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-		return null;
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+			return null;
+		});
 	}
 
 	/**
@@ -125,9 +151,9 @@ public static void setValue(final @NotNull Field field, final @Nullable Object i
 	{
 		try
 		{
+			// Fields are cached and shared between callers, the fields handed out by the cache are already accessible, so the access is not revoked again
 			field.setAccessible(true);
 			field.set(instance, value);
-			field.setAccessible(false);
 		}
 		catch(Exception e)
 		{
@@ -203,17 +229,19 @@ public static void setValue(final @NotNull Object instance, final @NotNull Strin
 	 */
 	public static @Nullable Field getField(final @NotNull Class<?> clazz, final @NotNull String name)
 	{
-		try
-		{
-			Field field = clazz.getDeclaredField(name);
-			field.setAccessible(true);
-			return field;
-		}
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-		return null;
+		return CACHE.get(ReflectionCache.Kind.FIELD, clazz, name, null, () -> {
+			try
+			{
+				Field field = clazz.getDeclaredField(name);
+				field.setAccessible(true);
+				return field;
+			}
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+			return null;
+		});
 	}
 
 	/**
@@ -225,24 +253,26 @@ public static void setValue(final @NotNull Object instance, final @NotNull Strin
 	 */
 	public static @Nullable Field getFieldIncludeParents(final @NotNull Class<?> clazz, final @NotNull String name)
 	{
-		try
-		{
-			Field field = clazz.getDeclaredField(name);
-			field.setAccessible(true);
-			return field;
-		}
-		catch(NoSuchFieldException ignored)
-		{
-			if(clazz.getSuperclass() != null)
+		return CACHE.get(ReflectionCache.Kind.FIELD_INCLUDE_PARENTS, clazz, name, null, () -> {
+			try
 			{
-				return getFieldIncludeParents(clazz.getSuperclass(), name);
+				Field field = clazz.getDeclaredField(name);
+				field.setAccessible(true);
+				return field;
 			}
-		}
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-		return null;
+			catch(NoSuchFieldException ignored)
+			{
+				if(clazz.getSuperclass() != null)
+				{
+					return getFieldIncludeParents(clazz.getSuperclass(), name);
+				}
+			}
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+			return null;
+		});
 	}
 
 	/**
@@ -271,17 +301,19 @@ public static void setValue(final @NotNull Object instance, final @NotNull Strin
 	 */
 	public static @Nullable Method getMethod(final @NotNull Class<?> clazz, final @NotNull String name, final @Nullable Class<?>... args)
 	{
-		Method method = null;
-		try
-		{
-			method = clazz.getDeclaredMethod(name, args);
-			method.setAccessible(true);
-		}
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-		return method;
+		return CACHE.get(ReflectionCache.Kind.METHOD, clazz, name, args, () -> {
+			Method method = null;
+			try
+			{
+				method = clazz.getDeclaredMethod(name, args);
+				method.setAccessible(true);
+			}
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+			return method;
+		});
 	}
 
 	/**
@@ -294,24 +326,26 @@ public static void setValue(final @NotNull Object instance, final @NotNull Strin
 	 */
 	public static @Nullable Method getMethodIncludeParents(final @NotNull Class<?> clazz, final @NotNull String name, final @Nullable Class<?>... args)
 	{
-		Method method = null;
-		try
-		{
-			method = clazz.getDeclaredMethod(name, args);
-			method.setAccessible(true);
-		}
-		catch(NoSuchMethodException ignored)
-		{
-			if(clazz.getSuperclass() != null)
+		return CACHE.get(ReflectionCache.Kind.METHOD_INCLUDE_PARENTS, clazz, name, args, () -> {
+			Method method = null;
+			try
 			{
-				return getMethodIncludeParents(clazz.getSuperclass(), name);
+				method = clazz.getDeclaredMethod(name, args);
+				method.setAccessible(true);
 			}
-		}
-		catch(Exception e)
-		{
-			e.printStackTrace();
-		}
-		return method;
+			catch(NoSuchMethodException ignored)
+			{
+				if(clazz.getSuperclass() != null)
+				{
+					return getMethodIncludeParents(clazz.getSuperclass(), name);
+				}
+			}
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+			return method;
+		});
 	}
 
 	/**
@@ -323,15 +357,17 @@ public static void setValue(final @NotNull Object instance, final @NotNull Strin
 	 */
 	public static @Nullable Constructor<?> getConstructor(final @NotNull Class<?> clazz, final @Nullable Class<?>... args)
 	{
-		try
-		{
-			return clazz.getConstructor(args);
-		}
-		catch(NoSuchMethodException e)
-		{
-			e.printStackTrace();
-		}
-		return null;
+		return CACHE.get(ReflectionCache.Kind.CONSTRUCTOR, clazz, "<init>", args, () -> {
+			try
+			{
+				return clazz.getConstructor(args);
+			}
+			catch(NoSuchMethodException e)
+			{
+				e.printStackTrace();
+			}
+			return null;
+		});
 	}
 
 	/**
@@ -0,0 +1,182 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Thread safe lookup cache for the {@link Reflection} helpers.
+ * Lookups that failed are stored as negative entries, so that a missing member is only searched (and reported) once.
+ */
+public final class ReflectionCache
+{
+	private static final Object MISSING = new Object();
+
+	private final Map<Key, Object> cache = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder(), negativeHits = new LongAdder(), misses = new LongAdder();
+
+	ReflectionCache() {}
+
+	enum Kind { CLASS, CLASS_SILENT, INNER_CLASS, FIELD, FIELD_INCLUDE_PARENTS, METHOD, METHOD_INCLUDE_PARENTS, CONSTRUCTOR }
+
+	@SuppressWarnings("unchecked")
+	<T> @Nullable T get(final @NotNull Kind kind, final @Nullable Class<?> owner, final @Nullable String name, final @Nullable Class<?>[] args, final @NotNull Supplier<T> loader)
+	{
+		Key key = new Key(kind, owner, name, args);
+		Object cached = cache.get(key);
+		if(cached != null)
+		{
+			if(cached == MISSING)
+			{
+				negativeHits.increment();
+				return null;
+			}
+			hits.increment();
+			return (T) cached;
+		}
+		misses.increment();
+		// No computeIfAbsent, the loaders of the *IncludeParents lookups recurse into the cache
+		T resolved = loader.get();
+		Object previous = cache.putIfAbsent(key, (resolved == null) ? MISSING : resolved);
+		if(previous != null) return (previous == MISSING) ? null : (T) previous;
+		return resolved;
+	}
+
+	void clear()
+	{
+		cache.clear();
+		hits.reset();
+		negativeHits.reset();
+		misses.reset();
+	}
+
+	@NotNull Statistics getStatistics()
+	{
+		int negativeEntries = 0;
+		for(Object value : cache.values())
+		{
+			if(value == MISSING) negativeEntries++;
+		}
+		return new Statistics(cache.size(), negativeEntries, hits.sum(), negativeHits.sum(), misses.sum());
+	}
+
+	private static final class Key
+	{
+		private final Kind kind;
+		private final Class<?> owner;
+		private final String name;
+		private final Class<?>[] args;
+		private final int hash;
+
+		Key(final @NotNull Kind kind, final @Nullable Class<?> owner, final @Nullable String name, final @Nullable Class<?>[] args)
+		{
+			this.kind = kind;
+			this.owner = owner;
+			this.name = name;
+			this.args = (args == null || args.length == 0) ? null : args.clone();
+			this.hash = 31 * (31 * (31 * kind.hashCode() + Objects.hashCode(owner)) + Objects.hashCode(name)) + Arrays.hashCode(this.args);
+		}
+
+		@Override
+		public boolean equals(final Object o)
+		{
+			if(this == o) return true;
+			if(!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			return hash == other.hash && kind == other.kind && owner == other.owner && Objects.equals(name, other.name) && Arrays.equals(args, other.args);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+
+	/**
+	 * Snapshot of the usage statistics of the reflection lookup cache.
+	 */
+	public static final class Statistics
+	{
+		private final int size, negativeEntries;
+		private final long hits, negativeHits, misses;
+
+		Statistics(final int size, final int negativeEntries, final long hits, final long negativeHits, final long misses)
+		{
+			this.size = size;
+			this.negativeEntries = negativeEntries;
+			this.hits = hits;
+			this.negativeHits = negativeHits;
+			this.misses = misses;
+		}
+
+		/**
+		 * @return The amount of cached lookups (including the negative ones).
+		 */
+		public int getSize()
+		{
+			return size;
+		}
+
+		/**
+		 * @return The amount of cached lookups for members or classes that do not exist.
+		 */
+		public int getNegativeEntries()
+		{
+			return negativeEntries;
+		}
+
+		/**
+		 * @return The amount of lookups that have been answered with a cached member or class.
+		 */
+		public long getHits()
+		{
+			return hits;
+		}
+
+		/**
+		 * @return The amount of lookups that have been answered with a cached negative entry.
+		 */
+		public long getNegativeHits()
+		{
+			return negativeHits;
+		}
+
+		/**
+		 * @return The amount of lookups that had to be resolved using reflection.
+		 */
+		public long getMisses()
+		{
+			return misses;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "ReflectionCache{size=" + size + ", negativeEntries=" + negativeEntries + ", hits=" + hits + ", negativeHits=" + negativeHits + ", misses=" + misses + "}";
+		}
+	}
+}
@@ -21,6 +21,7 @@
 import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 
 import static junit.framework.TestCase.assertNotNull;
 import static org.junit.Assert.*;
@@ -147,4 +148,33 @@ public void testGetMethodIncludeParents() throws InvocationTargetException, Ille
 		assertNull("The method should not be found", Reflection.getMethodIncludeParents(TestDerivedClass.class, "abc"));
 		assertNull("An exception should be thrown", Reflection.getMethodIncludeParents(null, "abc"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testLookupCache()
+	{
+		Reflection.clearCache();
+		Method method = Reflection.getMethod(TestClass.class, "getTestValue", String.class);
+		assertNotNull("The method should be found", method);
+		assertSame("The cached method should be returned", method, Reflection.getMethod(TestClass.class, "getTestValue", String.class));
+		assertNull("A non existent field should return null", Reflection.getField(TestClass.class, "missing"));
+		assertNull("A non existent field should return null from the cache", Reflection.getField(TestClass.class, "missing"));
+		ReflectionCache.Statistics statistics = Reflection.getCacheStatistics();
+		assertEquals("The cache should contain two entries", 2, statistics.getSize());
+		assertEquals("The cache should contain one negative entry", 1, statistics.getNegativeEntries());
+		assertEquals("Two lookups should have been resolved using reflection", 2, statistics.getMisses());
+		assertEquals("One lookup should have been answered from the cache", 1, statistics.getHits());
+		assertEquals("One lookup should have been answered with a negative entry", 1, statistics.getNegativeHits());
+		Reflection.clearCache();
+		assertEquals("The cache should be empty", 0, Reflection.getCacheStatistics().getSize());
+	}
+
+	@Test
+	public void testClassLookupsAreCachedSeparately()
+	{
+		Reflection.clearCache();
+		assertNull("A non existent class should not be found", Reflection.getClassSilent("at.pcgamingfreaks.MissingClass"));
+		assertNull("A non existent class should not be found", Reflection.getClass("at.pcgamingfreaks.MissingClass"));
+		assertEquals("The silent and the normal lookup should use their own cache entries", 2, Reflection.getCacheStatistics().getSize());
+		Reflection.clearCache();
+	}
+}
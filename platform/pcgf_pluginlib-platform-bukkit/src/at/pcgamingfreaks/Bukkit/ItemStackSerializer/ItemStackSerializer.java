@@ -21,8 +21,12 @@
 import at.pcgamingfreaks.Bukkit.PlatformResolver;
 
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.logging.Logger;
 
 public interface ItemStackSerializer extends IPlatformDependent
@@ -43,6 +47,38 @@ public interface ItemStackSerializer extends IPlatformDependent
 	 */
 	byte[] serialize(ItemStack[] itemStacks);
 
+	/**
+	 * Deserializes multiple inventories at once. Implementations can reuse buffers across the inventories.
+	 *
+	 * @param data The data of the inventories that should get deserialized.
+	 * @return The deserialized ItemStack arrays, in the same order as the data. An element is null if its deserialization failed.
+	 */
+	default @NotNull List<ItemStack[]> deserializeAll(final @NotNull Collection<byte[]> data)
+	{
+		List<ItemStack[]> inventories = new ArrayList<>(data.size());
+		for(byte[] inventoryData : data)
+		{
+			inventories.add(deserialize(inventoryData));
+		}
+		return inventories;
+	}
+
+	/**
+	 * Serializes multiple inventories at once. Implementations can reuse buffers across the inventories.
+	 *
+	 * @param inventories The ItemStack arrays that should be serialized.
+	 * @return The serialized inventories, in the same order as the input. An element is null if its serialization failed.
+	 */
+	default @NotNull List<byte[]> serializeAll(final @NotNull Collection<ItemStack[]> inventories)
+	{
+		List<byte[]> data = new ArrayList<>(inventories.size());
+		for(ItemStack[] itemStacks : inventories)
+		{
+			data.add(serialize(itemStacks));
+		}
+		return data;
+	}
+
 	/**
 	 * Checks if the minecraft version of the server is compatible with the logger!
 	 *
@@ -19,16 +19,79 @@
 
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import lombok.SneakyThrows;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Resolves the implementation of platform dependent classes.
+ * Implementations are registered ServiceLoader style in {@code META-INF/services/<fully qualified name of the platform dependent class>}.
+ * For every platform dependent class the version specific implementation ({@code <BaseName>_<NMS version>}) is preferred over the reflection based fallback ({@code <BaseName>_Reflection}).
+ * Only registered classes are loaded, the class names are only probed if no matching implementation is registered (e.g. because the services files got lost while shading).
+ * The resolved implementation classes are cached, so the lookup only happens once per platform dependent class.
+ */
 public class PlatformResolver
 {
 	private static final Pattern CLASS_NAME_PATTERN = Pattern.compile("^(?<package>.+)\\.(?<class>[\\w]*)$");
-	private static final Pattern INTERFACE_NAME_PATTERN = Pattern.compile("^(?<package>.+)\\.I(?<class>[\\w]*)$");
+	private static final Pattern INTERFACE_NAME_PATTERN = Pattern.compile("^(?<package>.+)\\.(I(?=[A-Z]))?(?<class>[\\w]*)$"); // Only strip the I of interfaces named IName, not of interfaces like ItemStackSerializer
+	private static final String SERVICES_PATH = "META-INF/services/";
+	private static final String REFLECTION_SUFFIX = "_Reflection";
+	private static final boolean RUNNING_AS_TEST = detectTestRunner();
+	private static final Map<String, Class<?>> IMPLEMENTATIONS = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, Class<?>> REGISTERED_IMPLEMENTATIONS = new ConcurrentHashMap<>();
+	private static volatile String nmsServerVersion = null;
+
+	private static boolean detectTestRunner()
+	{
+		StackTraceElement[] stackTraceElements = new Exception().getStackTrace();
+		String runnerClass = stackTraceElements[stackTraceElements.length - 1].getClassName();
+		return runnerClass.contains("surefire") || runnerClass.contains("junit");
+	}
+
+	/**
+	 * Gets the NMS version of the server (e.g. 1_16_R3). The version is only detected once.
+	 *
+	 * @return The NMS version of the running server.
+	 */
+	public static @NotNull String getNmsServerVersion()
+	{
+		if(nmsServerVersion == null)
+		{
+			//TODO detect glowstone
+			String serverPackage = Bukkit.getServer().getClass().getName();
+			serverPackage = serverPackage.substring(0, serverPackage.lastIndexOf('.'));
+			nmsServerVersion = serverPackage.substring(serverPackage.lastIndexOf('.') + 2); // Skip the leading v
+		}
+		return nmsServerVersion;
+	}
+
+	/**
+	 * Registers an implementation for a platform dependent class. A registered implementation takes precedence over the implementations found in the services files.
+	 * The implementation is registered for the platform dependent class itself, independent of the base name used to resolve it.
+	 * Must be called before the platform dependent class gets resolved for the first time.
+	 *
+	 * @param clazz The class/interface that defines the platform depending class.
+	 * @param implementation The implementation that should be used.
+	 * @param <T> The type of the class.
+	 */
+	public static <T extends IPlatformDependent> void registerImplementation(final @NotNull Class<T> clazz, final @NotNull Class<? extends T> implementation)
+	{
+		if(implementation.isInterface()) throw new IllegalArgumentException("The implementation '" + implementation.getName() + "' is an interface!");
+		REGISTERED_IMPLEMENTATIONS.put(clazz, implementation);
+	}
 
 	/**
 	 * @param clazz The class/interface that defines the platform depending class. Must implement {@link IPlatformDependent} and if it is an interface, it's name must start with an I.
@@ -38,12 +101,7 @@
 	@SneakyThrows
 	public static @NotNull <T extends IPlatformDependent> T createPlatformInstance(final Class<T> clazz)
 	{
-		//region setup
-		Matcher classMatcher = (clazz.isInterface() ? INTERFACE_NAME_PATTERN : CLASS_NAME_PATTERN).matcher(clazz.getName());
-		if(!classMatcher.matches()) throw new IllegalArgumentException("The given class is not valid");
-		String className = classMatcher.group("package") + "." + classMatcher.group("class");
-		//endregion
-		return createPlatformInstance(clazz, className);
+		return createPlatformInstance(clazz, getBaseClassName(clazz));
 	}
 
 	/**
@@ -55,27 +113,91 @@
 	@SneakyThrows
 	public static @NotNull <T extends IPlatformDependent> T createPlatformInstance(final Class<T> clazz, final @NotNull String className)
 	{
-		//region check if running as Test
-		StackTraceElement[] stackTraceElements = new Exception().getStackTrace();
-		String runnerClass = stackTraceElements[stackTraceElements.length - 1].getClassName();
-		if(runnerClass.contains("surefire") || runnerClass.contains("junit"))
+		if(RUNNING_AS_TEST) return null;
+		//noinspection unchecked
+		return (T) findImplementation(clazz, className).newInstance();
+	}
+
+	static @NotNull Class<?> findImplementation(final @NotNull Class<?> clazz, final @NotNull String className) throws ClassNotFoundException
+	{
+		Class<?> tmp = REGISTERED_IMPLEMENTATIONS.get(clazz);
+		if(tmp != null) return tmp;
+		tmp = IMPLEMENTATIONS.get(className);
+		if(tmp == null)
 		{
-			return null;
+			tmp = resolveImplementation(clazz, className);
+			if(tmp == null) throw new ClassNotFoundException("Could not find a platform implementation for " + clazz.getName());
+			if(tmp.isInterface()) throw new IllegalStateException("Found platform class '" + tmp.getName() + "' is an interface!");
+			if(!clazz.isAssignableFrom(tmp)) throw new IllegalStateException("Found platform class '" + tmp.getName() + "' is not of the expected type!");
+			IMPLEMENTATIONS.putIfAbsent(className, tmp);
 		}
-		//endregion
+		return tmp;
+	}
 
-		String nmsServerVersion = Bukkit.getServer().getClass().getName().split("\\.")[3].substring(1);
-		//TODO detect glowstone
-		Class<?> tmp = getClass(className + "_" + nmsServerVersion);
-		if(tmp == null)
+	static @NotNull String getBaseClassName(final @NotNull Class<?> clazz)
+	{
+		Matcher classMatcher = (clazz.isInterface() ? INTERFACE_NAME_PATTERN : CLASS_NAME_PATTERN).matcher(clazz.getName());
+		if(!classMatcher.matches()) throw new IllegalArgumentException("The given class is not valid");
+		return classMatcher.group("package") + "." + classMatcher.group("class");
+	}
+
+	private static @Nullable Class<?> resolveImplementation(final @NotNull Class<?> clazz, final @NotNull String className)
+	{
+		String versionClassName = className + "_" + getNmsServerVersion(), reflectionClassName = className + REFLECTION_SUFFIX;
+		Set<String> registered = readServiceRegistrations(clazz);
+		String registeredImplementation = selectRegisteredImplementation(registered, versionClassName, reflectionClassName);
+		if(registeredImplementation != null) return getClass(registeredImplementation);
+		if(registered.isEmpty())
+		{ // The services files have been lost, most likely the lib has been shaded without merging them
+			Bukkit.getLogger().warning("No implementations registered for " + clazz.getName() + "! Make sure the META-INF/services files are merged when shading the PCGF_PluginLib (ServicesResourceTransformer).");
+		}
+		else
+		{ // The services files have been overwritten by the ones of another module while shading
+			Bukkit.getLogger().warning("The registrations for " + clazz.getName() + " are incomplete, neither " + versionClassName + " nor " + reflectionClassName + " is registered! Make sure the META-INF/services files are merged when shading the PCGF_PluginLib (ServicesResourceTransformer).");
+		}
+		Class<?> implementation = getClass(versionClassName);
+		return (implementation != null) ? implementation : getClass(reflectionClassName);
+	}
+
+	/**
+	 * @param registered The registered implementations.
+	 * @param versionClassName The name of the version specific implementation.
+	 * @param reflectionClassName The name of the reflection based implementation.
+	 * @return The name of the registered implementation that should be used. Null if none of the two implementations is registered.
+	 */
+	static @Nullable String selectRegisteredImplementation(final @NotNull Set<String> registered, final @NotNull String versionClassName, final @NotNull String reflectionClassName)
+	{
+		if(registered.contains(versionClassName)) return versionClassName;
+		if(registered.contains(reflectionClassName)) return reflectionClassName;
+		return null;
+	}
+
+	private static @NotNull Set<String> readServiceRegistrations(final @NotNull Class<?> clazz)
+	{
+		Set<String> implementations = new HashSet<>();
+		try
 		{
-			tmp = getClass(className + "_Reflection");
+			Enumeration<URL> resources = PlatformResolver.class.getClassLoader().getResources(SERVICES_PATH + clazz.getName());
+			while(resources.hasMoreElements())
+			{
+				try(BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement().openStream(), StandardCharsets.UTF_8)))
+				{
+					String line;
+					while((line = reader.readLine()) != null)
+					{
+						int commentStart = line.indexOf('#');
+						if(commentStart >= 0) line = line.substring(0, commentStart);
+						line = line.trim();
+						if(!line.isEmpty()) implementations.add(line);
+					}
+				}
+			}
 		}
-		if(tmp == null) throw new ClassNotFoundException("Could not find a platform implementation for " + clazz.getName());
-		if(tmp.isInterface()) throw new IllegalStateException("Found platform class '" + tmp.getName() + "' is an interface!");
-		if(tmp.isInstance(clazz)) throw new IllegalStateException("Found platform class '" + tmp.getName() + "' is not of the expected type!");
-		//noinspection unchecked
-		return (T) tmp.newInstance();
+		catch(IOException e)
+		{
+			e.printStackTrace();
+		}
+		return implementations;
 	}
 
 	private static Class<?> getClass(String className)
@@ -87,4 +209,4 @@ private static Class<?> getClass(String className)
 		catch(Exception ignored) {}
 		return null;
 	}
-}
\ No newline at end of file
+}
@@ -22,6 +22,9 @@
 
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.netty.channel.Channel;
 
 public interface IUtils extends IPlatformDependent
 {
@@ -29,5 +32,13 @@ public interface IUtils extends IPlatformDependent
 
 	int getPing(@NotNull Player player);
 	void sendPacket(@NotNull Player player, @NotNull Object packet);
+
+	/**
+	 * Gets the netty channel of the players connection.
+	 *
+	 * @param player The player for which the channel should be retrieved.
+	 * @return The channel of the player. Null if the player has no (accessible) network connection.
+	 */
+	@Nullable Channel getChannel(@NotNull Player player);
 	Object jsonToIChatComponent(@NotNull String json);
 }
\ No newline at end of file
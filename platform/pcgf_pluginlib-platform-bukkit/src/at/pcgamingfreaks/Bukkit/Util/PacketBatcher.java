@@ -0,0 +1,161 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit.Util;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import io.netty.channel.Channel;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Writes packets to the netty channel of the players without flushing them.
+ * All touched channels are flushed once in the next server tick, or as soon as the amount of pending packets for a channel reaches the flush threshold.
+ * If batching is disabled or the channel of a player can't be accessed, the packets are sent (and flushed) immediately.
+ */
+public final class PacketBatcher
+{
+	public static final int DEFAULT_FLUSH_THRESHOLD = 64;
+
+	private static volatile PacketBatcher instance = null;
+
+	private final Plugin plugin;
+	private final int flushThreshold;
+	private final Function<Player, Channel> channelResolver;
+	private final Map<Channel, AtomicInteger> pendingChannels = new ConcurrentHashMap<>();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+	PacketBatcher(final @NotNull Plugin plugin, final int flushThreshold, final @NotNull Function<Player, Channel> channelResolver)
+	{
+		this.plugin = plugin;
+		this.flushThreshold = flushThreshold;
+		this.channelResolver = channelResolver;
+	}
+
+	/**
+	 * Enables the batched packet sending.
+	 * The plugin used to schedule the flush task must call {@link #disable()} when it gets disabled, otherwise packets might stay unflushed until the next packet for the player is sent.
+	 *
+	 * @param plugin The plugin that should be used to schedule the flush task.
+	 * @param flushThreshold The amount of packets after which a channel gets flushed immediately.
+	 * @return True if batching has been enabled. False if it was already enabled or if netty channels are not accessible on this server.
+	 */
+	public static synchronized boolean enable(final @NotNull Plugin plugin, final int flushThreshold)
+	{
+		if(instance != null) return false;
+		if(flushThreshold < 1) throw new IllegalArgumentException("The flush threshold must be at least 1");
+		try
+		{
+			Class.forName("io.netty.channel.Channel");
+		}
+		catch(ClassNotFoundException e)
+		{
+			plugin.getLogger().warning("Batched packet sending is not available on this server (netty not found).");
+			return false;
+		}
+		instance = new PacketBatcher(plugin, flushThreshold, IUtils.INSTANCE::getChannel);
+		return true;
+	}
+
+	/**
+	 * Disables the batched packet sending and flushes all pending packets.
+	 */
+	public static synchronized void disable()
+	{
+		PacketBatcher batcher = instance;
+		if(batcher == null) return;
+		instance = null;
+		batcher.flush();
+	}
+
+	/**
+	 * @return True if packets are currently batched. False if they are sent immediately.
+	 */
+	public static boolean isEnabled()
+	{
+		return instance != null;
+	}
+
+	/**
+	 * Flushes all pending packets right away.
+	 */
+	public static void flushPending()
+	{
+		PacketBatcher batcher = instance;
+		if(batcher != null) batcher.flush();
+	}
+
+	/**
+	 * Sends a nms packet to the client. If batching is enabled, the packet will be flushed with the next batch.
+	 *
+	 * @param player The player that should receive the packet.
+	 * @param packet The packet that should be sent to the client.
+	 */
+	public static void sendPacket(final @NotNull Player player, final @NotNull Object packet)
+	{
+		PacketBatcher batcher = instance;
+		if(batcher == null || !batcher.write(player, packet))
+		{
+			IUtils.INSTANCE.sendPacket(player, packet);
+		}
+	}
+
+	boolean write(final @NotNull Player player, final @NotNull Object packet)
+	{
+		Channel channel = channelResolver.apply(player);
+		if(channel == null || !channel.isActive()) return false;
+		channel.write(packet);
+		AtomicInteger pending = pendingChannels.computeIfAbsent(channel, key -> new AtomicInteger());
+		if(pending.incrementAndGet() >= flushThreshold)
+		{
+			if(pendingChannels.remove(channel, pending)) channel.flush();
+		}
+		else if(flushScheduled.compareAndSet(false, true))
+		{
+			try
+			{
+				plugin.getServer().getScheduler().runTask(plugin, this::flush);
+			}
+			catch(IllegalPluginAccessException e) // The plugin owning the batcher has been disabled
+			{
+				flush();
+			}
+		}
+		return true;
+	}
+
+	void flush()
+	{
+		flushScheduled.set(false);
+		Iterator<Channel> iterator = pendingChannels.keySet().iterator();
+		while(iterator.hasNext())
+		{
+			Channel channel = iterator.next();
+			iterator.remove();
+			channel.flush();
+		}
+	}
+}
@@ -19,21 +19,10 @@ package at.pcgamingfreaks.Bukkit.Protocol;
 
 import at.pcgamingfreaks.Bukkit.Util.IUtils;
 
-<#if mojangMapped>
-import net.minecraft.network.chat.ChatType;
-import net.minecraft.network.chat.Component;
-import net.minecraft.network.protocol.game.ClientboundChatPacket;
-<#else>
-	<#if mcVersion < 100170000>
-import net.minecraft.server.v${nmsVersion}.ChatMessageType;
-import net.minecraft.server.v${nmsVersion}.IChatBaseComponent;
-import net.minecraft.server.v${nmsVersion}.PacketPlayOutChat;
-	<#else>
-import net.minecraft.network.chat.ChatMessageType;
-import net.minecraft.network.chat.IChatBaseComponent;
-import net.minecraft.network.protocol.game.PacketPlayOutChat;
-	</#if>
-</#if>
+<#include "NmsAccessors.ftl">
+import ${nms.ChatMessageType};
+import ${nms.IChatBaseComponent};
+import ${nms.PacketPlayOutChat};
 
 import org.jetbrains.annotations.NotNull;
 
@@ -49,48 +38,18 @@ public final class ChatMessagePacketFactory_${nmsVersion} implements IChatMessag
 	@Override
 	public Object makeChatPacket(final @NotNull String json, final @NotNull UUID sender)
 	{
-		<#if mojangMapped>
-		return new ClientboundChatPacket((Component) IUtils.INSTANCE.jsonToIChatComponent(json), ChatType.CHAT, sender);
-		<#else>
-			<#if mcVersion < 100160000>
-		return new PacketPlayOutChat((IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json), ChatMessageType.CHAT);
-			<#elseif mcVersion < 100170000>
-		return new PacketPlayOutChat((IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json), ChatMessageType.CHAT, sender);
-			<#else>
-		return new PacketPlayOutChat((IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json), ChatMessageType.a, sender);
-			</#if>
-		</#if>
+		return new ${simple(nms.PacketPlayOutChat)}((${simple(nms.IChatBaseComponent)}) IUtils.INSTANCE.jsonToIChatComponent(json), ${simple(nms.ChatMessageType)}.${member.chatTypeChat}<#if features.chatPacketSender>, sender</#if>);
 	}
 
 	@Override
 	public Object makeChatPacketSystem(final @NotNull String json)
 	{
-		<#if mojangMapped>
-		return new ClientboundChatPacket((Component) IUtils.INSTANCE.jsonToIChatComponent(json), ChatType.SYSTEM, EMPTY_UUID);
-		<#else>
-			<#if mcVersion < 100160000>
-		return new PacketPlayOutChat((IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json), ChatMessageType.SYSTEM);
-			<#elseif mcVersion < 100170000>
-		return new PacketPlayOutChat((IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json), ChatMessageType.SYSTEM, EMPTY_UUID);
-			<#else>
-		return new PacketPlayOutChat((IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json), ChatMessageType.b, EMPTY_UUID);
-			</#if>
-		</#if>
+		return new ${simple(nms.PacketPlayOutChat)}((${simple(nms.IChatBaseComponent)}) IUtils.INSTANCE.jsonToIChatComponent(json), ${simple(nms.ChatMessageType)}.${member.chatTypeSystem}<#if features.chatPacketSender>, EMPTY_UUID</#if>);
 	}
 
 	@Override
 	public Object makeChatPacketActionBar(final @NotNull String json)
 	{
-		<#if mojangMapped>
-		return new ClientboundChatPacket((Component) IUtils.INSTANCE.jsonToIChatComponent(json), ChatType.GAME_INFO, EMPTY_UUID);
-		<#else>
-			<#if mcVersion < 100160000>
-		return new PacketPlayOutChat((IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json), ChatMessageType.GAME_INFO);
-			<#elseif mcVersion < 100170000>
-		return new PacketPlayOutChat((IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json), ChatMessageType.GAME_INFO, EMPTY_UUID);
-			<#else>
-		return new PacketPlayOutChat((IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json), ChatMessageType.c, EMPTY_UUID);
-			</#if>
-		</#if>
+		return new ${simple(nms.PacketPlayOutChat)}((${simple(nms.IChatBaseComponent)}) IUtils.INSTANCE.jsonToIChatComponent(json), ${simple(nms.ChatMessageType)}.${member.chatTypeGameInfo}<#if features.chatPacketSender>, EMPTY_UUID</#if>);
 	}
 }
\ No newline at end of file
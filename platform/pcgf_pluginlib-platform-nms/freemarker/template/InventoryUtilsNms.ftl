@@ -17,32 +17,15 @@
 
 package at.pcgamingfreaks.Bukkit.Util;
 
-<#if mojangMapped>
-import net.minecraft.nbt.CompoundTag;
-import net.minecraft.network.chat.TranslatableComponent;
-import net.minecraft.network.chat.Component;
-import net.minecraft.network.protocol.game.ClientboundOpenScreenPacket;
-import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.inventory.MenuType;
-<#else>
-	<#if mcVersion < 100170000>
-		<#if 100140000 <= mcVersion>
-import net.minecraft.server.v${nmsVersion}.IChatBaseComponent;
-import net.minecraft.server.v${nmsVersion}.ChatMessage;
-import net.minecraft.server.v${nmsVersion}.Containers;
-import net.minecraft.server.v${nmsVersion}.EntityPlayer;
-import net.minecraft.server.v${nmsVersion}.PacketPlayOutOpenWindow;
-		</#if>
-import net.minecraft.server.v${nmsVersion}.NBTTagCompound;
-	<#else>
-import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.network.chat.ChatMessage;
-import net.minecraft.network.chat.IChatBaseComponent;
-import net.minecraft.network.protocol.game.PacketPlayOutOpenWindow;
-import net.minecraft.server.level.EntityPlayer;
-import net.minecraft.world.inventory.Containers;
-	</#if>
+<#include "NmsAccessors.ftl">
+<#if features.openWindowPacket>
+import ${nms.ChatMessage};
+import ${nms.Containers};
+import ${nms.EntityPlayer};
+import ${nms.IChatBaseComponent};
+import ${nms.PacketPlayOutOpenWindow};
 </#if>
+import ${nms.NBTTagCompound};
 
 import org.bukkit.craftbukkit.v${nmsVersion}.entity.CraftPlayer;
 import org.bukkit.craftbukkit.v${nmsVersion}.inventory.CraftItemStack;
@@ -65,27 +48,23 @@ public final class InventoryUtils_${nmsVersion} extends InventoryUtils_Reflectio
 	@Override
 	public String convertItemStackToJson(final @NotNull ItemStack itemStack, final @NotNull Logger logger)
 	{
-		return CraftItemStack.asNMSCopy(itemStack).save(new <#if mojangMapped>CompoundTag<#else>NBTTagCompound</#if>()).toString();
+		return CraftItemStack.asNMSCopy(itemStack).${member.save}(new ${simple(nms.NBTTagCompound)}()).toString();
 	}
 
 	@Override
 	public Object prepareTitleForUpdateInventoryTitle(final @NotNull String title)
 	{
-		<#if mojangMapped>
-		return new TranslatableComponent(title);
+		<#if features.openWindowPacket>
+		return new ${simple(nms.ChatMessage)}(title);
 		<#else>
-			<#if 100140000 <= mcVersion>
-		return new ChatMessage(title);
-			<#else>
 		return null;
-			</#if>
 		</#if>
 	}
 
 	@Override
 	public void updateInventoryTitle(final @NotNull Player player, final @NotNull String newTitle)
 	{
-		<#if 100140000 <= mcVersion>
+		<#if features.openWindowPacket>
 		updateInventoryTitlePrepared(player, prepareTitleForUpdateInventoryTitle(newTitle));
 		</#if>
 	}
@@ -93,33 +72,22 @@ public final class InventoryUtils_${nmsVersion} extends InventoryUtils_Reflectio
 	@Override
 	public void updateInventoryTitlePrepared(final @NotNull Player player, final @NotNull Object newTitle)
 	{
-		<#if 100140000 <= mcVersion>
+		<#if features.openWindowPacket>
 		InventoryView view = player.getOpenInventory();
 		Inventory topInv = view.getTopInventory();
 		if(topInv.getType() == InventoryType.CRAFTING) return;
 
-			<#if mojangMapped>
-		ServerPlayer entityPlayer = ((CraftPlayer)player).getHandle();
-		ClientboundOpenScreenPacket packet = new ClientboundOpenScreenPacket(entityPlayer.containerMenu.containerId, (MenuType<?>) getInvContainersObject(topInv), (Component) newTitle);
-		entityPlayer.connection.send(packet);
-		entityPlayer.containerMenu.sendAllDataToRemote();
-			<#else>
-		EntityPlayer entityPlayer = ((CraftPlayer)player).getHandle();
-		PacketPlayOutOpenWindow packet = new PacketPlayOutOpenWindow(entityPlayer.<#if mcVersion < 100170000>activeContainer.windowId<#else>bV.j</#if>, (Containers) getInvContainersObject(topInv), (IChatBaseComponent) newTitle);
-		entityPlayer.<#if mcVersion < 100170000>playerConnection<#else>b</#if>.sendPacket(packet);
-				<#if mcVersion < 100170000>
-		entityPlayer.updateInventory(entityPlayer.activeContainer);
-				<#else>
-		entityPlayer.bV.updateInventory();
-				</#if>
-			</#if>
+		${simple(nms.EntityPlayer)} entityPlayer = ((CraftPlayer)player).getHandle();
+		${simple(nms.PacketPlayOutOpenWindow)} packet = new ${simple(nms.PacketPlayOutOpenWindow)}(entityPlayer.${member.activeContainer}.${member.windowId}, (${simple(nms.Containers)}<?>) getInvContainersObject(topInv), (${simple(nms.IChatBaseComponent)}) newTitle);
+		entityPlayer.${member.playerConnection}.${member.sendPacket}(packet);
+		entityPlayer.${member.updateContainer};
 		</#if>
 	}
 
 	@Override
 	public Object prepareTitleForOpenInventoryWithCustomTitle(final @NotNull String title)
 	{
-		<#if mcVersion < 100140000>
+		<#if !features.openWindowPacket>
 		return prepareTitleForSetInventoryTitle(title);
 		<#else>
 		return prepareTitleForUpdateInventoryTitle(title);
@@ -129,12 +97,12 @@ public final class InventoryUtils_${nmsVersion} extends InventoryUtils_Reflectio
 	@Override
 	public void openInventoryWithCustomTitle(final @NotNull Player player, final @NotNull Inventory inventory, final @NotNull String title)
 	{
-		<#if mcVersion < 100140000>
+		<#if !features.openWindowPacket>
 		Object currentTitle = getInventoryTitle(inventory);
 		setInventoryTitle(inventory, title);
 		</#if>
 		player.openInventory(inventory);
-		<#if 100140000 <= mcVersion>
+		<#if features.openWindowPacket>
 		updateInventoryTitle(player, title);
 		<#else>
 		setInventoryTitlePrepared(inventory, currentTitle);
@@ -144,12 +112,12 @@ public final class InventoryUtils_${nmsVersion} extends InventoryUtils_Reflectio
 	@Override
 	public void openInventoryWithCustomTitlePrepared(final @NotNull Player player, final @NotNull Inventory inventory, final @NotNull Object title)
 	{
-		<#if mcVersion < 100140000>
+		<#if !features.openWindowPacket>
 		Object currentTitle = getInventoryTitle(inventory);
 		setInventoryTitlePrepared(inventory, title);
 		</#if>
 		player.openInventory(inventory);
-		<#if 100140000 <= mcVersion>
+		<#if features.openWindowPacket>
 		updateInventoryTitlePrepared(player, title);
 		<#else>
 		setInventoryTitlePrepared(inventory, currentTitle);
@@ -0,0 +1,166 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.Bukkit.ItemStackSerializer;
+
+<#include "NmsAccessors.ftl">
+import ${nms.DataFixTypes};
+import ${nms.GameProfileSerializer};
+import ${nms.NBTCompressedStreamTools};
+import ${nms.NBTTagCompound};
+import ${nms.NBTTagList};
+import ${nms.SharedConstants};
+
+import org.bukkit.Bukkit;
+import ${nms.CraftServer};
+import org.bukkit.craftbukkit.v${nmsVersion}.inventory.CraftItemStack;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import com.mojang.datafixers.DataFixer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.logging.Logger;
+
+/*
+ * NOTE: Generated code !! DO NOT EDIT !!
+ * Reference: https://freemarker.apache.org/
+ * See template: ${.main_template_name}
+ */
+public final class NBTItemStackSerializer_${nmsVersion} implements ItemStackSerializer
+{
+	private static final int CURRENT_DATA_VERSION = ${simple(nms.SharedConstants)}.${member.getGameVersion}().getWorldVersion();
+	private static final DataFixer DATA_FIXER = ((${simple(nms.CraftServer)}) Bukkit.getServer()).getServer().${member.dataFixer};
+
+	private Logger logger = null;
+
+	@Override
+	public void setLogger(final @Nullable Logger logger)
+	{
+		this.logger = logger;
+	}
+
+	private static void convertOldFormatToNew(final ${simple(nms.NBTTagCompound)} localNBTTagCompound, final int size)
+	{
+		${simple(nms.NBTTagList)} nbtItemList = new ${simple(nms.NBTTagList)}();
+		localNBTTagCompound.${member.set}("Inventory", nbtItemList);
+		for(int i = 0; i < size; i++)
+		{
+			if(localNBTTagCompound.${member.hasKeyOfType}(String.valueOf(i), 10))
+			{
+				${simple(nms.NBTTagCompound)} itemNBTCompound = localNBTTagCompound.getCompound(String.valueOf(i));
+				itemNBTCompound.${member.setByte}("Slot", (byte) i);
+				nbtItemList.add(itemNBTCompound);
+			}
+		}
+	}
+
+	/**
+	 * Deserialize a serialized byte array to an ItemStack array.
+	 *
+	 * @param data The data that should get deserialized.
+	 * @return The deserialized ItemStack array.
+	 */
+	@Override
+	public ItemStack[] deserialize(final byte[] data)
+	{
+		if(data != null)
+		{
+			try
+			{
+				${simple(nms.NBTTagCompound)} localNBTTagCompound = ${simple(nms.NBTCompressedStreamTools)}.${member.readCompressed}(new ByteArrayInputStream(data));
+				int size = localNBTTagCompound.getInt("size"), dataVersion = CURRENT_DATA_VERSION;
+				if(localNBTTagCompound.${member.hasKeyOfType}("DataVersion", 3)) dataVersion = localNBTTagCompound.getInt("DataVersion");
+				if(!localNBTTagCompound.${member.hasKeyOfType}("Inventory", 9)) convertOldFormatToNew(localNBTTagCompound, size);
+				if(dataVersion < CURRENT_DATA_VERSION)
+				{ // The data-format update code is not part of the deserializer, so it needs to be done manually
+					localNBTTagCompound = ${simple(nms.GameProfileSerializer)}.${member.updateDataVersion}(DATA_FIXER, DataFixTypes.PLAYER, localNBTTagCompound, dataVersion);
+				}
+				ItemStack[] its = new ItemStack[size];
+				${simple(nms.NBTTagList)} nbtItemList = localNBTTagCompound.getList("Inventory", 10);
+				for(int i = 0; i < nbtItemList.size(); i++)
+				{
+					${simple(nms.NBTTagCompound)} compound = nbtItemList.getCompound(i);
+					byte slot = compound.getByte("Slot");
+					try
+					{
+						its[slot] = CraftItemStack.asBukkitCopy(${nms.ItemStack}.${member.createStack}(compound));
+					}
+					catch(Exception ignored)
+					{
+						if(logger != null) logger.warning("Failed to restore item on slot " + i + " with json:\n" + compound.toString());
+					}
+				}
+				return its;
+			}
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Serializes a ItemStack array to a byte array.
+	 *
+	 * @param itemStacks The ItemStacks that should be serialized.
+	 * @return Serialized ItemsStacks as byte array. Null if serialization failed.
+	 */
+	@Override
+	public byte[] serialize(final ItemStack[] itemStacks)
+	{
+		byte[] ba = null;
+		if(itemStacks != null)
+		{
+			try(ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(); DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream))
+			{
+				${simple(nms.NBTTagCompound)} localNBTTagCompound = new ${simple(nms.NBTTagCompound)}();
+				localNBTTagCompound.${member.setInt}("size", itemStacks.length);
+				localNBTTagCompound.${member.setInt}("DataVersion", CURRENT_DATA_VERSION);
+				${simple(nms.NBTTagList)} nbtItemList = new ${simple(nms.NBTTagList)}();
+				localNBTTagCompound.${member.set}("Inventory", nbtItemList);
+				for(int i = 0; i < itemStacks.length; i++)
+				{
+					if(itemStacks[i] != null)
+					{
+						${simple(nms.NBTTagCompound)} itemNBTCompound = new ${simple(nms.NBTTagCompound)}();
+						itemNBTCompound.${member.setByte}("Slot", (byte) i);
+						CraftItemStack.asNMSCopy(itemStacks[i]).${member.save}(itemNBTCompound);
+						nbtItemList.add(itemNBTCompound);
+					}
+				}
+				${simple(nms.NBTCompressedStreamTools)}.${member.writeCompressed}(localNBTTagCompound, dataOutputStream);
+				dataOutputStream.flush();
+				ba = byteArrayOutputStream.toByteArray();
+			}
+			catch(Exception e)
+			{
+				e.printStackTrace();
+			}
+		}
+		return ba;
+	}
+
+	@Override
+	public boolean checkIsMCVersionCompatible()
+	{
+		return true;
+	}
+}
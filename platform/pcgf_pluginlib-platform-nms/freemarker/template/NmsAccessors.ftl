@@ -0,0 +1,160 @@
+<#--
+  Declarative accessor spec for the generated NMS platform implementations.
+  Maps the logical NMS class and member names (as used by the reflection implementations) to the names of the current mapping.
+  The features map flags API changes that need different code (not just different names) in the templates.
+  The templates don't check the Minecraft version themselves, supporting a new Minecraft version only requires adding a new branch here, if the names or APIs have changed.
+  Usage: <#include "NmsAccessors.ftl">, then import ${nms.X} and use ${simple(nms.X)}, ${member.y} and features.z in the template.
+-->
+<#function simple fullName><#return fullName?keep_after_last(".")></#function>
+<#if mojangMapped>
+	<#assign nms = {
+		"CraftServer": "org.bukkit.craftbukkit.v${nmsVersion}.CraftServer",
+		"EntityPlayer": "net.minecraft.server.level.ServerPlayer",
+		"Packet": "net.minecraft.network.protocol.Packet",
+		"IChatBaseComponent": "net.minecraft.network.chat.Component",
+		"NBTTagCompound": "net.minecraft.nbt.CompoundTag",
+		"NBTTagList": "net.minecraft.nbt.ListTag",
+		"NBTCompressedStreamTools": "net.minecraft.nbt.NbtIo",
+		"GameProfileSerializer": "net.minecraft.nbt.NbtUtils",
+		"ItemStack": "net.minecraft.world.item.ItemStack",
+		"DataFixTypes": "net.minecraft.util.datafix.DataFixTypes",
+		"SharedConstants": "net.minecraft.SharedConstants",
+		"ChatMessageType": "net.minecraft.network.chat.ChatType",
+		"PacketPlayOutChat": "net.minecraft.network.protocol.game.ClientboundChatPacket",
+		"ChatMessage": "net.minecraft.network.chat.TranslatableComponent",
+		"Containers": "net.minecraft.world.inventory.MenuType",
+		"PacketPlayOutOpenWindow": "net.minecraft.network.protocol.game.ClientboundOpenScreenPacket",
+		"PacketDataSerializer": "net.minecraft.network.FriendlyByteBuf",
+		"PacketPlayOutCustomPayload": "net.minecraft.network.protocol.game.ClientboundCustomPayloadPacket",
+		"MinecraftKey": "net.minecraft.resources.ResourceLocation"
+	}>
+	<#assign member = {
+		"playerConnection": "connection",
+		"sendPacket": "send",
+		"networkManager": "connection",
+		"channel": "channel",
+		"chatSerializerFromJson": "Serializer.fromJson",
+		"setInt": "putInt",
+		"setByte": "putByte",
+		"set": "put",
+		"hasKeyOfType": "contains",
+		"save": "save",
+		"createStack": "of",
+		"writeCompressed": "writeCompressed",
+		"readCompressed": "readCompressed",
+		"dataFixer": "getFixerUpper()",
+		"updateDataVersion": "update",
+		"getGameVersion": "getCurrentVersion",
+		"chatTypeChat": "CHAT",
+		"chatTypeSystem": "SYSTEM",
+		"chatTypeGameInfo": "GAME_INFO",
+		"activeContainer": "containerMenu",
+		"windowId": "containerId",
+		"updateContainer": "containerMenu.sendAllDataToRemote()"
+	}>
+<#else>
+	<#if mcVersion < 100170000>
+	<#assign nms = {
+		"CraftServer": "org.bukkit.craftbukkit.v${nmsVersion}.CraftServer",
+		"EntityPlayer": "net.minecraft.server.v${nmsVersion}.EntityPlayer",
+		"Packet": "net.minecraft.server.v${nmsVersion}.Packet",
+		"IChatBaseComponent": "net.minecraft.server.v${nmsVersion}.IChatBaseComponent",
+		"NBTTagCompound": "net.minecraft.server.v${nmsVersion}.NBTTagCompound",
+		"NBTTagList": "net.minecraft.server.v${nmsVersion}.NBTTagList",
+		"NBTCompressedStreamTools": "net.minecraft.server.v${nmsVersion}.NBTCompressedStreamTools",
+		"GameProfileSerializer": "net.minecraft.server.v${nmsVersion}.GameProfileSerializer",
+		"ItemStack": "net.minecraft.server.v${nmsVersion}.ItemStack",
+		"DataFixTypes": "net.minecraft.server.v${nmsVersion}.DataFixTypes",
+		"SharedConstants": "net.minecraft.server.v${nmsVersion}.SharedConstants",
+		"ChatMessageType": "net.minecraft.server.v${nmsVersion}.ChatMessageType",
+		"PacketPlayOutChat": "net.minecraft.server.v${nmsVersion}.PacketPlayOutChat",
+		"PacketPlayOutTitle": "net.minecraft.server.v${nmsVersion}.PacketPlayOutTitle",
+		"ChatMessage": "net.minecraft.server.v${nmsVersion}.ChatMessage",
+		"Containers": "net.minecraft.server.v${nmsVersion}.Containers",
+		"PacketPlayOutOpenWindow": "net.minecraft.server.v${nmsVersion}.PacketPlayOutOpenWindow",
+		"PacketDataSerializer": "net.minecraft.server.v${nmsVersion}.PacketDataSerializer",
+		"PacketPlayOutCustomPayload": "net.minecraft.server.v${nmsVersion}.PacketPlayOutCustomPayload",
+		"MinecraftKey": "net.minecraft.server.v${nmsVersion}.MinecraftKey"
+	}>
+	<#assign member = {
+		"playerConnection": "playerConnection",
+		"sendPacket": "sendPacket",
+		"networkManager": "networkManager",
+		"channel": "channel",
+		"dataFixer": "dataConverterManager",
+		"ping": "ping",
+		"chatTypeChat": "CHAT",
+		"chatTypeSystem": "SYSTEM",
+		"chatTypeGameInfo": "GAME_INFO",
+		"activeContainer": "activeContainer",
+		"windowId": "windowId",
+		"updateContainer": "updateInventory(entityPlayer.activeContainer)"
+	}>
+	<#else>
+	<#assign nms = {
+		"CraftServer": "org.bukkit.craftbukkit.v${nmsVersion}.CraftServer",
+		"EntityPlayer": "net.minecraft.server.level.EntityPlayer",
+		"Packet": "net.minecraft.network.protocol.Packet",
+		"IChatBaseComponent": "net.minecraft.network.chat.IChatBaseComponent",
+		"NBTTagCompound": "net.minecraft.nbt.NBTTagCompound",
+		"NBTTagList": "net.minecraft.nbt.NBTTagList",
+		"NBTCompressedStreamTools": "net.minecraft.nbt.NBTCompressedStreamTools",
+		"GameProfileSerializer": "net.minecraft.nbt.GameProfileSerializer",
+		"ItemStack": "net.minecraft.world.item.ItemStack",
+		"DataFixTypes": "net.minecraft.util.datafix.DataFixTypes",
+		"SharedConstants": "net.minecraft.SharedConstants",
+		"ChatMessageType": "net.minecraft.network.chat.ChatMessageType",
+		"PacketPlayOutChat": "net.minecraft.network.protocol.game.PacketPlayOutChat",
+		"ChatMessage": "net.minecraft.network.chat.ChatMessage",
+		"Containers": "net.minecraft.world.inventory.Containers",
+		"PacketPlayOutOpenWindow": "net.minecraft.network.protocol.game.PacketPlayOutOpenWindow",
+		"PacketDataSerializer": "net.minecraft.network.PacketDataSerializer",
+		"PacketPlayOutCustomPayload": "net.minecraft.network.protocol.game.PacketPlayOutCustomPayload",
+		"MinecraftKey": "net.minecraft.resources.MinecraftKey"
+	}>
+	<#assign member = {
+		"playerConnection": "b",
+		"sendPacket": "sendPacket",
+		"networkManager": "a",
+		"channel": "k",
+		"dataFixer": "getDataFixer()",
+		"chatTypeChat": "a",
+		"chatTypeSystem": "b",
+		"chatTypeGameInfo": "c",
+		"activeContainer": "bV",
+		"windowId": "j",
+		"updateContainer": "bV.updateInventory()"
+	}>
+	</#if>
+	<#-- Names that did not change between the Spigot mapped versions -->
+	<#assign member = member + {
+		"chatSerializerFromJson": "ChatSerializer.a",
+		"setInt": "setInt",
+		"setByte": "setByte",
+		"set": "set",
+		"hasKeyOfType": "hasKeyOfType",
+		"save": "save",
+		"createStack": "a",
+		"writeCompressed": "a",
+		"readCompressed": "a",
+		"updateDataVersion": "a",
+		"getGameVersion": "getGameVersion"
+	}>
+</#if>
+<#if 100170000 <= mcVersion>
+	<#-- The title packets have been split in 1.17, they have the same names in the Spigot and the Mojang mappings -->
+	<#assign nms = nms + {
+		"ClientboundSetTitleTextPacket": "net.minecraft.network.protocol.game.ClientboundSetTitleTextPacket",
+		"ClientboundSetSubtitleTextPacket": "net.minecraft.network.protocol.game.ClientboundSetSubtitleTextPacket",
+		"ClientboundSetTitlesAnimationPacket": "net.minecraft.network.protocol.game.ClientboundSetTitlesAnimationPacket",
+		"ClientboundSetActionBarTextPacket": "net.minecraft.network.protocol.game.ClientboundSetActionBarTextPacket"
+	}>
+</#if>
+<#assign features = {
+	"titleActionBar": 100110000 <= mcVersion, <#-- The title packet supports the action bar -->
+	"customPayloadPacket": 100130000 <= mcVersion, <#-- Plugin messages can be sent without the channel being registered -->
+	"openWindowPacket": 100140000 <= mcVersion, <#-- The open window packet takes the container type, needed to update the inventory title -->
+	"chatPacketSender": 100160000 <= mcVersion, <#-- The chat packet takes the UUID of the sender -->
+	"separateTitlePackets": 100170000 <= mcVersion, <#-- Every title action has its own packet -->
+	"playerGetPing": 100170000 <= mcVersion <#-- The Bukkit player provides the ping -->
+}>
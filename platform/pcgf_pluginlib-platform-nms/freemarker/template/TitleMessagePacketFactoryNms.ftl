@@ -19,15 +19,15 @@ package at.pcgamingfreaks.Bukkit.Protocol;
 
 import at.pcgamingfreaks.Bukkit.Util.IUtils;
 
-<#if mcVersion < 100170000>
-import net.minecraft.server.v${nmsVersion}.IChatBaseComponent;
-import net.minecraft.server.v${nmsVersion}.PacketPlayOutTitle;
+<#include "NmsAccessors.ftl">
+import ${nms.IChatBaseComponent};
+<#if features.separateTitlePackets>
+import ${nms.ClientboundSetActionBarTextPacket};
+import ${nms.ClientboundSetSubtitleTextPacket};
+import ${nms.ClientboundSetTitleTextPacket};
+import ${nms.ClientboundSetTitlesAnimationPacket};
 <#else>
-import net.minecraft.network.chat.<#if !mojangMapped>IChatBase</#if>Component;
-import net.minecraft.network.protocol.game.ClientboundSetActionBarTextPacket;
-import net.minecraft.network.protocol.game.ClientboundSetSubtitleTextPacket;
-import net.minecraft.network.protocol.game.ClientboundSetTitleTextPacket;
-import net.minecraft.network.protocol.game.ClientboundSetTitlesAnimationPacket;
+import ${nms.PacketPlayOutTitle};
 </#if>
 
 import org.jetbrains.annotations.NotNull;
@@ -42,42 +42,42 @@ public final class TitleMessagePacketFactory_${nmsVersion} implements ITitleMess
 	@Override
 	public Object makeTitlePacket(final @NotNull String json)
 	{
-		<#if mcVersion < 100170000>
-		return new PacketPlayOutTitle(PacketPlayOutTitle.EnumTitleAction.TITLE, (IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json));
+		<#if features.separateTitlePackets>
+		return new ${simple(nms.ClientboundSetTitleTextPacket)}((${simple(nms.IChatBaseComponent)}) IUtils.INSTANCE.jsonToIChatComponent(json));
 		<#else>
-		return new ClientboundSetTitleTextPacket((<#if !mojangMapped>IChatBase</#if>Component) IUtils.INSTANCE.jsonToIChatComponent(json));
+		return new ${simple(nms.PacketPlayOutTitle)}(${simple(nms.PacketPlayOutTitle)}.EnumTitleAction.TITLE, (${simple(nms.IChatBaseComponent)}) IUtils.INSTANCE.jsonToIChatComponent(json));
 		</#if>
 	}
 
 	@Override
 	public Object makeSubTitlePacket(final @NotNull String json)
 	{
-		<#if mcVersion < 100170000>
-		return new PacketPlayOutTitle(PacketPlayOutTitle.EnumTitleAction.SUBTITLE, (IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json));
+		<#if features.separateTitlePackets>
+		return new ${simple(nms.ClientboundSetSubtitleTextPacket)}((${simple(nms.IChatBaseComponent)}) IUtils.INSTANCE.jsonToIChatComponent(json));
 		<#else>
-		return new ClientboundSetSubtitleTextPacket((<#if !mojangMapped>IChatBase</#if>Component) IUtils.INSTANCE.jsonToIChatComponent(json));
+		return new ${simple(nms.PacketPlayOutTitle)}(${simple(nms.PacketPlayOutTitle)}.EnumTitleAction.SUBTITLE, (${simple(nms.IChatBaseComponent)}) IUtils.INSTANCE.jsonToIChatComponent(json));
 		</#if>
 	}
 
 	@Override
 	public Object makeTitlePacketTime(final int fadeIn, final int stay, final int fadeOut)
 	{
-		<#if mcVersion < 100170000>
-		return new PacketPlayOutTitle(fadeIn, stay, fadeOut);
+		<#if features.separateTitlePackets>
+		return new ${simple(nms.ClientboundSetTitlesAnimationPacket)}(fadeIn, stay, fadeOut);
 		<#else>
-		return new ClientboundSetTitlesAnimationPacket(fadeIn, stay, fadeOut);
+		return new ${simple(nms.PacketPlayOutTitle)}(fadeIn, stay, fadeOut);
 		</#if>
 	}
 
 	@Override
 	public Object makeTitlePacketActionBar(final @NotNull String json)
 	{
-		<#if mcVersion < 100110000>
-		return IChatMessagePacketFactory.INSTANCE.makeChatPacketActionBar(json);
-		<#elseif mcVersion < 100170000>
-		return new PacketPlayOutTitle(PacketPlayOutTitle.EnumTitleAction.ACTIONBAR, (IChatBaseComponent) IUtils.INSTANCE.jsonToIChatComponent(json));
+		<#if features.separateTitlePackets>
+		return new ${simple(nms.ClientboundSetActionBarTextPacket)}((${simple(nms.IChatBaseComponent)}) IUtils.INSTANCE.jsonToIChatComponent(json));
+		<#elseif features.titleActionBar>
+		return new ${simple(nms.PacketPlayOutTitle)}(${simple(nms.PacketPlayOutTitle)}.EnumTitleAction.ACTIONBAR, (${simple(nms.IChatBaseComponent)}) IUtils.INSTANCE.jsonToIChatComponent(json));
 		<#else>
-		return new ClientboundSetActionBarTextPacket((<#if !mojangMapped>IChatBase</#if>Component) IUtils.INSTANCE.jsonToIChatComponent(json));
+		return IChatMessagePacketFactory.INSTANCE.makeChatPacketActionBar(json);
 		</#if>
 	}
 }
\ No newline at end of file
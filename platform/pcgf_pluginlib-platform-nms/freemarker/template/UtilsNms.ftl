@@ -17,25 +17,17 @@
 
 package at.pcgamingfreaks.Bukkit.Util;
 
-<#if mojangMapped>
-import net.minecraft.network.chat.Component;
-import net.minecraft.network.protocol.Packet;
-import net.minecraft.server.level.ServerPlayer;
-<#else>
-	<#if mcVersion < 100170000>
-import net.minecraft.server.v${nmsVersion}.EntityPlayer;
-import net.minecraft.server.v${nmsVersion}.Packet;
-import net.minecraft.server.v${nmsVersion}.IChatBaseComponent;
-	<#else>
-import net.minecraft.network.chat.IChatBaseComponent;
-import net.minecraft.network.protocol.Packet;
-import net.minecraft.server.level.EntityPlayer;
-	</#if>
-</#if>
+<#include "NmsAccessors.ftl">
+import ${nms.EntityPlayer};
+import ${nms.IChatBaseComponent};
+import ${nms.Packet};
 
 import org.bukkit.craftbukkit.v${nmsVersion}.entity.CraftPlayer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.netty.channel.Channel;
 
 /*
  * NOTE: Generated code !! DO NOT EDIT !!
@@ -44,7 +36,7 @@ import org.jetbrains.annotations.NotNull;
  */
 public final class Utils_${nmsVersion} implements IUtils
 {
-	static <#if mojangMapped>ServerPlayer<#else>EntityPlayer</#if> getHandle(final @NotNull Player player)
+	static ${simple(nms.EntityPlayer)} getHandle(final @NotNull Player player)
 	{
 		return ((CraftPlayer) player).getHandle();
 	}
@@ -52,31 +44,28 @@ public final class Utils_${nmsVersion} implements IUtils
 	@Override
 	public int getPing(final @NotNull Player player)
 	{
-		<#if mcVersion < 100170000>
-		return getHandle(player).ping;
-		<#else>
+		<#if features.playerGetPing>
 		return player.getPing();
+		<#else>
+		return getHandle(player).${member.ping};
 		</#if>
 	}
 
 	@Override
 	public void sendPacket(final @NotNull Player player, final @NotNull Object packet)
 	{
-		getHandle(player).
-		<#if mojangMapped>
-			connection.send((Packet<?>) packet);
-		<#else>
-			<#if mcVersion < 100170000>playerConnection<#else>b</#if>.sendPacket((Packet<?>) packet);
-		</#if>
+		getHandle(player).${member.playerConnection}.${member.sendPacket}((Packet<?>) packet);
+	}
+
+	@Override
+	public @Nullable Channel getChannel(final @NotNull Player player)
+	{
+		return getHandle(player).${member.playerConnection}.${member.networkManager}.${member.channel};
 	}
 
 	@Override
 	public Object jsonToIChatComponent(@NotNull String json)
 	{
-		<#if mojangMapped>
-		return Component.Serializer.fromJson(json);
-		<#else>
-		return IChatBaseComponent.ChatSerializer.a(json);
-		</#if>
+		return ${simple(nms.IChatBaseComponent)}.${member.chatSerializerFromJson}(json);
 	}
 }
\ No newline at end of file
@@ -27,10 +27,19 @@
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.logging.Logger;
 
+/**
+ * The reflection calls are done through method handles, they are looked up once and adapted to generic (Object) signatures.
+ */
 @SuppressWarnings("ConstantConditions")
 public final class NBTItemStackSerializer_Reflection implements ItemStackSerializer
 {
@@ -132,6 +141,89 @@ else if(MCVersion.isNewerOrEqualThan(MCVersion.MC_NMS_1_14_R1))
 		//endregion
 	}
 
+	//region Method Handles
+	private static final MethodHandle NEW_NBT_TAG_COMPOUND      = toGenericHandle(CLASS_NBT_TAG_COMPOUND);
+	private static final MethodHandle NEW_NBT_TAG_LIST          = toGenericHandle(CLASS_NBT_TAG_LIST);
+	private static final MethodHandle NEW_NMS_ITEM_STACK        = toGenericHandle(CONSTRUCTOR_NMS_ITEM_STACK);
+	private static final MethodHandle NBT_TAG_C_SET_INT         = toGenericHandle(METHOD_NBT_TAG_C_SET_INT, true);
+	private static final MethodHandle NBT_TAG_C_SET_BYTE        = toGenericHandle(METHOD_NBT_TAG_C_SET_BYTE, true);
+	private static final MethodHandle NBT_TAG_C_SET_NBT_BASE    = toGenericHandle(METHOD_NBT_TAG_C_SET_NBT_BASE, true);
+	private static final MethodHandle NBT_TAG_LIST_ADD          = toGenericHandle(METHOD_NBT_TAG_LIST_ADD, true);
+	private static final MethodHandle NBT_COMP_STREAM_WRITE     = toGenericHandle(METHOD_NBT_COMP_STEAM_A, true);
+	private static final MethodHandle NBT_COMP_STREAM_READ      = toGenericHandle(METHOD_NBT_COMP_STREAM_A2);
+	private static final MethodHandle SAVE                      = toGenericHandle(METHOD_SAVE, true);
+	private static final MethodHandle AS_NMS_COPY               = toGenericHandle(METHOD_AS_NMS_COPY);
+	private static final MethodHandle AS_BUKKIT_COPY            = toGenericHandle(METHOD_AS_BUKKIT_COPY);
+	private static final MethodHandle GET_INT                   = toGenericHandle(METHOD_GET_INT);
+	private static final MethodHandle GET_BYTE                  = toGenericHandle(METHOD_GET_BYTE);
+	private static final MethodHandle HAS_KEY_OF_TYPE           = toGenericHandle(METHOD_HAS_KEY_OF_TYPE);
+	private static final MethodHandle GET_COMPOUND              = toGenericHandle(METHOD_GET_COMPOUND);
+	private static final MethodHandle GET_COMPOUND_LIST         = toGenericHandle(METHOD_GET_COMPOUND_LIST);
+	private static final MethodHandle GET_COMPOUND_FROM_LIST    = toGenericHandle(METHOD_GET_COMPOUND_FROM_LIST);
+	private static final MethodHandle CREATE_STACK              = toGenericHandle(METHOD_CREATE_STACK);
+	private static final MethodHandle NBT_TAG_LIST_SIZE         = toGenericHandle(METHOD_NBT_TAG_LIST_SIZE);
+	private static final MethodHandle DATA_FIXER_UPDATE         = toGenericHandle(METHOD_DATA_FIXER_UPDATE);
+
+	/**
+	 * Converts the handle to a type that only uses Object for parameters and return values, so it can be called with invokeExact.
+	 *
+	 * @param discardResult True to drop the return value. Used for methods that only return a value on some MC versions.
+	 */
+	private static @NotNull MethodHandle toGeneric(final @NotNull MethodHandle handle, final boolean discardResult)
+	{
+		MethodType type = handle.type().generic();
+		if(discardResult || handle.type().returnType() == void.class) type = type.changeReturnType(void.class);
+		return handle.asType(type);
+	}
+
+	private static @Nullable MethodHandle toGenericHandle(final @Nullable Method method)
+	{
+		return toGenericHandle(method, false);
+	}
+
+	private static @Nullable MethodHandle toGenericHandle(final @Nullable Method method, final boolean discardResult)
+	{
+		if(method == null) return null;
+		try
+		{
+			return toGeneric(MethodHandles.lookup().unreflect(method), discardResult);
+		}
+		catch(IllegalAccessException e)
+		{
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	private static @Nullable MethodHandle toGenericHandle(final @Nullable Constructor<?> constructor)
+	{
+		if(constructor == null) return null;
+		try
+		{
+			return toGeneric(MethodHandles.lookup().unreflectConstructor(constructor), false);
+		}
+		catch(IllegalAccessException e)
+		{
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	private static @Nullable MethodHandle toGenericHandle(final @Nullable Class<?> clazz)
+	{
+		if(clazz == null) return null;
+		try
+		{
+			return toGeneric(MethodHandles.lookup().findConstructor(clazz, MethodType.methodType(void.class)), false);
+		}
+		catch(NoSuchMethodException | IllegalAccessException e)
+		{
+			e.printStackTrace();
+		}
+		return null;
+	}
+	//endregion
+
 	private Logger logger = null;
 
 	@Override
@@ -148,17 +240,17 @@ public void setLogger(@Nullable Logger logger)
 		}
 	}
 
-	private void convertOldFormatToNew(Object localNBTTagCompound, int size) throws Exception
+	private void convertOldFormatToNew(Object localNBTTagCompound, int size) throws Throwable
 	{
-		Object nbtItemList = CLASS_NBT_TAG_LIST.newInstance();
-		METHOD_NBT_TAG_C_SET_NBT_BASE.invoke(localNBTTagCompound, "Inventory", nbtItemList);
+		Object nbtItemList = (Object) NEW_NBT_TAG_LIST.invokeExact();
+		NBT_TAG_C_SET_NBT_BASE.invokeExact(localNBTTagCompound, (Object) "Inventory", nbtItemList);
 		for(int i = 0; i < size; i++)
 		{
-			if((boolean) METHOD_HAS_KEY_OF_TYPE.invoke(localNBTTagCompound, String.valueOf(i), 10))
+			if((boolean) (Object) HAS_KEY_OF_TYPE.invokeExact(localNBTTagCompound, (Object) String.valueOf(i), (Object) 10))
 			{
-				Object itemNBTCompound = METHOD_GET_COMPOUND.invoke(localNBTTagCompound, String.valueOf(i));
-				METHOD_NBT_TAG_C_SET_BYTE.invoke(itemNBTCompound, "Slot", (byte) i);
-				METHOD_NBT_TAG_LIST_ADD.invoke(nbtItemList, itemNBTCompound);
+				Object itemNBTCompound = (Object) GET_COMPOUND.invokeExact(localNBTTagCompound, (Object) String.valueOf(i));
+				NBT_TAG_C_SET_BYTE.invokeExact(itemNBTCompound, (Object) "Slot", (Object) (byte) i);
+				NBT_TAG_LIST_ADD.invokeExact(nbtItemList, itemNBTCompound);
 			}
 		}
 	}
@@ -176,53 +268,81 @@ public ItemStack[] deserialize(byte[] data)
 		{
 			try
 			{
-				Object localNBTTagCompound = METHOD_NBT_COMP_STREAM_A2.invoke(null, new ByteArrayInputStream(data));
-				int size = (int) METHOD_GET_INT.invoke(localNBTTagCompound, "size"), dataVersion = CURRENT_DATA_VERSION;
-				if((boolean) METHOD_HAS_KEY_OF_TYPE.invoke(localNBTTagCompound, "DataVersion", 3)) dataVersion = (int) METHOD_GET_INT.invoke(localNBTTagCompound, "DataVersion");
-				if(!(boolean) METHOD_HAS_KEY_OF_TYPE.invoke(localNBTTagCompound, "Inventory", 9)) convertOldFormatToNew(localNBTTagCompound, size);
-				if(MCVersion.isNewerOrEqualThan(MCVersion.MC_1_13) && dataVersion < CURRENT_DATA_VERSION)
-				{ // MC 1.13 has moved the data-format update code out of the deserializer, so it needs to be done manually
-					localNBTTagCompound = METHOD_DATA_FIXER_UPDATE.invoke(null, DATA_FIXER, ENUM_DATA_FIX_TYPE, localNBTTagCompound, dataVersion);
+				return deserializeInventory(data);
+			}
+			catch(Throwable e)
+			{
+				e.printStackTrace();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public @NotNull List<ItemStack[]> deserializeAll(final @NotNull Collection<byte[]> data)
+	{
+		List<ItemStack[]> inventories = new ArrayList<>(data.size());
+		for(byte[] inventoryData : data)
+		{
+			ItemStack[] inventory = null;
+			if(inventoryData != null)
+			{
+				try
+				{
+					inventory = deserializeInventory(inventoryData);
 				}
-				ItemStack[] its = new ItemStack[size];
-				Object nbtItemList = METHOD_GET_COMPOUND_LIST.invoke(localNBTTagCompound, "Inventory", 10);
-				int listSize = (int) METHOD_NBT_TAG_LIST_SIZE.invoke(nbtItemList);
-				for(int i = 0; i < listSize; i++)
+				catch(Throwable e)
 				{
-					Object compound = METHOD_GET_COMPOUND_FROM_LIST.invoke(nbtItemList, i);
-					byte slot = (byte) METHOD_GET_BYTE.invoke(compound, "Slot");
-					try
-					{
-						its[slot] = deserializeNBTCompound(compound);
-					}
-					catch(Exception ignored)
-					{
-						if(logger != null) logger.warning("Failed to restore item on slot " + i + " with json:\n" + compound.toString());
-					}
+					if(logger != null) logger.warning("Failed to deserialize inventory! " + e);
 				}
-				return its;
 			}
-			catch(Exception e)
+			inventories.add(inventory);
+		}
+		return inventories;
+	}
+
+	private @NotNull ItemStack[] deserializeInventory(final @NotNull byte[] data) throws Throwable
+	{
+		Object localNBTTagCompound = (Object) NBT_COMP_STREAM_READ.invokeExact((Object) new ByteArrayInputStream(data));
+		int size = (int) (Object) GET_INT.invokeExact(localNBTTagCompound, (Object) "size"), dataVersion = CURRENT_DATA_VERSION;
+		if((boolean) (Object) HAS_KEY_OF_TYPE.invokeExact(localNBTTagCompound, (Object) "DataVersion", (Object) 3)) dataVersion = (int) (Object) GET_INT.invokeExact(localNBTTagCompound, (Object) "DataVersion");
+		if(!(boolean) (Object) HAS_KEY_OF_TYPE.invokeExact(localNBTTagCompound, (Object) "Inventory", (Object) 9)) convertOldFormatToNew(localNBTTagCompound, size);
+		if(MCVersion.isNewerOrEqualThan(MCVersion.MC_1_13) && dataVersion < CURRENT_DATA_VERSION)
+		{ // MC 1.13 has moved the data-format update code out of the deserializer, so it needs to be done manually
+			localNBTTagCompound = (Object) DATA_FIXER_UPDATE.invokeExact(DATA_FIXER, (Object) ENUM_DATA_FIX_TYPE, localNBTTagCompound, (Object) dataVersion);
+		}
+		ItemStack[] its = new ItemStack[size];
+		Object nbtItemList = (Object) GET_COMPOUND_LIST.invokeExact(localNBTTagCompound, (Object) "Inventory", (Object) 10);
+		int listSize = (int) (Object) NBT_TAG_LIST_SIZE.invokeExact(nbtItemList);
+		for(int i = 0; i < listSize; i++)
+		{
+			Object compound = (Object) GET_COMPOUND_FROM_LIST.invokeExact(nbtItemList, (Object) i);
+			byte slot = (byte) (Object) GET_BYTE.invokeExact(compound, (Object) "Slot");
+			try
 			{
-				e.printStackTrace();
+				its[slot] = deserializeNBTCompound(compound);
+			}
+			catch(Throwable ignored)
+			{
+				if(logger != null) logger.warning("Failed to restore item on slot " + i + " with json:\n" + compound.toString());
 			}
 		}
-		return null;
+		return its;
 	}
 
 	@SuppressWarnings({ "ConstantConditions", "Duplicates" })
-	private static @Nullable ItemStack deserializeNBTCompound(@NotNull Object compound) throws Exception
+	private static @Nullable ItemStack deserializeNBTCompound(@NotNull Object compound) throws Throwable
 	{
 		Object nmsItemStack;
 		if(MCVersion.isNewerOrEqualThan(MCVersion.MC_1_11) && MCVersion.isOlderThan(MCVersion.MC_1_13))
 		{
-			nmsItemStack = CONSTRUCTOR_NMS_ITEM_STACK.newInstance(compound);
+			nmsItemStack = (Object) NEW_NMS_ITEM_STACK.invokeExact(compound);
 		}
 		else
 		{
-			nmsItemStack = METHOD_CREATE_STACK.invoke(null, compound);
+			nmsItemStack = (Object) CREATE_STACK.invokeExact(compound);
 		}
-		return (nmsItemStack != null) ? (ItemStack) METHOD_AS_BUKKIT_COPY.invoke(null, nmsItemStack) : null;
+		return (nmsItemStack != null) ? (ItemStack) (Object) AS_BUKKIT_COPY.invokeExact(nmsItemStack) : null;
 	}
 
 	/**
@@ -237,32 +357,11 @@ public byte[] serialize(ItemStack[] itemStacks)
 		byte[] ba = null;
 		if(itemStacks != null)
 		{
-			try(ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(); DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream))
+			try
 			{
-				//noinspection ConstantConditions
-				Object localNBTTagCompound = CLASS_NBT_TAG_COMPOUND.newInstance();
-				METHOD_NBT_TAG_C_SET_INT.invoke(localNBTTagCompound, "size", itemStacks.length);
-				METHOD_NBT_TAG_C_SET_INT.invoke(localNBTTagCompound, "DataVersion", CURRENT_DATA_VERSION);
-				Object nbtItemList = CLASS_NBT_TAG_LIST.newInstance();
-				METHOD_NBT_TAG_C_SET_NBT_BASE.invoke(localNBTTagCompound, "Inventory", nbtItemList);
-				for(int i = 0, used = -1; i < itemStacks.length; i++)
-				{
-					if(itemStacks[i] != null)
-					{
-						Object itemNBTCompound = CLASS_NBT_TAG_COMPOUND.newInstance();
-						METHOD_NBT_TAG_C_SET_BYTE.invoke(itemNBTCompound, "Slot", (byte) i);
-						METHOD_SAVE.invoke(METHOD_AS_NMS_COPY.invoke(null, itemStacks[i]), itemNBTCompound);
-						if(MCVersion.isOlderThan(MCVersion.MC_1_14))
-							METHOD_NBT_TAG_LIST_ADD.invoke(nbtItemList, itemNBTCompound);
-						else
-							METHOD_NBT_TAG_LIST_ADD.invoke(nbtItemList, ++used, itemNBTCompound);
-					}
-				}
-				METHOD_NBT_COMP_STEAM_A.invoke(null, localNBTTagCompound, dataOutputStream);
-				dataOutputStream.flush();
-				ba = byteArrayOutputStream.toByteArray();
+				ba = serializeInventory(itemStacks, (Object) NEW_NBT_TAG_COMPOUND.invokeExact(), new ByteArrayOutputStream());
 			}
-			catch(Exception e)
+			catch(Throwable e)
 			{
 				e.printStackTrace();
 			}
@@ -270,6 +369,69 @@ public byte[] serialize(ItemStack[] itemStacks)
 		return ba;
 	}
 
+	/**
+	 * Serializes multiple inventories. The root NBT compound and the output buffer are reused for all the inventories.
+	 *
+	 * @param inventories The ItemStack arrays that should be serialized.
+	 * @return The serialized inventories, in the same order as the input. An element is null if its serialization failed.
+	 */
+	@Override
+	public @NotNull List<byte[]> serializeAll(final @NotNull Collection<ItemStack[]> inventories)
+	{
+		List<byte[]> data = new ArrayList<>(inventories.size());
+		Object localNBTTagCompound = null;
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+		for(ItemStack[] itemStacks : inventories)
+		{
+			byte[] ba = null;
+			if(itemStacks != null)
+			{
+				try
+				{
+					if(localNBTTagCompound == null) localNBTTagCompound = (Object) NEW_NBT_TAG_COMPOUND.invokeExact();
+					ba = serializeInventory(itemStacks, localNBTTagCompound, buffer);
+				}
+				catch(Throwable e)
+				{
+					if(logger != null) logger.warning("Failed to serialize inventory! " + e);
+				}
+			}
+			data.add(ba);
+		}
+		return data;
+	}
+
+	/**
+	 * @param itemStacks The ItemStacks that should be serialized.
+	 * @param localNBTTagCompound The root compound. All its values are overwritten, so it can be reused.
+	 * @param buffer The buffer the compressed NBT data is written to. Gets reset before it is used.
+	 * @return The serialized ItemStacks.
+	 */
+	private static @NotNull byte[] serializeInventory(final @NotNull ItemStack[] itemStacks, final @NotNull Object localNBTTagCompound, final @NotNull ByteArrayOutputStream buffer) throws Throwable
+	{
+		NBT_TAG_C_SET_INT.invokeExact(localNBTTagCompound, (Object) "size", (Object) itemStacks.length);
+		NBT_TAG_C_SET_INT.invokeExact(localNBTTagCompound, (Object) "DataVersion", (Object) CURRENT_DATA_VERSION);
+		Object nbtItemList = (Object) NEW_NBT_TAG_LIST.invokeExact();
+		NBT_TAG_C_SET_NBT_BASE.invokeExact(localNBTTagCompound, (Object) "Inventory", nbtItemList);
+		boolean legacyListAdd = MCVersion.isOlderThan(MCVersion.MC_1_14);
+		for(int i = 0, used = -1; i < itemStacks.length; i++)
+		{
+			if(itemStacks[i] != null)
+			{
+				Object itemNBTCompound = (Object) NEW_NBT_TAG_COMPOUND.invokeExact();
+				NBT_TAG_C_SET_BYTE.invokeExact(itemNBTCompound, (Object) "Slot", (Object) (byte) i);
+				SAVE.invokeExact((Object) AS_NMS_COPY.invokeExact((Object) itemStacks[i]), itemNBTCompound);
+				if(legacyListAdd)
+					NBT_TAG_LIST_ADD.invokeExact(nbtItemList, itemNBTCompound);
+				else
+					NBT_TAG_LIST_ADD.invokeExact(nbtItemList, (Object) (++used), itemNBTCompound);
+			}
+		}
+		buffer.reset();
+		NBT_COMP_STREAM_WRITE.invokeExact(localNBTTagCompound, (Object) buffer);
+		return buffer.toByteArray();
+	}
+
 	@Override
 	public boolean checkIsMCVersionCompatible()
 	{
@@ -18,7 +18,7 @@
 package at.pcgamingfreaks.Bukkit.Particles;
 
 import at.pcgamingfreaks.Bukkit.MCVersion;
-import at.pcgamingfreaks.Bukkit.Util.IUtils;
+import at.pcgamingfreaks.Bukkit.Util.PacketBatcher;
 import at.pcgamingfreaks.Reflection;
 
 import org.bukkit.Location;
@@ -86,7 +86,7 @@ protected void spawnParticle(Location location, double visibleRange, Object part
 			// Getting entitys from a world sometimes returns players which are not actually in that world, so they need to be verified. Also checking world.equals(otherWorld) is sometimes not reliable (on MC 1.11).
 			if(player.getLocation().getWorld().getName().equalsIgnoreCase(worldName) && player.getLocation().distanceSquared(location) < visibleRangeSquared)
 			{
-				IUtils.INSTANCE.sendPacket(player, particlePacket);
+				PacketBatcher.sendPacket(player, particlePacket);
 			}
 		}
 	}
@@ -23,6 +23,9 @@
 
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import io.netty.channel.Channel;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -90,6 +93,27 @@ public void sendPacket(@NotNull Player player, @NotNull Object packet)
 		}
 	}
 
+	@Override
+	public @Nullable Channel getChannel(final @NotNull Player player)
+	{
+		if(NettyChannel.CHANNEL == null) return null;
+		Object handle = NmsReflector.getHandle(player);
+		if(handle != null && handle.getClass() == ENTITY_PLAYER)
+		{
+			try
+			{
+				Object connection = PLAYER_CONNECTION.get(handle);
+				Object networkManager = (connection == null) ? null : NettyChannel.NETWORK_MANAGER.get(connection);
+				return (networkManager == null) ? null : (Channel) NettyChannel.CHANNEL.get(networkManager);
+			}
+			catch(IllegalAccessException e)
+			{
+				e.printStackTrace();
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public Object jsonToIChatComponent(final @NotNull String json)
 	{
@@ -103,4 +127,26 @@ public Object jsonToIChatComponent(final @NotNull String json)
 		}
 		return null;
 	}
-}
\ No newline at end of file
+
+	// Separate class so that the netty classes are only loaded if the channel is requested (MC 1.7 uses a relocated netty)
+	private static final class NettyChannel
+	{
+		// Looked up by type since the field names are obfuscated on newer versions
+		static final Field NETWORK_MANAGER = (PLAYER_CONNECTION == null) ? null : getFieldOfType(PLAYER_CONNECTION.getType(), NmsReflector.INSTANCE.getNmsClass("NetworkManager"));
+		static final Field CHANNEL = (NETWORK_MANAGER == null) ? null : getFieldOfType(NETWORK_MANAGER.getType(), Channel.class);
+
+		private static @Nullable Field getFieldOfType(final @NotNull Class<?> clazz, final @Nullable Class<?> type)
+		{
+			if(type == null) return null;
+			for(Field field : Reflection.getFieldsIncludeParents(clazz))
+			{
+				if(type.isAssignableFrom(field.getType()))
+				{
+					field.setAccessible(true);
+					return field;
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -28,11 +28,14 @@
 import at.pcgamingfreaks.ConsoleColor;
 import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
 import at.pcgamingfreaks.PluginLib.Database.DatabaseConnectionPoolBase;
+import at.pcgamingfreaks.PluginLib.EnablePipeline;
 import at.pcgamingfreaks.PluginLib.PluginLibrary;
 import at.pcgamingfreaks.Reflection;
 import at.pcgamingfreaks.StringUtils;
 import at.pcgamingfreaks.Updater.UpdateResponseCallback;
 import at.pcgamingfreaks.Version;
+import at.pcgamingfreaks.YamlFileManager;
+import at.pcgamingfreaks.YamlFileStatistics;
 
 import org.bukkit.Bukkit;
 import org.bukkit.event.HandlerList;
@@ -82,10 +85,22 @@ public void onEnable()
 			this.getLogger().warning(ConsoleColor.RED + "You are using an unknown version of Minecraft! Please check for updates! (Your MC version: " + Bukkit.getVersion() + ") " + ConsoleColor.RESET);
 		}
 
-		this.databaseConnectionPool = DatabaseConnectionPoolBase.startPool(this.config, this.getLogger(), this.getDataFolder());
+		// Independent startup steps are executed in parallel, the lib is marked as ready once all of them are done
+		new EnablePipeline(getLogger())
+				.addStep("Database", () -> this.databaseConnectionPool = DatabaseConnectionPoolBase.startPool(this.config, this.getLogger(), this.getDataFolder()))
+				.addStep("ItemNames", () -> itemNameResolver = new at.pcgamingfreaks.PluginLib.Bukkit.ItemNameResolver(this))
+				.addStep("CommonLanguage", this::loadCommonLanguage)
+				.run();
 
-		itemNameResolver = new at.pcgamingfreaks.PluginLib.Bukkit.ItemNameResolver(this);
+		getServer().getPluginManager().registerEvents(new GuiListener(), this);
+		getServer().getScheduler().runTask(this, () -> YamlFileStatistics.logSummary(getLogger(), 5)); // Runs once all plugins have been enabled
+
+		setInstance(this);
+		this.getLogger().info(StringUtils.getPluginEnabledMessage(this.getDescription().getFullName()));
+	}
 
+	private void loadCommonLanguage()
+	{
 		Language commonLanguage = new Language(this, 2, 2, File.separator + "lang", "common_");
 		commonLanguage.load(config.getLanguage(), config.getLanguageUpdateMode());
 		if(commonLanguage.isLoaded())
@@ -101,18 +116,16 @@ public void onEnable()
 				e.printStackTrace();
 			}
 		}
-
-		getServer().getPluginManager().registerEvents(new GuiListener(), this);
-
-		setInstance(this);
-		this.getLogger().info(StringUtils.getPluginEnabledMessage(this.getDescription().getFullName()));
 	}
 
 	@Override
 	public void onDisable()
 	{
 		setInstance(null);
+		YamlFileManager.shutdownAsyncSaves(); // Plugins depending on the lib are disabled before the lib, write everything they have queued
+		Reflection.clearCache(); // Don't keep the classes of disabled plugins referenced, they would prevent their class loaders from being unloaded
 		if(config == null) return;
+		config.close();
 		updater.autoUpdate();
 		HandlerList.unregisterAll(this); // Stop the listeners
 		if(this.databaseConnectionPool != null) this.databaseConnectionPool.shutdown();
@@ -134,6 +147,6 @@ Config getConfiguration()
 	@Override
 	public @Nullable ConnectionProvider getConnectionProvider()
 	{
-		return databaseConnectionPool;
+		return (databaseConnectionPool != null) ? databaseConnectionPool.getConnectionProvider() : null;
 	}
 }
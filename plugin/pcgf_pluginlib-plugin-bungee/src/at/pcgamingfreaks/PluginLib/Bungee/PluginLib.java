@@ -23,6 +23,7 @@
 import at.pcgamingfreaks.*;
 import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
 import at.pcgamingfreaks.PluginLib.Database.DatabaseConnectionPoolBase;
+import at.pcgamingfreaks.PluginLib.EnablePipeline;
 import at.pcgamingfreaks.PluginLib.PluginLibrary;
 
 import net.md_5.bungee.api.plugin.Plugin;
@@ -34,6 +35,7 @@
 import lombok.Setter;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 public final class PluginLib extends Plugin implements PluginLibrary
 {
@@ -59,9 +61,19 @@ public void onEnable()
 		updater.setConfig(config);
 		updater.autoUpdate();
 
-		this.databaseConnectionPool = DatabaseConnectionPoolBase.startPool(this.config, this.getLogger(), this.getDataFolder());
+		// Independent startup steps are executed in parallel, the lib is marked as ready once all of them are done
+		new EnablePipeline(getLogger())
+				.addStep("Database", () -> this.databaseConnectionPool = DatabaseConnectionPoolBase.startPool(this.config, this.getLogger(), this.getDataFolder()))
+				.addStep("CommonLanguage", this::loadCommonLanguage)
+				.run();
+		getProxy().getScheduler().schedule(this, () -> YamlFileStatistics.logSummary(getLogger(), 5), 5, TimeUnit.SECONDS); // Bungee has no "startup done" event, give the other plugins time to load their files
 
+		setInstance(this);
+		this.getLogger().info(StringUtils.getPluginEnabledMessage(this.getDescription().getName(), version));
+	}
 
+	private void loadCommonLanguage()
+	{
 		Language commonLanguage = new at.pcgamingfreaks.Bungee.Language(this, 2, File.separator + "lang", "common_");
 		commonLanguage.load(config.getLanguage(), config.getLanguageUpdateMode());
 		if(commonLanguage.isLoaded())
@@ -77,16 +89,16 @@ public void onEnable()
 				e.printStackTrace();
 			}
 		}
-
-		setInstance(this);
-		this.getLogger().info(StringUtils.getPluginEnabledMessage(this.getDescription().getName(), version));
 	}
 
 	@Override
 	public void onDisable()
 	{
 		setInstance(null);
+		YamlFileManager.shutdownAsyncSaves(); // Plugins depending on the lib are disabled before the lib, write everything they have queued
+		Reflection.clearCache(); // Don't keep the classes of disabled plugins referenced, they would prevent their class loaders from being unloaded
 		if(config == null) return;
+		config.close();
 		updater.autoUpdate();
 		if(this.databaseConnectionPool != null) this.databaseConnectionPool.shutdown();
 		if(updater != null) updater.waitForAsyncOperation();
@@ -96,6 +108,6 @@ public void onDisable()
 	@Override
 	public @Nullable ConnectionProvider getConnectionProvider()
 	{
-		return databaseConnectionPool;
+		return (databaseConnectionPool != null) ? databaseConnectionPool.getConnectionProvider() : null;
 	}
 }
\ No newline at end of file
@@ -17,12 +17,18 @@
 
 package at.pcgamingfreaks.PluginLib.Database;
 
+import at.pcgamingfreaks.Database.AsyncDatabaseExecutor;
 import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
+import at.pcgamingfreaks.Database.ConnectionProvider.LimitedConnectionProvider;
+import at.pcgamingfreaks.Database.Metrics.ConnectionPoolMetrics;
+import at.pcgamingfreaks.Database.Metrics.MonitoredConnectionProvider;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 
 public interface DatabaseConnectionPool
 {
@@ -48,4 +54,51 @@
 	 * @return The connection provider represented by the pool.
 	 */
 	@NotNull ConnectionProvider getConnectionProvider();
+
+	/**
+	 * Gets the connection provider for a plugin. The amount of connections a single plugin can hold at the same time is limited,
+	 * so a single plugin can't take all the connections of the pool. Connections held for a long time are reported as possible leaks.
+	 *
+	 * @param pluginName The name of the plugin using the connection provider.
+	 * @return The connection provider for the plugin.
+	 */
+	@NotNull LimitedConnectionProvider getConnectionProvider(@NotNull String pluginName);
+
+	/**
+	 * Gets the connection providers of all plugins, e.g. to check which plugin is holding which connections.
+	 *
+	 * @return The connection providers of all plugins using them.
+	 */
+	@NotNull Collection<LimitedConnectionProvider> getPluginConnectionProviders();
+
+	/**
+	 * Gets the metrics of the connection pool (active, idle and pending connections, wait times for connections, ...).
+	 *
+	 * @return The metrics of the connection pool.
+	 */
+	@NotNull ConnectionPoolMetrics getPoolMetrics();
+
+	/**
+	 * Gets the connection provider measuring the execution times of the statements.
+	 * The connection provider returned by {@link #getConnectionProvider()} is this provider if it is available.
+	 *
+	 * @return The monitored connection provider. Null if the pool failed to start up.
+	 */
+	@Nullable MonitoredConnectionProvider getMonitoredConnectionProvider();
+
+	/**
+	 * Gets the async executor of a plugin. Every plugin gets its own executor (with its own queue), so a plugin flooding the database can't stall the others.
+	 * The executor is created on first use and shut down together with the pool. Do not close it yourself!
+	 *
+	 * @param pluginName The name of the plugin using the executor.
+	 * @return The async database executor for the plugin.
+	 */
+	@NotNull AsyncDatabaseExecutor getAsyncExecutor(@NotNull String pluginName);
+
+	/**
+	 * Gets all the async executors created for the pool. Use this to access the queue metrics of the plugins.
+	 *
+	 * @return The async executors of all plugins using them.
+	 */
+	@NotNull Collection<AsyncDatabaseExecutor> getAsyncExecutors();
 }
\ No newline at end of file
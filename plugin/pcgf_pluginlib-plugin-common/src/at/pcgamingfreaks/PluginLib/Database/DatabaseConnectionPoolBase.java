@@ -18,17 +18,26 @@
 package at.pcgamingfreaks.PluginLib.Database;
 
 import at.pcgamingfreaks.Configuration;
+import at.pcgamingfreaks.Database.AsyncDatabaseExecutor;
 import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
+import at.pcgamingfreaks.Database.ConnectionProvider.LimitedConnectionProvider;
+import at.pcgamingfreaks.Database.Metrics.ConnectionPoolMetrics;
+import at.pcgamingfreaks.Database.Metrics.MonitoredConnectionProvider;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 public abstract class DatabaseConnectionPoolBase implements DatabaseConnectionPool, ConnectionProvider
@@ -36,6 +45,11 @@ public abstract class DatabaseConnectionPoolBase implements DatabaseConnectionPo
 	protected final Configuration config;
 	protected final File dataFolder;
 	private final HikariDataSource dataSource;
+	private final ConnectionPoolMetrics poolMetrics = new ConnectionPoolMetrics();
+	private @Nullable MonitoredConnectionProvider monitoredConnectionProvider;
+	private final Map<String, AsyncDatabaseExecutor> asyncExecutors = new ConcurrentHashMap<>();
+	private final Map<String, LimitedConnectionProvider> pluginConnectionProviders = new ConcurrentHashMap<>();
+	private Logger logger = Logger.getLogger("PCGF_PluginLib");
 
 	public static DatabaseConnectionPoolBase startPool(Configuration configuration, Logger logger, File dataFolder)
 	{
@@ -43,7 +57,7 @@ public static DatabaseConnectionPoolBase startPool(Configuration configuration,
 		switch(configuration.getString("Database.Type", "off").toLowerCase(Locale.ROOT))
 		{
 			case "mysql": connectionPool = new MySQLConnectionPool(configuration, dataFolder); break;
-			case "sqlite": connectionPool = new SQLiteConnectionPool(configuration, dataFolder); break;
+			case "sqlite": connectionPool = new SQLiteConnectionPool(configuration, logger, dataFolder); break;
 			default: return null;
 		}
 		try
@@ -58,6 +72,8 @@ public static DatabaseConnectionPoolBase startPool(Configuration configuration,
 			connectionPool.close();
 			return null;
 		}
+		connectionPool.logger = logger;
+		connectionPool.monitoredConnectionProvider = new MonitoredConnectionProvider(connectionPool, logger, configuration.getBool("Database.StatementTiming", true), configuration.getInt("Database.SlowQueryThreshold", 0));
 		return connectionPool;
 	}
 
@@ -67,6 +83,7 @@ public DatabaseConnectionPoolBase(Configuration config, File dataFolder)
 		this.dataFolder = dataFolder;
 		HikariConfig poolConfig = getPoolConfig();
 		poolConfig.setPoolName("PCGF_PluginLib-Connection-Pool");
+		poolConfig.setMetricsTrackerFactory(poolMetrics);
 		poolConfig.addDataSourceProperty("useUnicode", "true");
 		poolConfig.addDataSourceProperty("characterEncoding", "utf-8");
 		poolConfig.addDataSourceProperty("cachePrepStmts", "true");
@@ -79,6 +96,10 @@ public DatabaseConnectionPoolBase(Configuration config, File dataFolder)
 
 	public void shutdown()
 	{
+		asyncExecutors.values().forEach(AsyncDatabaseExecutor::close); // Finish the queued work before the connections are gone
+		asyncExecutors.clear();
+		pluginConnectionProviders.values().forEach(LimitedConnectionProvider::shutdown);
+		pluginConnectionProviders.clear();
 		this.dataSource.close();
 	}
 
@@ -93,6 +114,70 @@ public void close() {} // This is empty on a purpose! Other plugins should not b
 	@Override
 	public @NotNull ConnectionProvider getConnectionProvider()
 	{
-		return this;
+		return (monitoredConnectionProvider != null) ? monitoredConnectionProvider : this;
+	}
+
+	@Override
+	public @NotNull ConnectionPoolMetrics getPoolMetrics()
+	{
+		return poolMetrics;
+	}
+
+	@Override
+	public @Nullable MonitoredConnectionProvider getMonitoredConnectionProvider()
+	{
+		return monitoredConnectionProvider;
+	}
+
+	@Override
+	public @NotNull AsyncDatabaseExecutor getAsyncExecutor(final @NotNull String pluginName)
+	{
+		return asyncExecutors.computeIfAbsent(pluginName, name -> new AsyncDatabaseExecutor(getConnectionProvider(name), name, Math.min(AsyncDatabaseExecutor.DEFAULT_CONCURRENCY, Math.max(getMaxConnectionsPerPlugin(), getMaxReadConnectionsPerPlugin())),
+		                                                                                     AsyncDatabaseExecutor.DEFAULT_MAX_PENDING_TASKS, AsyncDatabaseExecutor.DEFAULT_OVERFLOW_POLICY));
+	}
+
+	@Override
+	public @NotNull Collection<AsyncDatabaseExecutor> getAsyncExecutors()
+	{
+		return Collections.unmodifiableCollection(asyncExecutors.values());
+	}
+
+	@Override
+	public @NotNull LimitedConnectionProvider getConnectionProvider(final @NotNull String pluginName)
+	{
+		return pluginConnectionProviders.computeIfAbsent(pluginName, name -> new LimitedConnectionProvider(getConnectionProvider(), name, logger, getMaxConnectionsPerPlugin(), getMaxReadConnectionsPerPlugin(),
+		                                                                                                   config.getInt("Database.LeakDetectionThreshold", 0) * 1000L, LimitedConnectionProvider.DEFAULT_ACQUIRE_TIMEOUT_MILLIS));
+	}
+
+	@Override
+	public @NotNull Collection<LimitedConnectionProvider> getPluginConnectionProviders()
+	{
+		return Collections.unmodifiableCollection(pluginConnectionProviders.values());
+	}
+
+	/**
+	 * @return The size of the pool serving the read-only connections, if they don't come from the main pool. 0 if reads and writes share the main pool.
+	 */
+	protected int getReadPoolSize()
+	{
+		return 0;
+	}
+
+	private int getMaxConnectionsPerPlugin()
+	{
+		return getMaxConnectionsPerPlugin(dataSource.getMaximumPoolSize());
+	}
+
+	private int getMaxReadConnectionsPerPlugin()
+	{
+		int readPoolSize = getReadPoolSize();
+		return (readPoolSize > 0) ? getMaxConnectionsPerPlugin(readPoolSize) : 0;
+	}
+
+	private int getMaxConnectionsPerPlugin(final int poolSize)
+	{
+		int max = config.getInt("Database.MaxConnectionsPerPlugin", 0);
+		if(max <= 0) max = poolSize - 1; // Always leave one connection for the other plugins
+		return Math.max(1, Math.min(max, poolSize));
 	}
 }
\ No newline at end of file
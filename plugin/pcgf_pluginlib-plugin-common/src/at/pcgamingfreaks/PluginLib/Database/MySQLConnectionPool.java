@@ -43,6 +43,7 @@ protected HikariConfig getPoolConfig()
 		poolConfig.setPassword(config.getString("Database.SQL.Password", "minecraft"));
 		poolConfig.setMinimumIdle(1);
 		poolConfig.setMaximumPoolSize(config.getInt("Database.SQL.MaxConnections", 4));
+		if(config.getBool("Database.SQL.RewriteBatchedStatements", false)) poolConfig.addDataSourceProperty("rewriteBatchedStatements", "true"); // Sends batched inserts as multi row inserts
 		return poolConfig;
 	}
 
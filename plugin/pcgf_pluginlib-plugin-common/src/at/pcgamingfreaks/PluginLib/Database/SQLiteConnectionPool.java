@@ -18,18 +18,40 @@
 package at.pcgamingfreaks.PluginLib.Database;
 
 import at.pcgamingfreaks.Configuration;
+import at.pcgamingfreaks.Database.ConnectionProvider.SQLiteSettings;
 
 import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
 
 class SQLiteConnectionPool extends DatabaseConnectionPoolBase
 {
-	public SQLiteConnectionPool(Configuration config, File dataFolder)
+	private HikariDataSource readDataSource;
+
+	public SQLiteConnectionPool(Configuration config, Logger logger, File dataFolder)
 	{
 		super(config, dataFolder);
+		readDataSource = getSettings().createReadDataSource(logger, "PCGF_PluginLib-Read-Connection-Pool", getDatabasePath());
+	}
+
+	private SQLiteSettings getSettings()
+	{
+		SQLiteSettings settings = new SQLiteSettings();
+		settings.setReadConnections(config.getInt("Database.SQLite.ReadConnections", settings.getReadConnections()));
+		settings.setMmapSize(config.getInt("Database.SQLite.MmapSizeMiB", (int) (settings.getMmapSize() / (1024 * 1024))) * 1024L * 1024L);
+		settings.setCacheSize(-config.getInt("Database.SQLite.CacheSizeKiB", -settings.getCacheSize()));
+		return settings;
+	}
+
+	private String getDatabasePath()
+	{
+		return dataFolder.getAbsolutePath() + File.separator + "backpack.db";
 	}
 
 	@Override
@@ -44,11 +66,32 @@ protected HikariConfig getPoolConfig()
 			e.printStackTrace();
 			return null;
 		}
-		HikariConfig poolConfig = new HikariConfig();
-		poolConfig.setMaximumPoolSize(1);
-		poolConfig.setJdbcUrl("jdbc:sqlite:" + dataFolder.getAbsolutePath() + File.separator + "backpack.db");
-		poolConfig.setConnectionTestQuery("SELECT 1;");
-		return poolConfig;
+		return getSettings().createPoolConfig(getDatabasePath(), false);
+	}
+
+	@Override
+	public Connection getReadOnlyConnection() throws SQLException
+	{
+		HikariDataSource readDataSource = this.readDataSource;
+		return (readDataSource != null) ? readDataSource.getConnection() : getConnection();
+	}
+
+	@Override
+	protected int getReadPoolSize()
+	{
+		HikariDataSource readDataSource = this.readDataSource;
+		return (readDataSource != null) ? readDataSource.getMaximumPoolSize() : 0;
+	}
+
+	@Override
+	public void shutdown()
+	{
+		super.shutdown();
+		if(readDataSource != null)
+		{
+			readDataSource.close();
+			readDataSource = null;
+		}
 	}
 
 	@Override
@@ -0,0 +1,167 @@
+/*
+ *   Copyright (C) 2021 GeorgH93
+ *
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package at.pcgamingfreaks.PluginLib;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs the steps needed to enable the lib as a dependency graph.
+ * Steps without a dependency between them are executed in parallel on worker threads; {@link #run()} returns once all steps are done.
+ * Steps must not use APIs that are only allowed on the main thread.
+ */
+public final class EnablePipeline
+{
+	private final Logger logger;
+	private final Map<String, Step> steps = new LinkedHashMap<>();
+
+	public EnablePipeline(final @NotNull Logger logger)
+	{
+		this.logger = logger;
+	}
+
+	/**
+	 * Adds a step to the pipeline. The dependencies of the step must be added before the step itself.
+	 *
+	 * @param name The name of the step, used for the timing log.
+	 * @param action The code of the step.
+	 * @param dependencies The names of the steps that need to be completed before this step can run.
+	 * @return The pipeline, for chaining.
+	 */
+	public @NotNull EnablePipeline addStep(final @NotNull String name, final @NotNull Runnable action, final @NotNull String... dependencies)
+	{
+		if(steps.containsKey(name)) throw new IllegalArgumentException("There is already a step named " + name);
+		for(String dependency : dependencies)
+		{
+			if(!steps.containsKey(dependency)) throw new IllegalArgumentException("Unknown dependency " + dependency + " of step " + name);
+		}
+		steps.put(name, new Step(name, action, dependencies));
+		return this;
+	}
+
+	/**
+	 * Executes all steps and waits till they are done. Steps depending on a failed step are skipped.
+	 *
+	 * @return True if all steps completed successful. False if at least one step failed or has been skipped.
+	 */
+	public boolean run()
+	{
+		if(steps.isEmpty()) return true;
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(steps.size(), new ThreadFactory() { // The steps are mostly waiting for IO, so one thread per step
+			private final AtomicInteger threadId = new AtomicInteger();
+
+			@Override
+			public Thread newThread(final @NotNull Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "PCGF_PluginLib-Enable-" + threadId.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		boolean success = true;
+		try
+		{
+			Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+			for(Step step : steps.values()) // Dependencies are always added before the steps depending on them
+			{
+				CompletableFuture<?>[] dependencies = new CompletableFuture<?>[step.dependencies.length];
+				for(int i = 0; i < dependencies.length; i++)
+				{
+					dependencies[i] = futures.get(step.dependencies[i]);
+				}
+				futures.put(step.name, CompletableFuture.allOf(dependencies).thenRunAsync(step::execute, executor));
+			}
+			for(CompletableFuture<Void> future : futures.values())
+			{
+				try
+				{
+					future.join();
+				}
+				catch(CompletionException | CancellationException e)
+				{
+					success = false;
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		logTimings(System.nanoTime() - start);
+		return success;
+	}
+
+	private void logTimings(final long totalNanos)
+	{
+		StringBuilder builder = new StringBuilder("Enable steps done in ").append(TimeUnit.NANOSECONDS.toMillis(totalNanos)).append("ms (");
+		boolean first = true;
+		for(Step step : steps.values())
+		{
+			if(!first) builder.append(", ");
+			first = false;
+			builder.append(step.name).append(": ");
+			if(step.state == State.DONE) builder.append(TimeUnit.NANOSECONDS.toMillis(step.durationNanos)).append("ms");
+			else builder.append(step.state.name().toLowerCase(Locale.ROOT));
+		}
+		logger.info(builder.append(')').toString());
+	}
+
+	private final class Step
+	{
+		private final String name;
+		private final Runnable action;
+		private final String[] dependencies;
+		private volatile State state = State.SKIPPED;
+		private volatile long durationNanos = 0;
+
+		Step(final @NotNull String name, final @NotNull Runnable action, final @NotNull String[] dependencies)
+		{
+			this.name = name;
+			this.action = action;
+			this.dependencies = dependencies;
+		}
+
+		void execute()
+		{
+			long start = System.nanoTime();
+			try
+			{
+				action.run();
+				state = State.DONE;
+			}
+			catch(RuntimeException | Error e)
+			{
+				state = State.FAILED;
+				logger.warning("Enable step " + name + " failed!");
+				e.printStackTrace();
+				throw e;
+			}
+			finally
+			{
+				durationNanos = System.nanoTime() - start;
+			}
+		}
+	}
+
+	private enum State { DONE, FAILED, SKIPPED }
+}
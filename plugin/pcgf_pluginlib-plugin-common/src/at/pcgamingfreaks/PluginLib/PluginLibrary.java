@@ -17,6 +17,7 @@
 
 package at.pcgamingfreaks.PluginLib;
 
+import at.pcgamingfreaks.Database.AsyncDatabaseExecutor;
 import at.pcgamingfreaks.Database.ConnectionProvider.ConnectionProvider;
 import at.pcgamingfreaks.PluginLib.Database.DatabaseConnectionPool;
 import at.pcgamingfreaks.Version;
@@ -24,6 +25,9 @@
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.Collections;
+
 public interface PluginLibrary
 {
 	/**
@@ -47,4 +51,40 @@
 	 * @return The database connection pool connection provider. Null if failed to start up or disabled.
 	 */
 	@Nullable ConnectionProvider getConnectionProvider();
+
+	/**
+	 * Gets a connection provider of the provided database connection pool that is limited to the amount of connections a single plugin is allowed to hold.
+	 * Plugins should prefer this over {@link #getConnectionProvider()}, so they can't starve the other plugins using the pool.
+	 *
+	 * @param pluginName The name of the plugin using the connection provider.
+	 * @return The connection provider for the plugin. Null if failed to start up or disabled.
+	 */
+	default @Nullable ConnectionProvider getConnectionProvider(@NotNull String pluginName)
+	{
+		DatabaseConnectionPool pool = getDatabaseConnectionPool();
+		return (pool == null) ? null : pool.getConnectionProvider(pluginName);
+	}
+
+	/**
+	 * Gets the async database executor of a plugin, backed by the provided database connection pool.
+	 *
+	 * @param pluginName The name of the plugin using the executor.
+	 * @return The async database executor of the plugin. Null if the connection pool failed to start up or is disabled.
+	 */
+	default @Nullable AsyncDatabaseExecutor getAsyncDatabaseExecutor(@NotNull String pluginName)
+	{
+		DatabaseConnectionPool pool = getDatabaseConnectionPool();
+		return (pool == null) ? null : pool.getAsyncExecutor(pluginName);
+	}
+
+	/**
+	 * Gets the async database executors of all plugins, e.g. to check their queue metrics.
+	 *
+	 * @return The async database executors. Empty if the connection pool failed to start up or is disabled.
+	 */
+	default @NotNull Collection<AsyncDatabaseExecutor> getAsyncDatabaseExecutors()
+	{
+		DatabaseConnectionPool pool = getDatabaseConnectionPool();
+		return (pool == null) ? Collections.emptyList() : pool.getAsyncExecutors();
+	}
 }
\ No newline at end of file